@@ -0,0 +1,57 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one (restaurant, deal) pair into an {@link ActiveDealResponse}, from the parsed
+ * model objects and from a snapshot's columnar {@link DealStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActiveDealResponseMapperBenchmark {
+
+    private final ActiveDealResponseMapper mapper = new ActiveDealResponseMapperImpl();
+    private final List<Restaurant> restaurants = new ArrayList<>();
+    private final List<Deal> deals = new ArrayList<>();
+    private DealStore store;
+    private int next;
+
+    @Setup
+    public void setup() {
+        List<Restaurant> feed = SyntheticFeed.generate(1000, Jackson2ObjectMapperBuilder.json().build()).getRestaurants();
+        store = DealStore.of(feed);
+        for (Restaurant restaurant : feed) {
+            for (Deal deal : restaurant.getDeals()) {
+                restaurants.add(restaurant);
+                deals.add(deal);
+            }
+        }
+    }
+
+    @Benchmark
+    public ActiveDealResponse toResponse() {
+        next = next == deals.size() - 1 ? 0 : next + 1;
+        return mapper.toResponse(restaurants.get(next), deals.get(next));
+    }
+
+    @Benchmark
+    public ActiveDealResponse toResponseFromStore() {
+        next = next == store.size() - 1 ? 0 : next + 1;
+        return mapper.toResponse(store, next);
+    }
+}
@@ -0,0 +1,71 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.ContentCoding;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.service.DealsPipelineMetrics;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.customer.restaurantdeals.service.PayloadCompressor;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compressing the flat JSON {@code /api/deals} payload at noon, per coding and level (gzip level,
+ * Brotli quality): what every response pays when the server compresses on the fly, against serving
+ * the body a cached payload already compressed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class CompressionBenchmark {
+
+    @Param({"1000", "100000"})
+    public int dealCount;
+
+    @Param({"GZIP", "BR"})
+    public ContentCoding coding;
+
+    @Param({"1", "5", "9"})
+    public int level;
+
+    private PayloadCompressor compressor;
+    private byte[] body;
+    private RenderedDeals cached;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.EPOCH,
+                SyntheticFeed.generate(dealCount, json).getRestaurants());
+        Object payload = DealsPayloads.payload(DealsShape.FLAT, snapshot.getDealStore(),
+                snapshot.getDealIndex().activeAt(12 * 60), new ActiveDealResponseMapperImpl());
+        body = json.writeValueAsBytes(payload);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        compressor = new PayloadCompressor(new DealsPipelineMetrics(meterRegistry, 0), meterRegistry,
+                true, DataSize.ofBytes(0), level, level);
+        cached = new RenderedDeals(body, "\"benchmark\"", MediaType.APPLICATION_JSON, compressor);
+        cached.getEncodedBody(coding);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return compressor.compress(coding, body);
+    }
+
+    @Benchmark
+    public byte[] precompressed() {
+        return cached.getEncodedBody(coding);
+    }
+}
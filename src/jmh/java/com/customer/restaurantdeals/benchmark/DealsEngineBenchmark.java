@@ -0,0 +1,120 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.service.DealsPipelineMetrics;
+import com.customer.restaurantdeals.service.DealsResponseCache;
+import com.customer.restaurantdeals.service.RestaurantDealsService;
+import com.customer.restaurantdeals.service.RestaurantFeedCache;
+import com.customer.restaurantdeals.service.RestaurantFeedParser;
+import com.customer.restaurantdeals.service.UpstreamResilience;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.PeakWindow;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-time work of the deals engine over a synthetic feed: the {@code /api/deals} lookup
+ * through {@link RestaurantDealsService}, the peak window sweep and the per-snapshot index build.
+ * The upstream is stubbed in memory and the snapshot never expires, so no I/O is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class DealsEngineBenchmark {
+
+    private static final String[] QUERY_TIMES = {"7:30am", "11:00am", "1:15pm", "6:45pm", "11:30pm"};
+
+    private static final DealBatchRequest QUARTER_HOURS = new DealBatchRequest();
+
+    static {
+        List<String> times = new ArrayList<>();
+        for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute += 15) {
+            times.add(MinuteOfDay.format(minute));
+        }
+        QUARTER_HOURS.setTimes(times);
+        QUARTER_HOURS.setLightning(true);
+    }
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int dealCount;
+
+    private List<Restaurant> restaurants;
+    private RestaurantDealsService service;
+    private int next;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SyntheticFeed feed = SyntheticFeed.generate(dealCount, objectMapper);
+        restaurants = feed.getRestaurants();
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(feed.getJson())))
+                        .build()))
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        RestaurantFeedCache feedCache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(objectMapper),
+                resilience, meterRegistry, Duration.ofDays(365), Duration.ZERO, Duration.ZERO);
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(meterRegistry, 1.0);
+        service = new RestaurantDealsService(feedCache, new DealsResponseCache(objectMapper, meterRegistry, metrics),
+                new ActiveDealResponseMapperImpl(), metrics, 288, Integer.MAX_VALUE, 50, Sharding.SEQUENTIAL,
+                SuburbCentroids.EMPTY);
+        feedCache.getSnapshot().block();
+    }
+
+    @Benchmark
+    public List<ActiveDealResponse> activeDealsAtTime() {
+        next = next == QUERY_TIMES.length - 1 ? 0 : next + 1;
+        return service.getActiveDealsAtTime(QUERY_TIMES[next]).block();
+    }
+
+    /**
+     * The scheduling workload of {@code POST /api/deals/batch}: lightning deals at every quarter hour.
+     */
+    @Benchmark
+    public DealBatchResponse activeLightningDealsAtQuarterHours() {
+        return service.getActiveDealsAtTimes(QUARTER_HOURS).block();
+    }
+
+    @Benchmark
+    public PeakWindow peakWindow() {
+        return PeakWindow.of(restaurants);
+    }
+
+    @Benchmark
+    public FeedSnapshot buildSnapshot() {
+        return new FeedSnapshot(1, Instant.EPOCH, restaurants);
+    }
+}
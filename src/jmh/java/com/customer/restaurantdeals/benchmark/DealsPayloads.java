@@ -0,0 +1,43 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.GroupedDealsResponse;
+import com.customer.restaurantdeals.dto.RestaurantDealsResponse;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.snapshot.DealStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.DEALS;
+
+/**
+ * The objects {@code /api/deals} serializes for a set of active rows, in either shape, built the
+ * way {@code RestaurantDealsService} builds them.
+ */
+final class DealsPayloads {
+
+    private DealsPayloads() {}
+
+    static Object payload(DealsShape shape, DealStore store, int[] ordinals, ActiveDealResponseMapper mapper) {
+        if (shape == DealsShape.FLAT) {
+            List<ActiveDealResponse> deals = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                deals.add(mapper.toResponse(store, ordinal));
+            }
+            return Map.of(DEALS, deals);
+        }
+        List<RestaurantDealsResponse> restaurants = new ArrayList<>();
+        for (int from = 0, to; from < ordinals.length; from = to) {
+            int restaurant = store.restaurantOf(ordinals[from]);
+            to = from + 1;
+            while (to < ordinals.length && store.restaurantOf(ordinals[to]) == restaurant) {
+                to++;
+            }
+            restaurants.add(mapper.toRestaurantResponse(store, ordinals, from, to));
+        }
+        return new GroupedDealsResponse(restaurants, null);
+    }
+}
@@ -0,0 +1,61 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.model.RestaurantResponse;
+import com.customer.restaurantdeals.service.RestaurantFeedParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full deserialization of a synthetic upstream feed, both as one {@link RestaurantResponse} and
+ * through the incremental {@link RestaurantFeedParser} fed in network-sized chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class FeedDeserializationBenchmark {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int dealCount;
+
+    private ObjectMapper objectMapper;
+    private RestaurantFeedParser feedParser;
+    private byte[] json;
+    private List<byte[]> chunks;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        feedParser = new RestaurantFeedParser(objectMapper);
+        json = SyntheticFeed.generateJson(dealCount, 42L);
+        chunks = new ArrayList<>();
+        for (int i = 0; i < json.length; i += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(json, i, Math.min(json.length, i + CHUNK_SIZE)));
+        }
+    }
+
+    @Benchmark
+    public RestaurantResponse objectMapper() throws IOException {
+        return objectMapper.readValue(json, RestaurantResponse.class);
+    }
+
+    @Benchmark
+    public Long streamingParser() {
+        Flux<DataBuffer> body = Flux.fromIterable(chunks).map(DefaultDataBufferFactory.sharedInstance::wrap);
+        return feedParser.parse(body).count().block();
+    }
+}
@@ -0,0 +1,43 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import org.openjdk.jol.info.GraphLayout;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Prints the retained heap of a synthetic feed as parsed model objects ({@code List<Restaurant>})
+ * against its columnar {@link DealStore}, and of the whole snapshot built from it.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec@heap-report [-Dheap.report.deals=<n>]}
+ */
+public final class HeapFootprintReport {
+
+    private HeapFootprintReport() {}
+
+    public static void main(String[] args) {
+        int dealCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Restaurant> restaurants = SyntheticFeed.generate(dealCount, Jackson2ObjectMapperBuilder.json().build())
+                .getRestaurants();
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.EPOCH, restaurants);
+
+        GraphLayout objects = GraphLayout.parseInstance(restaurants);
+        GraphLayout columns = GraphLayout.parseInstance(snapshot.getDealStore());
+        GraphLayout whole = GraphLayout.parseInstance(snapshot);
+
+        System.out.printf("Deals: %,d in %,d restaurants%n%n", dealCount, restaurants.size());
+        System.out.printf("%-40s %,16d bytes %,12d objects%n", "List<Restaurant> (parsed model)",
+                objects.totalSize(), objects.totalCount());
+        System.out.printf("%-40s %,16d bytes %,12d objects%n", "DealStore (columnar)",
+                columns.totalSize(), columns.totalCount());
+        System.out.printf("%-40s %,16d bytes %,12d objects%n", "FeedSnapshot (store + index + peak)",
+                whole.totalSize(), whole.totalCount());
+        System.out.printf("%nDealStore / parsed model: %.1f%%%n", 100.0 * columns.totalSize() / objects.totalSize());
+        System.out.println();
+        System.out.println(columns.toFootprint());
+    }
+}
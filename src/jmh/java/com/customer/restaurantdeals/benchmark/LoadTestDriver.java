@@ -0,0 +1,142 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.Unpooled;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running instance: every connection sends its next
+ * {@code /api/deals} request as soon as the previous answer arrived. Prints throughput, latency
+ * percentiles and errors, then the server's live and peak JVM thread counts and used heap from
+ * {@code /actuator/metrics}, so runtimes and execution modes can be compared at the same
+ * concurrency.
+ * <p>
+ * With an upstream port, a synthetic feed of 10,000 deals is served there for the duration of the
+ * run; start the application with {@code --restaurantdeals.base-uri-restaurants=http://localhost:<port>}.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec@load-test [-Dload.test.url=<base url>]
+ * [-Dload.test.connections=<n>] [-Dload.test.seconds=<n>] [-Dload.test.upstream-port=<port>]}
+ */
+public final class LoadTestDriver {
+
+    private static final String[] TIMES = {"9:00am", "11:30am", "1:00pm", "3:15pm", "5:00pm", "7:45pm", "10:00pm"};
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private LoadTestDriver() {}
+
+    public static void main(String[] args) {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        int upstreamPort = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        DisposableServer upstream = upstreamPort > 0 ? serveFeed(upstreamPort, objectMapper) : null;
+        ConnectionProvider pool = ConnectionProvider.builder("load-test")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(pool).baseUrl(baseUrl);
+        try {
+            // Warm up caches and the JIT on both sides before measuring
+            run(client, Math.min(connections, 64), Duration.ofSeconds(5), null);
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            Timer latency = Timer.builder("load.test.latency")
+                    .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                    .register(registry);
+            long errors = run(client, connections, duration, latency);
+
+            System.out.printf("Target: %s, %,d connections for %ss%n%n", baseUrl, connections, duration.toSeconds());
+            System.out.printf("%-14s %,12.0f req/s%n", "Throughput", latency.count() / (double) duration.toSeconds());
+            System.out.printf("%-14s %,12d%n", "Requests", latency.count());
+            System.out.printf("%-14s %,12d%n", "Errors", errors);
+            for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+                System.out.printf("%-14s %,12.2f ms%n",
+                        "p" + BigDecimal.valueOf(percentile.percentile() * 100).stripTrailingZeros().toPlainString(),
+                        percentile.value(TimeUnit.MILLISECONDS));
+            }
+            System.out.printf("%-14s %,12.0f%n", "Server threads", serverMetric(client, objectMapper, "jvm.threads.live"));
+            System.out.printf("%-14s %,12.0f%n", "Peak threads", serverMetric(client, objectMapper, "jvm.threads.peak"));
+            System.out.printf("%-14s %,12.1f MB%n", "Heap used",
+                    serverMetric(client, objectMapper, "jvm.memory.used?tag=area:heap") / (1024 * 1024));
+        } finally {
+            pool.disposeLater().block();
+            if (upstream != null) {
+                upstream.disposeNow();
+            }
+        }
+    }
+
+    private static long run(HttpClient client, int connections, Duration duration, Timer latency) {
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, connections)
+                .flatMap(connection -> Mono.defer(() -> request(client, connection, latency, errors))
+                        .repeat(() -> System.nanoTime() < deadline), connections)
+                .blockLast();
+        return errors.sum();
+    }
+
+    private static Mono<Void> request(HttpClient client, int connection, Timer latency, LongAdder errors) {
+        long started = System.nanoTime();
+        return client.get()
+                .uri("/api/deals?timeOfDay=" + TIMES[(int) (started % TIMES.length)])
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                // A lost response would otherwise hold its connection, and the run, forever
+                .timeout(REQUEST_TIMEOUT)
+                .doOnNext(status -> {
+                    if (status != 200) {
+                        errors.increment();
+                    } else if (latency != null) {
+                        latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    errors.increment();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static double serverMetric(HttpClient client, ObjectMapper objectMapper, String name) {
+        String json = client.get()
+                .uri("/actuator/metrics/" + name)
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block(Duration.ofSeconds(10));
+        try {
+            JsonNode measurements = objectMapper.readTree(json).path("measurements");
+            return measurements.isEmpty() ? Double.NaN : measurements.get(0).path("value").asDouble();
+        } catch (Exception ex) {
+            return Double.NaN;
+        }
+    }
+
+    private static DisposableServer serveFeed(int port, ObjectMapper objectMapper) {
+        byte[] feed = SyntheticFeed.generate(10_000, objectMapper).getJson();
+        return HttpServer.create()
+                .port(port)
+                .route(routes -> routes.get("/misc/challengedata.json", (request, response) -> response
+                        .header("Content-Type", "application/json")
+                        .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(feed)))))
+                .bindNow();
+    }
+}
@@ -0,0 +1,108 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.snapshot.DealSelector;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.DealTimeIndex;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.GeoIndex;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deals active at noon within a radius of the Melbourne CBD, over a located feed of about 100k
+ * restaurants: {@link DealSelector#nearby} against the time index alone with a distance check per
+ * active deal's restaurant, and against a scan of every pair, both sorting their matches nearest
+ * first as the lookup does. {@code buildIndex} is what the first
+ * nearby lookup on a snapshot pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class NearbyBenchmark {
+
+    private static final int NOON = 12 * 60;
+    private static final double LATITUDE = -37.8136;
+    private static final double LONGITUDE = 144.9631;
+
+    @Param({"500000"})
+    public int dealCount;
+
+    @Param({"1", "5", "25"})
+    public double radiusKm;
+
+    private DealStore store;
+    private DealTimeIndex timeIndex;
+    private SuburbCentroids centroids;
+    private GeoIndex geoIndex;
+
+    @Setup
+    public void setup() {
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.EPOCH,
+                SyntheticFeed.generate(dealCount, Jackson2ObjectMapperBuilder.json().build(), true).getRestaurants());
+        store = snapshot.getDealStore();
+        timeIndex = snapshot.getDealIndex();
+        centroids = SyntheticFeed.suburbCentroids();
+        geoIndex = snapshot.getGeoIndex(centroids);
+    }
+
+    @Benchmark
+    public DealSelector.Nearby nearby() {
+        return DealSelector.nearby(store, timeIndex, geoIndex, NOON, LATITUDE, LONGITUDE, radiusKm,
+                ordinal -> true, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public long[] timeIndexOnly() {
+        int[] active = timeIndex.activeAt(NOON);
+        long[] matches = new long[active.length];
+        int count = 0;
+        for (int ordinal : active) {
+            double distance = geoIndex.distanceKm(store.restaurantOf(ordinal), LATITUDE, LONGITUDE);
+            if (distance <= radiusKm) {
+                matches[count++] = key(distance, ordinal);
+            }
+        }
+        return nearest(matches, count);
+    }
+
+    @Benchmark
+    public long[] fullScan() {
+        long[] matches = new long[store.size()];
+        int count = 0;
+        for (int restaurant = 0; restaurant < store.restaurantCount(); restaurant++) {
+            double distance = geoIndex.distanceKm(restaurant, LATITUDE, LONGITUDE);
+            if (distance <= radiusKm) {
+                for (int ordinal = store.firstPair(restaurant); ordinal < store.firstPair(restaurant + 1); ordinal++) {
+                    if (store.activeFrom(ordinal) != DealStore.NEVER
+                            && store.activeFrom(ordinal) <= NOON && NOON <= store.activeTo(ordinal)) {
+                        matches[count++] = key(distance, ordinal);
+                    }
+                }
+            }
+        }
+        return nearest(matches, count);
+    }
+
+    @Benchmark
+    public GeoIndex buildIndex() {
+        return GeoIndex.build(store, centroids);
+    }
+
+    // Nearest first, then feed order, as the lookup returns them
+    private static long key(double distanceKm, int ordinal) {
+        return (long) Float.floatToIntBits((float) distanceKm) << 32 | ordinal;
+    }
+
+    private static long[] nearest(long[] matches, int count) {
+        Arrays.sort(matches, 0, count);
+        return Arrays.copyOf(matches, count);
+    }
+}
@@ -0,0 +1,60 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the size of the {@code /api/deals} payload at noon over a synthetic feed for each wire
+ * format and shape, raw and gzipped, relative to the flat JSON payload.
+ * <p>
+ * Usage: {@code mvn -Pjmh test-compile exec:exec@payload-report [-Dpayload.report.deals=<n>]}
+ */
+public final class PayloadSizeReport {
+
+    private PayloadSizeReport() {}
+
+    public static void main(String[] args) throws IOException {
+        int dealCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ActiveDealResponseMapper mapper = new ActiveDealResponseMapperImpl();
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.EPOCH,
+                SyntheticFeed.generate(dealCount, json).getRestaurants());
+        int[] ordinals = snapshot.getDealIndex().activeAt(12 * 60);
+
+        System.out.printf("Deals active at noon: %,d of %,d%n%n", ordinals.length, dealCount);
+        System.out.printf("%-6s %-8s %14s %8s %14s %8s%n", "Format", "Shape", "Bytes", "vs JSON", "Gzipped", "vs JSON");
+        long baseline = 0;
+        long gzippedBaseline = 0;
+        for (DealsShape shape : DealsShape.values()) {
+            Object payload = DealsPayloads.payload(shape, snapshot.getDealStore(), ordinals, mapper);
+            for (WireFormat format : WireFormat.values()) {
+                byte[] body = format.mapperFrom(json).writeValueAsBytes(payload);
+                long gzipped = gzip(body);
+                if (baseline == 0) {
+                    baseline = body.length;
+                    gzippedBaseline = gzipped;
+                }
+                System.out.printf("%-6s %-8s %,14d %7.1f%% %,14d %7.1f%%%n", format, shape, body.length,
+                        100.0 * body.length / baseline, gzipped, 100.0 * gzipped / gzippedBaseline);
+            }
+        }
+    }
+
+    private static long gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.size();
+    }
+}
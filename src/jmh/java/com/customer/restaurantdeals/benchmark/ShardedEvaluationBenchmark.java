@@ -0,0 +1,122 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.service.DealsPipelineMetrics;
+import com.customer.restaurantdeals.service.DealsResponseCache;
+import com.customer.restaurantdeals.service.RestaurantDealsService;
+import com.customer.restaurantdeals.service.RestaurantFeedCache;
+import com.customer.restaurantdeals.service.RestaurantFeedParser;
+import com.customer.restaurantdeals.service.UpstreamResilience;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sharded passes over a large snapshot against their sequential form: {@code shards=1} is the
+ * sequential path, other values split passes of at least 10,000 rows into that many shards. Gains
+ * are bounded by the cores available to the fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class ShardedEvaluationBenchmark {
+
+    private static final DealBatchRequest QUARTER_HOURS = new DealBatchRequest();
+    private static final DealQuery BY_DISCOUNT = new DealQuery();
+
+    static {
+        List<String> times = new ArrayList<>();
+        for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute += 15) {
+            times.add(MinuteOfDay.format(minute));
+        }
+        QUARTER_HOURS.setTimes(times);
+        QUARTER_HOURS.setLightning(true);
+        BY_DISCOUNT.setSort("-discount");
+        BY_DISCOUNT.setLimit(100);
+    }
+
+    @Param({"100000", "1000000"})
+    public int dealCount;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    private List<Restaurant> restaurants;
+    private Sharding sharding;
+    private RestaurantDealsService service;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SyntheticFeed feed = SyntheticFeed.generate(dealCount, objectMapper);
+        restaurants = feed.getRestaurants();
+        sharding = new Sharding(10_000, shards);
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(feed.getJson())))
+                        .build()))
+                .build();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        RestaurantFeedCache feedCache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(objectMapper),
+                resilience, meterRegistry, Duration.ofDays(365), Duration.ZERO, Duration.ZERO);
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(meterRegistry, 1.0);
+        service = new RestaurantDealsService(feedCache, new DealsResponseCache(objectMapper, meterRegistry, metrics),
+                new ActiveDealResponseMapperImpl(), metrics, 288, Integer.MAX_VALUE, 50, sharding,
+                SuburbCentroids.EMPTY);
+        feedCache.getSnapshot().block();
+    }
+
+    @Benchmark
+    public List<ActiveDealResponse> activeDealsAtTime() {
+        return service.getActiveDealsAtTime("1:15pm").block();
+    }
+
+    @Benchmark
+    public DealPageResponse topDiscountsAtTime() {
+        return service.queryActiveDealsAtTime("1:15pm", BY_DISCOUNT).block();
+    }
+
+    @Benchmark
+    public DealBatchResponse activeDealsAtQuarterHours() {
+        return service.getActiveDealsAtTimes(QUARTER_HOURS).block();
+    }
+
+    @Benchmark
+    public FeedSnapshot buildSnapshot() {
+        return new FeedSnapshot.Builder(sharding).addAll(restaurants).build(1, Instant.EPOCH);
+    }
+}
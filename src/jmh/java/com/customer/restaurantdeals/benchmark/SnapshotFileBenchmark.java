@@ -0,0 +1,71 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.service.RestaurantFeedParser;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SnapshotFile;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of getting a snapshot in place: building it from the upstream JSON (what a cold
+ * start without a snapshot file pays after the download) against reading it back from the
+ * snapshot file, plus the cost of writing that file after each new snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class SnapshotFileBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int dealCount;
+
+    private RestaurantFeedParser feedParser;
+    private byte[] json;
+    private FeedSnapshot snapshot;
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        feedParser = new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build());
+        json = SyntheticFeed.generateJson(dealCount, 42L);
+        snapshot = parseFeed();
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        file = directory.resolve("feed.bin");
+        SnapshotFile.write(snapshot, file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public FeedSnapshot parseFeed() throws IOException {
+        FeedSnapshot.Builder builder = new FeedSnapshot.Builder();
+        feedParser.parse(new ByteArrayInputStream(json), builder::add);
+        return builder.build(1, Instant.EPOCH);
+    }
+
+    @Benchmark
+    public FeedSnapshot readSnapshotFile() throws IOException {
+        return SnapshotFile.read(file, Sharding.SEQUENTIAL);
+    }
+
+    @Benchmark
+    public long writeSnapshotFile() throws IOException {
+        return SnapshotFile.write(snapshot, file);
+    }
+}
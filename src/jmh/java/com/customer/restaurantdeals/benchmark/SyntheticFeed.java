@@ -0,0 +1,154 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.model.RestaurantResponse;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic upstream feed of a given number of deals, shaped like the real one: restaurants
+ * open from the morning until the evening (some past midnight), deals restricted to part of the
+ * day with either {@code open}/{@code close} or {@code start}/{@code end}, or inheriting the
+ * restaurant's hours.
+ * <p>
+ * A located feed also lists coordinates: most restaurants spread over a metropolitan area, some
+ * clustered around the centre of their suburb, and one in ten with none, left to the suburb's
+ * centroid ({@link #suburbCentroids()}).
+ */
+public final class SyntheticFeed {
+
+    public static final int DEALS_PER_RESTAURANT = 5;
+
+    private static final String[] SUBURBS = {"Richmond", "Carlton", "Fitzroy", "Brunswick", "St Kilda", "Footscray"};
+    private static final double[][] SUBURB_CENTRES = {{-37.8183, 144.9982}, {-37.8001, 144.9671},
+            {-37.7984, 144.9783}, {-37.7667, 144.9598}, {-37.8676, 144.9809}, {-37.8000, 144.9000}};
+    // About 55 km north to south and 60 km east to west
+    private static final double[] AREA = {-38.1, -37.6, 144.6, 145.3};
+
+    private final byte[] json;
+    private final List<Restaurant> restaurants;
+
+    private SyntheticFeed(byte[] json, List<Restaurant> restaurants) {
+        this.json = json;
+        this.restaurants = restaurants;
+    }
+
+    public static SyntheticFeed generate(int dealCount, ObjectMapper objectMapper) {
+        return generate(dealCount, objectMapper, false);
+    }
+
+    public static SyntheticFeed generate(int dealCount, ObjectMapper objectMapper, boolean located) {
+        byte[] json = generateJson(dealCount, 42L, located);
+        try {
+            return new SyntheticFeed(json, objectMapper.readValue(json, RestaurantResponse.class).getRestaurants());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    public List<Restaurant> getRestaurants() {
+        return restaurants;
+    }
+
+    /**
+     * Centroids of the feed's suburbs, for the restaurants of a located feed without coordinates.
+     */
+    public static SuburbCentroids suburbCentroids() {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < SUBURBS.length; i++) {
+            csv.append(SUBURBS[i]).append(',').append(SUBURB_CENTRES[i][0]).append(',').append(SUBURB_CENTRES[i][1])
+                    .append('\n');
+        }
+        try {
+            return SuburbCentroids.read(new StringReader(csv.toString()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static byte[] generateJson(int dealCount, long seed) {
+        return generateJson(dealCount, seed, false);
+    }
+
+    static byte[] generateJson(int dealCount, long seed, boolean located) {
+        SplittableRandom random = new SplittableRandom(seed);
+        // Separate, so a located feed has the same restaurants and deals as an unlocated one
+        SplittableRandom places = new SplittableRandom(seed + 1);
+        StringBuilder out = new StringBuilder(dealCount * 200 + 32).append("{\"restaurants\":[");
+        for (int restaurant = 0, deal = 0; deal < dealCount; restaurant++) {
+            int open = 6 * 60 + random.nextInt(6 * 60);
+            int close = (open + 8 * 60 + random.nextInt(10 * 60)) % MinuteOfDay.MINUTES_PER_DAY;
+            int address = 1 + random.nextInt(400);
+            int suburb = random.nextInt(SUBURBS.length);
+            out.append(restaurant == 0 ? "" : ",")
+                    .append("{\"objectId\":\"R").append(restaurant)
+                    .append("\",\"name\":\"Restaurant ").append(restaurant)
+                    .append("\",\"address1\":\"").append(address).append(" Main Street")
+                    .append("\",\"suburb\":\"").append(SUBURBS[suburb]).append('"');
+            if (located) {
+                appendLocation(out, suburb, places);
+            }
+            out.append(",\"open\":\"").append(time(open, random))
+                    .append("\",\"close\":\"").append(time(close, random))
+                    .append("\",\"deals\":[");
+            int deals = Math.min(DEALS_PER_RESTAURANT, dealCount - deal);
+            for (int i = 0; i < deals; i++, deal++) {
+                out.append(i == 0 ? "" : ",")
+                        .append("{\"objectId\":\"D").append(deal)
+                        .append("\",\"discount\":\"").append(10 + 5 * random.nextInt(9))
+                        .append("\",\"dineIn\":").append(random.nextBoolean())
+                        .append(",\"lightning\":").append(random.nextInt(10) == 0)
+                        .append(",\"qtyLeft\":").append(random.nextInt(20));
+                int hours = random.nextInt(3);
+                if (hours > 0) {
+                    int from = open + random.nextInt(4 * 60);
+                    int to = (from + 60 + random.nextInt(5 * 60)) % MinuteOfDay.MINUTES_PER_DAY;
+                    String[] names = hours == 1 ? new String[]{"open", "close"} : new String[]{"start", "end"};
+                    out.append(",\"").append(names[0]).append("\":\"").append(time(from % MinuteOfDay.MINUTES_PER_DAY, random))
+                            .append("\",\"").append(names[1]).append("\":\"").append(time(to, random)).append('"');
+                }
+                out.append('}');
+            }
+            out.append("]}");
+        }
+        return out.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendLocation(StringBuilder out, int suburb, SplittableRandom places) {
+        int kind = places.nextInt(10);
+        if (kind == 0) {
+            return;
+        }
+        double latitude;
+        double longitude;
+        if (kind <= 3) {
+            // Within a couple of kilometres of the suburb's centre
+            latitude = SUBURB_CENTRES[suburb][0] + places.nextDouble(-0.02, 0.02);
+            longitude = SUBURB_CENTRES[suburb][1] + places.nextDouble(-0.025, 0.025);
+        } else {
+            latitude = places.nextDouble(AREA[0], AREA[1]);
+            longitude = places.nextDouble(AREA[2], AREA[3]);
+        }
+        out.append(",\"latitude\":").append(String.format(Locale.ROOT, "%.6f", latitude))
+                .append(",\"longitude\":").append(String.format(Locale.ROOT, "%.6f", longitude));
+    }
+
+    private static String time(int minute, SplittableRandom random) {
+        // The feed mixes cases, e.g. "3:00pm" and "3:00PM"
+        int rounded = minute / 15 * 15;
+        return random.nextBoolean() ? MinuteOfDay.format(rounded) : MinuteOfDay.formatUpperCase(rounded);
+    }
+}
@@ -0,0 +1,108 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.configuration.CustomLocalTimeDeserializer;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.TIME_FORMAT;
+
+/**
+ * {@code h:mma} parsing and formatting: the table-driven {@link MinuteOfDay} path against the
+ * {@link DateTimeFormatter} based code it replaced (kept here as the {@code legacy*} baselines).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeOfDayBenchmark {
+
+    private static final DateTimeFormatter LEGACY_FEED_FORMATTER = DateTimeFormatter.ofPattern(TIME_FORMAT);
+
+    private String[] times;
+    private LocalTime[] localTimes;
+    private byte[] feedTimesJson;
+    private ObjectMapper legacyMapper;
+    private ObjectMapper currentMapper;
+    private int next;
+
+    @Setup
+    public void setup() {
+        times = new String[MinuteOfDay.MINUTES_PER_DAY];
+        localTimes = new LocalTime[MinuteOfDay.MINUTES_PER_DAY];
+        StringBuilder json = new StringBuilder("[");
+        for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute++) {
+            times[minute] = MinuteOfDay.format(minute);
+            localTimes[minute] = LocalTime.of(minute / 60, minute % 60);
+            json.append(minute == 0 ? "" : ",").append('"').append(MinuteOfDay.formatUpperCase(minute)).append('"');
+        }
+        feedTimesJson = json.append(']').toString().getBytes();
+        legacyMapper = mapperWith(new LegacyLocalTimeDeserializer());
+        currentMapper = mapperWith(new CustomLocalTimeDeserializer());
+    }
+
+    private int nextIndex() {
+        next = next == MinuteOfDay.MINUTES_PER_DAY - 1 ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public LocalTime legacyRequestParse() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_FORMAT, Locale.ENGLISH);
+        return LocalTime.parse(times[nextIndex()].toUpperCase(), formatter);
+    }
+
+    @Benchmark
+    public int minuteOfDayRequestParse() {
+        return MinuteOfDay.parse(times[nextIndex()]);
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mma");
+        return localTimes[nextIndex()].format(formatter).toLowerCase();
+    }
+
+    @Benchmark
+    public String minuteOfDayFormat() {
+        return MinuteOfDay.format(MinuteOfDay.of(localTimes[nextIndex()]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MinuteOfDay.MINUTES_PER_DAY)
+    public void legacyDeserializer(Blackhole blackhole) throws IOException {
+        blackhole.consume(legacyMapper.readValue(feedTimesJson, LocalTime[].class));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MinuteOfDay.MINUTES_PER_DAY)
+    public void currentDeserializer(Blackhole blackhole) throws IOException {
+        blackhole.consume(currentMapper.readValue(feedTimesJson, LocalTime[].class));
+    }
+
+    private static ObjectMapper mapperWith(JsonDeserializer<LocalTime> deserializer) {
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(LocalTime.class, deserializer);
+        return new ObjectMapper().registerModule(module);
+    }
+
+    static class LegacyLocalTimeDeserializer extends JsonDeserializer<LocalTime> {
+        @Override
+        public LocalTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return LocalTime.parse(p.getText().trim().toUpperCase(), LEGACY_FEED_FORMATTER);
+        }
+    }
+}
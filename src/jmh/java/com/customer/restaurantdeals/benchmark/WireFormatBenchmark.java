@@ -0,0 +1,65 @@
+package com.customer.restaurantdeals.benchmark;
+
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapperImpl;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of rendering an {@code /api/deals} payload (the active deals at noon) per wire format
+ * and shape: serialization alone, and mapping from the snapshot plus serialization, which is what
+ * a response cache miss pays. See {@link PayloadSizeReport} for the resulting sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx3g"})
+public class WireFormatBenchmark {
+
+    @Param({"1000", "100000"})
+    public int dealCount;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public WireFormat format;
+
+    @Param({"FLAT", "GROUPED"})
+    public DealsShape shape;
+
+    private final ActiveDealResponseMapper mapper = new ActiveDealResponseMapperImpl();
+    private ObjectMapper objectMapper;
+    private DealStore store;
+    private int[] ordinals;
+    private Object payload;
+
+    @Setup
+    public void setup() {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = format.mapperFrom(json);
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.EPOCH,
+                SyntheticFeed.generate(dealCount, json).getRestaurants());
+        store = snapshot.getDealStore();
+        ordinals = snapshot.getDealIndex().activeAt(12 * 60);
+        payload = DealsPayloads.payload(shape, store, ordinals, mapper);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(DealsPayloads.payload(shape, store, ordinals, mapper));
+    }
+}
@@ -0,0 +1,108 @@
+package com.customer.restaurantdeals.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpProtocol;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * The {@code blocking} execution mode: controller methods with plain (non-reactive) return types
+ * run on a request executor instead of the Netty event loop, and the upstream feed is fetched with
+ * a blocking {@link RestClient}.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on Java 21+, Spring Boot already runs blocking
+ * controller methods on its virtual-thread {@code applicationTaskExecutor}, and the feed is fetched
+ * on that executor too. The build targets Java 17, where virtual threads are not available, so
+ * otherwise requests run on a fixed pool of {@code restaurantdeals.execution.blocking.threads}
+ * platform threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = EXECUTION_MODE_BLOCKING)
+@Slf4j
+public class BlockingExecutionConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public WebFluxConfigurer platformThreadBlockingExecution(
+        @Value("${restaurantdeals.execution.blocking.threads:200}") int threads) {
+        log.info("Blocking requests run on {} platform threads", threads);
+        return new PlatformThreadBlockingExecution(threads);
+    }
+
+    /**
+     * Scheduler of the blocking feed fetches, so they run on a virtual thread as the requests do.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler feedFetchScheduler(
+        @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        log.info("Blocking requests and feed fetches run on virtual threads");
+        return Schedulers.fromExecutor(executor);
+    }
+
+    /**
+     * Blocking client for the upstream feed on the JDK's {@link HttpClient}. It does not inflate
+     * gzip, so responses are requested uncompressed.
+     */
+    @Bean
+    public RestClient restaurantFeedRestClient(
+        @Value("${restaurantdeals.base-uri-restaurants}") String baseUrl,
+        @Value("${restaurantdeals.http.connect-timeout:2s}") Duration connectTimeout,
+        @Value("${restaurantdeals.http.read-timeout:10s}") Duration readTimeout,
+        @Value("${restaurantdeals.http.http2:true}") boolean http2) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .version(WebClientConfig.protocols(baseUrl, http2)[0] == HttpProtocol.H2
+                        ? HttpClient.Version.HTTP_2
+                        : HttpClient.Version.HTTP_1_1)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    private static final class PlatformThreadBlockingExecution implements WebFluxConfigurer, DisposableBean {
+
+        private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        PlatformThreadBlockingExecution(int threads) {
+            executor.setCorePoolSize(threads);
+            executor.setMaxPoolSize(threads);
+            executor.setThreadNamePrefix("blocking-request-");
+            executor.initialize();
+        }
+
+        @Override
+        public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+            configurer.setExecutor(executor);
+        }
+
+        @Override
+        public void destroy() {
+            executor.shutdown();
+        }
+    }
+}
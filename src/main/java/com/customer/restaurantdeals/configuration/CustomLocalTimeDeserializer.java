@@ -1,5 +1,6 @@
 package com.customer.restaurantdeals.configuration;
 
+import com.customer.restaurantdeals.util.MinuteOfDay;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -7,24 +8,29 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 
 import java.io.IOException;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_PARSING_ERROR;
-import static com.customer.restaurantdeals.util.RestaurantDealsConstant.TIME_FORMAT;
 
 public class CustomLocalTimeDeserializer extends JsonDeserializer<LocalTime> {
 
-    private static final DateTimeFormatter FORMATTER =
-            DateTimeFormatter.ofPattern(TIME_FORMAT);
-
     @Override
     public LocalTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-        String timeStr = p.getText().trim().toUpperCase();
-        try {
-            return LocalTime.parse(timeStr, FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new RuntimeException(MSG_PARSING_ERROR + timeStr, e);
+        // Parse straight from the parser's buffer; a String is only built for the error message
+        char[] chars = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+
+        int minute = MinuteOfDay.parse(chars, start, end - start);
+        if (minute == MinuteOfDay.INVALID) {
+            String timeStr = new String(chars, start, end - start).toUpperCase();
+            throw new RuntimeException(MSG_PARSING_ERROR + timeStr);
         }
+        return MinuteOfDay.toLocalTime(minute);
     }
 }
@@ -0,0 +1,46 @@
+package com.customer.restaurantdeals.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Upstream feeds merged into the snapshot ({@code restaurantdeals.feed.sources[n].*}), in priority
+ * order: where two list the same restaurant or deal, the earlier one wins. None configured means
+ * the single feed at {@code restaurantdeals.base-uri-restaurants}.
+ */
+@Data
+@ConfigurationProperties(prefix = "restaurantdeals.feed")
+public class FeedSourceProperties {
+
+    private List<Source> sources = new ArrayList<>();
+
+    @Data
+    public static class Source {
+        /**
+         * Name in logs, metrics and health details, and suffix of the source's circuit breaker and
+         * bulkhead ({@code restaurantFeed-<name>}).
+         */
+        private String name;
+        /**
+         * Absolute URI of the feed, or a path relative to {@code restaurantdeals.base-uri-restaurants}.
+         */
+        private String uri;
+        /**
+         * Limit of each fetch attempt; {@code null} leaves it to the HTTP client timeouts.
+         */
+        private Duration timeout;
+
+        public Source() {
+        }
+
+        public Source(String name, String uri, Duration timeout) {
+            this.name = name;
+            this.uri = uri;
+            this.timeout = timeout;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.customer.restaurantdeals.configuration;
+
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+@Configuration
+@Slf4j
+public class GeoConfig {
+
+    /**
+     * Centroids locating the restaurants the feed lists without coordinates, read once at startup
+     * from the CSV file at {@code suburb-centroids}; none when it is blank. A missing or malformed
+     * file fails the startup.
+     */
+    @Bean
+    public SuburbCentroids suburbCentroids(
+        @Value("${restaurantdeals.geo.suburb-centroids:}") String file) throws IOException {
+        if (file.isBlank()) {
+            return SuburbCentroids.EMPTY;
+        }
+        try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+            SuburbCentroids centroids = SuburbCentroids.read(reader);
+            log.info("Loaded {} suburb centroids from {}", centroids.size(), file);
+            return centroids;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.customer.restaurantdeals.configuration;
+
+import com.customer.restaurantdeals.snapshot.Sharding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ParallelEvaluationConfig {
+
+    /**
+     * Sharding of snapshot builds and of the large per-request passes over a snapshot. Passes over
+     * fewer than {@code threshold} rows stay sequential; {@code shards} of 0 means one per
+     * available processor.
+     */
+    @Bean
+    public Sharding sharding(
+        @Value("${restaurantdeals.parallel.threshold:100000}") int threshold,
+        @Value("${restaurantdeals.parallel.shards:0}") int shards) {
+        return new Sharding(threshold, shards > 0 ? shards : Runtime.getRuntime().availableProcessors());
+    }
+}
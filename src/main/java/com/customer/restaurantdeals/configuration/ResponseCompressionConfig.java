@@ -0,0 +1,25 @@
+package com.customer.restaurantdeals.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.server.compression.DeflateOption;
+import reactor.netty.http.server.compression.GzipOption;
+
+@Configuration
+public class ResponseCompressionConfig {
+
+    /**
+     * Compression level of responses compressed on the fly by the server ({@code server.compression.*}),
+     * the same as for pre-compressed {@code /api/deals} payloads. Brotli is offered with Netty's
+     * defaults when brotli4j's native library loads.
+     */
+    @Bean
+    public NettyServerCustomizer responseCompressionLevel(
+        @Value("${restaurantdeals.compression.gzip-level:6}") int gzipLevel) {
+        return server -> server.compressOptions(
+                GzipOption.builder().compressionLevel(gzipLevel).build(),
+                DeflateOption.builder().compressionLevel(gzipLevel).build());
+    }
+}
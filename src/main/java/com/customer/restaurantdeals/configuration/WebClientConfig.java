@@ -1,18 +1,83 @@
 package com.customer.restaurantdeals.configuration;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties(FeedSourceProperties.class)
 public class WebClientConfig {
 
+    /**
+     * Connection pool for the upstream feed. With {@code metrics} enabled Reactor Netty publishes
+     * {@code reactor.netty.connection.provider.*} gauges, which show up under /actuator/metrics.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider restaurantFeedConnectionProvider(
+        @Value("${restaurantdeals.http.pool.name:restaurant-feed}") String name,
+        @Value("${restaurantdeals.http.pool.max-connections:50}") int maxConnections,
+        @Value("${restaurantdeals.http.pool.pending-acquire-max-count:100}") int pendingAcquireMaxCount,
+        @Value("${restaurantdeals.http.pool.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+        @Value("${restaurantdeals.http.pool.max-idle-time:30s}") Duration maxIdleTime,
+        @Value("${restaurantdeals.http.pool.max-life-time:5m}") Duration maxLifeTime,
+        @Value("${restaurantdeals.http.pool.evict-in-background:30s}") Duration evictInBackground,
+        @Value("${restaurantdeals.http.pool.metrics:true}") boolean metrics) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(metrics)
+                .build();
+    }
+
     @Bean
     public WebClient webClient(
-        @Value("${restaurantdeals.base-uri-restaurants}") String baseUrl) {
+        ConnectionProvider restaurantFeedConnectionProvider,
+        @Value("${restaurantdeals.base-uri-restaurants}") String baseUrl,
+        @Value("${restaurantdeals.http.connect-timeout:2s}") Duration connectTimeout,
+        @Value("${restaurantdeals.http.read-timeout:10s}") Duration readTimeout,
+        @Value("${restaurantdeals.http.response-timeout:10s}") Duration responseTimeout,
+        @Value("${restaurantdeals.http.compression:true}") boolean compression,
+        @Value("${restaurantdeals.http.http2:true}") boolean http2,
+        @Value("${restaurantdeals.http.max-in-memory-size:16MB}") DataSize maxInMemorySize) {
+        HttpClient httpClient = HttpClient.create(restaurantFeedConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(responseTimeout)
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS)))
+                // Sends Accept-Encoding: gzip and inflates the response transparently
+                .compress(compression)
+                .protocol(protocols(baseUrl, http2));
+
         return WebClient.builder()
                 .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(Math.toIntExact(maxInMemorySize.toBytes())))
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * HTTP/2 is negotiated through ALPN, so it is only offered over TLS, with HTTP/1.1 as fallback.
+     */
+    static HttpProtocol[] protocols(String baseUrl, boolean http2) {
+        if (http2 && baseUrl.regionMatches(true, 0, "https:", 0, 6)) {
+            return new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+        }
+        return new HttpProtocol[]{HttpProtocol.HTTP11};
+    }
+}
@@ -0,0 +1,153 @@
+package com.customer.restaurantdeals.controller;
+
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.BlockingDealsService;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * The endpoints of {@link RestaurantDealsController} as plain blocking methods, for the
+ * {@code blocking} execution mode. Their return types are not reactive, so WebFlux runs them on the
+ * request executor of {@code BlockingExecutionConfig} rather than on the event loop.
+ */
+@RestController
+@RequestMapping("/api")
+@Validated
+@ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = EXECUTION_MODE_BLOCKING)
+@Slf4j
+public class BlockingRestaurantDealsController {
+
+    @Autowired
+    private BlockingDealsService blockingDealsService;
+
+    @GetMapping("/deals")
+    public ResponseEntity<?> getActiveDeals(
+            @Valid
+            @NotBlank(message = MSG_TIME_REQUIRED)
+            @Pattern(
+                    regexp = REGEX_TIME_FORMAT,
+                    message = MSG_INVALID_TIME
+            )
+            @RequestParam String timeOfDay,
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) Boolean dineIn,
+            @RequestParam(required = false) Boolean lightning,
+            @RequestParam(required = false) Integer minQtyLeft,
+            @RequestParam(required = false) Integer minDiscount,
+            @RequestParam(required = false) String restaurantId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String shape,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.info("Received request for active deals at timeOfDay={}", timeOfDay);
+
+        DealQuery query = new DealQuery();
+        query.setSuburb(suburb);
+        query.setDineIn(dineIn);
+        query.setLightning(lightning);
+        query.setMinQtyLeft(minQtyLeft);
+        query.setMinDiscount(minDiscount);
+        query.setRestaurantId(restaurantId);
+        query.setSort(sort);
+        query.setLimit(limit);
+        query.setCursor(cursor);
+        DealsShape dealsShape = DealsShape.parse(shape);
+        WireFormat format = WireFormat.negotiate(accept);
+        RenderedDeals rendered = query.isRefined()
+                ? blockingDealsService.queryRenderedActiveDealsAtTime(timeOfDay, query, format, dealsShape)
+                : blockingDealsService.getRenderedActiveDealsAtTime(timeOfDay, format, dealsShape);
+        return RestaurantDealsController.toResponse(rendered, ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Active deals at {@code timeOfDay} within {@code radiusKm} of ({@code lat}, {@code lon}), nearest
+     * first, each with its distance. Takes the attribute filters and limit of {@code /deals}.
+     */
+    @GetMapping("/deals/nearby")
+    public ResponseEntity<DealPageResponse> getNearbyDeals(
+            @Valid
+            @NotBlank(message = MSG_TIME_REQUIRED)
+            @Pattern(
+                    regexp = REGEX_TIME_FORMAT,
+                    message = MSG_INVALID_TIME
+            )
+            @RequestParam String timeOfDay,
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) Boolean dineIn,
+            @RequestParam(required = false) Boolean lightning,
+            @RequestParam(required = false) Integer minQtyLeft,
+            @RequestParam(required = false) Integer minDiscount,
+            @RequestParam(required = false) Integer limit) {
+
+        log.info("Received request for active deals at timeOfDay={} within {} km of {}, {}",
+                timeOfDay, radiusKm, lat, lon);
+
+        DealQuery query = new DealQuery();
+        query.setSuburb(suburb);
+        query.setDineIn(dineIn);
+        query.setLightning(lightning);
+        query.setMinQtyLeft(minQtyLeft);
+        query.setMinDiscount(minDiscount);
+        query.setLimit(limit);
+        return ResponseEntity.ok(blockingDealsService.queryNearbyDealsAtTime(timeOfDay, lat, lon, radiusKm, query));
+    }
+
+    @PostMapping("/deals/batch")
+    public ResponseEntity<DealBatchResponse> getActiveDealsBatch(@RequestBody DealBatchRequest request) {
+
+        log.info("Received batch request for active deals at {} times",
+                request.getTimes() == null ? 0 : request.getTimes().size());
+
+        return ResponseEntity.ok(blockingDealsService.getActiveDealsAtTimes(request));
+    }
+
+    @GetMapping("/deals/timeline")
+    public ResponseEntity<TimelineResponse> getTimeline(
+            @RequestParam(defaultValue = "15m") String resolution,
+            @RequestParam(required = false) String groupBy) {
+
+        log.info("Received request for deal timeline resolution={} groupBy={}", resolution, groupBy);
+
+        return ResponseEntity.ok(blockingDealsService.getTimeline(resolution, groupBy));
+    }
+
+    @GetMapping("/deals/peak-time")
+    public ResponseEntity<PeakTimeResponse> getPeakTimeWindow() {
+
+        log.info("Received request for peak deal time window");
+
+        PeakTimeResponse window = blockingDealsService.findPeakDealTimeWindow();
+        return window != null ? ResponseEntity.ok(window) : ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.customer.restaurantdeals.controller;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealChangeEvent;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.service.DealChangeFeed;
+import com.customer.restaurantdeals.service.RestaurantDealsService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Streaming endpoints. They stay reactive in every execution mode: a stream holds its connection
+ * open for as long as the client reads, which only the event loop can afford at scale.
+ */
+@RestController
+@RequestMapping("/api")
+@Validated
+@Slf4j
+public class DealStreamController {
+
+    @Autowired
+    private RestaurantDealsService restaurantDealsService;
+
+    @Autowired
+    private DealChangeFeed dealChangeFeed;
+
+    /**
+     * Same lookup as {@code GET /api/deals}, selected by {@code Accept}: deals are written one per
+     * line (NDJSON) or one per event (SSE) as they are produced, with backpressure, instead of as a
+     * single buffered document. Sorting and paging do not apply to a stream.
+     */
+    @GetMapping(value = "/deals", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<ActiveDealResponse> streamActiveDeals(
+            @Valid
+            @NotBlank(message = MSG_TIME_REQUIRED)
+            @Pattern(
+                    regexp = REGEX_TIME_FORMAT,
+                    message = MSG_INVALID_TIME
+            )
+            @RequestParam String timeOfDay,
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) Boolean dineIn,
+            @RequestParam(required = false) Boolean lightning,
+            @RequestParam(required = false) Integer minQtyLeft,
+            @RequestParam(required = false) Integer minDiscount,
+            @RequestParam(required = false) String restaurantId) {
+
+        log.info("Received streaming request for active deals at timeOfDay={}", timeOfDay);
+
+        DealQuery query = new DealQuery();
+        query.setSuburb(suburb);
+        query.setDineIn(dineIn);
+        query.setLightning(lightning);
+        query.setMinQtyLeft(minQtyLeft);
+        query.setMinDiscount(minDiscount);
+        query.setRestaurantId(restaurantId);
+        return restaurantDealsService.streamActiveDealsAtTime(timeOfDay, query);
+    }
+
+    /**
+     * Server-sent events for deals becoming active, expiring or changing {@code qtyLeft}, from the
+     * time of subscription on. The event name is the change type.
+     */
+    @GetMapping(value = "/deals/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<DealChangeEvent>> getLiveDealChanges(
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) String restaurantId,
+            @RequestParam(required = false) Boolean lightning) {
+
+        log.info("Received live deal subscription suburb={} restaurantId={} lightning={}",
+                suburb, restaurantId, lightning);
+
+        return dealChangeFeed.subscribe(DealChangeFeed.filter(suburb, restaurantId, lightning))
+                .map(event -> ServerSentEvent.builder(event).event(event.getType().name()).build());
+    }
+}
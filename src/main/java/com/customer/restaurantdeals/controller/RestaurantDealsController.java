@@ -1,28 +1,46 @@
 package com.customer.restaurantdeals.controller;
 
-import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
 import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
 import com.customer.restaurantdeals.service.RestaurantDealsService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
-import java.util.List;
-import java.util.Map;
 
 import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
 
+/**
+ * Request/response endpoints of the {@code reactive} execution mode (the default); see
+ * {@link BlockingRestaurantDealsController} for the {@code blocking} mode and
+ * {@link DealStreamController} for the streaming endpoints, which are reactive in both modes.
+ */
 @RestController
 @RequestMapping("/api")
 @Validated
+@ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = EXECUTION_MODE_REACTIVE, matchIfMissing = true)
 @Slf4j
 public class RestaurantDealsController {
 
@@ -30,20 +48,123 @@ public class RestaurantDealsController {
     private RestaurantDealsService restaurantDealsService;
 
     @GetMapping("/deals")
-    public Mono<ResponseEntity<Map<String, List<ActiveDealResponse>>>> getActiveDeals(
+    public Mono<ResponseEntity<?>> getActiveDeals(
             @Valid
             @NotBlank(message = MSG_TIME_REQUIRED)
             @Pattern(
                     regexp = REGEX_TIME_FORMAT,
                     message = MSG_INVALID_TIME
             )
-            @RequestParam String timeOfDay) {
+            @RequestParam String timeOfDay,
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) Boolean dineIn,
+            @RequestParam(required = false) Boolean lightning,
+            @RequestParam(required = false) Integer minQtyLeft,
+            @RequestParam(required = false) Integer minDiscount,
+            @RequestParam(required = false) String restaurantId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String shape,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         log.info("Received request for active deals at timeOfDay={}", timeOfDay);
 
-        return restaurantDealsService.getActiveDealsAtTime(timeOfDay)
-                .doOnNext(deals -> log.debug("Found {} deals for {}", deals.size(), timeOfDay))
-                .map(deals -> ResponseEntity.ok(Map.of(DEALS, deals)));
+        DealQuery query = new DealQuery();
+        query.setSuburb(suburb);
+        query.setDineIn(dineIn);
+        query.setLightning(lightning);
+        query.setMinQtyLeft(minQtyLeft);
+        query.setMinDiscount(minDiscount);
+        query.setRestaurantId(restaurantId);
+        query.setSort(sort);
+        query.setLimit(limit);
+        query.setCursor(cursor);
+        DealsShape dealsShape = DealsShape.parse(shape);
+        WireFormat format = WireFormat.negotiate(accept);
+        Mono<RenderedDeals> rendered = query.isRefined()
+                ? restaurantDealsService.queryRenderedActiveDealsAtTime(timeOfDay, query, format, dealsShape)
+                : restaurantDealsService.getRenderedActiveDealsAtTime(timeOfDay, format, dealsShape);
+        return rendered.map(deals -> toResponse(deals, ifNoneMatch, acceptEncoding));
+    }
+
+    // The serialized payload is handed to the codec as-is, no re-mapping or re-serialization. A body
+    // sent with a Content-Encoding is left alone by the server's own response compression
+    static ResponseEntity<?> toResponse(RenderedDeals rendered, String ifNoneMatch, String acceptEncoding) {
+        ContentCoding coding = ContentCoding.negotiate(acceptEncoding, rendered::isEncodable);
+        if (rendered.matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(rendered.getETag(coding))
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(rendered.getContentType())
+                .eTag(rendered.getETag(coding))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        return coding == null
+                ? response.body(rendered.getBody())
+                : response.header(HttpHeaders.CONTENT_ENCODING, coding.getToken()).body(rendered.getEncodedBody(coding));
+    }
+
+    /**
+     * Active deals at {@code timeOfDay} within {@code radiusKm} of ({@code lat}, {@code lon}), nearest
+     * first, each with its distance. Takes the attribute filters and limit of {@code /deals}.
+     */
+    @GetMapping("/deals/nearby")
+    public Mono<ResponseEntity<DealPageResponse>> getNearbyDeals(
+            @Valid
+            @NotBlank(message = MSG_TIME_REQUIRED)
+            @Pattern(
+                    regexp = REGEX_TIME_FORMAT,
+                    message = MSG_INVALID_TIME
+            )
+            @RequestParam String timeOfDay,
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) String suburb,
+            @RequestParam(required = false) Boolean dineIn,
+            @RequestParam(required = false) Boolean lightning,
+            @RequestParam(required = false) Integer minQtyLeft,
+            @RequestParam(required = false) Integer minDiscount,
+            @RequestParam(required = false) Integer limit) {
+
+        log.info("Received request for active deals at timeOfDay={} within {} km of {}, {}",
+                timeOfDay, radiusKm, lat, lon);
+
+        DealQuery query = new DealQuery();
+        query.setSuburb(suburb);
+        query.setDineIn(dineIn);
+        query.setLightning(lightning);
+        query.setMinQtyLeft(minQtyLeft);
+        query.setMinDiscount(minDiscount);
+        query.setLimit(limit);
+        return restaurantDealsService.queryNearbyDealsAtTime(timeOfDay, lat, lon, radiusKm, query)
+                .map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/deals/batch")
+    public Mono<ResponseEntity<DealBatchResponse>> getActiveDealsBatch(@RequestBody DealBatchRequest request) {
+
+        log.info("Received batch request for active deals at {} times",
+                request.getTimes() == null ? 0 : request.getTimes().size());
+
+        return restaurantDealsService.getActiveDealsAtTimes(request)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/deals/timeline")
+    public Mono<ResponseEntity<TimelineResponse>> getTimeline(
+            @RequestParam(defaultValue = "15m") String resolution,
+            @RequestParam(required = false) String groupBy) {
+
+        log.info("Received request for deal timeline resolution={} groupBy={}", resolution, groupBy);
+
+        return restaurantDealsService.getTimeline(resolution, groupBy)
+                .map(ResponseEntity::ok);
     }
 
     @GetMapping("/deals/peak-time")
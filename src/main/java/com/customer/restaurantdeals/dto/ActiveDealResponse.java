@@ -1,5 +1,6 @@
 package com.customer.restaurantdeals.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
@@ -30,5 +31,23 @@ public class ActiveDealResponse {
     private boolean lightning;
     @Min(value = 0, message = MSG_QTY_LEFT)
     private int qtyLeft;
+    /**
+     * {@code true} for a deal served from the last good data of a feed source that failed to
+     * refresh; left out otherwise.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+    /**
+     * Distance from the searched point to the restaurant, for {@code /api/deals/nearby}; left out
+     * otherwise.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+    /**
+     * {@code true} when the distance is to the centroid of the restaurant's suburb, as the feed has
+     * no coordinates for it; left out otherwise.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean approximateLocation;
 
 }
@@ -0,0 +1,87 @@
+package com.customer.restaurantdeals.dto;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Content codings a rendered {@code /api/deals} payload can be served in, besides {@code identity}.
+ * Declared in order of preference when a client accepts several with the same quality.
+ */
+public enum ContentCoding {
+    BR("br"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * The value of the {@code Content-Encoding} header.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * The coding preferred by an {@code Accept-Encoding} header among those {@code available}:
+     * highest quality first, {@code br} before {@code gzip} on a tie. Returns {@code null} to send
+     * the payload as is, for a missing header, no acceptable coding, or {@code identity} explicitly
+     * preferred over all of them.
+     */
+    public static ContentCoding negotiate(String acceptEncoding, Predicate<ContentCoding> available) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double[] qualities = new double[values().length];
+        Arrays.fill(qualities, -1); // not listed
+        double wildcard = -1;
+        double identity = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String token = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (token.equals("*")) {
+                wildcard = quality;
+            } else if (token.equals("identity")) {
+                identity = quality;
+            } else {
+                for (ContentCoding coding : values()) {
+                    if (coding.token.equals(token) || coding == GZIP && token.equals("x-gzip")) {
+                        qualities[coding.ordinal()] = Math.max(qualities[coding.ordinal()], quality);
+                        break;
+                    }
+                }
+            }
+        }
+
+        ContentCoding preferred = null;
+        double best = 0;
+        for (ContentCoding coding : values()) {
+            double quality = qualities[coding.ordinal()] >= 0 ? qualities[coding.ordinal()] : Math.max(wildcard, 0);
+            if (quality > best && available.test(coding)) {
+                preferred = coding;
+                best = quality;
+            }
+        }
+        return preferred != null && identity <= best ? preferred : null;
+    }
+
+    // Unparseable weights count as 1, the default, rather than failing the request
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.charAt(1) == '=') {
+                try {
+                    return Math.min(1, Math.max(0, Double.parseDouble(parameter.substring(2).trim())));
+                } catch (NumberFormatException ex) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+}
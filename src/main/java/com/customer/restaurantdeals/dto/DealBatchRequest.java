@@ -0,0 +1,26 @@
+package com.customer.restaurantdeals.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /api/deals/batch}: the times to look up, with the filters of
+ * {@link DealQuery} applied to every one of them.
+ */
+@Setter
+@Getter
+public class DealBatchRequest {
+    private List<String> times;
+    private String suburb;
+    private Boolean dineIn;
+    private Boolean lightning;
+    private Integer minQtyLeft;
+    private Integer minDiscount;
+    private String restaurantId;
+    /**
+     * Most deals returned per time, in feed order.
+     */
+    private Integer limit;
+}
@@ -0,0 +1,20 @@
+package com.customer.restaurantdeals.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Setter
+@Getter
+public class DealBatchResponse {
+    /**
+     * Active deals per requested time, keyed and ordered as the times were given.
+     */
+    private Map<String, List<ActiveDealResponse>> deals;
+
+    public DealBatchResponse(Map<String, List<ActiveDealResponse>> deals) {
+        this.deals = deals;
+    }
+}
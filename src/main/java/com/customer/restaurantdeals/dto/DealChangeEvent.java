@@ -0,0 +1,39 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A change to the set of active deals, pushed to {@code /api/deals/live} subscribers.
+ */
+@Setter
+@Getter
+public class DealChangeEvent {
+
+    public enum Type {
+        /**
+         * The deal started, or appeared in the feed while in its active hours.
+         */
+        ACTIVATED,
+        /**
+         * The deal ended, or disappeared from the feed.
+         */
+        EXPIRED,
+        QTY_CHANGED
+    }
+
+    private Type type;
+    private ActiveDealResponse deal;
+    /**
+     * Only for {@link Type#QTY_CHANGED}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer previousQtyLeft;
+
+    public DealChangeEvent(Type type, ActiveDealResponse deal, Integer previousQtyLeft) {
+        this.type = type;
+        this.deal = deal;
+        this.previousQtyLeft = previousQtyLeft;
+    }
+}
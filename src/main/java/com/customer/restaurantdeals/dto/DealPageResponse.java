@@ -0,0 +1,23 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class DealPageResponse {
+    private List<ActiveDealResponse> deals;
+    /**
+     * Pass as {@code cursor} to get the next page; absent on the last page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public DealPageResponse(List<ActiveDealResponse> deals, String nextCursor) {
+        this.deals = deals;
+        this.nextCursor = nextCursor;
+    }
+}
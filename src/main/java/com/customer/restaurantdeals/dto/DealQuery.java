@@ -0,0 +1,33 @@
+package com.customer.restaurantdeals.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Optional filters, ordering and page position for an {@code /api/deals} lookup. Unset fields
+ * don't restrict the result.
+ */
+@Setter
+@Getter
+public class DealQuery {
+    private String suburb;
+    private Boolean dineIn;
+    private Boolean lightning;
+    private Integer minQtyLeft;
+    private Integer minDiscount;
+    private String restaurantId;
+    /**
+     * {@code discount} or {@code qtyLeft}, prefixed with {@code -} for descending order.
+     */
+    private String sort;
+    private Integer limit;
+    private String cursor;
+
+    /**
+     * Whether anything beyond the plain time-of-day lookup was asked for.
+     */
+    public boolean isRefined() {
+        return suburb != null || dineIn != null || lightning != null || minQtyLeft != null
+                || minDiscount != null || restaurantId != null || sort != null || limit != null || cursor != null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * The deal fields of an {@link ActiveDealResponse}, nested under its restaurant.
+ */
+@Data
+public class DealResponse {
+    private String dealObjectId;
+    private String discount;
+    private boolean dineIn;
+    private boolean lightning;
+    private int qtyLeft;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+}
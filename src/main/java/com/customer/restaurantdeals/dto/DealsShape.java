@@ -0,0 +1,26 @@
+package com.customer.restaurantdeals.dto;
+
+import com.customer.restaurantdeals.exception.InvalidDealQueryException;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_INVALID_SHAPE;
+
+/**
+ * Layout of an {@code /api/deals} payload: {@code flat} repeats the restaurant fields on every deal
+ * ({@link ActiveDealResponse}), {@code grouped} lists each restaurant once with its deals nested
+ * ({@link GroupedDealsResponse}).
+ */
+public enum DealsShape {
+    FLAT,
+    GROUPED;
+
+    public static DealsShape parse(String shape) {
+        if (shape == null) {
+            return FLAT;
+        }
+        return switch (shape) {
+            case "flat" -> FLAT;
+            case "grouped" -> GROUPED;
+            default -> throw new InvalidDealQueryException(MSG_INVALID_SHAPE);
+        };
+    }
+}
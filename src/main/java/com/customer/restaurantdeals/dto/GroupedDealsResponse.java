@@ -0,0 +1,28 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The {@code grouped} shape of an {@code /api/deals} payload. Restaurants are listed in the order
+ * of their deals, so each appears once in feed order; a sort can split a restaurant's deals over
+ * several entries.
+ */
+@Setter
+@Getter
+public class GroupedDealsResponse {
+    private List<RestaurantDealsResponse> restaurants;
+    /**
+     * Pass as {@code cursor} to get the next page; absent on the last page.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    public GroupedDealsResponse(List<RestaurantDealsResponse> restaurants, String nextCursor) {
+        this.restaurants = restaurants;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -13,10 +13,16 @@ public class PeakTimeResponse {
     private String peakTimeStart;
     @NotBlank(message = MSG_BLANK_END_TIME)
     private String peakTimeEnd;
+    private int activeDeals;
 
     public PeakTimeResponse(String peakTimeStart, String peakTimeEnd) {
         this.peakTimeStart = peakTimeStart;
         this.peakTimeEnd = peakTimeEnd;
     }
 
+    public PeakTimeResponse(String peakTimeStart, String peakTimeEnd, int activeDeals) {
+        this(peakTimeStart, peakTimeEnd);
+        this.activeDeals = activeDeals;
+    }
+
 }
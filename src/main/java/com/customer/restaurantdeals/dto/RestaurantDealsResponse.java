@@ -0,0 +1,19 @@
+package com.customer.restaurantdeals.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A restaurant and its active deals, in the {@code grouped} shape.
+ */
+@Data
+public class RestaurantDealsResponse {
+    private String restaurantObjectId;
+    private String restaurantName;
+    private String restaurantAddress1;
+    private String restaurantSuburb;
+    private String restaurantOpen;
+    private String restaurantClose;
+    private List<DealResponse> deals;
+}
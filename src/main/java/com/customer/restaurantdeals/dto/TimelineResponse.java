@@ -0,0 +1,53 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Active deal and restaurant counts over the day, one series per group. Each point covers
+ * {@code resolution} minutes from its {@code time} and carries the largest counts within them.
+ */
+@Setter
+@Getter
+public class TimelineResponse {
+    private String resolution;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String groupBy;
+    private List<Series> series;
+
+    public TimelineResponse(String resolution, String groupBy, List<Series> series) {
+        this.resolution = resolution;
+        this.groupBy = groupBy;
+        this.series = series;
+    }
+
+    @Setter
+    @Getter
+    public static class Series {
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String group;
+        private List<Point> points;
+
+        public Series(String group, List<Point> points) {
+            this.group = group;
+            this.points = points;
+        }
+    }
+
+    @Setter
+    @Getter
+    public static class Point {
+        private String time;
+        private int deals;
+        private int restaurants;
+
+        public Point(String time, int deals, int restaurants) {
+            this.time = time;
+            this.deals = deals;
+            this.restaurants = restaurants;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.customer.restaurantdeals.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.NotAcceptableStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Encodings an {@code /api/deals} payload can be rendered in. The binary ones carry the same
+ * fields as the JSON, written by a copy of the application's JSON mapper.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private static final List<MediaType> MEDIA_TYPES = List.of(JSON.mediaType, CBOR.mediaType, SMILE.mediaType);
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * A mapper writing this format with the configuration and modules of {@code jsonMapper}.
+     */
+    public ObjectMapper mapperFrom(ObjectMapper jsonMapper) {
+        return switch (this) {
+            case JSON -> jsonMapper;
+            case CBOR -> jsonMapper.copyWith(new CBORFactory());
+            case SMILE -> jsonMapper.copyWith(new SmileFactory());
+        };
+    }
+
+    /**
+     * The format preferred by an {@code Accept} header: highest quality first, then the order the
+     * client listed them in, with JSON for a missing header or wildcards.
+     *
+     * @throws NotAcceptableStatusException when none of the formats is acceptable
+     */
+    public static WireFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException ex) {
+            throw new NotAcceptableStatusException("Could not parse Accept header: " + ex.getMessage());
+        }
+        acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : acceptable) {
+            if (mediaType.getQualityValue() == 0) {
+                break;
+            }
+            for (WireFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        throw new NotAcceptableStatusException(MEDIA_TYPES);
+    }
+}
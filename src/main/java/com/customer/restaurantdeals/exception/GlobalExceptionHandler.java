@@ -2,13 +2,16 @@ package com.customer.restaurantdeals.exception;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebInputException;
-import org.springframework.web.servlet.NoHandlerFoundException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,6 +30,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidDealQueryException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidDealQuery(InvalidDealQueryException ex) {
+        log.warn("InvalidDealQueryException", ex);
+        Map<String, String> response = new HashMap<>();
+        response.put(ERROR, ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(RestaurantServiceUnavailableException.class)
     public ResponseEntity<Map<String, String>> handleRestaurantServiceUnavailable(RestaurantServiceUnavailableException ex) {
         log.error("Service unavailable", ex);
@@ -43,11 +54,18 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
-    @ExceptionHandler(NoHandlerFoundException.class)
-    public ResponseEntity<Map<String, String>> handleNotFound(NoHandlerFoundException ex) {
+    // Handles routing failures (no matching handler, method not allowed, unsupported media type),
+    // keeping the headers they require, e.g. Allow on a 405 and Accept on a 415
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<Map<String, String>> handleResponseStatus(ResponseStatusException ex) {
         Map<String, String> response = new HashMap<>();
-        response.put(ERROR, "Resource not found");
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        if (ex.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+            response.put(ERROR, MSG_RESOURCE_NOT_FOUND);
+        } else {
+            log.warn("Request rejected", ex);
+            response.put(ERROR, ex.getReason() != null ? ex.getReason() : ex.getStatusCode().toString());
+        }
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(response);
     }
 
     @ExceptionHandler(WebExchangeBindException.class)
@@ -74,14 +92,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errors);
     }
 
-    // Handles missing query params and type‐mismatch errors in WebFlux
+    // Handles missing query params, type‐mismatch errors (e.g. dineIn=maybe) and missing or
+    // unparsable JSON request bodies
     @ExceptionHandler(ServerWebInputException.class)
     public ResponseEntity<Map<String, String>> handleMissingParam(ServerWebInputException ex) {
         log.warn("Missing or invalid input", ex);
         Map<String, String> errors = new HashMap<>();
         String reason = ex.getReason();
-        // If it's the missing timeOfDay param, we normalize the message:
-        if (reason != null && reason.contains("timeOfDay")) {
+        MethodParameter parameter = ex.getMethodParameter();
+        if (parameter != null && parameter.hasParameterAnnotation(RequestBody.class)) {
+            errors.put(ERROR, MSG_INVALID_BODY);
+        } else if (parameter != null && ex.getCause() instanceof TypeMismatchException) {
+            errors.put(parameter.getParameterName(), MSG_INVALID_PARAMETER + parameter.getParameterName());
+        } else if (reason != null && reason.contains("timeOfDay")) {
+            // If it's the missing timeOfDay param, we normalize the message
             errors.put("timeOfDay", MSG_TIME_REQUIRED);
         } else {
             errors.put("error", reason);
@@ -0,0 +1,7 @@
+package com.customer.restaurantdeals.exception;
+
+public class InvalidDealQueryException extends RuntimeException {
+    public InvalidDealQueryException(String message) {
+        super(message);
+    }
+}
@@ -1,28 +1,92 @@
 package com.customer.restaurantdeals.mapper;
 
 import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealResponse;
+import com.customer.restaurantdeals.dto.RestaurantDealsResponse;
 import com.customer.restaurantdeals.model.Deal;
 import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.util.MinuteOfDay;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface ActiveDealResponseMapper {
 
     @Mapping(target = "restaurantOpen", source = "restaurant.restaurantOpen", qualifiedByName = "localTimeToString")
     @Mapping(target = "restaurantClose", source = "restaurant.restaurantClose", qualifiedByName = "localTimeToString")
+    @Mapping(target = "stale", ignore = true)
+    @Mapping(target = "distanceKm", ignore = true)
+    @Mapping(target = "approximateLocation", ignore = true)
     ActiveDealResponse toResponse(Restaurant restaurant, Deal deal);
 
+    /**
+     * Maps row {@code ordinal} of a snapshot's columnar store.
+     */
+    default ActiveDealResponse toResponse(DealStore store, int ordinal) {
+        int restaurant = store.restaurantOf(ordinal);
+        ActiveDealResponse response = new ActiveDealResponse();
+        response.setRestaurantObjectId(store.restaurantId(restaurant));
+        response.setRestaurantName(store.restaurantName(restaurant));
+        response.setRestaurantAddress1(store.restaurantAddress1(restaurant));
+        response.setRestaurantSuburb(store.restaurantSuburb(restaurant));
+        response.setRestaurantOpen(mapMinuteToString(store.restaurantOpen(restaurant)));
+        response.setRestaurantClose(mapMinuteToString(store.restaurantClose(restaurant)));
+        response.setDealObjectId(store.dealId(ordinal));
+        response.setDiscount(store.discount(ordinal));
+        response.setDineIn(store.dineIn(ordinal));
+        response.setLightning(store.lightning(ordinal));
+        response.setQtyLeft(store.qtyLeft(ordinal));
+        if (store.stale(ordinal)) {
+            response.setStale(Boolean.TRUE);
+        }
+        return response;
+    }
+
+    /**
+     * Maps rows {@code ordinals[from..to)}, which all belong to one restaurant, to that restaurant
+     * with the deals nested.
+     */
+    default RestaurantDealsResponse toRestaurantResponse(DealStore store, int[] ordinals, int from, int to) {
+        int restaurant = store.restaurantOf(ordinals[from]);
+        RestaurantDealsResponse response = new RestaurantDealsResponse();
+        response.setRestaurantObjectId(store.restaurantId(restaurant));
+        response.setRestaurantName(store.restaurantName(restaurant));
+        response.setRestaurantAddress1(store.restaurantAddress1(restaurant));
+        response.setRestaurantSuburb(store.restaurantSuburb(restaurant));
+        response.setRestaurantOpen(mapMinuteToString(store.restaurantOpen(restaurant)));
+        response.setRestaurantClose(mapMinuteToString(store.restaurantClose(restaurant)));
+        List<DealResponse> deals = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            DealResponse deal = new DealResponse();
+            deal.setDealObjectId(store.dealId(ordinals[i]));
+            deal.setDiscount(store.discount(ordinals[i]));
+            deal.setDineIn(store.dineIn(ordinals[i]));
+            deal.setLightning(store.lightning(ordinals[i]));
+            deal.setQtyLeft(store.qtyLeft(ordinals[i]));
+            if (store.stale(ordinals[i])) {
+                deal.setStale(Boolean.TRUE);
+            }
+            deals.add(deal);
+        }
+        response.setDeals(deals);
+        return response;
+    }
+
     @Named("localTimeToString")
     default String mapLocalTimeToString(LocalTime time) {
         if (time == null) {
             return null;
         }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("h:mma");
-        return time.format(formatter).toLowerCase();
+        return MinuteOfDay.format(MinuteOfDay.of(time));
+    }
+
+    default String mapMinuteToString(int minute) {
+        return minute == MinuteOfDay.INVALID ? null : MinuteOfDay.format(minute);
     }
 }
@@ -1,6 +1,7 @@
 package com.customer.restaurantdeals.model;
 
 import com.customer.restaurantdeals.configuration.CustomLocalTimeDeserializer;
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Getter;
@@ -26,6 +27,12 @@ public class Restaurant {
     @JsonProperty("close")
     @JsonDeserialize(using = CustomLocalTimeDeserializer.class)
     private LocalTime restaurantClose;
+    @JsonProperty("latitude")
+    @JsonAlias("lat")
+    private Double latitude;
+    @JsonProperty("longitude")
+    @JsonAlias({"lng", "lon"})
+    private Double longitude;
     private List<Deal> deals;
 
 }
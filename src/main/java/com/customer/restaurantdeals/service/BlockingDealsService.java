@@ -0,0 +1,101 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Plain blocking API over the same lookups as {@link RestaurantDealsService}, for the
+ * {@code blocking} execution mode. Each call runs start to finish on the calling thread, which
+ * waits for the shared snapshot when it has to be fetched.
+ */
+@Service
+@ConditionalOnProperty(name = EXECUTION_MODE_PROPERTY, havingValue = EXECUTION_MODE_BLOCKING)
+@Slf4j
+public class BlockingDealsService {
+
+    private final RestaurantDealsService dealsService;
+    private final RestaurantFeedCache feedCache;
+
+    public BlockingDealsService(RestaurantDealsService dealsService, RestaurantFeedCache feedCache) {
+        this.dealsService = dealsService;
+        this.feedCache = feedCache;
+    }
+
+    public List<ActiveDealResponse> getActiveDealsAtTime(String timeOfDay) {
+        List<ActiveDealResponse> deals = dealsService.activeDealsAt(timeOfDay).apply(snapshot());
+        log.info("Returning {} active deals", deals.size());
+        return deals;
+    }
+
+    public RenderedDeals getRenderedActiveDealsAtTime(String timeOfDay, WireFormat format, DealsShape shape) {
+        return dealsService.renderedDealsAt(timeOfDay, format, shape).apply(snapshot());
+    }
+
+    public DealPageResponse queryActiveDealsAtTime(String timeOfDay, DealQuery query) {
+        DealPageResponse page = dealsService.dealPageAt(timeOfDay, query).apply(snapshot());
+        log.info("Returning a page of {} active deals", page.getDeals().size());
+        return page;
+    }
+
+    public RenderedDeals queryRenderedActiveDealsAtTime(String timeOfDay, DealQuery query, WireFormat format,
+                                                        DealsShape shape) {
+        return dealsService.renderedDealPageAt(timeOfDay, query, format, shape).apply(snapshot());
+    }
+
+    public DealPageResponse queryNearbyDealsAtTime(String timeOfDay, double latitude, double longitude,
+                                                   double radiusKm, DealQuery query) {
+        DealPageResponse page = dealsService.nearbyDealsAt(timeOfDay, latitude, longitude, radiusKm, query)
+                .apply(snapshot());
+        log.info("Returning {} nearby active deals", page.getDeals().size());
+        return page;
+    }
+
+    public DealBatchResponse getActiveDealsAtTimes(DealBatchRequest request) {
+        DealBatchResponse response = dealsService.dealsAtTimes(request).apply(snapshot());
+        log.info("Returning active deals for {} times", response.getDeals().size());
+        return response;
+    }
+
+    public TimelineResponse getTimeline(String resolution, String groupBy) {
+        return dealsService.timeline(resolution, groupBy).apply(snapshot());
+    }
+
+    /**
+     * The peak window, {@code null} when no deal is ever active.
+     */
+    public PeakTimeResponse findPeakDealTimeWindow() {
+        PeakTimeResponse response = dealsService.peakWindow().apply(snapshot());
+        if (response != null) {
+            log.info("Peak window found: {} - {} with {} deals",
+                    response.getPeakTimeStart(), response.getPeakTimeEnd(), response.getActiveDeals());
+        } else {
+            log.info("No peak window found");
+        }
+        return response;
+    }
+
+    private FeedSnapshot snapshot() {
+        FeedSnapshot snapshot = feedCache.getSnapshot().block();
+        if (snapshot == null) {
+            throw new RestaurantServiceUnavailableException(MSG_SERVICE_UNAVAILABLE);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,241 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealChangeEvent;
+import com.customer.restaurantdeals.dto.DealChangeEvent.Type;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Pushes changes to the set of active deals to any number of subscribers.
+ * <p>
+ * Changes are computed once, by comparing the deals active for the last (snapshot, minute of day)
+ * with the current one, whenever the feed cache installs a new snapshot and right after every
+ * minute boundary. The result is multicast through a single sink, so the cost of a change does
+ * not depend on the number of subscribers; each subscriber only applies its own filter. Nothing is
+ * computed, and the upstream feed is not polled by this class, while nobody is subscribed.
+ */
+@Component
+@Slf4j
+public class DealChangeFeed {
+
+    private final RestaurantFeedCache feedCache;
+    private final ActiveDealResponseMapper mapper;
+    private final int bufferSize;
+    private final Clock clock;
+
+    private final Sinks.Many<DealChangeEvent> changes = Sinks.many().multicast().directBestEffort();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final Counter events;
+    private final Counter dropped;
+
+    // Last evaluated state, guarded by this
+    private FeedSnapshot lastSnapshot;
+    private int lastMinute;
+    private int[] lastActive;
+
+    @Autowired
+    public DealChangeFeed(RestaurantFeedCache feedCache,
+                          ActiveDealResponseMapper mapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${restaurantdeals.live.buffer-size:256}") int bufferSize,
+                          @Value("${restaurantdeals.live.zone:}") String zone) {
+        this(feedCache, mapper, meterRegistry, bufferSize,
+                Clock.system(zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone)));
+    }
+
+    DealChangeFeed(RestaurantFeedCache feedCache, ActiveDealResponseMapper mapper, MeterRegistry meterRegistry,
+                   int bufferSize, Clock clock) {
+        this.feedCache = feedCache;
+        this.mapper = mapper;
+        this.bufferSize = bufferSize;
+        this.clock = clock;
+
+        this.events = Counter.builder(METRIC_LIVE_EVENTS)
+                .description("Deal change events published to live subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder(METRIC_LIVE_DROPPED)
+                .description("Deal change events dropped for subscribers too slow to keep up")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_LIVE_SUBSCRIBERS, changes, Sinks.Many::currentSubscriberCount)
+                .description("Live deal change subscribers")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        subscriptions.add(Mono.defer(() -> Mono.delay(untilNextMinute()))
+                .repeat()
+                .filter(tick -> hasSubscribers())
+                .concatMap(tick -> feedCache.getSnapshot()
+                        .onErrorResume(ex -> {
+                            log.warn("Live deal changes skipped a minute: {}", ex.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe(this::advance));
+        subscriptions.add(feedCache.updates()
+                .filter(snapshot -> hasSubscribers())
+                .subscribe(this::advance));
+    }
+
+    @PreDestroy
+    void stop() {
+        subscriptions.dispose();
+        changes.tryEmitComplete();
+    }
+
+    /**
+     * Changes from now on whose deal matches {@code filter}. A subscriber that falls more than the
+     * buffer size behind loses its oldest pending events.
+     */
+    public Flux<DealChangeEvent> subscribe(Predicate<ActiveDealResponse> filter) {
+        return changes.asFlux()
+                .doOnSubscribe(subscription -> establishBaseline())
+                .filter(event -> filter.test(event.getDeal()))
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Subscriber filter on restaurant suburb (ignoring case), restaurant id and lightning flag;
+     * {@code null} criteria match everything.
+     */
+    public static Predicate<ActiveDealResponse> filter(String suburb, String restaurantId, Boolean lightning) {
+        return deal -> (suburb == null || suburb.equalsIgnoreCase(deal.getRestaurantSuburb()))
+                && (restaurantId == null || restaurantId.equals(deal.getRestaurantObjectId()))
+                && (lightning == null || lightning == deal.isLightning());
+    }
+
+    private boolean hasSubscribers() {
+        if (changes.currentSubscriberCount() > 0) {
+            return true;
+        }
+        synchronized (this) {
+            // Diffing against a state from before an idle period would replay everything in between
+            lastSnapshot = null;
+        }
+        return false;
+    }
+
+    private void establishBaseline() {
+        synchronized (this) {
+            if (lastSnapshot != null) {
+                return;
+            }
+        }
+        feedCache.getSnapshot().subscribe(this::advance,
+                ex -> log.warn("Live deal changes have no baseline yet: {}", ex.getMessage()));
+    }
+
+    /**
+     * Publishes what changed between the last evaluated state and {@code snapshot} at the current
+     * minute. The first state after an idle period only becomes the baseline.
+     */
+    synchronized void advance(FeedSnapshot snapshot) {
+        int minute = MinuteOfDay.of(LocalTime.now(clock));
+        if (lastSnapshot != null) {
+            if (snapshot.getVersion() < lastSnapshot.getVersion()
+                    || snapshot.getVersion() == lastSnapshot.getVersion() && minute == lastMinute) {
+                return;
+            }
+        }
+
+        int[] active = snapshot.getDealIndex().activeAt(minute);
+        if (lastSnapshot != null) {
+            List<DealChangeEvent> diff = snapshot.getVersion() == lastSnapshot.getVersion()
+                    ? diffSameStore(snapshot.getDealStore(), lastActive, active)
+                    : diff(lastSnapshot.getDealStore(), lastActive, snapshot.getDealStore(), active);
+            if (!diff.isEmpty()) {
+                log.debug("Publishing {} deal changes at minute {} of snapshot v{}", diff.size(), minute,
+                        snapshot.getVersion());
+            }
+            for (DealChangeEvent event : diff) {
+                events.increment();
+                changes.tryEmitNext(event);
+            }
+        }
+        lastSnapshot = snapshot;
+        lastMinute = minute;
+        lastActive = active;
+    }
+
+    // Both arrays are ascending ordinals of the same store, so a merge finds the differences
+    private List<DealChangeEvent> diffSameStore(DealStore store, int[] before, int[] after) {
+        List<DealChangeEvent> diff = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.length || j < after.length) {
+            if (j == after.length || i < before.length && before[i] < after[j]) {
+                diff.add(new DealChangeEvent(Type.EXPIRED, mapper.toResponse(store, before[i++]), null));
+            } else if (i == before.length || after[j] < before[i]) {
+                diff.add(new DealChangeEvent(Type.ACTIVATED, mapper.toResponse(store, after[j++]), null));
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return diff;
+    }
+
+    // Ordinals differ between stores, deals are matched by restaurant and deal id instead
+    private List<DealChangeEvent> diff(DealStore oldStore, int[] before, DealStore newStore, int[] after) {
+        Map<String, Integer> previous = new HashMap<>(before.length * 2);
+        for (int ordinal : before) {
+            previous.put(key(oldStore, ordinal), ordinal);
+        }
+
+        List<DealChangeEvent> diff = new ArrayList<>();
+        for (int ordinal : after) {
+            Integer old = previous.remove(key(newStore, ordinal));
+            if (old == null) {
+                diff.add(new DealChangeEvent(Type.ACTIVATED, mapper.toResponse(newStore, ordinal), null));
+            } else if (oldStore.qtyLeft(old) != newStore.qtyLeft(ordinal)) {
+                diff.add(new DealChangeEvent(Type.QTY_CHANGED, mapper.toResponse(newStore, ordinal),
+                        oldStore.qtyLeft(old)));
+            }
+        }
+        for (int ordinal : before) {
+            if (previous.containsKey(key(oldStore, ordinal))) {
+                diff.add(new DealChangeEvent(Type.EXPIRED, mapper.toResponse(oldStore, ordinal), null));
+            }
+        }
+        return diff;
+    }
+
+    private static String key(DealStore store, int ordinal) {
+        return store.restaurantId(store.restaurantOf(ordinal)) + '\u0000' + store.dealId(ordinal);
+    }
+
+    private Duration untilNextMinute() {
+        LocalTime now = LocalTime.now(clock);
+        return Duration.ofNanos(60_000_000_000L - (now.getSecond() * 1_000_000_000L + now.getNano()));
+    }
+}
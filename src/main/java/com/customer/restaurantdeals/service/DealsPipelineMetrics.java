@@ -0,0 +1,67 @@
+package com.customer.restaurantdeals.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Timers for the request-path stages of the deals pipeline (index lookup, filtering, mapping,
+ * serialization, compression), tagged by stage and endpoint.
+ * <p>
+ * With a {@code sample-rate} below 1 only that fraction of calls is timed; the others run the work
+ * without reading the clock or touching a meter, which keeps the instrumentation out of profiles
+ * under load. Counts of sampled timers are then a fraction of the real call counts.
+ */
+@Component
+public class DealsPipelineMetrics {
+
+    public static final String STAGE_LOOKUP = "lookup";
+    public static final String STAGE_MAPPING = "mapping";
+    public static final String STAGE_SERIALIZATION = "serialization";
+    public static final String STAGE_COMPRESSION = "compression";
+
+    private final MeterRegistry meterRegistry;
+    private final double sampleRate;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DealsPipelineMetrics(MeterRegistry meterRegistry,
+                                @Value("${restaurantdeals.metrics.sample-rate:1.0}") double sampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+    }
+
+    public <T> T record(String stage, String endpoint, Supplier<T> work) {
+        if (!sampled()) {
+            return work.get();
+        }
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            timer(stage, endpoint).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private Timer timer(String stage, String endpoint) {
+        return timers.computeIfAbsent(stage + ' ' + endpoint, key -> Timer.builder(METRIC_PIPELINE_STAGE)
+                .description("Time spent in one stage of answering a deals request")
+                .tag("stage", stage)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,277 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static com.customer.restaurantdeals.service.DealsPipelineMetrics.STAGE_SERIALIZATION;
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Serialized {@code /api/deals} payloads for each minute of the day, wire format and shape, scoped
+ * to a feed snapshot.
+ * <p>
+ * Entries are rendered lazily on first request and dropped wholesale when a newer snapshot
+ * shows up, so a payload is never served for data it was not rendered from. Each entry also keeps
+ * its compressed bodies, made by the {@link PayloadCompressor} the first time a client asks for them.
+ */
+@Component
+@Slf4j
+public class DealsResponseCache {
+
+    private static final int VARIANTS = WireFormat.values().length * DealsShape.values().length;
+
+    private final ObjectMapper[] objectMappers = new ObjectMapper[WireFormat.values().length];
+    private final MeterRegistry meterRegistry;
+    private final DealsPipelineMetrics metrics;
+    private final PayloadCompressor compressor;
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final AtomicReferenceArray<DistributionSummary> responseSizes = new AtomicReferenceArray<>(VARIANTS);
+
+    public DealsResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, DealsPipelineMetrics metrics) {
+        this(objectMapper, meterRegistry, metrics, null);
+    }
+
+    /**
+     * @param compressor pre-compresses cached payloads; {@code null} leaves all compression to the server
+     */
+    @Autowired
+    public DealsResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, DealsPipelineMetrics metrics,
+                              PayloadCompressor compressor) {
+        for (WireFormat format : WireFormat.values()) {
+            objectMappers[format.ordinal()] = format.mapperFrom(objectMapper);
+        }
+        this.meterRegistry = meterRegistry;
+        this.metrics = metrics;
+        this.compressor = compressor;
+        this.hits = cacheRequests(meterRegistry, "hit");
+        this.misses = cacheRequests(meterRegistry, "miss");
+        Gauge.builder(METRIC_RESPONSE_CACHE_SIZE, this, DealsResponseCache::entries)
+                .description("Rendered /api/deals payloads held for the current snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The flat JSON payload, {@code {"deals": [...]}}.
+     */
+    public RenderedDeals get(FeedSnapshot snapshot, int minute, Supplier<List<ActiveDealResponse>> deals) {
+        return get(snapshot, minute, WireFormat.JSON, DealsShape.FLAT, () -> Map.of(DEALS, deals.get()));
+    }
+
+    /**
+     * The payload of {@code shape} in {@code format}; {@code payload} supplies the object to
+     * serialize when it is not cached yet.
+     */
+    public RenderedDeals get(FeedSnapshot snapshot, int minute, WireFormat format, DealsShape shape,
+                             Supplier<?> payload) {
+        AtomicReferenceArray<RenderedDeals> slots = slotsFor(snapshot);
+        int variant = variant(format, shape);
+        int slot = variant * MINUTES_PER_DAY + minute;
+        RenderedDeals rendered = slots.get(slot);
+        if (rendered != null) {
+            hits.increment();
+            return rendered;
+        }
+
+        misses.increment();
+        Object body = payload.get();
+        RenderedDeals serialized = metrics.record(STAGE_SERIALIZATION, ENDPOINT_DEALS, () -> serialize(format, body));
+        rendered = new RenderedDeals(serialized.body, serialized.eTag, serialized.contentType, compressor);
+        responseSize(variant, format, shape).record(rendered.getBody().length);
+        // Keep whichever rendering won a race so every caller sees the same bytes
+        if (slots.compareAndSet(slot, null, rendered)) {
+            Generation current = generation.get();
+            if (current != null && current.slots == slots) {
+                current.entries.incrementAndGet();
+            }
+            return rendered;
+        }
+        return slots.get(slot);
+    }
+
+    /**
+     * Serializes {@code payload} as {@code format} without caching it, e.g. a filtered page. Its
+     * compression, if any, is left to the server.
+     */
+    public RenderedDeals render(WireFormat format, Object payload) {
+        return metrics.record(STAGE_SERIALIZATION, ENDPOINT_DEALS_QUERY, () -> serialize(format, payload));
+    }
+
+    private static int variant(WireFormat format, DealsShape shape) {
+        return format.ordinal() * DealsShape.values().length + shape.ordinal();
+    }
+
+    // Registered on first use, so only the variants clients actually ask for show up
+    private DistributionSummary responseSize(int variant, WireFormat format, DealsShape shape) {
+        DistributionSummary summary = responseSizes.get(variant);
+        if (summary == null) {
+            summary = DistributionSummary.builder(METRIC_RESPONSE_SIZE)
+                    .description("Size of rendered /api/deals payloads")
+                    .baseUnit("bytes")
+                    .tag("endpoint", ENDPOINT_DEALS)
+                    .tag("format", format.name().toLowerCase())
+                    .tag("shape", shape.name().toLowerCase())
+                    .register(meterRegistry);
+            responseSizes.set(variant, summary);
+        }
+        return summary;
+    }
+
+    private double entries() {
+        Generation current = generation.get();
+        return current == null ? 0 : current.entries.get();
+    }
+
+    private AtomicReferenceArray<RenderedDeals> slotsFor(FeedSnapshot snapshot) {
+        while (true) {
+            Generation current = generation.get();
+            if (current != null && current.version >= snapshot.getVersion()) {
+                return current.version == snapshot.getVersion()
+                        ? current.slots
+                        : new AtomicReferenceArray<>(VARIANTS * MINUTES_PER_DAY); // request raced with a refresh, don't cache
+            }
+            Generation next = new Generation(snapshot.getVersion());
+            if (generation.compareAndSet(current, next)) {
+                log.debug("Response cache reset for snapshot v{}", snapshot.getVersion());
+                return next.slots;
+            }
+        }
+    }
+
+    private RenderedDeals serialize(WireFormat format, Object payload) {
+        try {
+            byte[] body = objectMappers[format.ordinal()].writeValueAsBytes(payload);
+            return new RenderedDeals(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", format.getMediaType());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counter cacheRequests(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_RESPONSE_CACHE_REQUESTS)
+                .description("Rendered /api/deals payload lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Generation {
+        private final long version;
+        private final AtomicReferenceArray<RenderedDeals> slots = new AtomicReferenceArray<>(VARIANTS * MINUTES_PER_DAY);
+        private final AtomicInteger entries = new AtomicInteger();
+
+        private Generation(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * A serialized deals payload together with its content type and strong, content-derived ETag.
+     * Cached payloads also carry their compressed bodies, each made once on first use.
+     */
+    @Getter
+    public static final class RenderedDeals {
+        private final byte[] body;
+        private final String eTag;
+        private final MediaType contentType;
+        @Getter(AccessLevel.NONE)
+        private final PayloadCompressor compressor;
+        @Getter(AccessLevel.NONE)
+        private final AtomicReferenceArray<byte[]> encodedBodies = new AtomicReferenceArray<>(ContentCoding.values().length);
+
+        public RenderedDeals(byte[] body, String eTag) {
+            this(body, eTag, MediaType.APPLICATION_JSON);
+        }
+
+        public RenderedDeals(byte[] body, String eTag, MediaType contentType) {
+            this(body, eTag, contentType, null);
+        }
+
+        public RenderedDeals(byte[] body, String eTag, MediaType contentType, PayloadCompressor compressor) {
+            this.body = body;
+            this.eTag = eTag;
+            this.contentType = contentType;
+            this.compressor = compressor;
+        }
+
+        /**
+         * Whether this payload is served pre-compressed in {@code coding}.
+         */
+        public boolean isEncodable(ContentCoding coding) {
+            return compressor != null && compressor.supports(coding, body.length);
+        }
+
+        /**
+         * The body compressed in {@code coding}; see {@link #isEncodable}. Concurrent first requests
+         * may both compress it, but all callers get the same bytes.
+         */
+        public byte[] getEncodedBody(ContentCoding coding) {
+            byte[] encoded = encodedBodies.get(coding.ordinal());
+            if (encoded == null) {
+                encoded = compressor.compress(coding, body);
+                if (!encodedBodies.compareAndSet(coding.ordinal(), null, encoded)) {
+                    encoded = encodedBodies.get(coding.ordinal());
+                }
+            }
+            return encoded;
+        }
+
+        /**
+         * The ETag of the body in {@code coding}, {@code null} for the uncompressed one. A strong
+         * ETag names exact bytes, so each coding gets its own.
+         */
+        public String getETag(ContentCoding coding) {
+            return coding == null ? eTag : eTag.substring(0, eTag.length() - 1) + '-' + coding.getToken() + '"';
+        }
+
+        /**
+         * Whether an {@code If-None-Match} header value matches this payload.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(eTag)) {
+                    return true;
+                }
+                for (ContentCoding coding : ContentCoding.values()) {
+                    if (tag.equals(getETag(coding))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
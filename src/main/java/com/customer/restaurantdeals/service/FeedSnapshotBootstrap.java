@@ -0,0 +1,177 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SnapshotFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Gets a feed snapshot in place at startup and keeps its on-disk copy current.
+ * <p>
+ * Before the application takes traffic, the last snapshot saved to {@code restaurantdeals.snapshot.file}
+ * is restored into {@link RestaurantFeedCache} (unless older than {@code max-age}), and a first
+ * upstream fetch is started in the background, which revalidates a restored snapshot. From then on
+ * every snapshot with new content is written to the file off the request path. The time from JVM
+ * start to the first snapshot in place, restored or fetched, is logged and exposed as a metric.
+ * A blank file disables persistence.
+ */
+@Component
+@Slf4j
+public class FeedSnapshotBootstrap {
+
+    private static final Duration WARM_UP_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration WARM_UP_MAX_BACKOFF = Duration.ofSeconds(30);
+
+    private final RestaurantFeedCache feedCache;
+    private final Sharding sharding;
+    private final Path file;
+    private final Duration maxAge;
+    private final boolean warmUp;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final AtomicBoolean firstSnapshot = new AtomicBoolean();
+    private final Timer reads;
+    private final Timer writes;
+    private final Counter readFailures;
+    private final Counter writeFailures;
+
+    @Autowired
+    public FeedSnapshotBootstrap(RestaurantFeedCache feedCache,
+                                 Sharding sharding,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${restaurantdeals.snapshot.file:}") String file,
+                                 @Value("${restaurantdeals.snapshot.max-age:24h}") Duration maxAge,
+                                 @Value("${restaurantdeals.snapshot.warm-up:true}") boolean warmUp) {
+        this(feedCache, sharding, meterRegistry, file.isBlank() ? null : Path.of(file), maxAge, warmUp,
+                Clock.systemUTC());
+    }
+
+    FeedSnapshotBootstrap(RestaurantFeedCache feedCache, Sharding sharding, MeterRegistry meterRegistry, Path file,
+                          Duration maxAge, boolean warmUp, Clock clock) {
+        this.feedCache = feedCache;
+        this.sharding = sharding;
+        this.file = file;
+        this.maxAge = maxAge;
+        this.warmUp = warmUp;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+
+        this.reads = Timer.builder(METRIC_SNAPSHOT_FILE_READ)
+                .description("Time to read and index the snapshot file at startup")
+                .register(meterRegistry);
+        this.writes = Timer.builder(METRIC_SNAPSHOT_FILE_WRITE)
+                .description("Time to write a new snapshot to the snapshot file")
+                .register(meterRegistry);
+        this.readFailures = fileFailures(meterRegistry, "read");
+        this.writeFailures = fileFailures(meterRegistry, "write");
+    }
+
+    @PostConstruct
+    void start() {
+        if (file != null) {
+            restore();
+            subscriptions.add(feedCache.updates()
+                    .publishOn(Schedulers.boundedElastic())
+                    .subscribe(this::save));
+        }
+        subscriptions.add(feedCache.updates()
+                .next()
+                .subscribe(snapshot -> firstSnapshot("upstream")));
+        if (warmUp) {
+            // Readiness waits on a snapshot and nothing else sends requests until then, so keep trying
+            subscriptions.add(feedCache.getSnapshot()
+                    .doOnError(ex -> log.warn("Initial fetch of restaurant feed failed: {}", ex.getMessage()))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, WARM_UP_BACKOFF).maxBackoff(WARM_UP_MAX_BACKOFF))
+                    .subscribe());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        subscriptions.dispose();
+    }
+
+    private void restore() {
+        long started = System.nanoTime();
+        FeedSnapshot snapshot;
+        try {
+            snapshot = SnapshotFile.read(file, sharding);
+        } catch (NoSuchFileException ex) {
+            log.info("No feed snapshot file at {}, waiting for upstream", file);
+            return;
+        } catch (IOException | RuntimeException ex) {
+            readFailures.increment();
+            log.warn("Ignoring unreadable feed snapshot file {}: {}", file, ex.getMessage());
+            return;
+        }
+        long elapsed = System.nanoTime() - started;
+        reads.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Read feed snapshot file {} in {} ms", file, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        Duration age = snapshot.age(clock.instant());
+        if (age.compareTo(maxAge) > 0) {
+            log.info("Ignoring feed snapshot file {}: fetched {} ago, more than {}", file, age, maxAge);
+            return;
+        }
+        if (feedCache.restore(snapshot, maxAge)) {
+            firstSnapshot("disk");
+        }
+    }
+
+    private void save(FeedSnapshot snapshot) {
+        long started = System.nanoTime();
+        try {
+            long bytes = SnapshotFile.write(snapshot, file);
+            writes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            log.debug("Saved feed snapshot v{} to {} ({} bytes)", snapshot.getVersion(), file, bytes);
+        } catch (IOException | RuntimeException ex) {
+            writeFailures.increment();
+            log.warn("Could not save feed snapshot v{} to {}: {}", snapshot.getVersion(), file, ex.getMessage());
+        }
+    }
+
+    private void firstSnapshot(String source) {
+        if (!firstSnapshot.compareAndSet(false, true)) {
+            return;
+        }
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("First feed snapshot in place {} ms after JVM start, from {}", uptime, source);
+        TimeGauge.builder(METRIC_STARTUP_FIRST_SNAPSHOT, () -> uptime, TimeUnit.MILLISECONDS)
+                .description("Time from JVM start until the first feed snapshot could be served")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private static Counter fileFailures(MeterRegistry registry, String operation) {
+        return Counter.builder(METRIC_SNAPSHOT_FILE_FAILURES)
+                .description("Snapshot file reads and writes that failed")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
@@ -0,0 +1,57 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.FeedSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code feedSnapshot} health, part of the readiness group: {@code UP} while a snapshot is in
+ * place that can be served without upstream (restored from disk or fetched, and not past its
+ * max-stale/max-age), {@code OUT_OF_SERVICE} otherwise. The details list each upstream source
+ * with the time it last delivered and whether its part of the snapshot is stale.
+ */
+@Component
+public class FeedSnapshotHealthIndicator implements HealthIndicator {
+
+    private final RestaurantFeedCache feedCache;
+
+    @Autowired
+    public FeedSnapshotHealthIndicator(RestaurantFeedCache feedCache) {
+        this.feedCache = feedCache;
+    }
+
+    @Override
+    public Health health() {
+        FeedSnapshot snapshot = feedCache.peek();
+        if (snapshot == null) {
+            return Health.outOfService().withDetail("reason", "No feed snapshot loaded yet").build();
+        }
+        Health.Builder health = feedCache.hasUsableSnapshot() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("version", snapshot.getVersion())
+                .withDetail("fetchedAt", snapshot.getFetchedAt().toString())
+                .withDetail("source", feedCache.isRestored() ? "disk" : "upstream")
+                .withDetail("restaurants", snapshot.getDealStore().restaurantCount())
+                .withDetail("deals", snapshot.getDealStore().size())
+                .withDetail("upstreams", upstreams(snapshot))
+                .build();
+    }
+
+    private static Map<String, Map<String, Object>> upstreams(FeedSnapshot snapshot) {
+        Map<String, Map<String, Object>> upstreams = new LinkedHashMap<>();
+        for (FeedSource source : snapshot.getSources()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("fetchedAt", source.getFetchedAt() == null ? null : source.getFetchedAt().toString());
+            details.put("stale", source.isStale());
+            details.put("restaurants", source.getDealStore().restaurantCount());
+            upstreams.put(source.getName(), details);
+        }
+        return upstreams;
+    }
+}
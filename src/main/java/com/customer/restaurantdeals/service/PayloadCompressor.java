@@ -0,0 +1,122 @@
+package com.customer.restaurantdeals.service;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static com.customer.restaurantdeals.service.DealsPipelineMetrics.STAGE_COMPRESSION;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Compresses rendered {@code /api/deals} payloads ahead of the server's on-the-fly response
+ * compression, so a cached payload is compressed once per coding rather than on every response.
+ * <p>
+ * Payloads below {@code min-size} are not worth it and go out as is. Brotli needs the native
+ * library of brotli4j; without it only gzip is offered.
+ */
+@Component
+@Slf4j
+public class PayloadCompressor {
+
+    @Getter
+    private final boolean enabled;
+    private final int minSize;
+    private final int gzipLevel;
+    private final int brotliQuality;
+    private final boolean brotliAvailable;
+    private final DealsPipelineMetrics metrics;
+    private final Map<ContentCoding, DistributionSummary> compressedSizes = new EnumMap<>(ContentCoding.class);
+
+    @Autowired
+    public PayloadCompressor(DealsPipelineMetrics metrics, MeterRegistry meterRegistry,
+                             @Value("${restaurantdeals.compression.enabled:true}") boolean enabled,
+                             @Value("${restaurantdeals.compression.min-size:2KB}") DataSize minSize,
+                             @Value("${restaurantdeals.compression.gzip-level:6}") int gzipLevel,
+                             @Value("${restaurantdeals.compression.brotli-quality:5}") int brotliQuality) {
+        if (gzipLevel < 1 || gzipLevel > 9) {
+            throw new IllegalArgumentException("restaurantdeals.compression.gzip-level must be between 1 and 9");
+        }
+        if (brotliQuality < 0 || brotliQuality > 11) {
+            throw new IllegalArgumentException("restaurantdeals.compression.brotli-quality must be between 0 and 11");
+        }
+        this.enabled = enabled;
+        this.minSize = Math.toIntExact(minSize.toBytes());
+        this.gzipLevel = gzipLevel;
+        this.brotliQuality = brotliQuality;
+        this.brotliAvailable = enabled && brotliAvailable();
+        this.metrics = metrics;
+        for (ContentCoding coding : ContentCoding.values()) {
+            compressedSizes.put(coding, DistributionSummary.builder(METRIC_RESPONSE_COMPRESSED_SIZE)
+                    .description("Size of pre-compressed /api/deals payloads")
+                    .baseUnit("bytes")
+                    .tag("encoding", coding.getToken())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Whether a payload of {@code length} bytes is served pre-compressed in {@code coding}.
+     */
+    public boolean supports(ContentCoding coding, int length) {
+        return enabled && length >= minSize && (coding != ContentCoding.BR || brotliAvailable);
+    }
+
+    public byte[] compress(ContentCoding coding, byte[] body) {
+        byte[] compressed = metrics.record(STAGE_COMPRESSION, ENDPOINT_DEALS, () -> switch (coding) {
+            case GZIP -> gzip(body);
+            case BR -> brotli(body);
+        });
+        compressedSizes.get(coding).record(compressed.length);
+        return compressed;
+    }
+
+    private byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024) {
+            {
+                def.setLevel(gzipLevel);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] brotli(byte[] body) {
+        try {
+            return Encoder.compress(body, new Encoder.Parameters().setQuality(brotliQuality));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            if (Brotli4jLoader.isAvailable()) {
+                return true;
+            }
+            log.warn("Brotli unavailable, pre-compressing /api/deals payloads with gzip only: {}",
+                    Brotli4jLoader.getUnavailabilityCause().toString());
+        } catch (LinkageError e) {
+            log.warn("Brotli unavailable, pre-compressing /api/deals payloads with gzip only: {}", e.toString());
+        }
+        return false;
+    }
+}
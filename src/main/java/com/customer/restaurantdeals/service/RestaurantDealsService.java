@@ -1,176 +1,540 @@
 package com.customer.restaurantdeals.service;
 
 import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.GroupedDealsResponse;
 import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.RestaurantDealsResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.exception.InvalidDealQueryException;
 import com.customer.restaurantdeals.exception.InvalidTimeFormatException;
-import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
 import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
-import com.customer.restaurantdeals.model.Deal;
-import com.customer.restaurantdeals.model.RestaurantResponse;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.customer.restaurantdeals.snapshot.DealFilter;
+import com.customer.restaurantdeals.snapshot.DealSelector;
+import com.customer.restaurantdeals.snapshot.DealSelector.Nearby;
+import com.customer.restaurantdeals.snapshot.DealSelector.Order;
+import com.customer.restaurantdeals.snapshot.DealSelector.Page;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.DealTimeline;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.GeoIndex;
+import com.customer.restaurantdeals.snapshot.PeakWindow;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.customer.restaurantdeals.util.MinuteOfDay;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import static com.customer.restaurantdeals.service.DealsPipelineMetrics.STAGE_LOOKUP;
+import static com.customer.restaurantdeals.service.DealsPipelineMetrics.STAGE_MAPPING;
 import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
 
 @Service
 @Slf4j
 public class RestaurantDealsService {
 
-    private final WebClient webClient;
+    private final RestaurantFeedCache feedCache;
+    private final DealsResponseCache responseCache;
     private final ActiveDealResponseMapper activeDealResponseMapper;
+    private final DealsPipelineMetrics metrics;
+    private final int batchMaxTimes;
+    private final int batchMaxDeals;
+    private final double nearbyMaxRadiusKm;
+    private final Sharding sharding;
+    private final SuburbCentroids suburbCentroids;
 
-    public RestaurantDealsService(WebClient webClient, ActiveDealResponseMapper activeDealResponseMapper) {
-        this.webClient = webClient;
+    public RestaurantDealsService(RestaurantFeedCache feedCache, DealsResponseCache responseCache,
+                                  ActiveDealResponseMapper activeDealResponseMapper,
+                                  DealsPipelineMetrics metrics,
+                                  @Value("${restaurantdeals.batch.max-times:288}") int batchMaxTimes,
+                                  @Value("${restaurantdeals.batch.max-deals:100000}") int batchMaxDeals,
+                                  @Value("${restaurantdeals.nearby.max-radius-km:50}") double nearbyMaxRadiusKm,
+                                  Sharding sharding, SuburbCentroids suburbCentroids) {
+        this.feedCache = feedCache;
+        this.responseCache = responseCache;
         this.activeDealResponseMapper = activeDealResponseMapper;
+        this.metrics = metrics;
+        this.batchMaxTimes = batchMaxTimes;
+        this.batchMaxDeals = batchMaxDeals;
+        this.nearbyMaxRadiusKm = nearbyMaxRadiusKm;
+        this.sharding = sharding;
+        this.suburbCentroids = suburbCentroids;
     }
 
     public Mono<List<ActiveDealResponse>> getActiveDealsAtTime(String timeOfDay) {
+        return feedCache.getSnapshot()
+                .map(activeDealsAt(timeOfDay))
+                .defaultIfEmpty(List.of())
+                .doOnSuccess(list -> log.info("Returning {} active deals", list.size()));
+    }
+
+    /*
+     * Each request below is validated up front and turned into a function of the snapshot, so the
+     * reactive methods here and BlockingDealsService run the same lookups and differ only in how
+     * they obtain the snapshot and on which thread.
+     */
 
+    Function<FeedSnapshot, List<ActiveDealResponse>> activeDealsAt(String timeOfDay) {
         log.info("Querying active deals at {}", timeOfDay);
+        int minute = parseMinuteOfDay(timeOfDay);
+        return snapshot -> activeDeals(snapshot, minute);
+    }
+
+    /**
+     * Same result as {@link #getActiveDealsAtTime(String)}, already serialized as the
+     * {@code /api/deals} payload in {@code shape} and {@code format}, and cached per snapshot,
+     * minute of the day, format and shape.
+     */
+    public Mono<RenderedDeals> getRenderedActiveDealsAtTime(String timeOfDay, WireFormat format, DealsShape shape) {
+        return feedCache.getSnapshot().map(renderedDealsAt(timeOfDay, format, shape));
+    }
+
+    Function<FeedSnapshot, RenderedDeals> renderedDealsAt(String timeOfDay, WireFormat format, DealsShape shape) {
+        log.info("Querying rendered active deals at {} as {} {}", timeOfDay, shape, format);
+        int minute = parseMinuteOfDay(timeOfDay);
+        return snapshot -> responseCache.get(snapshot, minute, format, shape, () -> shape == DealsShape.GROUPED
+                ? new GroupedDealsResponse(groupedActiveDeals(snapshot, minute), null)
+                : Map.of(DEALS, activeDeals(snapshot, minute)));
+    }
+
+    /**
+     * Active deals at {@code timeOfDay} narrowed down by {@code query}. The filters are evaluated on
+     * the snapshot's columns while the candidates are scanned, and only the rows of the returned
+     * page are mapped to responses.
+     */
+    public Mono<DealPageResponse> queryActiveDealsAtTime(String timeOfDay, DealQuery query) {
+        return feedCache.getSnapshot()
+                .map(dealPageAt(timeOfDay, query))
+                .defaultIfEmpty(new DealPageResponse(List.of(), null))
+                .doOnSuccess(page -> log.info("Returning a page of {} active deals", page.getDeals().size()));
+    }
+
+    Function<FeedSnapshot, DealPageResponse> dealPageAt(String timeOfDay, DealQuery query) {
+        log.info("Querying active deals at {} with filters", timeOfDay);
+        int minute = parseMinuteOfDay(timeOfDay);
+        Order order = parseOrder(query.getSort());
+        int limit = parseLimit(query.getLimit());
+        long after = parseCursor(query.getCursor(), order);
+        return snapshot -> queryActiveDeals(snapshot, minute, query, order, limit, after);
+    }
+
+    private DealPageResponse queryActiveDeals(FeedSnapshot snapshot, int minute, DealQuery query,
+                                              Order order, int limit, long after) {
+        DealStore store = snapshot.getDealStore();
+        Page page = selectPage(snapshot, minute, query, order, limit, after);
+        List<ActiveDealResponse> deals = metrics.record(STAGE_MAPPING, ENDPOINT_DEALS_QUERY,
+                () -> toResponses(store, page.getOrdinals()));
+        return new DealPageResponse(deals, page.hasNext() ? encodeCursor(order, page.getNext()) : null);
+    }
+
+    /**
+     * Same page as {@link #queryActiveDealsAtTime(String, DealQuery)} in {@code shape}, serialized
+     * as {@code format}. Pages are not cached.
+     */
+    public Mono<RenderedDeals> queryRenderedActiveDealsAtTime(String timeOfDay, DealQuery query, WireFormat format,
+                                                              DealsShape shape) {
+        return feedCache.getSnapshot().map(renderedDealPageAt(timeOfDay, query, format, shape));
+    }
+
+    Function<FeedSnapshot, RenderedDeals> renderedDealPageAt(String timeOfDay, DealQuery query, WireFormat format,
+                                                             DealsShape shape) {
+        Function<FeedSnapshot, ?> page = shape == DealsShape.GROUPED
+                ? groupedDealPageAt(timeOfDay, query)
+                : dealPageAt(timeOfDay, query);
+        return snapshot -> responseCache.render(format, page.apply(snapshot));
+    }
+
+    Function<FeedSnapshot, GroupedDealsResponse> groupedDealPageAt(String timeOfDay, DealQuery query) {
+        log.info("Querying grouped active deals at {} with filters", timeOfDay);
+        int minute = parseMinuteOfDay(timeOfDay);
+        Order order = parseOrder(query.getSort());
+        int limit = parseLimit(query.getLimit());
+        long after = parseCursor(query.getCursor(), order);
+        return snapshot -> {
+            Page page = selectPage(snapshot, minute, query, order, limit, after);
+            List<RestaurantDealsResponse> restaurants = metrics.record(STAGE_MAPPING, ENDPOINT_DEALS_QUERY,
+                    () -> toGroupedResponses(snapshot.getDealStore(), page.getOrdinals()));
+            return new GroupedDealsResponse(restaurants, page.hasNext() ? encodeCursor(order, page.getNext()) : null);
+        };
+    }
+
+    private Page selectPage(FeedSnapshot snapshot, int minute, DealQuery query, Order order, int limit, long after) {
+        DealStore store = snapshot.getDealStore();
+        return metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS_QUERY, () -> DealSelector.select(store,
+                candidates(snapshot, minute, query), filter(store, query), order, after, limit, sharding));
+    }
+
+    /**
+     * Active deals at {@code timeOfDay} matching the filters of {@code query}, emitted one by one in
+     * feed order. Each response is mapped only when requested downstream, so the first deal goes
+     * out before the rest are looked at and memory does not grow with the result size.
+     */
+    public Flux<ActiveDealResponse> streamActiveDealsAtTime(String timeOfDay, DealQuery query) {
+
+        log.info("Streaming active deals at {}", timeOfDay);
+
+        int minute = parseMinuteOfDay(timeOfDay);
+        return feedCache.getSnapshot()
+                .flatMapMany(snapshot -> {
+                    DealStore store = snapshot.getDealStore();
+                    int[] candidates = metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS_STREAM,
+                            () -> candidates(snapshot, minute, query));
+                    DealFilter filter = filter(store, query);
+                    // Filtering and mapping are interleaved with writing, so they are not timed here
+                    return Flux.range(0, candidates.length)
+                            .map(i -> candidates[i])
+                            .filter(filter::test)
+                            .map(ordinal -> activeDealResponseMapper.toResponse(store, ordinal));
+                });
+    }
+
+    /**
+     * Active deals at each of the requested times, found in a single pass over the snapshot. The
+     * number of times and the total number of deals returned are capped, and each deal is mapped
+     * once however many of the times it is active at.
+     */
+    public Mono<DealBatchResponse> getActiveDealsAtTimes(DealBatchRequest request) {
+        return feedCache.getSnapshot()
+                .map(dealsAtTimes(request))
+                .defaultIfEmpty(new DealBatchResponse(Map.of()))
+                .doOnSuccess(response -> log.info("Returning active deals for {} times", response.getDeals().size()));
+    }
+
+    Function<FeedSnapshot, DealBatchResponse> dealsAtTimes(DealBatchRequest request) {
+        List<String> times = request.getTimes();
+        if (times == null || times.isEmpty() || times.size() > batchMaxTimes) {
+            throw new InvalidDealQueryException(MSG_INVALID_BATCH_TIMES + batchMaxTimes);
+        }
+        log.info("Querying active deals at {} times", times.size());
+
+        int[] requested = new int[times.size()];
+        for (int i = 0; i < requested.length; i++) {
+            requested[i] = parseMinuteOfDay(times.get(i));
+        }
+        int[] minutes = Arrays.stream(requested).sorted().distinct().toArray();
+        int limit = parseLimit(request.getLimit());
+
+        return snapshot -> {
+            DealStore store = snapshot.getDealStore();
+            DealFilter filter = new DealFilter(store, request.getSuburb(), request.getDineIn(),
+                    request.getLightning(), request.getMinQtyLeft(), request.getMinDiscount());
+            int[][] active = metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS_BATCH, () -> {
+                try {
+                    return DealSelector.activeAtEach(store, request.getRestaurantId(), minutes, filter, limit,
+                            batchMaxDeals, sharding);
+                } catch (DealSelector.TooManyDealsException ex) {
+                    throw new InvalidDealQueryException(MSG_BATCH_TOO_LARGE + batchMaxDeals);
+                }
+            });
+            return metrics.record(STAGE_MAPPING, ENDPOINT_DEALS_BATCH,
+                    () -> toBatchResponse(store, times, requested, minutes, active));
+        };
+    }
+
+    private DealBatchResponse toBatchResponse(DealStore store, List<String> times, int[] requested, int[] minutes,
+                                              int[][] active) {
+        Map<Integer, ActiveDealResponse> mapped = new HashMap<>();
+        Map<String, List<ActiveDealResponse>> deals = new LinkedHashMap<>();
+        for (int i = 0; i < requested.length; i++) {
+            int[] ordinals = active[Arrays.binarySearch(minutes, requested[i])];
+            List<ActiveDealResponse> responses = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                responses.add(mapped.computeIfAbsent(ordinal,
+                        key -> activeDealResponseMapper.toResponse(store, key)));
+            }
+            deals.putIfAbsent(times.get(i), responses);
+        }
+        return new DealBatchResponse(deals);
+    }
+
+    /**
+     * Active deals at {@code timeOfDay} whose restaurant is within {@code radiusKm} of the point,
+     * nearest first, narrowed down by the filters of {@code query} and cut to its limit. Restaurants
+     * the feed lists without coordinates are located by their suburb's centroid when it is known.
+     */
+    public Mono<DealPageResponse> queryNearbyDealsAtTime(String timeOfDay, double latitude, double longitude,
+                                                         double radiusKm, DealQuery query) {
+        return feedCache.getSnapshot()
+                .map(nearbyDealsAt(timeOfDay, latitude, longitude, radiusKm, query))
+                .defaultIfEmpty(new DealPageResponse(List.of(), null))
+                .doOnSuccess(page -> log.info("Returning {} nearby active deals", page.getDeals().size()));
+    }
+
+    Function<FeedSnapshot, DealPageResponse> nearbyDealsAt(String timeOfDay, double latitude, double longitude,
+                                                           double radiusKm, DealQuery query) {
+        log.info("Querying active deals at {} within {} km of {}, {}", timeOfDay, radiusKm, latitude, longitude);
+        int minute = parseMinuteOfDay(timeOfDay);
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new InvalidDealQueryException(MSG_INVALID_LOCATION);
+        }
+        if (!(radiusKm > 0 && radiusKm <= nearbyMaxRadiusKm)) {
+            throw new InvalidDealQueryException(MSG_INVALID_RADIUS
+                    + BigDecimal.valueOf(nearbyMaxRadiusKm).stripTrailingZeros().toPlainString());
+        }
+        int limit = parseLimit(query.getLimit());
+        return snapshot -> {
+            DealStore store = snapshot.getDealStore();
+            // The first lookup on a snapshot also builds its location index
+            Nearby nearby = metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS_NEARBY,
+                    () -> DealSelector.nearby(store, snapshot.getDealIndex(), snapshot.getGeoIndex(suburbCentroids),
+                            minute, latitude, longitude, radiusKm, filter(store, query), limit));
+            GeoIndex geoIndex = snapshot.getGeoIndex(suburbCentroids);
+            List<ActiveDealResponse> deals = metrics.record(STAGE_MAPPING, ENDPOINT_DEALS_NEARBY,
+                    () -> toNearbyResponses(store, geoIndex, nearby));
+            return new DealPageResponse(deals, null);
+        };
+    }
+
+    private List<ActiveDealResponse> toNearbyResponses(DealStore store, GeoIndex geoIndex, Nearby nearby) {
+        int[] ordinals = nearby.getOrdinals();
+        List<ActiveDealResponse> responses = toResponses(store, ordinals);
+        for (int i = 0; i < ordinals.length; i++) {
+            ActiveDealResponse response = responses.get(i);
+            response.setDistanceKm(Math.round(nearby.getDistancesKm()[i] * 1000) / 1000.0);
+            if (geoIndex.isApproximate(store.restaurantOf(ordinals[i]))) {
+                response.setApproximateLocation(Boolean.TRUE);
+            }
+        }
+        return responses;
+    }
+
+    private static int[] candidates(FeedSnapshot snapshot, int minute, DealQuery query) {
+        return query.getRestaurantId() != null
+                ? DealSelector.restaurantDealsActiveAt(snapshot.getDealStore(), query.getRestaurantId(), minute)
+                : snapshot.getDealIndex().activeAt(minute);
+    }
+
+    private static DealFilter filter(DealStore store, DealQuery query) {
+        return new DealFilter(store, query.getSuburb(), query.getDineIn(), query.getLightning(),
+                query.getMinQtyLeft(), query.getMinDiscount());
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_FORMAT, Locale.ENGLISH);
-        LocalTime queryTime;
+    private static Order parseOrder(String sort) {
+        if (sort == null) {
+            return Order.FEED;
+        }
+        return switch (sort) {
+            case "discount" -> Order.DISCOUNT_ASC;
+            case "-discount" -> Order.DISCOUNT_DESC;
+            case "qtyLeft" -> Order.QTY_LEFT_ASC;
+            case "-qtyLeft" -> Order.QTY_LEFT_DESC;
+            default -> throw new InvalidDealQueryException(MSG_INVALID_SORT);
+        };
+    }
+
+    private static int parseLimit(Integer limit) {
+        if (limit == null) {
+            return Integer.MAX_VALUE;
+        }
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new InvalidDealQueryException(MSG_INVALID_LIMIT);
+        }
+        return limit;
+    }
 
+    // Cursors are opaque to clients: the sort they were issued for and the last position returned
+    static String encodeCursor(Order order, long position) {
+        String cursor = order.name() + ':' + position;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long parseCursor(String cursor, Order order) {
+        if (cursor == null) {
+            return DealSelector.START;
+        }
         try {
-            queryTime = LocalTime.parse(timeOfDay.toUpperCase(), formatter);
-        } catch (DateTimeParseException e) {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = decoded.indexOf(':');
+            if (separator > 0 && decoded.substring(0, separator).equals(order.name())) {
+                long position = Long.parseLong(decoded.substring(separator + 1));
+                if (position >= 0) {
+                    return position;
+                }
+            }
+        } catch (IllegalArgumentException ex) {
+            log.debug("Undecodable cursor {}", cursor, ex);
+        }
+        throw new InvalidDealQueryException(MSG_INVALID_CURSOR);
+    }
+
+    private int parseMinuteOfDay(String timeOfDay) {
+        int minute = MinuteOfDay.parse(timeOfDay);
+        if (minute == MinuteOfDay.INVALID) {
             log.warn("Invalid time format provided: {}", timeOfDay);
             throw new InvalidTimeFormatException(MSG_INVALID_TIME);
         }
+        return minute;
+    }
 
-        return webClient.get()
-                .uri(RESTAURANTS_DATA_URI)
-                .retrieve()
-                .onStatus(
-                        status -> status.is4xxClientError() || status.is5xxServerError(),
-                        response -> {
-                            log.error("Upstream returned error status {}", response.statusCode());
-                            return response.bodyToMono(String.class)
-                                    .flatMap(body -> Mono.error(new RestaurantServiceUnavailableException(MSG_RESTAURANT_SERVICE_ERROR)));
-                        }
-                )
-                .bodyToMono(RestaurantResponse.class)
-                .onErrorMap(
-                        ex -> {
-                            log.error("Error fetching restaurant data", ex);
-                            return ex instanceof RuntimeException;
-                        },
-                        ex -> {
-                            log.error("Error fetching restaurant data", ex);
-                            return new RestaurantServiceUnavailableException(MSG_SERVICE_UNAVAILABLE);
-                        }
-                )
-
-                .flatMapMany(response -> Flux.fromIterable(response.getRestaurants())) // unwrap list
-                .filter(r -> isOpenAt(queryTime, r.getRestaurantOpen(), r.getRestaurantClose())) // filter restaurants open at queryTime
-                .flatMap(r -> Flux.fromIterable(r.getDeals())
-                        .filter(deal -> isDealOpenAt(deal, queryTime))
-                        .map(deal -> activeDealResponseMapper.toResponse(r, deal)))
-                .collectList()
-                .doOnSuccess(list -> log.info("Returning {} active deals", list.size()));
+    private List<ActiveDealResponse> activeDeals(FeedSnapshot snapshot, int minute) {
+        int[] ordinals = metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS, () -> snapshot.getDealIndex().activeAt(minute));
+        return metrics.record(STAGE_MAPPING, ENDPOINT_DEALS, () -> toResponses(snapshot.getDealStore(), ordinals));
     }
 
-    private boolean isOpenAt(LocalTime queryTime, LocalTime open, LocalTime close) {
-        if (open == null || close == null)
-            return false;
-        return !queryTime.isBefore(open) && !queryTime.isAfter(close);
+    private List<RestaurantDealsResponse> groupedActiveDeals(FeedSnapshot snapshot, int minute) {
+        int[] ordinals = metrics.record(STAGE_LOOKUP, ENDPOINT_DEALS, () -> snapshot.getDealIndex().activeAt(minute));
+        return metrics.record(STAGE_MAPPING, ENDPOINT_DEALS,
+                () -> toGroupedResponses(snapshot.getDealStore(), ordinals));
     }
 
-    private boolean isDealOpenAt(Deal deal, LocalTime queryTime) {
-        LocalTime open = deal.getOpen() != null ? deal.getOpen() : deal.getStart();
-        LocalTime close = deal.getClose() != null ? deal.getClose() : deal.getEnd();
+    /*
+     * Consecutive rows of the same restaurant become one entry, so the deal order is kept as is. Rows
+     * are stored restaurant by restaurant, which makes that one entry per restaurant in feed order.
+     */
+    private List<RestaurantDealsResponse> toGroupedResponses(DealStore store, int[] ordinals) {
+        int[] runs = restaurantRuns(store, ordinals);
+        return Sharding.flatten(sharding.map(runs.length - 1, ordinals.length, (shard, from, to) -> {
+            List<RestaurantDealsResponse> responses = new ArrayList<>(to - from);
+            for (int run = from; run < to; run++) {
+                responses.add(activeDealResponseMapper.toRestaurantResponse(store, ordinals, runs[run], runs[run + 1]));
+            }
+            return responses;
+        }));
+    }
 
-        // If deal has no open/close info, include it by default (if restaurant is open)
-        if (open == null || close == null) {
-            return true;
+    // Start of each run of rows from one restaurant, followed by ordinals.length
+    private static int[] restaurantRuns(DealStore store, int[] ordinals) {
+        int[] starts = new int[ordinals.length + 1];
+        int runs = 0;
+        int previous = -1;
+        for (int i = 0; i < ordinals.length; i++) {
+            int restaurant = store.restaurantOf(ordinals[i]);
+            if (restaurant != previous) {
+                starts[runs++] = i;
+                previous = restaurant;
+            }
         }
+        starts[runs++] = ordinals.length;
+        return Arrays.copyOf(starts, runs);
+    }
 
-        return isOpenAt(queryTime, open, close);
+    // Only the matching rows of the store are turned into response objects, in shards for large results
+    private List<ActiveDealResponse> toResponses(DealStore store, int[] ordinals) {
+        return Sharding.flatten(sharding.map(ordinals.length, (shard, from, to) -> {
+            List<ActiveDealResponse> responses = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                responses.add(activeDealResponseMapper.toResponse(store, ordinals[i]));
+            }
+            return responses;
+        }));
     }
 
     public Mono<PeakTimeResponse> findPeakDealTimeWindow() {
         log.info("Computing peak deal time window");
-        return webClient.get()
-                .uri(RESTAURANTS_DATA_URI)
-                .retrieve()
-                .onStatus(
-                        status -> status.is4xxClientError() || status.is5xxServerError(),
-                        response -> {
-                            log.error("Upstream returned error status {}", response.statusCode());
-                            return response.bodyToMono(String.class)
-                                    .flatMap(body -> Mono.error(new
-                                            RestaurantServiceUnavailableException(MSG_RESTAURANT_SERVICE_ERROR)));
-                        }
-                )
-                .bodyToMono(RestaurantResponse.class)
-                .onErrorMap(
-                        ex -> {
-                            log.error("Error fetching restaurant data for peak window", ex);
-                            return ex instanceof RuntimeException;
-                        },
-                        ex -> {
-                            log.error("Error fetching restaurant data for peak window", ex);
-                            return new RestaurantServiceUnavailableException(MSG_SERVICE_UNAVAILABLE);
-                        }
-                )
-                .flatMapMany(response -> Flux.fromIterable(response.getRestaurants()))
-                .flatMap(restaurant -> Flux.fromIterable(restaurant.getDeals()))
-                .collectList()
-                .map(this::computePeakWindow)
-                .flatMap(resp -> resp == null ? Mono.empty() : Mono.just(resp))
+        // The window is computed once per snapshot, this is only a lookup
+        return feedCache.getSnapshot()
+                .flatMap(snapshot -> Mono.justOrEmpty(peakWindow().apply(snapshot)))
                 .doOnSuccess(resp -> {
                 if (resp != null) {
-                    log.info("Peak window found: {} - {}", resp.getPeakTimeStart(), resp.getPeakTimeEnd());
+                    log.info("Peak window found: {} - {} with {} deals",
+                            resp.getPeakTimeStart(), resp.getPeakTimeEnd(), resp.getActiveDeals());
                 } else {
-                    log.info("No overlapping peak window found");
+                    log.info("No peak window found");
                 }
                 });
 
     }
 
-    private PeakTimeResponse computePeakWindow(List<Deal> deals) {
-        if (deals == null || deals.isEmpty()) {
-            return null;
-        }
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_FORMAT, Locale.ENGLISH);
+    /**
+     * The peak window of a snapshot, {@code null} when no deal is ever active.
+     */
+    Function<FeedSnapshot, PeakTimeResponse> peakWindow() {
+        return snapshot -> snapshot.getPeakWindow() == null ? null : toPeakTimeResponse(snapshot.getPeakWindow());
+    }
 
-        // Start with max time range
-        LocalTime latestStart = LocalTime.MIN; // 00:00
-        LocalTime earliestEnd = LocalTime.MAX; // 23:59:59.999...
+    /**
+     * Active deal and restaurant counts across the day in buckets of {@code resolution} (e.g.
+     * {@code 15m}, {@code 1h}), optionally per suburb or per lightning flag. The per-minute counts
+     * are computed once per snapshot; a request only folds them into buckets.
+     */
+    public Mono<TimelineResponse> getTimeline(String resolution, String groupBy) {
+        return feedCache.getSnapshot()
+                .map(timeline(resolution, groupBy))
+                .defaultIfEmpty(new TimelineResponse(resolution, groupBy, List.of()));
+    }
 
-        for (Deal deal : deals) {
-            LocalTime start = deal.getOpen() != null ? deal.getOpen() : deal.getStart();
-            LocalTime end = deal.getClose() != null ? deal.getClose() : deal.getEnd();
+    Function<FeedSnapshot, TimelineResponse> timeline(String resolution, String groupBy) {
+        int bucket = parseResolution(resolution);
+        DealTimeline.Grouping grouping = parseGrouping(groupBy);
+        log.info("Computing deal timeline at {} minute resolution grouped by {}", bucket, grouping);
+        return snapshot -> {
+            DealTimeline timeline = metrics.record(STAGE_LOOKUP, ENDPOINT_TIMELINE,
+                    () -> snapshot.getTimeline(grouping));
+            return metrics.record(STAGE_MAPPING, ENDPOINT_TIMELINE,
+                    () -> toTimelineResponse(timeline, resolution, groupBy, bucket));
+        };
+    }
 
-            if (start == null || end == null) {
-                // Skip deals without time info for intersection logic
-                continue;
+    private static TimelineResponse toTimelineResponse(DealTimeline timeline, String resolution, String groupBy,
+                                                       int bucket) {
+        List<TimelineResponse.Series> series = new ArrayList<>(timeline.getGroups().size());
+        for (int group = 0; group < timeline.getGroups().size(); group++) {
+            List<TimelineResponse.Point> points = new ArrayList<>(MinuteOfDay.MINUTES_PER_DAY / bucket + 1);
+            for (int start = 0; start < MinuteOfDay.MINUTES_PER_DAY; start += bucket) {
+                int deals = 0;
+                int restaurants = 0;
+                for (int minute = start; minute < Math.min(start + bucket, MinuteOfDay.MINUTES_PER_DAY); minute++) {
+                    deals = Math.max(deals, timeline.deals(group, minute));
+                    restaurants = Math.max(restaurants, timeline.restaurants(group, minute));
+                }
+                points.add(new TimelineResponse.Point(MinuteOfDay.formatUpperCase(start), deals, restaurants));
             }
+            series.add(new TimelineResponse.Series(timeline.getGroups().get(group), points));
+        }
+        return new TimelineResponse(resolution, groupBy, series);
+    }
 
-            if (start.isAfter(latestStart)) {
-                latestStart = start;
-            }
-            if (end.isBefore(earliestEnd)) {
-                earliestEnd = end;
+    private static int parseResolution(String resolution) {
+        try {
+            Duration duration = DurationStyle.detectAndParse(resolution, ChronoUnit.MINUTES);
+            if (duration.toSecondsPart() == 0 && duration.toNanosPart() == 0
+                    && duration.toMinutes() >= 1 && duration.toMinutes() <= MinuteOfDay.MINUTES_PER_DAY) {
+                return (int) duration.toMinutes();
             }
+        } catch (IllegalArgumentException ex) {
+            log.debug("Unparsable timeline resolution {}", resolution, ex);
         }
+        throw new InvalidDealQueryException(MSG_INVALID_RESOLUTION);
+    }
 
-        // Check if intersection exists
-        if (!latestStart.isBefore(earliestEnd)) {
-            return null; // No overlapping window found
+    private static DealTimeline.Grouping parseGrouping(String groupBy) {
+        if (groupBy == null) {
+            return DealTimeline.Grouping.NONE;
         }
+        return switch (groupBy) {
+            case "suburb" -> DealTimeline.Grouping.SUBURB;
+            case "lightning" -> DealTimeline.Grouping.LIGHTNING;
+            default -> throw new InvalidDealQueryException(MSG_INVALID_GROUP_BY);
+        };
+    }
 
+    private PeakTimeResponse toPeakTimeResponse(PeakWindow window) {
         return new PeakTimeResponse(
-                latestStart.format(formatter),
-                earliestEnd.format(formatter)
+                MinuteOfDay.formatUpperCase(window.getStartMinute()),
+                MinuteOfDay.formatUpperCase(window.getEndMinute()),
+                window.getActiveDeals()
         );
     }
 
-}
\ No newline at end of file
+}
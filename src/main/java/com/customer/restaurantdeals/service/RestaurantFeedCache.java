@@ -0,0 +1,741 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.configuration.FeedSourceProperties;
+import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedOrigin;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.FeedSource;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Shared in-memory snapshot of the upstream restaurant feed.
+ * <p>
+ * A snapshot younger than the TTL is served directly; once it enters the refresh-ahead window a
+ * background refresh is started. Concurrent refreshes are coalesced into a single upstream call,
+ * and an expired snapshot is still served (up to {@code max-stale}) when the refresh fails.
+ * Refreshes are conditional on the upstream {@code ETag}/{@code Last-Modified} of the snapshot
+ * and go through {@link UpstreamResilience}; while its circuit breaker is open a refresh fails
+ * fast, which serves the stale snapshot.
+ * <p>
+ * A snapshot restored from disk at startup ({@link #restore}) is served as is while it is younger
+ * than its own max age, however old relative to the TTL, and each lookup until a refresh replaces
+ * it revalidates it in the background, so startup never waits on upstream.
+ * <p>
+ * With several upstream sources configured ({@link FeedSourceProperties}) each refresh fetches
+ * them concurrently, each conditionally, within its own timeout and behind its own circuit breaker
+ * and bulkhead, and merges their parts into one snapshot. A source that fails keeps its last good
+ * part, marked stale, for as long as a whole snapshot would be served stale; the refresh only fails
+ * when every source does.
+ */
+@Component
+@Slf4j
+public class RestaurantFeedCache {
+
+    private final WebClient webClient;
+    private final RestClient restClient;
+    private final Scheduler blockingScheduler;
+    private final RestaurantFeedParser feedParser;
+    private final UpstreamResilience resilience;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Duration maxStale;
+    private final Clock clock;
+    private final Sharding sharding;
+    private final List<FeedSourceProperties.Source> sources;
+
+    private final AtomicReference<FeedSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final Sinks.Many<FeedSnapshot> updates = Sinks.many().multicast().directBestEffort();
+    private Mono<FeedSnapshot> inFlight;
+    private volatile FeedSnapshot restored;
+    private volatile Duration restoredMaxAge = Duration.ZERO;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter restoredServed;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final Counter coalescedRefreshes;
+    private final Counter staleServed;
+    private final Counter notModified;
+    private final Counter contentUnchanged;
+    private final Counter bytesSaved;
+    private final Timer loadAvoided;
+    private final Timer loads;
+    private final DistributionSummary bodySize;
+    private final List<Counter> sourceFailures = new ArrayList<>();
+
+    /**
+     * Fetches through {@code restClient} (blocking) when one is configured, on
+     * {@code feedFetchScheduler} if there is one, through {@code webClient} otherwise.
+     */
+    @Autowired
+    public RestaurantFeedCache(WebClient webClient,
+                               ObjectProvider<RestClient> restClient,
+                               @Qualifier("feedFetchScheduler") ObjectProvider<Scheduler> feedFetchScheduler,
+                               RestaurantFeedParser feedParser,
+                               UpstreamResilience resilience,
+                               MeterRegistry meterRegistry,
+                               @Value("${restaurantdeals.cache.ttl:60s}") Duration ttl,
+                               @Value("${restaurantdeals.cache.refresh-ahead:10s}") Duration refreshAhead,
+                               @Value("${restaurantdeals.cache.max-stale:10m}") Duration maxStale,
+                               Sharding sharding,
+                               FeedSourceProperties feedSources) {
+        this(webClient, restClient.getIfAvailable(), feedFetchScheduler.getIfAvailable(Schedulers::boundedElastic),
+                feedParser, resilience, meterRegistry, ttl, refreshAhead, maxStale, Clock.systemUTC(), sharding,
+                feedSources.getSources());
+    }
+
+    public RestaurantFeedCache(WebClient webClient, RestaurantFeedParser feedParser, UpstreamResilience resilience,
+                               MeterRegistry meterRegistry, Duration ttl, Duration refreshAhead, Duration maxStale) {
+        this(webClient, null, feedParser, resilience, meterRegistry, ttl, refreshAhead, maxStale, Clock.systemUTC(),
+                Sharding.SEQUENTIAL);
+    }
+
+    RestaurantFeedCache(WebClient webClient, RestaurantFeedParser feedParser, UpstreamResilience resilience,
+                        MeterRegistry meterRegistry, Duration ttl, Duration refreshAhead, Duration maxStale, Clock clock) {
+        this(webClient, null, feedParser, resilience, meterRegistry, ttl, refreshAhead, maxStale, clock,
+                Sharding.SEQUENTIAL);
+    }
+
+    RestaurantFeedCache(WebClient webClient, RestClient restClient, RestaurantFeedParser feedParser,
+                        UpstreamResilience resilience, MeterRegistry meterRegistry, Duration ttl, Duration refreshAhead,
+                        Duration maxStale, Clock clock, Sharding sharding) {
+        this(webClient, restClient, feedParser, resilience, meterRegistry, ttl, refreshAhead, maxStale, clock, sharding,
+                List.of());
+    }
+
+    RestaurantFeedCache(WebClient webClient, RestClient restClient, RestaurantFeedParser feedParser,
+                        UpstreamResilience resilience, MeterRegistry meterRegistry, Duration ttl, Duration refreshAhead,
+                        Duration maxStale, Clock clock, Sharding sharding, List<FeedSourceProperties.Source> sources) {
+        this(webClient, restClient, Schedulers.boundedElastic(), feedParser, resilience, meterRegistry, ttl,
+                refreshAhead, maxStale, clock, sharding, sources);
+    }
+
+    RestaurantFeedCache(WebClient webClient, RestClient restClient, Scheduler blockingScheduler,
+                        RestaurantFeedParser feedParser, UpstreamResilience resilience, MeterRegistry meterRegistry,
+                        Duration ttl, Duration refreshAhead, Duration maxStale, Clock clock, Sharding sharding,
+                        List<FeedSourceProperties.Source> sources) {
+        this.webClient = webClient;
+        this.restClient = restClient;
+        this.blockingScheduler = blockingScheduler;
+        this.feedParser = feedParser;
+        this.resilience = resilience;
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.maxStale = maxStale;
+        this.clock = clock;
+        this.sharding = sharding;
+        this.sources = sources(sources);
+
+        this.hits = cacheRequests(meterRegistry, "hit");
+        this.misses = cacheRequests(meterRegistry, "miss");
+        this.restoredServed = cacheRequests(meterRegistry, "restored");
+        this.refreshSuccesses = refreshes(meterRegistry, "success");
+        this.refreshFailures = refreshes(meterRegistry, "failure");
+        this.coalescedRefreshes = refreshes(meterRegistry, "coalesced");
+        this.staleServed = Counter.builder(METRIC_FEED_STALE_SERVED)
+                .description("Expired snapshots served because the refresh failed")
+                .register(meterRegistry);
+        this.notModified = revalidations(meterRegistry, "not_modified");
+        this.contentUnchanged = revalidations(meterRegistry, "content_unchanged");
+        this.bytesSaved = Counter.builder(METRIC_FEED_BYTES_SAVED)
+                .description("Feed bytes not downloaded because upstream answered 304")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.loadAvoided = Timer.builder(METRIC_FEED_LOAD_AVOIDED)
+                .description("Download and parse time of the kept snapshot, avoided on each 304")
+                .register(meterRegistry);
+        this.loads = Timer.builder(METRIC_FEED_LOAD)
+                .description("Download and parse time of the feed body, which is parsed as it streams in")
+                .register(meterRegistry);
+        this.bodySize = DistributionSummary.builder(METRIC_FEED_BODY_SIZE)
+                .description("Size of downloaded feed bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_FEED_SNAPSHOT_RESTAURANTS, this, cache -> cache.snapshotSize(false))
+                .description("Restaurants in the current feed snapshot")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_FEED_SNAPSHOT_DEALS, this, cache -> cache.snapshotSize(true))
+                .description("Deals in the current feed snapshot")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_FEED_SNAPSHOT_AGE, this, RestaurantFeedCache::snapshotAgeSeconds)
+                .description("Age of the current feed snapshot")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        for (FeedSourceProperties.Source source : this.sources) {
+            sourceFailures.add(Counter.builder(METRIC_FEED_SOURCE_FAILURES)
+                    .description("Refreshes in which the source failed and its last good data was kept")
+                    .tag("source", source.getName())
+                    .register(meterRegistry));
+            Gauge.builder(METRIC_FEED_SOURCE_STALE, this, cache -> cache.sourceStale(source.getName()))
+                    .description("1 while the source's part of the current snapshot is stale")
+                    .tag("source", source.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * The configured sources, checked; none configured means the single default feed.
+     */
+    static List<FeedSourceProperties.Source> sources(List<FeedSourceProperties.Source> configured) {
+        if (configured == null || configured.isEmpty()) {
+            return List.of(new FeedSourceProperties.Source(FeedSource.DEFAULT_NAME, RESTAURANTS_DATA_URI, null));
+        }
+        if (configured.size() > DealStore.MAX_SOURCES) {
+            throw new IllegalArgumentException("At most " + DealStore.MAX_SOURCES + " restaurantdeals.feed.sources");
+        }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < configured.size(); i++) {
+            FeedSourceProperties.Source source = configured.get(i);
+            String property = "restaurantdeals.feed.sources[" + i + "]";
+            if (source.getName() == null || source.getName().isBlank()) {
+                throw new IllegalArgumentException(property + ".name must be set");
+            }
+            if (!names.add(source.getName())) {
+                throw new IllegalArgumentException(property + ".name '" + source.getName() + "' is not unique");
+            }
+            if (source.getUri() == null || source.getUri().isBlank()) {
+                throw new IllegalArgumentException(property + ".uri must be set");
+            }
+            if (source.getTimeout() != null && (source.getTimeout().isNegative() || source.getTimeout().isZero())) {
+                throw new IllegalArgumentException(property + ".timeout must be positive");
+            }
+        }
+        return List.copyOf(configured);
+    }
+
+    /**
+     * Returns the current snapshot, fetching it from upstream when missing or expired.
+     */
+    public Mono<FeedSnapshot> getSnapshot() {
+        return Mono.defer(() -> {
+            FeedSnapshot snapshot = current.get();
+            if (snapshot == null) {
+                misses.increment();
+                return refresh();
+            }
+
+            Duration age = snapshot.age(clock.instant());
+            if (age.compareTo(ttl) < 0) {
+                hits.increment();
+                if (age.compareTo(ttl.minus(refreshAhead)) >= 0) {
+                    refreshInBackground();
+                }
+                return Mono.just(snapshot);
+            }
+            if (snapshot == restored && age.compareTo(restoredMaxAge) <= 0) {
+                restoredServed.increment();
+                refreshInBackground();
+                return Mono.just(snapshot);
+            }
+
+            misses.increment();
+            return refresh().onErrorResume(ex -> serveStale(snapshot, ex));
+        });
+    }
+
+    /**
+     * Snapshots with new content, as refreshes install them. Revalidated snapshots (same version)
+     * are not emitted.
+     */
+    public Flux<FeedSnapshot> updates() {
+        return updates.asFlux();
+    }
+
+    /**
+     * Drops the current snapshot so the next request goes upstream.
+     */
+    public void invalidate() {
+        current.set(null);
+    }
+
+    /**
+     * Installs {@code snapshot}, read back from disk, unless a snapshot is already in place. It is
+     * served for up to {@code maxAge} past its fetch time while refreshes fail, and later versions
+     * are numbered after it.
+     *
+     * @return whether the snapshot was installed
+     */
+    public synchronized boolean restore(FeedSnapshot snapshot, Duration maxAge) {
+        if (!current.compareAndSet(null, snapshot)) {
+            return false;
+        }
+        versions.accumulateAndGet(snapshot.getVersion(), Math::max);
+        restoredMaxAge = maxAge;
+        restored = snapshot;
+        log.info("Restored restaurant feed snapshot v{} with {} restaurants, fetched at {}",
+                snapshot.getVersion(), snapshot.getDealStore().restaurantCount(), snapshot.getFetchedAt());
+        return true;
+    }
+
+    /**
+     * The snapshot in place, without going upstream; {@code null} before the first one is loaded.
+     */
+    public FeedSnapshot peek() {
+        return current.get();
+    }
+
+    /**
+     * Whether the snapshot in place was restored from disk and not refreshed since.
+     */
+    public boolean isRestored() {
+        FeedSnapshot snapshot = current.get();
+        return snapshot != null && snapshot == restored;
+    }
+
+    /**
+     * Whether a lookup can be answered without upstream: a snapshot is in place and young enough
+     * to be served even if its refresh fails.
+     */
+    public boolean hasUsableSnapshot() {
+        FeedSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return false;
+        }
+        Duration age = snapshot.age(clock.instant());
+        return age.compareTo(ttl.plus(maxStale)) <= 0 || snapshot == restored && age.compareTo(restoredMaxAge) <= 0;
+    }
+
+    private void refreshInBackground() {
+        log.debug("Snapshot close to expiry, refreshing ahead");
+        refresh().subscribe(
+                snapshot -> { },
+                ex -> log.warn("Background refresh of restaurant feed failed: {}", ex.getMessage()));
+    }
+
+    private synchronized Mono<FeedSnapshot> refresh() {
+        FeedSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.age(clock.instant()).compareTo(ttl.minus(refreshAhead)) < 0) {
+            return Mono.just(snapshot);
+        }
+        if (inFlight != null) {
+            coalescedRefreshes.increment();
+            return inFlight;
+        }
+        inFlight = fetchSnapshot(snapshot)
+                .doOnNext(fresh -> {
+                    FeedSnapshot replaced = current.getAndSet(fresh);
+                    refreshSuccesses.increment();
+                    log.info("Refreshed restaurant feed snapshot v{} with {} restaurants{}",
+                            fresh.getVersion(), fresh.getDealStore().restaurantCount(),
+                            fresh.isPartial() ? ", partly stale" : "");
+                    if (replaced == null || replaced.getVersion() != fresh.getVersion()) {
+                        // Only one refresh is in flight at a time, so emissions never overlap
+                        updates.tryEmitNext(fresh);
+                    }
+                })
+                .doOnError(ex -> refreshFailures.increment())
+                // Before the result reaches subscribers: one that looks up again straight away,
+                // as a blocking caller on another thread may, must not be handed this refresh
+                .doOnTerminate(this::clearInFlight)
+                .cache();
+        return inFlight;
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+
+    private Mono<FeedSnapshot> serveStale(FeedSnapshot snapshot, Throwable ex) {
+        if (snapshot.age(clock.instant()).compareTo(ttl.plus(maxStale)) > 0) {
+            return Mono.error(ex);
+        }
+        log.warn("Serving stale restaurant feed snapshot v{} after refresh failure: {}",
+                snapshot.getVersion(), ex.getMessage());
+        staleServed.increment();
+        return Mono.just(snapshot);
+    }
+
+    /**
+     * Fetches every source and builds the snapshot from their parts. A single source failing fails
+     * the fetch; with several, a failing source keeps its part of {@code previous}, marked stale,
+     * and only all of them failing fails the fetch. When every part is the one {@code previous}
+     * was built from, {@code previous} is kept, so caches keyed by its version stay warm.
+     */
+    private Mono<FeedSnapshot> fetchSnapshot(FeedSnapshot previous) {
+        Mono<List<FeedSource>> parts;
+        if (sources.size() == 1) {
+            parts = fetchSource(0, previous).map(List::of);
+        } else {
+            List<Mono<SourceResult>> fetches = new ArrayList<>(sources.size());
+            for (int i = 0; i < sources.size(); i++) {
+                int index = i;
+                fetches.add(fetchSource(index, previous)
+                        .map(part -> new SourceResult(part, null))
+                        .onErrorResume(ex -> Mono.just(new SourceResult(failed(index, previous, ex), ex))));
+            }
+            // Subscribed to all at once, emitted in source order
+            parts = Flux.mergeSequential(fetches)
+                    .collectList()
+                    .flatMap(RestaurantFeedCache::partsUnlessAllFailed);
+        }
+        return parts
+                .map(fetched -> snapshotOf(previous, fetched))
+                .onErrorMap(
+                        ex -> ex instanceof RuntimeException,
+                        ex -> {
+                            log.error("Error fetching restaurant data", ex);
+                            return new RestaurantServiceUnavailableException(MSG_SERVICE_UNAVAILABLE);
+                        }
+                );
+    }
+
+    private static Mono<List<FeedSource>> partsUnlessAllFailed(List<SourceResult> results) {
+        List<FeedSource> parts = new ArrayList<>(results.size());
+        Throwable failure = null;
+        int failed = 0;
+        for (SourceResult result : results) {
+            parts.add(result.part);
+            if (result.failure != null) {
+                failure = failure == null ? result.failure : failure;
+                failed++;
+            }
+        }
+        return failed == results.size() ? Mono.error(failure) : Mono.just(parts);
+    }
+
+    private FeedSnapshot snapshotOf(FeedSnapshot previous, List<FeedSource> parts) {
+        if (previous != null && previous.getSources().size() == parts.size()) {
+            boolean unchanged = true;
+            for (int i = 0; i < parts.size() && unchanged; i++) {
+                FeedSource kept = previous.getSources().get(i);
+                unchanged = kept.getName().equals(parts.get(i).getName())
+                        && kept.getDealStore() == parts.get(i).getDealStore()
+                        && kept.isStale() == parts.get(i).isStale();
+            }
+            if (unchanged) {
+                log.debug("Restaurant feed unchanged, keeping snapshot v{}", previous.getVersion());
+                return previous.revalidated(clock.instant(), parts);
+            }
+        }
+        return FeedSnapshot.of(versions.incrementAndGet(), clock.instant(), parts, sharding);
+    }
+
+    /**
+     * Fetches one source, conditionally when its part of {@code previous} carries upstream
+     * validators. A 304 reuses that part as is; a 200 whose body hashes to the same content keeps
+     * it too.
+     */
+    private Mono<FeedSource> fetchSource(int index, FeedSnapshot previous) {
+        FeedSourceProperties.Source source = sources.get(index);
+        FeedSource previousPart = previousPart(source, previous);
+        FeedOrigin origin = previousPart != null ? previousPart.getOrigin() : FeedOrigin.UNKNOWN;
+        Mono<FeedSource> fetch = restClient != null
+                ? exchangeBlocking(source, previousPart, origin)
+                : exchange(source, previousPart, origin);
+        if (source.getTimeout() != null) {
+            // Per attempt, so a timed out attempt can still be retried
+            fetch = fetch.timeout(source.getTimeout());
+        }
+        // A single source keeps the restaurantFeed circuit breaker and bulkhead
+        String policies = sources.size() == 1
+                ? UPSTREAM_RESTAURANT_FEED
+                : UPSTREAM_RESTAURANT_FEED + "-" + source.getName();
+        return resilience.decorate(policies, fetch);
+    }
+
+    /**
+     * The part of a source whose fetch failed: its last good part marked stale while that is young
+     * enough to be served stale, an empty one otherwise.
+     */
+    private FeedSource failed(int index, FeedSnapshot previous, Throwable ex) {
+        FeedSourceProperties.Source source = sources.get(index);
+        sourceFailures.get(index).increment();
+        FeedSource previousPart = previousPart(source, previous);
+        if (previousPart != null && previousPart.getFetchedAt() == null) {
+            log.warn("Restaurant feed source {} failed, still no data from it: {}", source.getName(), ex.toString());
+            return previousPart;
+        }
+        if (previousPart != null && Duration.between(previousPart.getFetchedAt(), clock.instant())
+                .compareTo(maxPartAge(previousPart)) <= 0) {
+            log.warn("Restaurant feed source {} failed, serving its data fetched at {} as stale: {}",
+                    source.getName(), previousPart.getFetchedAt(), ex.toString());
+            return previousPart.markStale();
+        }
+        log.warn("Restaurant feed source {} failed, no data from it to serve: {}", source.getName(), ex.toString());
+        return FeedSource.empty(source.getName());
+    }
+
+    // Data restored from disk may be served stale as long as the restored snapshot may
+    private Duration maxPartAge(FeedSource part) {
+        Duration maxAge = ttl.plus(maxStale);
+        FeedSnapshot fromDisk = restored;
+        if (fromDisk != null && !part.getFetchedAt().isAfter(fromDisk.getFetchedAt())
+                && restoredMaxAge.compareTo(maxAge) > 0) {
+            return restoredMaxAge;
+        }
+        return maxAge;
+    }
+
+    private static FeedSource previousPart(FeedSourceProperties.Source source, FeedSnapshot previous) {
+        if (previous == null) {
+            return null;
+        }
+        for (FeedSource part : previous.getSources()) {
+            if (part.getName().equals(source.getName())) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    private Mono<FeedSource> exchange(FeedSourceProperties.Source source, FeedSource previous, FeedOrigin origin) {
+        return webClient.get()
+                .uri(source.getUri())
+                .headers(headers -> conditional(headers, origin))
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && origin.hasValidators()) {
+                        return response.releaseBody().then(Mono.fromSupplier(
+                                () -> notModified(previous, response.headers().asHttpHeaders())));
+                    }
+                    if (response.statusCode().is4xxClientError() || response.statusCode().is5xxServerError()
+                            || response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        log.error("Upstream returned error status {} for feed {}", response.statusCode(),
+                                source.getName());
+                        // Keeps the status so 5xx answers can be retried
+                        return response.createError();
+                    }
+                    return load(source, response, previous);
+                });
+    }
+
+    /**
+     * Same exchange as {@link #exchange} on a blocking client. Every attempt, retries and hedges
+     * included, runs on a thread that may block rather than on the thread that scheduled it: a
+     * virtual thread when requests run on them, a bounded elastic one otherwise.
+     */
+    private Mono<FeedSource> exchangeBlocking(FeedSourceProperties.Source source, FeedSource previous,
+                                              FeedOrigin origin) {
+        return Mono.fromCallable(() -> restClient.get()
+                        .uri(source.getUri())
+                        .headers(headers -> conditional(headers, origin))
+                        .exchange((request, response) -> {
+                            HttpStatusCode status = response.getStatusCode();
+                            if (status.isSameCodeAs(HttpStatus.NOT_MODIFIED) && origin.hasValidators()) {
+                                return notModified(previous, response.getHeaders());
+                            }
+                            if (status.isError() || status.isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                                log.error("Upstream returned error status {} for feed {}", status, source.getName());
+                                throw new RestClientResponseException("Upstream returned " + status, status,
+                                        response.getStatusText(), response.getHeaders(), null, null);
+                            }
+                            return loadBlocking(source, response.getHeaders(), response.getBody(), previous);
+                        }))
+                .subscribeOn(blockingScheduler);
+    }
+
+    private static void conditional(HttpHeaders headers, FeedOrigin origin) {
+        if (origin.getETag() != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, origin.getETag());
+        }
+        if (origin.getLastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, origin.getLastModified());
+        }
+    }
+
+    private FeedSource notModified(FeedSource previous, HttpHeaders responseHeaders) {
+        FeedOrigin origin = previous.getOrigin();
+        notModified.increment();
+        bytesSaved.increment(origin.getContentLength());
+        loadAvoided.record(origin.getLoadTime());
+        log.debug("Restaurant feed {} not modified, keeping its data", previous.getName());
+        return previous.revalidated(clock.instant(), origin.revalidatedWith(
+                responseHeaders.getETag(), responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED)));
+    }
+
+    private Mono<FeedSource> load(FeedSourceProperties.Source source, ClientResponse response, FeedSource previous) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            ContentDigest digest = new ContentDigest();
+            return response.bodyToFlux(DataBuffer.class)
+                    .doOnNext(digest::update)
+                    .transform(feedParser::parse)
+                    // Store each restaurant as it is parsed rather than after the whole body arrived
+                    .reduceWith(DealStore.Builder::new, DealStore.Builder::add)
+                    .map(builder -> loaded(source, builder, response.headers().asHttpHeaders(), digest, started,
+                            previous));
+        });
+    }
+
+    private FeedSource loadBlocking(FeedSourceProperties.Source source, HttpHeaders headers, InputStream body,
+                                    FeedSource previous) throws IOException {
+        long started = System.nanoTime();
+        ContentDigest digest = new ContentDigest();
+        DealStore.Builder builder = new DealStore.Builder();
+        feedParser.parse(digest.wrap(body), builder::add);
+        return loaded(source, builder, headers, digest, started, previous);
+    }
+
+    private FeedSource loaded(FeedSourceProperties.Source source, DealStore.Builder builder, HttpHeaders headers,
+                              ContentDigest digest, long started, FeedSource previous) {
+        Duration loadTime = Duration.ofNanos(System.nanoTime() - started);
+        loads.record(loadTime);
+        bodySize.record(digest.length());
+        FeedOrigin origin = new FeedOrigin(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                digest.hex(), digest.length(), loadTime);
+        if (previous != null && origin.getContentHash().equals(previous.getOrigin().getContentHash())) {
+            contentUnchanged.increment();
+            log.debug("Restaurant feed {} content unchanged, keeping its data", previous.getName());
+            return previous.revalidated(clock.instant(), origin);
+        }
+        return new FeedSource(source.getName(), builder.build(), origin, clock.instant(), false);
+    }
+
+    private double snapshotAgeSeconds() {
+        FeedSnapshot snapshot = current.get();
+        return snapshot == null ? Double.NaN : snapshot.age(clock.instant()).toMillis() / 1000.0;
+    }
+
+    private double sourceStale(String name) {
+        FeedSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            for (FeedSource part : snapshot.getSources()) {
+                if (part.getName().equals(name)) {
+                    return part.isStale() ? 1 : 0;
+                }
+            }
+        }
+        return Double.NaN;
+    }
+
+    private double snapshotSize(boolean deals) {
+        FeedSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return Double.NaN;
+        }
+        return deals ? snapshot.getDealStore().size() : snapshot.getDealStore().restaurantCount();
+    }
+
+    private static Counter cacheRequests(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_FEED_CACHE_REQUESTS)
+                .description("Feed snapshot lookups")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter revalidations(MeterRegistry registry, String result) {
+        return Counter.builder(METRIC_FEED_REVALIDATIONS)
+                .description("Refreshes that kept the current snapshot")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter refreshes(MeterRegistry registry, String outcome) {
+        return Counter.builder(METRIC_FEED_REFRESHES)
+                .description("Upstream feed refresh attempts")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * A source's part after its fetch, and the failure when it is the previous part kept.
+     */
+    private static final class SourceResult {
+        private final FeedSource part;
+        private final Throwable failure;
+
+        SourceResult(FeedSource part, Throwable failure) {
+            this.part = part;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * SHA-256 and length of a body, updated buffer by buffer without consuming it.
+     */
+    private static final class ContentDigest {
+        private final MessageDigest digest;
+        private long length;
+
+        ContentDigest() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void update(DataBuffer buffer) {
+            length += buffer.readableByteCount();
+            try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                buffers.forEachRemaining(digest::update);
+            }
+        }
+
+        InputStream wrap(InputStream body) {
+            return new FilterInputStream(body) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b != -1) {
+                        length++;
+                        digest.update((byte) b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int count) throws IOException {
+                    int read = super.read(bytes, offset, count);
+                    if (read > 0) {
+                        length += read;
+                        digest.update(bytes, offset, read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        long length() {
+            return length;
+        }
+
+        String hex() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for the upstream feed document.
+ * <p>
+ * The body is fed chunk by chunk into Jackson's non-blocking parser and every element of the
+ * top-level {@code restaurants} array is emitted as soon as its closing brace arrives, so the raw
+ * document is never held in memory as a whole and is not subject to the codec's in-memory limit.
+ */
+@Component
+public class RestaurantFeedParser {
+
+    private static final String RESTAURANTS_FIELD = "restaurants";
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ObjectMapper objectMapper;
+
+    public RestaurantFeedParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<Restaurant> parse(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Tokenizer tokenizer = new Tokenizer();
+            return body
+                    .concatMapIterable(buffer -> {
+                        try {
+                            return tokenizer.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(tokenizer.endOfInput())));
+        });
+    }
+
+    /**
+     * Blocking counterpart of {@link #parse(Flux)}: reads {@code body} to its end on the calling
+     * thread and hands each restaurant to {@code sink} as soon as it is complete.
+     */
+    public void parse(InputStream body, Consumer<Restaurant> sink) throws IOException {
+        Tokenizer tokenizer = new Tokenizer();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int read;
+        while ((read = body.read(chunk)) != -1) {
+            tokenizer.feed(ByteBuffer.wrap(chunk, 0, read)).forEach(sink);
+        }
+        tokenizer.endOfInput().forEach(sink);
+    }
+
+    private final class Tokenizer {
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+
+        private int depth;
+        private boolean restaurantsFieldSeen;
+        private int restaurantsDepth = -1;
+        private TokenBuffer current;
+
+        private Tokenizer() {
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteBufferParser();
+            } catch (IOException e) {
+                throw new DecodingException("Could not create JSON parser", e);
+            }
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<Restaurant> feed(DataBuffer buffer) {
+            List<Restaurant> parsed = new ArrayList<>();
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    feed(chunks.next(), parsed);
+                }
+            }
+            return parsed;
+        }
+
+        // The chunk is fully consumed on return, so its bytes may be reused afterwards
+        List<Restaurant> feed(ByteBuffer chunk) {
+            List<Restaurant> parsed = new ArrayList<>();
+            feed(chunk, parsed);
+            return parsed;
+        }
+
+        private void feed(ByteBuffer chunk, List<Restaurant> parsed) {
+            try {
+                feeder.feedInput(chunk);
+                drain(parsed);
+            } catch (IOException e) {
+                throw new DecodingException("Malformed restaurant feed: " + e.getMessage(), e);
+            }
+        }
+
+        List<Restaurant> endOfInput() {
+            List<Restaurant> parsed = new ArrayList<>();
+            feeder.endOfInput();
+            try {
+                drain(parsed);
+            } catch (IOException e) {
+                throw new DecodingException("Malformed restaurant feed: " + e.getMessage(), e);
+            }
+            if (depth != 0) {
+                throw new DecodingException("Restaurant feed ended unexpectedly");
+            }
+            return parsed;
+        }
+
+        private void drain(List<Restaurant> parsed) throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                onToken(token, parsed);
+            }
+        }
+
+        private void onToken(JsonToken token, List<Restaurant> parsed) throws IOException {
+            if (current == null && restaurantsDepth >= 0 && depth == restaurantsDepth
+                    && token == JsonToken.START_OBJECT) {
+                current = new TokenBuffer(parser);
+            }
+            if (current != null) {
+                current.copyCurrentEvent(parser);
+            }
+
+            if (token.isStructStart()) {
+                if (restaurantsFieldSeen && token == JsonToken.START_ARRAY) {
+                    restaurantsDepth = depth + 1;
+                }
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+                if (current != null && depth == restaurantsDepth) {
+                    try (JsonParser restaurantParser = current.asParser(objectMapper)) {
+                        parsed.add(objectMapper.readValue(restaurantParser, Restaurant.class));
+                    }
+                    current = null;
+                } else if (depth == restaurantsDepth - 1) {
+                    restaurantsDepth = -1;
+                }
+            }
+            restaurantsFieldSeen = token == JsonToken.FIELD_NAME && depth == 1
+                    && RESTAURANTS_FIELD.equals(parser.currentName());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.customer.restaurantdeals.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+
+/**
+ * Policies around a single upstream feed fetch, innermost first:
+ * <ol>
+ *   <li>optional hedging: a second attempt is started when the first is slower than the observed
+ *   latency percentile, and whichever answers first wins;</li>
+ *   <li>a bulkhead capping concurrent upstream calls (hedges included);</li>
+ *   <li>a circuit breaker, so a failing upstream is not called at all while it is open;</li>
+ *   <li>bounded retries of transient failures with exponential backoff and jitter.</li>
+ * </ol>
+ * The circuit breaker and bulkhead come from the resilience4j registries ({@code resilience4j.*}
+ * properties), so their state, transitions and rejections are visible through Actuator. Each named
+ * upstream source gets its own pair ({@link #decorate(String, Mono)}), so one failing or slow source
+ * neither opens the circuit of the others nor takes their bulkhead permits; an instance without
+ * its own {@code resilience4j.*.instances.<name>} properties is configured like
+ * {@code restaurantFeed}.
+ */
+@Component
+@Slf4j
+public class UpstreamResilience {
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Map<String, Policies> policies = new ConcurrentHashMap<>();
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration retryMaxBackoff;
+    private final double retryJitter;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final Duration hedgeMinDelay;
+
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter hedges;
+
+    public UpstreamResilience(CircuitBreakerRegistry circuitBreakerRegistry,
+                              BulkheadRegistry bulkheadRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${restaurantdeals.resilience.retry.max-retries:2}") int maxRetries,
+                              @Value("${restaurantdeals.resilience.retry.backoff:200ms}") Duration retryBackoff,
+                              @Value("${restaurantdeals.resilience.retry.max-backoff:2s}") Duration retryMaxBackoff,
+                              @Value("${restaurantdeals.resilience.retry.jitter:0.5}") double retryJitter,
+                              @Value("${restaurantdeals.resilience.hedge.enabled:false}") boolean hedgeEnabled,
+                              @Value("${restaurantdeals.resilience.hedge.percentile:0.95}") double hedgePercentile,
+                              @Value("${restaurantdeals.resilience.hedge.min-delay:500ms}") Duration hedgeMinDelay) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(UPSTREAM_RESTAURANT_FEED);
+        this.bulkhead = bulkheadRegistry.bulkhead(UPSTREAM_RESTAURANT_FEED);
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+        this.retryJitter = retryJitter;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelay = hedgeMinDelay;
+
+        this.latency = Timer.builder(METRIC_FEED_FETCH_LATENCY)
+                .description("Latency of single upstream feed fetch attempts")
+                .publishPercentiles(hedgePercentile)
+                .register(meterRegistry);
+        this.retries = Counter.builder(METRIC_FEED_RETRIES)
+                .description("Upstream feed fetches retried after a transient failure")
+                .register(meterRegistry);
+        this.hedges = Counter.builder(METRIC_FEED_HEDGES)
+                .description("Hedged upstream feed fetches started")
+                .register(meterRegistry);
+
+        policies.put(UPSTREAM_RESTAURANT_FEED, new Policies(circuitBreaker, bulkhead));
+        logTransitions(circuitBreaker);
+    }
+
+    /**
+     * Applies the policies to {@code fetch}, which must be re-subscribable (one upstream call per
+     * subscription).
+     */
+    public <T> Mono<T> decorate(Mono<T> fetch) {
+        return decorate(UPSTREAM_RESTAURANT_FEED, fetch);
+    }
+
+    /**
+     * Same, with the circuit breaker and bulkhead named {@code name}, created on first use.
+     */
+    public <T> Mono<T> decorate(String name, Mono<T> fetch) {
+        Policies instance = policies.computeIfAbsent(name, this::createPolicies);
+        Mono<T> attempt = timed(fetch, instance.bulkhead);
+        if (hedgeEnabled) {
+            attempt = hedged(attempt);
+        }
+        return attempt
+                .transformDeferred(CircuitBreakerOperator.of(instance.circuitBreaker))
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                        .maxBackoff(retryMaxBackoff)
+                        .jitter(retryJitter)
+                        .filter(UpstreamResilience::isTransient)
+                        .doBeforeRetry(signal -> {
+                            retries.increment();
+                            log.warn("Retrying upstream feed fetch (attempt {}): {}",
+                                    signal.totalRetries() + 2, signal.failure().toString());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private Policies createPolicies(String name) {
+        // Instances with their own properties already exist in the registries and keep their config
+        CircuitBreaker named = circuitBreakerRegistry.circuitBreaker(name, circuitBreaker.getCircuitBreakerConfig());
+        logTransitions(named);
+        return new Policies(named, bulkheadRegistry.bulkhead(name, bulkhead.getBulkheadConfig()));
+    }
+
+    private static void logTransitions(CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Upstream circuit breaker {} {}", event.getCircuitBreakerName(), event.getStateTransition()));
+    }
+
+    private <T> Mono<T> timed(Mono<T> fetch, Bulkhead bulkhead) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return fetch.doOnSuccess(value -> latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        }).transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private <T> Mono<T> hedged(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            Duration delay = hedgeDelay();
+            Mono<T> hedge = Mono.delay(delay)
+                    .doOnNext(tick -> {
+                        hedges.increment();
+                        log.debug("Upstream feed fetch slower than {}, hedging", delay);
+                    })
+                    .then(attempt)
+                    // A failed hedge (e.g. rejected by the bulkhead) leaves the primary to answer
+                    .onErrorResume(ex -> Mono.never());
+            return Mono.firstWithSignal(attempt, hedge);
+        });
+    }
+
+    Duration hedgeDelay() {
+        for (var value : latency.takeSnapshot().percentileValues()) {
+            double nanos = value.value(TimeUnit.NANOSECONDS);
+            if (value.percentile() == hedgePercentile && !Double.isNaN(nanos) && nanos > 0) {
+                Duration observed = Duration.ofNanos((long) nanos);
+                return observed.compareTo(hedgeMinDelay) > 0 ? observed : hedgeMinDelay;
+            }
+        }
+        return hedgeMinDelay;
+    }
+
+    private static final class Policies {
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+
+        Policies(CircuitBreaker circuitBreaker, Bulkhead bulkhead) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+        }
+    }
+
+    /**
+     * I/O failures, timeouts and 5xx answers are worth another attempt; 4xx answers, malformed
+     * bodies and rejections by the circuit breaker or bulkhead are not.
+     */
+    static boolean isTransient(Throwable ex) {
+        if (ex instanceof CallNotPermittedException || ex instanceof BulkheadFullException) {
+            return false;
+        }
+        if (ex instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        // Same failures raised by the blocking client
+        if (ex instanceof RestClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return ex instanceof WebClientRequestException || ex instanceof ResourceAccessException
+                || ex instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,49 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Deal attribute predicates evaluated directly against the columns of a {@link DealStore}, so
+ * rows are rejected before anything is materialized for them. A {@code null} criterion matches
+ * every row.
+ */
+public final class DealFilter implements IntPredicate {
+
+    private final DealStore store;
+    private final boolean[] suburbCodes;
+    private final Boolean dineIn;
+    private final Boolean lightning;
+    private final Integer minQtyLeft;
+    private final Integer minDiscount;
+
+    public DealFilter(DealStore store, String suburb, Boolean dineIn, Boolean lightning,
+                      Integer minQtyLeft, Integer minDiscount) {
+        this.store = store;
+        this.suburbCodes = suburb == null ? null : store.suburbCodes(suburb);
+        this.dineIn = dineIn;
+        this.lightning = lightning;
+        this.minQtyLeft = minQtyLeft;
+        this.minDiscount = minDiscount;
+    }
+
+    @Override
+    public boolean test(int ordinal) {
+        if (dineIn != null && store.dineIn(ordinal) != dineIn) {
+            return false;
+        }
+        if (lightning != null && store.lightning(ordinal) != lightning) {
+            return false;
+        }
+        if (minQtyLeft != null && store.qtyLeft(ordinal) < minQtyLeft) {
+            return false;
+        }
+        if (minDiscount != null && store.discountValue(ordinal) < minDiscount) {
+            return false;
+        }
+        if (suburbCodes != null) {
+            int code = store.restaurantSuburbCode(store.restaurantOf(ordinal));
+            return code != StringDictionary.NULL && suburbCodes[code];
+        }
+        return true;
+    }
+}
@@ -0,0 +1,434 @@
+package com.customer.restaurantdeals.snapshot;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Picks one page of rows out of the candidates for a lookup, in a total order given by a sort key
+ * and the ordinal as tie-breaker.
+ * <p>
+ * Every row has a {@code long} position in that order, which doubles as the keyset cursor: the
+ * next page starts after the last position returned. In feed order the candidates are already
+ * sorted, so the scan stops as soon as the page is full; sorted pages have to look at every match.
+ */
+public final class DealSelector {
+
+    /**
+     * Position before the first row.
+     */
+    public static final long START = -1;
+
+    public enum Order {
+        FEED, DISCOUNT_ASC, DISCOUNT_DESC, QTY_LEFT_ASC, QTY_LEFT_DESC
+    }
+
+    private DealSelector() {}
+
+    /**
+     * Ordinals of the deals of the restaurant(s) with this id that are active at {@code minute}, in
+     * ascending order. Uses the per-restaurant ordinal ranges rather than the time index, which is
+     * much cheaper when a single restaurant is asked for.
+     */
+    public static int[] restaurantDealsActiveAt(DealStore store, String restaurantId, int minute) {
+        int[] ordinals = new int[0];
+        int count = 0;
+        for (int restaurant = 0; restaurant < store.restaurantCount(); restaurant++) {
+            if (!restaurantId.equals(store.restaurantId(restaurant))) {
+                continue;
+            }
+            int from = store.firstPair(restaurant);
+            int to = store.firstPair(restaurant + 1);
+            ordinals = Arrays.copyOf(ordinals, count + to - from);
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                if (isActiveAt(store, ordinal, minute)) {
+                    ordinals[count++] = ordinal;
+                }
+            }
+        }
+        return Arrays.copyOf(ordinals, count);
+    }
+
+    /**
+     * Up to {@code limit} deals matching {@code filter} that are active at {@code minute} and whose
+     * restaurant is within {@code radiusKm} of the point, nearest first and in feed order at the
+     * same distance.
+     * <p>
+     * The lookup starts from whichever index narrows it down more, both sized before anything is
+     * read: the restaurants in the grid cells around the point, whose deals are then checked against
+     * their active minutes, or the deals the time index lists at {@code minute}, whose restaurants
+     * are then checked against the distance. Neither path scans the whole store.
+     */
+    public static Nearby nearby(DealStore store, DealTimeIndex timeIndex, GeoIndex geoIndex, int minute,
+                                double latitude, double longitude, double radiusKm, IntPredicate filter, int limit) {
+        // Each path computes about one distance per restaurant or deal it reads, which outweighs the
+        // active-minute checks, so the restaurants in the cells are weighed against the active deals
+        boolean byLocation = geoIndex.candidateCount(latitude, longitude, radiusKm) <= timeIndex.countAt(minute);
+        return byLocation
+                ? nearbyByLocation(store, geoIndex, minute, latitude, longitude, radiusKm, filter, limit)
+                : nearbyByTime(store, timeIndex, geoIndex, minute, latitude, longitude, radiusKm, filter, limit);
+    }
+
+    static Nearby nearbyByLocation(DealStore store, GeoIndex geoIndex, int minute, double latitude,
+                                   double longitude, double radiusKm, IntPredicate filter, int limit) {
+        NearbyMatches matches = new NearbyMatches(store);
+        geoIndex.forEachCandidate(latitude, longitude, radiusKm, restaurant -> {
+            double distance = geoIndex.distanceKm(restaurant, latitude, longitude);
+            if (!(distance <= radiusKm)) {
+                return;
+            }
+            for (int ordinal = store.firstPair(restaurant); ordinal < store.firstPair(restaurant + 1); ordinal++) {
+                if (isActiveAt(store, ordinal, minute) && filter.test(ordinal)) {
+                    matches.add(distance, restaurant, ordinal);
+                }
+            }
+        });
+        return matches.nearest(limit);
+    }
+
+    static Nearby nearbyByTime(DealStore store, DealTimeIndex timeIndex, GeoIndex geoIndex, int minute,
+                               double latitude, double longitude, double radiusKm, IntPredicate filter, int limit) {
+        NearbyMatches matches = new NearbyMatches(store);
+        int[] previous = {-1};
+        double[] distance = {Double.NaN};
+        // Each node of the index lists its deals in feed order, so a restaurant's distance is
+        // mostly computed once; the order across nodes does not matter as matches are sorted
+        timeIndex.forEachActiveAt(minute, ordinal -> {
+            int restaurant = store.restaurantOf(ordinal);
+            if (restaurant != previous[0]) {
+                distance[0] = geoIndex.distanceKm(restaurant, latitude, longitude);
+                previous[0] = restaurant;
+            }
+            if (distance[0] <= radiusKm && filter.test(ordinal)) {
+                matches.add(distance[0], restaurant, ordinal);
+            }
+        });
+        return matches.nearest(limit);
+    }
+
+    private static boolean isActiveAt(DealStore store, int ordinal, int minute) {
+        return store.activeFrom(ordinal) != DealStore.NEVER
+                && store.activeFrom(ordinal) <= minute && minute <= store.activeTo(ordinal);
+    }
+
+    /**
+     * For each of {@code minutes} (ascending, distinct), up to {@code limit} ordinals of the deals
+     * matching {@code filter} that are active then, in ascending order.
+     * <p>
+     * One pass over the store: each deal's active interval is located among the query minutes by
+     * binary search, and the filter runs once per deal, not once per deal and minute.
+     *
+     * @param restaurantId only deals of the restaurant(s) with this id, or {@code null}
+     */
+    public static int[][] activeAtEach(DealStore store, String restaurantId, int[] minutes, IntPredicate filter,
+                                       int limit) {
+        return activeAtEach(store, restaurantId, minutes, filter, limit, Long.MAX_VALUE, Sharding.SEQUENTIAL);
+    }
+
+    /**
+     * Same result, with the restaurants swept in shards. Each shard keeps up to {@code limit}
+     * deals per minute; concatenated in shard order and cut to {@code limit}, they are the deals
+     * a single sweep would have kept.
+     */
+    public static int[][] activeAtEach(DealStore store, String restaurantId, int[] minutes, IntPredicate filter,
+                                       int limit, Sharding sharding) {
+        return activeAtEach(store, restaurantId, minutes, filter, limit, Long.MAX_VALUE, sharding);
+    }
+
+    /**
+     * Same result, failing with {@link TooManyDealsException} as soon as more than {@code maxDeals}
+     * deals in total, over all minutes, would be returned. The count is shared by the shards and
+     * only counts deals within {@code limit} per minute, so the sweep stops before the per-minute
+     * lists of an oversized result are built.
+     */
+    public static int[][] activeAtEach(DealStore store, String restaurantId, int[] minutes, IntPredicate filter,
+                                       int limit, long maxDeals, Sharding sharding) {
+        if (minutes.length == 0) {
+            return new int[0][];
+        }
+        DealBudget budget = maxDeals == Long.MAX_VALUE ? null : new DealBudget(minutes.length, limit, maxDeals);
+        List<int[][]> shards = sharding.map(store.restaurantCount(), store.size(), (shard, from, to) ->
+                activeAtEach(store, restaurantId, minutes, filter, limit, budget, from, to));
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        int[][] results = new int[minutes.length][];
+        for (int q = 0; q < minutes.length; q++) {
+            int count = 0;
+            for (int[][] shard : shards) {
+                count = Math.min(limit, count + shard[q].length);
+            }
+            results[q] = new int[count];
+            int offset = 0;
+            for (int[][] shard : shards) {
+                int length = Math.min(shard[q].length, count - offset);
+                System.arraycopy(shard[q], 0, results[q], offset, length);
+                offset += length;
+            }
+        }
+        return results;
+    }
+
+    private static int[][] activeAtEach(DealStore store, String restaurantId, int[] minutes, IntPredicate filter,
+                                        int limit, DealBudget budget, int fromRestaurant, int toRestaurant) {
+        int[][] results = new int[minutes.length][];
+        int[] counts = new int[minutes.length];
+        Arrays.fill(results, new int[0]);
+
+        for (int restaurant = fromRestaurant; restaurant < toRestaurant; restaurant++) {
+            if (restaurantId != null && !restaurantId.equals(store.restaurantId(restaurant))) {
+                continue;
+            }
+            for (int ordinal = store.firstPair(restaurant); ordinal < store.firstPair(restaurant + 1); ordinal++) {
+                int from = store.activeFrom(ordinal);
+                if (from == DealStore.NEVER) {
+                    continue;
+                }
+                int to = store.activeTo(ordinal);
+                int first = Arrays.binarySearch(minutes, from);
+                first = first >= 0 ? first : -first - 1;
+                if (first == minutes.length || minutes[first] > to || !filter.test(ordinal)) {
+                    continue;
+                }
+                for (int q = first; q < minutes.length && minutes[q] <= to; q++) {
+                    if (counts[q] == limit) {
+                        continue;
+                    }
+                    if (budget != null) {
+                        budget.take(q);
+                    }
+                    if (counts[q] == results[q].length) {
+                        results[q] = Arrays.copyOf(results[q], Math.max(16, counts[q] * 2));
+                    }
+                    results[q][counts[q]++] = ordinal;
+                }
+            }
+        }
+
+        for (int q = 0; q < minutes.length; q++) {
+            results[q] = Arrays.copyOf(results[q], counts[q]);
+        }
+        return results;
+    }
+
+    /**
+     * @param candidates ordinals in ascending order
+     * @param after      position of the last row of the previous page, or {@link #START}
+     */
+    public static Page select(DealStore store, int[] candidates, IntPredicate filter, Order order,
+                              long after, int limit) {
+        return select(store, candidates, filter, order, after, limit, Sharding.SEQUENTIAL);
+    }
+
+    /**
+     * Same page. Sorted pages filter and rank the candidates in shards; feed-order pages stop at
+     * the first full page, so they are always scanned on the calling thread.
+     */
+    public static Page select(DealStore store, int[] candidates, IntPredicate filter, Order order,
+                              long after, int limit, Sharding sharding) {
+        return order == Order.FEED
+                ? selectInFeedOrder(candidates, filter, after, limit)
+                : selectSorted(store, candidates, filter, order, after, limit, sharding);
+    }
+
+    private static Page selectInFeedOrder(int[] candidates, IntPredicate filter, long after, int limit) {
+        int from = Arrays.binarySearch(candidates, (int) Math.min(after, Integer.MAX_VALUE));
+        from = from >= 0 ? from + 1 : -from - 1;
+
+        int[] page = new int[Math.min(limit, candidates.length - from)];
+        int count = 0;
+        for (int i = from; i < candidates.length; i++) {
+            if (filter.test(candidates[i])) {
+                if (count == limit) {
+                    return new Page(page, page[count - 1]);
+                }
+                page[count++] = candidates[i];
+            }
+        }
+        return new Page(Arrays.copyOf(page, count), START);
+    }
+
+    private static Page selectSorted(DealStore store, int[] candidates, IntPredicate filter, Order order,
+                                     long after, int limit, Sharding sharding) {
+        List<long[]> shards = sharding.map(candidates.length, (shard, from, to) -> {
+            long[] positions = new long[to - from];
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                if (filter.test(candidates[i])) {
+                    long position = position(store, order, candidates[i]);
+                    if (position > after) {
+                        positions[count++] = position;
+                    }
+                }
+            }
+            return Arrays.copyOf(positions, count);
+        });
+        long[] positions = concat(shards);
+        int count = positions.length;
+        // Positions are distinct (the ordinal is part of them), so any sort yields the same order
+        if (sharding.isParallel(count)) {
+            Arrays.parallelSort(positions);
+        } else {
+            Arrays.sort(positions);
+        }
+
+        int size = Math.min(limit, count);
+        int[] page = new int[size];
+        for (int i = 0; i < size; i++) {
+            page[i] = (int) (positions[i] & Integer.MAX_VALUE);
+        }
+        return new Page(page, count > limit ? positions[size - 1] : START);
+    }
+
+    private static long[] concat(List<long[]> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        long[] result = new long[parts.stream().mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    /**
+     * The sort key mapped to an unsigned 32-bit rank (inverted for descending orders) in the high
+     * bits, the ordinal in the low 31 bits.
+     */
+    static long position(DealStore store, Order order, int ordinal) {
+        long rank = switch (order) {
+            case FEED -> 0;
+            case DISCOUNT_ASC -> (long) store.discountValue(ordinal) - Integer.MIN_VALUE;
+            case DISCOUNT_DESC -> Integer.MAX_VALUE - (long) store.discountValue(ordinal);
+            case QTY_LEFT_ASC -> (long) store.qtyLeft(ordinal) - Integer.MIN_VALUE;
+            case QTY_LEFT_DESC -> Integer.MAX_VALUE - (long) store.qtyLeft(ordinal);
+        };
+        return rank << 31 | ordinal;
+    }
+
+    /**
+     * Thrown by {@link #activeAtEach(DealStore, String, int[], IntPredicate, int, long, Sharding)}
+     * once a result would hold more than the allowed number of deals.
+     */
+    public static final class TooManyDealsException extends RuntimeException {
+        public TooManyDealsException(long maxDeals) {
+            super("More than " + maxDeals + " deals");
+        }
+    }
+
+    /*
+     * Deals counted towards a sweep's result, across shards. A minute's deals count until the
+     * minute holds limit of them, which is exactly what the merged, cut result keeps.
+     */
+    private static final class DealBudget {
+        private final AtomicIntegerArray perMinute;
+        private final AtomicLong total = new AtomicLong();
+        private final int limit;
+        private final long maxDeals;
+
+        DealBudget(int minutes, int limit, long maxDeals) {
+            this.perMinute = new AtomicIntegerArray(minutes);
+            this.limit = limit;
+            this.maxDeals = maxDeals;
+        }
+
+        void take(int minute) {
+            if (perMinute.getAndIncrement(minute) < limit && total.incrementAndGet() > maxDeals) {
+                throw new TooManyDealsException(maxDeals);
+            }
+        }
+    }
+
+    /**
+     * Deals found near a point, nearest first, with the distance to each one's restaurant.
+     */
+    @Getter
+    public static final class Nearby {
+        private final int[] ordinals;
+        private final double[] distancesKm;
+
+        Nearby(int[] ordinals, double[] distancesKm) {
+            this.ordinals = ordinals;
+            this.distancesKm = distancesKm;
+        }
+    }
+
+    /*
+     * Matched deals as a bit per ordinal, and each restaurant with a match once, as its distance (a
+     * non-negative float, whose bits sort like its value) in the high bits and the restaurant in the
+     * low bits. A restaurant's deals share its distance and its ordinals follow those of the
+     * restaurants before it, so sorting the restaurants and listing each one's deals in turn orders
+     * the deals by distance, then feed order, with one key per restaurant to sort.
+     */
+    private static final class NearbyMatches {
+        private final DealStore store;
+        private final BitSet ordinals;
+        private final BitSet restaurants;
+        private long[] keys = new long[64];
+        private int keyCount;
+        private int count;
+
+        NearbyMatches(DealStore store) {
+            this.store = store;
+            this.ordinals = new BitSet(store.size());
+            this.restaurants = new BitSet(store.restaurantCount());
+        }
+
+        void add(double distanceKm, int restaurant, int ordinal) {
+            if (!restaurants.get(restaurant)) {
+                restaurants.set(restaurant);
+                if (keyCount == keys.length) {
+                    keys = Arrays.copyOf(keys, keyCount * 2);
+                }
+                keys[keyCount++] = (long) Float.floatToIntBits((float) distanceKm) << 32 | restaurant;
+            }
+            ordinals.set(ordinal);
+            count++;
+        }
+
+        Nearby nearest(int limit) {
+            Arrays.sort(keys, 0, keyCount);
+            int size = Math.min(limit, count);
+            int[] nearest = new int[size];
+            double[] distances = new double[size];
+            int out = 0;
+            for (int i = 0; i < keyCount && out < size; i++) {
+                int restaurant = (int) keys[i];
+                // A float keeps a distance to well under a metre
+                double distance = Float.intBitsToFloat((int) (keys[i] >>> 32));
+                int end = store.firstPair(restaurant + 1);
+                for (int ordinal = ordinals.nextSetBit(store.firstPair(restaurant));
+                     ordinal >= 0 && ordinal < end && out < size; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+                    nearest[out] = ordinal;
+                    distances[out++] = distance;
+                }
+            }
+            return new Nearby(nearest, distances);
+        }
+    }
+
+    @Getter
+    public static final class Page {
+        private final int[] ordinals;
+        /**
+         * Position to continue after, or {@link #START} if this is the last page.
+         */
+        private final long next;
+
+        Page(int[] ordinals, long next) {
+            this.ordinals = ordinals;
+            this.next = next;
+        }
+
+        public boolean hasNext() {
+            return next != START;
+        }
+    }
+}
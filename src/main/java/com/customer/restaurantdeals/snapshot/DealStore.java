@@ -0,0 +1,637 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+
+/**
+ * Column-oriented copy of the feed: one row per restaurant and one per (restaurant, deal) pair,
+ * each field held in a primitive array, a {@link BitSet} or an {@code int} column coded against a
+ * per-column string dictionary.
+ * <p>
+ * Pairs are numbered by their position in the feed (their ordinal), the numbering used by
+ * {@link DealTimeIndex}. Once the store is built the parsed {@link Restaurant}/{@link Deal}
+ * objects are no longer referenced, and a response is only materialized for pairs that match.
+ * <p>
+ * A store merged from several upstream sources ({@link #merge}) also records which source each row
+ * came from, and which pairs are stale because their source failed its last refresh.
+ */
+public final class DealStore {
+
+    /**
+     * Marks a pair that is never active, in {@link #activeFrom(int)} and {@link #activeTo(int)}.
+     */
+    public static final int NEVER = -1;
+
+    /**
+     * Most sources a merged store can record; source numbers are kept in a {@code byte} column.
+     */
+    public static final int MAX_SOURCES = Byte.MAX_VALUE + 1;
+
+    // Restaurant rows
+    private final int restaurantCount;
+    private final String[] restaurantIds;
+    private final String[] names;
+    private final int[] restaurantNames;
+    private final String[] addresses;
+    private final int[] restaurantAddresses;
+    private final String[] suburbs;
+    private final int[] restaurantSuburbs;
+    private final int[] restaurantOpen;
+    private final int[] restaurantClose;
+    private final byte[] restaurantSources;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] firstPair;
+
+    // Pair rows
+    private final int size;
+    private final int[] restaurantOf;
+    private final String[] dealIds;
+    private final String[] discountTexts;
+    private final int[] discounts;
+    private final int[] discountValues;
+    private final BitSet dineIn;
+    private final BitSet lightning;
+    private final int[] qtyLeft;
+    private final int[] activeFrom;
+    private final int[] activeTo;
+    private final int[] dealStart;
+    private final int[] dealEnd;
+    private final byte[] sources;
+    private final BitSet stale;
+
+    private DealStore(Builder builder) {
+        this.restaurantCount = builder.restaurantCount;
+        this.restaurantIds = Arrays.copyOf(builder.restaurantIds, restaurantCount);
+        this.names = builder.names.values();
+        this.restaurantNames = Arrays.copyOf(builder.restaurantNames, restaurantCount);
+        this.addresses = builder.addresses.values();
+        this.restaurantAddresses = Arrays.copyOf(builder.restaurantAddresses, restaurantCount);
+        this.suburbs = builder.suburbs.values();
+        this.restaurantSuburbs = Arrays.copyOf(builder.restaurantSuburbs, restaurantCount);
+        this.restaurantOpen = Arrays.copyOf(builder.restaurantOpen, restaurantCount);
+        this.restaurantClose = Arrays.copyOf(builder.restaurantClose, restaurantCount);
+        this.restaurantSources = Arrays.copyOf(builder.restaurantSources, restaurantCount);
+        this.latitudes = Arrays.copyOf(builder.latitudes, restaurantCount);
+        this.longitudes = Arrays.copyOf(builder.longitudes, restaurantCount);
+        this.firstPair = Arrays.copyOf(builder.firstPair, restaurantCount + 1);
+        this.firstPair[restaurantCount] = builder.size;
+        this.size = builder.size;
+        this.restaurantOf = Arrays.copyOf(builder.restaurantOf, size);
+        this.dealIds = Arrays.copyOf(builder.dealIds, size);
+        this.discountTexts = builder.discountTexts.values();
+        this.discounts = Arrays.copyOf(builder.discounts, size);
+        this.discountValues = Arrays.copyOf(builder.discountValues, size);
+        this.dineIn = (BitSet) builder.dineIn.clone();
+        this.lightning = (BitSet) builder.lightning.clone();
+        this.qtyLeft = Arrays.copyOf(builder.qtyLeft, size);
+        this.activeFrom = Arrays.copyOf(builder.activeFrom, size);
+        this.activeTo = Arrays.copyOf(builder.activeTo, size);
+        this.dealStart = Arrays.copyOf(builder.dealStart, size);
+        this.dealEnd = Arrays.copyOf(builder.dealEnd, size);
+        this.sources = Arrays.copyOf(builder.sources, size);
+        this.stale = (BitSet) builder.stale.clone();
+    }
+
+    // Columns in the order written by write(SnapshotFile.Output)
+    private DealStore(SnapshotFile.Input in) {
+        this.restaurantCount = in.getInt();
+        this.restaurantIds = in.getStrings();
+        this.names = in.getStrings();
+        this.restaurantNames = in.getInts();
+        this.addresses = in.getStrings();
+        this.restaurantAddresses = in.getInts();
+        this.suburbs = in.getStrings();
+        this.restaurantSuburbs = in.getInts();
+        this.restaurantOpen = in.getInts();
+        this.restaurantClose = in.getInts();
+        this.restaurantSources = in.getBytes();
+        this.latitudes = in.getDoubles();
+        this.longitudes = in.getDoubles();
+        this.firstPair = in.getInts();
+        this.size = in.getInt();
+        this.restaurantOf = in.getInts();
+        this.dealIds = in.getStrings();
+        this.discountTexts = in.getStrings();
+        this.discounts = in.getInts();
+        this.discountValues = in.getInts();
+        this.dineIn = in.getBits();
+        this.lightning = in.getBits();
+        this.qtyLeft = in.getInts();
+        this.activeFrom = in.getInts();
+        this.activeTo = in.getInts();
+        this.dealStart = in.getInts();
+        this.dealEnd = in.getInts();
+        this.sources = in.getBytes();
+        this.stale = in.getBits();
+        if (!hasLength(restaurantCount, restaurantIds.length, restaurantNames.length, restaurantAddresses.length,
+                restaurantSuburbs.length, restaurantOpen.length, restaurantClose.length, restaurantSources.length,
+                latitudes.length, longitudes.length, firstPair.length - 1)
+                || !hasLength(size, restaurantOf.length, dealIds.length, discounts.length, discountValues.length,
+                qtyLeft.length, activeFrom.length, activeTo.length, dealStart.length, dealEnd.length,
+                sources.length)) {
+            throw new IllegalArgumentException("Inconsistent deal store columns");
+        }
+    }
+
+    private static boolean hasLength(int expected, int... lengths) {
+        for (int length : lengths) {
+            if (length != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static DealStore read(SnapshotFile.Input in) {
+        return new DealStore(in);
+    }
+
+    void write(SnapshotFile.Output out) throws IOException {
+        out.putInt(restaurantCount);
+        out.putStrings(restaurantIds, restaurantCount);
+        out.putStrings(names, names.length);
+        out.putInts(restaurantNames, restaurantCount);
+        out.putStrings(addresses, addresses.length);
+        out.putInts(restaurantAddresses, restaurantCount);
+        out.putStrings(suburbs, suburbs.length);
+        out.putInts(restaurantSuburbs, restaurantCount);
+        out.putInts(restaurantOpen, restaurantCount);
+        out.putInts(restaurantClose, restaurantCount);
+        out.putBytes(restaurantSources, restaurantCount);
+        out.putDoubles(latitudes, restaurantCount);
+        out.putDoubles(longitudes, restaurantCount);
+        out.putInts(firstPair, restaurantCount + 1);
+        out.putInt(size);
+        out.putInts(restaurantOf, size);
+        out.putStrings(dealIds, size);
+        out.putStrings(discountTexts, discountTexts.length);
+        out.putInts(discounts, size);
+        out.putInts(discountValues, size);
+        out.putBits(dineIn);
+        out.putBits(lightning);
+        out.putInts(qtyLeft, size);
+        out.putInts(activeFrom, size);
+        out.putInts(activeTo, size);
+        out.putInts(dealStart, size);
+        out.putInts(dealEnd, size);
+        out.putBytes(sources, size);
+        out.putBits(stale);
+    }
+
+    public static DealStore of(List<Restaurant> feed) {
+        Builder builder = new Builder();
+        if (feed != null) {
+            feed.forEach(builder::add);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Merges the stores of several sources, given in priority order, into one: restaurants are
+     * de-duplicated by id and deals by id, the first source listing one winning. A restaurant listed
+     * by several sources keeps the details of the first and the deals of all of them. Pairs of the
+     * sources flagged in {@code stale} are marked stale. Restaurants and deals without an id are
+     * never considered duplicates.
+     */
+    public static DealStore merge(List<DealStore> stores, boolean[] stale) {
+        if (stores.size() > MAX_SOURCES) {
+            throw new IllegalArgumentException("At most " + MAX_SOURCES + " sources can be merged");
+        }
+        // Occurrences of each restaurant, as (source, row), in order of first appearance
+        List<List<int[]>> restaurants = new ArrayList<>();
+        Map<String, List<int[]>> byId = new HashMap<>();
+        for (int source = 0; source < stores.size(); source++) {
+            DealStore store = stores.get(source);
+            for (int row = 0; row < store.restaurantCount; row++) {
+                String id = store.restaurantIds[row];
+                List<int[]> occurrences = id == null ? null : byId.get(id);
+                if (occurrences == null) {
+                    occurrences = new ArrayList<>(1);
+                    restaurants.add(occurrences);
+                    if (id != null) {
+                        byId.put(id, occurrences);
+                    }
+                }
+                occurrences.add(new int[]{source, row});
+            }
+        }
+
+        Builder builder = new Builder();
+        Set<String> dealIds = new HashSet<>();
+        for (List<int[]> occurrences : restaurants) {
+            int[] first = occurrences.get(0);
+            builder.addRestaurant(stores.get(first[0]), first[1], first[0]);
+            for (int[] occurrence : occurrences) {
+                DealStore store = stores.get(occurrence[0]);
+                for (int ordinal = store.firstPair[occurrence[1]]; ordinal < store.firstPair[occurrence[1] + 1];
+                     ordinal++) {
+                    String dealId = store.dealIds[ordinal];
+                    if (dealId == null || dealIds.add(dealId)) {
+                        builder.addPair(store, ordinal, occurrence[0], stale[occurrence[0]]);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Number of (restaurant, deal) pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int restaurantCount() {
+        return restaurantCount;
+    }
+
+    public int restaurantOf(int ordinal) {
+        return restaurantOf[ordinal];
+    }
+
+    public String restaurantId(int restaurant) {
+        return restaurantIds[restaurant];
+    }
+
+    public String restaurantName(int restaurant) {
+        return decode(names, restaurantNames[restaurant]);
+    }
+
+    public String restaurantAddress1(int restaurant) {
+        return decode(addresses, restaurantAddresses[restaurant]);
+    }
+
+    public String restaurantSuburb(int restaurant) {
+        return decode(suburbs, restaurantSuburbs[restaurant]);
+    }
+
+    /**
+     * Dictionary code of the restaurant's suburb, see {@link #suburbCodes(String)}.
+     */
+    public int restaurantSuburbCode(int restaurant) {
+        return restaurantSuburbs[restaurant];
+    }
+
+    /**
+     * Number of distinct suburbs; their codes are {@code 0} to {@code suburbCount() - 1}.
+     */
+    public int suburbCount() {
+        return suburbs.length;
+    }
+
+    public String suburbName(int code) {
+        return suburbs[code];
+    }
+
+    /**
+     * Codes of the suburbs equal to {@code suburb} ignoring case, indexed by code.
+     */
+    public boolean[] suburbCodes(String suburb) {
+        boolean[] matches = new boolean[suburbs.length];
+        for (int code = 0; code < suburbs.length; code++) {
+            matches[code] = suburbs[code].equalsIgnoreCase(suburb);
+        }
+        return matches;
+    }
+
+    /**
+     * Ordinals of the restaurant's pairs are {@code firstPair(restaurant)} (inclusive) to
+     * {@code firstPair(restaurant + 1)} (exclusive).
+     */
+    public int firstPair(int restaurant) {
+        return firstPair[restaurant];
+    }
+
+    /**
+     * Opening minute of the day, or {@link MinuteOfDay#INVALID} when the feed has none.
+     */
+    public int restaurantOpen(int restaurant) {
+        return restaurantOpen[restaurant];
+    }
+
+    /**
+     * Closing minute of the day, or {@link MinuteOfDay#INVALID} when the feed has none.
+     */
+    public int restaurantClose(int restaurant) {
+        return restaurantClose[restaurant];
+    }
+
+    /**
+     * Source the restaurant's details came from, {@code 0} unless the store was merged.
+     */
+    public int restaurantSource(int restaurant) {
+        return restaurantSources[restaurant];
+    }
+
+    /**
+     * Latitude in degrees as listed in the feed, or {@code NaN} when the feed has no valid
+     * coordinates for the restaurant.
+     */
+    public double latitude(int restaurant) {
+        return latitudes[restaurant];
+    }
+
+    /**
+     * Longitude in degrees as listed in the feed, or {@code NaN} (together with the latitude).
+     */
+    public double longitude(int restaurant) {
+        return longitudes[restaurant];
+    }
+
+    public String dealId(int ordinal) {
+        return dealIds[ordinal];
+    }
+
+    public String discount(int ordinal) {
+        return decode(discountTexts, discounts[ordinal]);
+    }
+
+    /**
+     * First number in the discount text (e.g. 10 for "10% off Morning"), or -1 if there is none.
+     */
+    public int discountValue(int ordinal) {
+        return discountValues[ordinal];
+    }
+
+    public boolean dineIn(int ordinal) {
+        return dineIn.get(ordinal);
+    }
+
+    public boolean lightning(int ordinal) {
+        return lightning.get(ordinal);
+    }
+
+    public int qtyLeft(int ordinal) {
+        return qtyLeft[ordinal];
+    }
+
+    /**
+     * First minute of the day the pair is active, or {@link #NEVER}.
+     */
+    public int activeFrom(int ordinal) {
+        return activeFrom[ordinal];
+    }
+
+    /**
+     * Last minute of the day (inclusive) the pair is active, or {@link #NEVER}.
+     */
+    public int activeTo(int ordinal) {
+        return activeTo[ordinal];
+    }
+
+    /**
+     * Opening minute of the deal itself as listed in the feed (its {@code open}, else its
+     * {@code start}), or {@link MinuteOfDay#INVALID} when it has none. Unlike
+     * {@link #activeFrom(int)} it is not bounded by the restaurant's hours.
+     */
+    public int dealStart(int ordinal) {
+        return dealStart[ordinal];
+    }
+
+    /**
+     * Closing minute of the deal itself ({@code close}, else {@code end}), or
+     * {@link MinuteOfDay#INVALID}.
+     */
+    public int dealEnd(int ordinal) {
+        return dealEnd[ordinal];
+    }
+
+    /**
+     * Source the pair came from, {@code 0} unless the store was merged.
+     */
+    public int source(int ordinal) {
+        return sources[ordinal];
+    }
+
+    /**
+     * Whether the pair is served from the last good data of a source whose refresh failed.
+     */
+    public boolean stale(int ordinal) {
+        return stale.get(ordinal);
+    }
+
+    private static String decode(String[] dictionary, int code) {
+        return code == StringDictionary.NULL ? null : dictionary[code];
+    }
+
+    static int firstNumber(String text) {
+        if (text == null) {
+            return -1;
+        }
+        int value = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value) * 10 + (c - '0');
+                if (value > 1_000_000) {
+                    return value;
+                }
+            } else if (value >= 0) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Inclusive minute range in which the pair is active, or {@code null} if it never is.
+     * Mirrors the restaurant/deal opening-hours checks of the original scan.
+     */
+    private static int[] activeInterval(Restaurant restaurant, Deal deal) {
+        LocalTime restaurantOpen = restaurant.getRestaurantOpen();
+        LocalTime restaurantClose = restaurant.getRestaurantClose();
+        if (restaurantOpen == null || restaurantClose == null) {
+            return null;
+        }
+        int from = MinuteOfDay.ceil(restaurantOpen);
+        int to = MinuteOfDay.floor(restaurantClose);
+
+        LocalTime dealOpen = deal.getOpen() != null ? deal.getOpen() : deal.getStart();
+        LocalTime dealClose = deal.getClose() != null ? deal.getClose() : deal.getEnd();
+        // A deal without open/close info is active whenever its restaurant is open
+        if (dealOpen != null && dealClose != null) {
+            from = Math.max(from, MinuteOfDay.ceil(dealOpen));
+            to = Math.min(to, MinuteOfDay.floor(dealClose));
+        }
+
+        return from <= to && from < MINUTES_PER_DAY ? new int[]{from, to} : null;
+    }
+
+    /**
+     * Whether the feed's coordinates locate a point: both present, in range, and not the
+     * {@code 0, 0} placeholder some listings carry instead of a location.
+     */
+    static boolean isLocation(Double latitude, Double longitude) {
+        return latitude != null && longitude != null
+                && Math.abs(latitude) <= 90 && Math.abs(longitude) <= 180
+                && (latitude != 0 || longitude != 0);
+    }
+
+    private static int minuteOrInvalid(LocalTime time) {
+        return time == null ? MinuteOfDay.INVALID : MinuteOfDay.of(time);
+    }
+
+    /**
+     * Appends rows restaurant by restaurant, e.g. while the feed is still being parsed.
+     */
+    public static final class Builder {
+
+        private final StringDictionary names = new StringDictionary();
+        private final StringDictionary addresses = new StringDictionary();
+        private final StringDictionary suburbs = new StringDictionary();
+        private final StringDictionary discountTexts = new StringDictionary();
+
+        private int restaurantCount;
+        private String[] restaurantIds = new String[16];
+        private int[] restaurantNames = new int[16];
+        private int[] restaurantAddresses = new int[16];
+        private int[] restaurantSuburbs = new int[16];
+        private int[] restaurantOpen = new int[16];
+        private int[] restaurantClose = new int[16];
+        private byte[] restaurantSources = new byte[16];
+        private double[] latitudes = new double[16];
+        private double[] longitudes = new double[16];
+        private int[] firstPair = new int[16];
+
+        private int size;
+        private int[] restaurantOf = new int[64];
+        private String[] dealIds = new String[64];
+        private int[] discounts = new int[64];
+        private int[] discountValues = new int[64];
+        private final BitSet dineIn = new BitSet();
+        private final BitSet lightning = new BitSet();
+        private int[] qtyLeft = new int[64];
+        private int[] activeFrom = new int[64];
+        private int[] activeTo = new int[64];
+        private int[] dealStart = new int[64];
+        private int[] dealEnd = new int[64];
+        private byte[] sources = new byte[64];
+        private final BitSet stale = new BitSet();
+
+        public Builder add(Restaurant restaurant) {
+            int row = nextRestaurant();
+            restaurantIds[row] = restaurant.getRestaurantObjectId();
+            restaurantNames[row] = names.code(restaurant.getRestaurantName());
+            restaurantAddresses[row] = addresses.code(restaurant.getRestaurantAddress1());
+            restaurantSuburbs[row] = suburbs.code(restaurant.getRestaurantSuburb());
+            restaurantOpen[row] = minuteOrInvalid(restaurant.getRestaurantOpen());
+            restaurantClose[row] = minuteOrInvalid(restaurant.getRestaurantClose());
+            boolean located = isLocation(restaurant.getLatitude(), restaurant.getLongitude());
+            latitudes[row] = located ? restaurant.getLatitude() : Double.NaN;
+            longitudes[row] = located ? restaurant.getLongitude() : Double.NaN;
+
+            if (restaurant.getDeals() == null) {
+                return this;
+            }
+            for (Deal deal : restaurant.getDeals()) {
+                int ordinal = nextPair();
+                restaurantOf[ordinal] = row;
+                dealIds[ordinal] = deal.getDealObjectId();
+                discounts[ordinal] = discountTexts.code(deal.getDiscount());
+                discountValues[ordinal] = firstNumber(deal.getDiscount());
+                dineIn.set(ordinal, deal.isDineIn());
+                lightning.set(ordinal, deal.isLightning());
+                qtyLeft[ordinal] = deal.getQtyLeft();
+                int[] interval = activeInterval(restaurant, deal);
+                activeFrom[ordinal] = interval == null ? NEVER : interval[0];
+                activeTo[ordinal] = interval == null ? NEVER : interval[1];
+                dealStart[ordinal] = minuteOrInvalid(deal.getOpen() != null ? deal.getOpen() : deal.getStart());
+                dealEnd[ordinal] = minuteOrInvalid(deal.getClose() != null ? deal.getClose() : deal.getEnd());
+            }
+            return this;
+        }
+
+        /**
+         * Appends restaurant {@code restaurant} of {@code from}, without its pairs, as coming from
+         * {@code source}. Its pairs are appended with {@link #addPair} before the next restaurant.
+         */
+        public void addRestaurant(DealStore from, int restaurant, int source) {
+            int row = nextRestaurant();
+            restaurantIds[row] = from.restaurantIds[restaurant];
+            restaurantNames[row] = names.code(from.restaurantName(restaurant));
+            restaurantAddresses[row] = addresses.code(from.restaurantAddress1(restaurant));
+            restaurantSuburbs[row] = suburbs.code(from.restaurantSuburb(restaurant));
+            restaurantOpen[row] = from.restaurantOpen[restaurant];
+            restaurantClose[row] = from.restaurantClose[restaurant];
+            restaurantSources[row] = (byte) source;
+            latitudes[row] = from.latitudes[restaurant];
+            longitudes[row] = from.longitudes[restaurant];
+        }
+
+        /**
+         * Appends pair {@code ordinal} of {@code from} to the last restaurant added, as coming from
+         * {@code source}.
+         */
+        public void addPair(DealStore from, int ordinal, int source, boolean stale) {
+            int pair = nextPair();
+            restaurantOf[pair] = restaurantCount - 1;
+            dealIds[pair] = from.dealIds[ordinal];
+            discounts[pair] = discountTexts.code(from.discount(ordinal));
+            discountValues[pair] = from.discountValues[ordinal];
+            dineIn.set(pair, from.dineIn(ordinal));
+            lightning.set(pair, from.lightning(ordinal));
+            qtyLeft[pair] = from.qtyLeft[ordinal];
+            activeFrom[pair] = from.activeFrom[ordinal];
+            activeTo[pair] = from.activeTo[ordinal];
+            dealStart[pair] = from.dealStart[ordinal];
+            dealEnd[pair] = from.dealEnd[ordinal];
+            sources[pair] = (byte) source;
+            this.stale.set(pair, stale);
+        }
+
+        private int nextRestaurant() {
+            if (restaurantCount == restaurantIds.length) {
+                int capacity = restaurantCount * 2;
+                restaurantIds = Arrays.copyOf(restaurantIds, capacity);
+                restaurantNames = Arrays.copyOf(restaurantNames, capacity);
+                restaurantAddresses = Arrays.copyOf(restaurantAddresses, capacity);
+                restaurantSuburbs = Arrays.copyOf(restaurantSuburbs, capacity);
+                restaurantOpen = Arrays.copyOf(restaurantOpen, capacity);
+                restaurantClose = Arrays.copyOf(restaurantClose, capacity);
+                restaurantSources = Arrays.copyOf(restaurantSources, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                firstPair = Arrays.copyOf(firstPair, capacity + 1);
+            }
+            firstPair[restaurantCount] = size;
+            return restaurantCount++;
+        }
+
+        private int nextPair() {
+            if (size == dealIds.length) {
+                int capacity = size * 2;
+                restaurantOf = Arrays.copyOf(restaurantOf, capacity);
+                dealIds = Arrays.copyOf(dealIds, capacity);
+                discounts = Arrays.copyOf(discounts, capacity);
+                discountValues = Arrays.copyOf(discountValues, capacity);
+                qtyLeft = Arrays.copyOf(qtyLeft, capacity);
+                activeFrom = Arrays.copyOf(activeFrom, capacity);
+                activeTo = Arrays.copyOf(activeTo, capacity);
+                dealStart = Arrays.copyOf(dealStart, capacity);
+                dealEnd = Arrays.copyOf(dealEnd, capacity);
+                sources = Arrays.copyOf(sources, capacity);
+            }
+            return size++;
+        }
+
+        public DealStore build() {
+            return new DealStore(this);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+
+/**
+ * Minute-of-day index of the (restaurant, deal) pairs in a feed snapshot.
+ * <p>
+ * Every pair is identified by its {@link DealStore} ordinal and its active interval, the
+ * intersection of the restaurant's and the deal's opening hours, is stored in a segment tree over
+ * the 1440 minutes of the day. A lookup walks one leaf-to-root path and merges the ordinal lists
+ * found there, so it costs O(log 1440 + k) and returns pairs in feed order, exactly as the
+ * restaurant-by-restaurant scan did.
+ */
+public final class DealTimeIndex {
+
+    private static final int LEAVES = Integer.highestOneBit(MINUTES_PER_DAY - 1) << 1;
+    private static final int[] EMPTY = new int[0];
+
+    private final int[][] nodes;
+
+    private DealTimeIndex(int[][] nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Indexes the active intervals of the pairs in {@code store}.
+     */
+    public static DealTimeIndex build(DealStore store) {
+        return build(store, Sharding.SEQUENTIAL);
+    }
+
+    /**
+     * Same index, built over shards of the ordinals in parallel. Within every node the pairs of a
+     * shard follow those of the shards before it, so each node still lists its pairs in feed order.
+     */
+    public static DealTimeIndex build(DealStore store, Sharding sharding) {
+        int size = store.size();
+        List<int[]> shardCounts = sharding.map(size, (shard, from, to) -> {
+            int[] counts = new int[2 * LEAVES];
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                if (store.activeFrom(ordinal) != DealStore.NEVER) {
+                    forEachNode(store.activeFrom(ordinal), store.activeTo(ordinal), node -> counts[node]++);
+                }
+            }
+            return counts;
+        });
+
+        // Where each shard starts writing in each node
+        int[][] offsets = new int[shardCounts.size()][2 * LEAVES];
+        int[][] nodes = new int[2 * LEAVES][];
+        for (int node = 0; node < nodes.length; node++) {
+            int total = 0;
+            for (int shard = 0; shard < offsets.length; shard++) {
+                offsets[shard][node] = total;
+                total += shardCounts.get(shard)[node];
+            }
+            nodes[node] = total == 0 ? EMPTY : new int[total];
+        }
+        sharding.map(size, (shard, from, to) -> {
+            int[] fill = offsets[shard];
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                if (store.activeFrom(ordinal) != DealStore.NEVER) {
+                    int pair = ordinal;
+                    forEachNode(store.activeFrom(ordinal), store.activeTo(ordinal),
+                            node -> nodes[node][fill[node]++] = pair);
+                }
+            }
+            return fill;
+        });
+        return new DealTimeIndex(nodes);
+    }
+
+    /**
+     * Ordinals of the pairs active at the given minute of the day, in feed order.
+     */
+    public int[] activeAt(int minute) {
+        if (minute < 0 || minute >= MINUTES_PER_DAY) {
+            return EMPTY;
+        }
+
+        int[][] lists = new int[Integer.numberOfTrailingZeros(LEAVES) + 1][];
+        int listCount = 0;
+        int total = 0;
+        for (int node = minute + LEAVES; node >= 1; node >>= 1) {
+            if (nodes[node].length > 0) {
+                lists[listCount++] = nodes[node];
+                total += nodes[node].length;
+            }
+        }
+        if (listCount == 0) {
+            return EMPTY;
+        }
+        if (listCount == 1) {
+            return lists[0].clone();
+        }
+
+        // Each pair lives in at most one node of the path, so a plain k-way merge is enough
+        int[] result = new int[total];
+        int[] cursors = new int[listCount];
+        for (int out = 0; out < total; out++) {
+            int best = -1;
+            for (int i = 0; i < listCount; i++) {
+                if (cursors[i] < lists[i].length
+                        && (best < 0 || lists[i][cursors[i]] < lists[best][cursors[best]])) {
+                    best = i;
+                }
+            }
+            result[out] = lists[best][cursors[best]++];
+        }
+        return result;
+    }
+
+    /**
+     * Calls {@code action} with each pair active at the given minute, node by node along the same
+     * path without merging: in feed order within a node but not overall, for callers that order
+     * the pairs themselves.
+     */
+    public void forEachActiveAt(int minute, IntConsumer action) {
+        if (minute < 0 || minute >= MINUTES_PER_DAY) {
+            return;
+        }
+        for (int node = minute + LEAVES; node >= 1; node >>= 1) {
+            for (int pair : nodes[node]) {
+                action.accept(pair);
+            }
+        }
+    }
+
+    /**
+     * Number of pairs active at the given minute, counted along the same path without merging.
+     */
+    public int countAt(int minute) {
+        if (minute < 0 || minute >= MINUTES_PER_DAY) {
+            return 0;
+        }
+        int total = 0;
+        for (int node = minute + LEAVES; node >= 1; node >>= 1) {
+            total += nodes[node].length;
+        }
+        return total;
+    }
+
+    private static void forEachNode(int from, int to, NodeVisitor visitor) {
+        int left = from + LEAVES;
+        int right = to + LEAVES + 1;
+        while (left < right) {
+            if ((left & 1) == 1) {
+                visitor.visit(left++);
+            }
+            if ((right & 1) == 1) {
+                visitor.visit(--right);
+            }
+            left >>= 1;
+            right >>= 1;
+        }
+    }
+
+    @FunctionalInterface
+    private interface NodeVisitor {
+        void visit(int node);
+    }
+}
@@ -0,0 +1,144 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+
+/**
+ * Number of active deals, and of restaurants with at least one active deal, at every minute of the
+ * day, optionally split into groups. Agrees with {@link DealTimeIndex#activeAt(int)} minute by
+ * minute.
+ * <p>
+ * Built with difference arrays: each active interval adds 1 at its first minute and subtracts 1
+ * after its last, and a prefix sum turns that into counts, so the cost is linear in the number of
+ * deals plus the number of minutes. A restaurant's deal intervals are merged first so it is
+ * counted once while any of its deals is active.
+ */
+public final class DealTimeline {
+
+    public enum Grouping {
+        NONE, SUBURB, LIGHTNING
+    }
+
+    private final Grouping grouping;
+    private final List<String> groups;
+    private final int[][] deals;
+    private final int[][] restaurants;
+
+    private DealTimeline(Grouping grouping, List<String> groups, int[][] deals, int[][] restaurants) {
+        this.grouping = grouping;
+        this.groups = groups;
+        this.deals = deals;
+        this.restaurants = restaurants;
+    }
+
+    public static DealTimeline build(DealStore store, Grouping grouping) {
+        List<String> groups = groupNames(store, grouping);
+        int[][] dealDiff = new int[groups.size()][MINUTES_PER_DAY + 1];
+        int[][] restaurantDiff = new int[groups.size()][MINUTES_PER_DAY + 1];
+
+        // (group, from, to) of one restaurant's active deals, reused across restaurants
+        long[] intervals = new long[16];
+        for (int restaurant = 0; restaurant < store.restaurantCount(); restaurant++) {
+            int count = 0;
+            for (int ordinal = store.firstPair(restaurant); ordinal < store.firstPair(restaurant + 1); ordinal++) {
+                int from = store.activeFrom(ordinal);
+                if (from == DealStore.NEVER) {
+                    continue;
+                }
+                int to = store.activeTo(ordinal);
+                int group = group(store, grouping, restaurant, ordinal);
+                if (group < 0) {
+                    continue;
+                }
+                dealDiff[group][from]++;
+                dealDiff[group][to + 1]--;
+                if (count == intervals.length) {
+                    intervals = Arrays.copyOf(intervals, count * 2);
+                }
+                intervals[count++] = (long) group << 32 | (long) from << 16 | to;
+            }
+            addMerged(intervals, count, restaurantDiff);
+        }
+
+        return new DealTimeline(grouping, groups, prefixSums(dealDiff), prefixSums(restaurantDiff));
+    }
+
+    public Grouping getGrouping() {
+        return grouping;
+    }
+
+    /**
+     * Group names, in the order of the series; a single {@code null} name without grouping.
+     */
+    public List<String> getGroups() {
+        return groups;
+    }
+
+    public int deals(int group, int minute) {
+        return deals[group][minute];
+    }
+
+    public int restaurants(int group, int minute) {
+        return restaurants[group][minute];
+    }
+
+    private static List<String> groupNames(DealStore store, Grouping grouping) {
+        List<String> groups = new ArrayList<>();
+        switch (grouping) {
+            case NONE -> groups.add(null);
+            case LIGHTNING -> {
+                groups.add("false");
+                groups.add("true");
+            }
+            case SUBURB -> {
+                for (int code = 0; code < store.suburbCount(); code++) {
+                    groups.add(store.suburbName(code));
+                }
+            }
+        }
+        return groups;
+    }
+
+    // Deals of restaurants without a suburb are left out of the suburb grouping
+    private static int group(DealStore store, Grouping grouping, int restaurant, int ordinal) {
+        return switch (grouping) {
+            case NONE -> 0;
+            case LIGHTNING -> store.lightning(ordinal) ? 1 : 0;
+            case SUBURB -> store.restaurantSuburbCode(restaurant);
+        };
+    }
+
+    private static void addMerged(long[] intervals, int count, int[][] diff) {
+        Arrays.sort(intervals, 0, count);
+        int i = 0;
+        while (i < count) {
+            int group = (int) (intervals[i] >>> 32);
+            int from = (int) (intervals[i] >>> 16) & 0xFFFF;
+            int to = (int) intervals[i] & 0xFFFF;
+            i++;
+            while (i < count && (int) (intervals[i] >>> 32) == group
+                    && ((int) (intervals[i] >>> 16) & 0xFFFF) <= to + 1) {
+                to = Math.max(to, (int) intervals[i] & 0xFFFF);
+                i++;
+            }
+            diff[group][from]++;
+            diff[group][to + 1]--;
+        }
+    }
+
+    private static int[][] prefixSums(int[][] diff) {
+        int[][] counts = new int[diff.length][];
+        for (int g = 0; g < diff.length; g++) {
+            counts[g] = new int[MINUTES_PER_DAY];
+            int running = 0;
+            for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+                running += diff[g][minute];
+                counts[g][minute] = running;
+            }
+        }
+        return counts;
+    }
+}
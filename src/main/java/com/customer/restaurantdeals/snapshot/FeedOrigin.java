@@ -0,0 +1,42 @@
+package com.customer.restaurantdeals.snapshot;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * What a snapshot was built from: the upstream validators to revalidate it with, and the size,
+ * content hash and load time of the body it was parsed from.
+ */
+@Getter
+public final class FeedOrigin {
+
+    public static final FeedOrigin UNKNOWN = new FeedOrigin(null, null, null, 0, Duration.ZERO);
+
+    private final String eTag;
+    private final String lastModified;
+    private final String contentHash;
+    private final long contentLength;
+    private final Duration loadTime;
+
+    public FeedOrigin(String eTag, String lastModified, String contentHash, long contentLength, Duration loadTime) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.contentLength = contentLength;
+        this.loadTime = loadTime;
+    }
+
+    /**
+     * Same body, with validators from a later response where the upstream sent them.
+     */
+    public FeedOrigin revalidatedWith(String eTag, String lastModified) {
+        return new FeedOrigin(eTag != null ? eTag : this.eTag,
+                lastModified != null ? lastModified : this.lastModified,
+                contentHash, contentLength, loadTime);
+    }
+
+    public boolean hasValidators() {
+        return eTag != null || lastModified != null;
+    }
+}
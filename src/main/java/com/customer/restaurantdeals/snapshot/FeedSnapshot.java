@@ -0,0 +1,185 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, parsed view of the upstream restaurant feed shared by all requests.
+ * Derived lookup structures are built together with the snapshot, so swapping the snapshot
+ * swaps them atomically as well. The feed itself is kept in columnar form ({@link DealStore}),
+ * not as the parsed model objects.
+ * <p>
+ * A snapshot merged from several upstream sources ({@link #of}) keeps each source's own part, so
+ * a source that fails to refresh can be merged again from its last good data, marked stale.
+ */
+@Getter
+public class FeedSnapshot {
+
+    private final long version;
+    private final Instant fetchedAt;
+    private final DealStore dealStore;
+    private final DealTimeIndex dealIndex;
+    private final PeakWindow peakWindow;
+    private final List<FeedSource> sources;
+    @Getter(AccessLevel.NONE)
+    private final Map<DealTimeline.Grouping, DealTimeline> timelines;
+    @Getter(AccessLevel.NONE)
+    private final Map<SuburbCentroids, GeoIndex> geoIndexes;
+
+    public FeedSnapshot(long version, Instant fetchedAt, List<Restaurant> restaurants) {
+        this(version, fetchedAt, new Builder().addAll(restaurants), FeedOrigin.UNKNOWN);
+    }
+
+    private FeedSnapshot(long version, Instant fetchedAt, Builder builder, FeedOrigin origin) {
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+        this.dealStore = builder.dealStore.build();
+        this.dealIndex = DealTimeIndex.build(dealStore, builder.sharding);
+        this.peakWindow = builder.peakWindow.build(builder.sharding);
+        this.sources = List.of(new FeedSource(FeedSource.DEFAULT_NAME, dealStore, origin, fetchedAt, false));
+        this.timelines = new ConcurrentHashMap<>();
+        this.geoIndexes = new ConcurrentHashMap<>();
+    }
+
+    private FeedSnapshot(long version, Instant fetchedAt, DealStore dealStore, PeakWindow peakWindow,
+                         List<FeedSource> sources, Sharding sharding) {
+        this.version = version;
+        this.fetchedAt = fetchedAt;
+        this.dealStore = dealStore;
+        this.dealIndex = DealTimeIndex.build(dealStore, sharding);
+        this.peakWindow = peakWindow;
+        this.sources = List.copyOf(sources);
+        this.timelines = new ConcurrentHashMap<>();
+        this.geoIndexes = new ConcurrentHashMap<>();
+    }
+
+    private FeedSnapshot(FeedSnapshot source, Instant fetchedAt, List<FeedSource> sources) {
+        this.version = source.version;
+        this.fetchedAt = fetchedAt;
+        this.dealStore = source.dealStore;
+        this.dealIndex = source.dealIndex;
+        this.peakWindow = source.peakWindow;
+        this.sources = List.copyOf(sources);
+        this.timelines = source.timelines;
+        this.geoIndexes = source.geoIndexes;
+    }
+
+    /**
+     * A snapshot of the parts delivered by one or more sources, in priority order. A single
+     * source's store is served as is; several are merged ({@link DealStore#merge}), the rows of
+     * stale sources marked stale. The time index and peak window are derived, sharded as
+     * configured.
+     */
+    public static FeedSnapshot of(long version, Instant fetchedAt, List<FeedSource> sources, Sharding sharding) {
+        DealStore store;
+        if (sources.size() == 1) {
+            store = sources.get(0).getDealStore();
+        } else {
+            boolean[] stale = new boolean[sources.size()];
+            for (int i = 0; i < stale.length; i++) {
+                stale[i] = sources.get(i).isStale();
+            }
+            store = DealStore.merge(sources.stream().map(FeedSource::getDealStore).toList(), stale);
+        }
+        return new FeedSnapshot(version, fetchedAt, store, PeakWindow.of(store, sharding), sources, sharding);
+    }
+
+    /**
+     * A snapshot read back by {@link SnapshotFile}; only the time index is rebuilt.
+     */
+    static FeedSnapshot restore(long version, Instant fetchedAt, DealStore dealStore, PeakWindow peakWindow,
+                                List<FeedSource> sources, Sharding sharding) {
+        return new FeedSnapshot(version, fetchedAt, dealStore, peakWindow, sources, sharding);
+    }
+
+    /**
+     * Origin of the first source, the only one unless several are configured.
+     */
+    public FeedOrigin getOrigin() {
+        return sources.get(0).getOrigin();
+    }
+
+    /**
+     * Whether part of the snapshot is the last good data of a source that failed to refresh.
+     */
+    public boolean isPartial() {
+        return sources.stream().anyMatch(FeedSource::isStale);
+    }
+
+    public Duration age(Instant now) {
+        return Duration.between(fetchedAt, now);
+    }
+
+    /**
+     * Per-minute active counts with this grouping, built on first use and kept for the lifetime of
+     * the snapshot (and of its revalidated copies).
+     */
+    public DealTimeline getTimeline(DealTimeline.Grouping grouping) {
+        return timelines.computeIfAbsent(grouping, key -> DealTimeline.build(dealStore, key));
+    }
+
+    /**
+     * Location index of the restaurants, those without coordinates located by {@code centroids},
+     * built on first use and kept like the timelines.
+     */
+    public GeoIndex getGeoIndex(SuburbCentroids centroids) {
+        return geoIndexes.computeIfAbsent(centroids, key -> GeoIndex.build(dealStore, key));
+    }
+
+    /**
+     * This snapshot, confirmed current by upstream at {@code fetchedAt}. The store, its derived
+     * structures and the version are shared, so anything cached per version stays valid.
+     * {@code sources} are the parts of the same sources, holding the rows it was built from.
+     */
+    public FeedSnapshot revalidated(Instant fetchedAt, List<FeedSource> sources) {
+        return new FeedSnapshot(this, fetchedAt, sources);
+    }
+
+    /**
+     * Accumulates a snapshot one restaurant at a time, so the store and peak window keep pace
+     * with the upstream body and each parsed restaurant can be dropped right after. The time
+     * index and peak window are derived in {@code build}, sharded as configured.
+     */
+    public static final class Builder {
+
+        private final DealStore.Builder dealStore = new DealStore.Builder();
+        private final PeakWindow.Builder peakWindow = new PeakWindow.Builder();
+        private final Sharding sharding;
+
+        public Builder() {
+            this(Sharding.SEQUENTIAL);
+        }
+
+        public Builder(Sharding sharding) {
+            this.sharding = sharding;
+        }
+
+        public Builder add(Restaurant restaurant) {
+            dealStore.add(restaurant);
+            peakWindow.add(restaurant);
+            return this;
+        }
+
+        public Builder addAll(List<Restaurant> restaurants) {
+            if (restaurants != null) {
+                restaurants.forEach(this::add);
+            }
+            return this;
+        }
+
+        public FeedSnapshot build(long version, Instant fetchedAt) {
+            return build(version, fetchedAt, FeedOrigin.UNKNOWN);
+        }
+
+        public FeedSnapshot build(long version, Instant fetchedAt, FeedOrigin origin) {
+            return new FeedSnapshot(version, fetchedAt, this, origin);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.customer.restaurantdeals.snapshot;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * One upstream source's part of a snapshot: the rows it last delivered, what they were parsed
+ * from, and when the source last confirmed them. A stale part is the last good data of a source
+ * whose refresh failed, served until the source recovers.
+ */
+@Getter
+public final class FeedSource {
+
+    /**
+     * Name of the source of a snapshot built from a single feed.
+     */
+    public static final String DEFAULT_NAME = "default";
+
+    private final String name;
+    private final DealStore dealStore;
+    private final FeedOrigin origin;
+    /**
+     * Last time the source delivered or confirmed its rows, {@code null} if it never did.
+     */
+    private final Instant fetchedAt;
+    private final boolean stale;
+
+    public FeedSource(String name, DealStore dealStore, FeedOrigin origin, Instant fetchedAt, boolean stale) {
+        this.name = name;
+        this.dealStore = dealStore;
+        this.origin = origin;
+        this.fetchedAt = fetchedAt;
+        this.stale = stale;
+    }
+
+    /**
+     * A source that has not delivered anything (yet), or whose last good data expired.
+     */
+    public static FeedSource empty(String name) {
+        return new FeedSource(name, new DealStore.Builder().build(), FeedOrigin.UNKNOWN, null, true);
+    }
+
+    /**
+     * The same rows, confirmed current by the source at {@code fetchedAt}.
+     */
+    public FeedSource revalidated(Instant fetchedAt, FeedOrigin origin) {
+        return new FeedSource(name, dealStore, origin, fetchedAt, false);
+    }
+
+    /**
+     * The same rows, kept after the source failed to refresh them.
+     */
+    public FeedSource markStale() {
+        return stale ? this : new FeedSource(name, dealStore, origin, fetchedAt, true);
+    }
+}
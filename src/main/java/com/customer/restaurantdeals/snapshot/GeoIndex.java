@@ -0,0 +1,243 @@
+package com.customer.restaurantdeals.snapshot;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Location index of the restaurants in a {@link DealStore}: a grid of fixed-size latitude/longitude
+ * cells, each listing the restaurants located in it. A radius lookup only visits the cells the
+ * circle's bounding box overlaps, and exact distances are then checked on those restaurants alone.
+ * <p>
+ * A restaurant is located by its coordinates in the feed, else by the centroid of its suburb
+ * (flagged {@link #isApproximate approximate}); one located by neither is left out. Cells are kept
+ * as sorted keys with the restaurants grouped by cell (compressed rows), so only occupied cells
+ * take up space and one grid row of a lookup is a binary search and a contiguous walk.
+ */
+public final class GeoIndex {
+
+    /**
+     * Mean Earth radius, for great-circle (haversine) distances.
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Edge of a cell in degrees: about 1.1 km north to south, less east to west away from the
+     * equator.
+     */
+    static final double CELL_DEGREES = 0.01;
+    static final int LAT_CELLS = (int) Math.round(180 / CELL_DEGREES);
+    static final int LON_CELLS = (int) Math.round(360 / CELL_DEGREES);
+
+    @Getter
+    private final SuburbCentroids centroids;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] cosLatitudes;
+    private final BitSet approximate;
+    private final int locatedCount;
+    // Occupied cells (latCell * LON_CELLS + lonCell) ascending; cell i lists restaurants[cellStart[i]..cellStart[i + 1])
+    private final int[] cells;
+    private final int[] cellStart;
+    private final int[] restaurants;
+
+    private GeoIndex(SuburbCentroids centroids, double[] latitudes, double[] longitudes, BitSet approximate,
+                     long[] sorted, int locatedCount) {
+        this.centroids = centroids;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.approximate = approximate;
+        this.locatedCount = locatedCount;
+        this.cosLatitudes = new double[latitudes.length];
+        for (int restaurant = 0; restaurant < latitudes.length; restaurant++) {
+            cosLatitudes[restaurant] = Math.cos(Math.toRadians(latitudes[restaurant]));
+        }
+
+        int[] cells = new int[locatedCount];
+        int[] cellStart = new int[locatedCount + 1];
+        this.restaurants = new int[locatedCount];
+        int cellCount = 0;
+        for (int i = 0; i < locatedCount; i++) {
+            int cell = (int) (sorted[i] >>> 32);
+            if (cellCount == 0 || cells[cellCount - 1] != cell) {
+                cells[cellCount] = cell;
+                cellStart[cellCount++] = i;
+            }
+            restaurants[i] = (int) sorted[i];
+        }
+        cellStart[cellCount] = locatedCount;
+        this.cells = Arrays.copyOf(cells, cellCount);
+        this.cellStart = Arrays.copyOf(cellStart, cellCount + 1);
+    }
+
+    public static GeoIndex build(DealStore store, SuburbCentroids centroids) {
+        int count = store.restaurantCount();
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        BitSet approximate = new BitSet();
+        // Centroid of each suburb code, looked up once per code
+        double[][] suburbCentroids = new double[store.suburbCount()][];
+        boolean[] lookedUp = new boolean[store.suburbCount()];
+        // Cell in the high bits, restaurant in the low bits: sorting groups restaurants by cell in feed order
+        long[] sorted = new long[count];
+        int located = 0;
+        for (int restaurant = 0; restaurant < count; restaurant++) {
+            double latitude = store.latitude(restaurant);
+            double longitude = store.longitude(restaurant);
+            if (Double.isNaN(latitude)) {
+                int suburb = store.restaurantSuburbCode(restaurant);
+                double[] centroid = null;
+                if (suburb != StringDictionary.NULL) {
+                    if (!lookedUp[suburb]) {
+                        suburbCentroids[suburb] = centroids.find(store.suburbName(suburb));
+                        lookedUp[suburb] = true;
+                    }
+                    centroid = suburbCentroids[suburb];
+                }
+                if (centroid != null) {
+                    latitude = centroid[0];
+                    longitude = centroid[1];
+                    approximate.set(restaurant);
+                }
+            }
+            latitudes[restaurant] = latitude;
+            longitudes[restaurant] = longitude;
+            if (!Double.isNaN(latitude)) {
+                sorted[located++] = (long) cell(latCell(latitude), lonCell(longitude)) << 32 | restaurant;
+            }
+        }
+        Arrays.sort(sorted, 0, located);
+        return new GeoIndex(centroids, latitudes, longitudes, approximate, sorted, located);
+    }
+
+    /**
+     * Number of restaurants with a location, from the feed or their suburb.
+     */
+    public int locatedCount() {
+        return locatedCount;
+    }
+
+    /**
+     * Whether the restaurant is located by its suburb's centroid, not by coordinates of its own.
+     */
+    public boolean isApproximate(int restaurant) {
+        return approximate.get(restaurant);
+    }
+
+    /**
+     * Latitude the restaurant is indexed at, or {@code NaN} if it has no location.
+     */
+    public double latitude(int restaurant) {
+        return latitudes[restaurant];
+    }
+
+    /**
+     * Longitude the restaurant is indexed at, or {@code NaN} if it has no location.
+     */
+    public double longitude(int restaurant) {
+        return longitudes[restaurant];
+    }
+
+    /**
+     * Great-circle distance from the point to the restaurant, or {@code NaN} if it has no location.
+     */
+    public double distanceKm(int restaurant, double latitude, double longitude) {
+        return haversineKm(latitude, longitude, Math.cos(Math.toRadians(latitude)),
+                latitudes[restaurant], longitudes[restaurant], cosLatitudes[restaurant]);
+    }
+
+    /**
+     * Restaurants in the cells overlapping the circle around the point, without reading them: a
+     * bound on the restaurants {@link #forEachCandidate} visits.
+     */
+    public int candidateCount(double latitude, double longitude, double radiusKm) {
+        int[] count = new int[1];
+        visitCells(latitude, longitude, radiusKm, (from, to) -> count[0] += to - from);
+        return count[0];
+    }
+
+    /**
+     * Calls {@code action} with each restaurant in the cells overlapping the circle around the
+     * point: all restaurants within {@code radiusKm}, and some a little farther.
+     */
+    public void forEachCandidate(double latitude, double longitude, double radiusKm, IntConsumer action) {
+        visitCells(latitude, longitude, radiusKm, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                action.accept(restaurants[i]);
+            }
+        });
+    }
+
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return haversineKm(latitude1, longitude1, Math.cos(Math.toRadians(latitude1)),
+                latitude2, longitude2, Math.cos(Math.toRadians(latitude2)));
+    }
+
+    private static double haversineKm(double latitude1, double longitude1, double cosLatitude1,
+                                      double latitude2, double longitude2, double cosLatitude2) {
+        double sinLatitude = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLongitude = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double h = sinLatitude * sinLatitude + cosLatitude1 * cosLatitude2 * sinLongitude * sinLongitude;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /*
+     * Walks the occupied cells of the circle's bounding box row by row. The longitude half-width
+     * is the largest offset of a point of the circle, so the box covers it at every latitude; it
+     * spans all longitudes once the circle reaches a pole, and is split in two across the 180th
+     * meridian.
+     */
+    private void visitCells(double latitude, double longitude, double radiusKm, CellRunVisitor visitor) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angle);
+        int firstRow = latCell(Math.max(-90, latitude - latitudeDelta));
+        int lastRow = latCell(Math.min(90, latitude + latitudeDelta));
+
+        double sinAngle = Math.sin(Math.min(angle, Math.PI / 2));
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        int[] columns;
+        if (angle >= Math.PI / 2 || sinAngle >= cosLatitude) {
+            columns = new int[]{0, LON_CELLS - 1};
+        } else {
+            double longitudeDelta = Math.toDegrees(Math.asin(sinAngle / cosLatitude));
+            double west = longitude - longitudeDelta;
+            double east = longitude + longitudeDelta;
+            if (west < -180) {
+                columns = new int[]{0, lonCell(east), lonCell(west + 360), LON_CELLS - 1};
+            } else if (east > 180) {
+                columns = new int[]{0, lonCell(east - 360), lonCell(west), LON_CELLS - 1};
+            } else {
+                columns = new int[]{lonCell(west), lonCell(east)};
+            }
+        }
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int range = 0; range < columns.length; range += 2) {
+                int last = cell(row, columns[range + 1]);
+                int i = Arrays.binarySearch(cells, cell(row, columns[range]));
+                for (i = i < 0 ? -i - 1 : i; i < cells.length && cells[i] <= last; i++) {
+                    visitor.visit(cellStart[i], cellStart[i + 1]);
+                }
+            }
+        }
+    }
+
+    private static int cell(int latCell, int lonCell) {
+        return latCell * LON_CELLS + lonCell;
+    }
+
+    private static int latCell(double latitude) {
+        return Math.min(LAT_CELLS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int lonCell(double longitude) {
+        return Math.min(LON_CELLS - 1, (int) Math.floor((longitude + 180) / CELL_DEGREES));
+    }
+
+    @FunctionalInterface
+    private interface CellRunVisitor {
+        void visit(int from, int to);
+    }
+}
@@ -0,0 +1,168 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import lombok.Getter;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+
+/**
+ * The earliest run of minutes in which the largest number of deals is active at once.
+ * <p>
+ * Computed with a sweep over sorted start/end events, so it costs O(n log n) for n deals and
+ * works on plain {@code int} minutes. Deals that close before they open (e.g. 10:00pm - 2:00am)
+ * are treated as running over midnight.
+ */
+@Getter
+public final class PeakWindow {
+
+    private final int startMinute;
+    private final int endMinute;
+    private final int activeDeals;
+
+    PeakWindow(int startMinute, int endMinute, int activeDeals) {
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.activeDeals = activeDeals;
+    }
+
+    /**
+     * Peak window over the deals of the feed, or {@code null} if no deal carries opening hours.
+     */
+    public static PeakWindow of(List<Restaurant> restaurants) {
+        Builder builder = new Builder();
+        restaurants.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Peak window over the deals of a store, e.g. one merged from several sources, which keeps the
+     * deals' own opening hours ({@link DealStore#dealStart(int)}).
+     */
+    public static PeakWindow of(DealStore store, Sharding sharding) {
+        int[] starts = new int[store.size()];
+        int[] ends = new int[store.size()];
+        int n = 0;
+        for (int ordinal = 0; ordinal < store.size(); ordinal++) {
+            int start = store.dealStart(ordinal);
+            int end = store.dealEnd(ordinal);
+            if (start != MinuteOfDay.INVALID && end != MinuteOfDay.INVALID) {
+                starts[n] = start;
+                ends[n] = end;
+                n++;
+            }
+        }
+        return compute(starts, ends, n, sharding);
+    }
+
+    /**
+     * Peak window over the first {@code n} inclusive intervals {@code [starts[i], ends[i]]}.
+     */
+    public static PeakWindow compute(int[] starts, int[] ends, int n) {
+        return compute(starts, ends, n, Sharding.SEQUENTIAL);
+    }
+
+    /**
+     * Same window, with the events sorted in parallel when there are enough of them. The sort is
+     * the O(n log n) part; the sweep after it is a single linear pass.
+     */
+    public static PeakWindow compute(int[] starts, int[] ends, int n, Sharding sharding) {
+        // Each event is encoded as minute * 2 + kind; kind 0 (end) sorts before kind 1 (start),
+        // so an interval ending at m - 1 and one starting at m are never counted together
+        int[] events = new int[n * 4];
+        int eventCount = 0;
+        for (int i = 0; i < n; i++) {
+            int start = starts[i];
+            int end = ends[i];
+            if (start <= end) {
+                events[eventCount++] = start * 2 + 1;
+                events[eventCount++] = (end + 1) * 2;
+            } else {
+                events[eventCount++] = start * 2 + 1;
+                events[eventCount++] = MINUTES_PER_DAY * 2;
+                events[eventCount++] = 1;
+                events[eventCount++] = (end + 1) * 2;
+            }
+        }
+        if (sharding.isParallel(eventCount)) {
+            Arrays.parallelSort(events, 0, eventCount);
+        } else {
+            Arrays.sort(events, 0, eventCount);
+        }
+
+        int active = 0;
+        int best = 0;
+        int bestStart = -1;
+        int bestEnd = -1;
+        boolean extending = false;
+        int i = 0;
+        while (i < eventCount) {
+            int minute = events[i] >> 1;
+            while (i < eventCount && events[i] >> 1 == minute) {
+                active += (events[i] & 1) == 1 ? 1 : -1;
+                i++;
+            }
+            if (minute >= MINUTES_PER_DAY) {
+                break;
+            }
+            int segmentEnd = (i < eventCount ? Math.min(events[i] >> 1, MINUTES_PER_DAY) : MINUTES_PER_DAY) - 1;
+
+            if (active > best) {
+                best = active;
+                bestStart = minute;
+                bestEnd = segmentEnd;
+                extending = true;
+            } else if (active == best && extending) {
+                bestEnd = segmentEnd;
+            } else {
+                extending = false;
+            }
+        }
+
+        return best == 0 ? null : new PeakWindow(bestStart, bestEnd, best);
+    }
+
+    /**
+     * Collects deal intervals restaurant by restaurant, e.g. while the feed is still being parsed.
+     */
+    public static final class Builder {
+
+        private int[] starts = new int[64];
+        private int[] ends = new int[64];
+        private int size;
+
+        public void add(Restaurant restaurant) {
+            if (restaurant.getDeals() == null) {
+                return;
+            }
+            for (Deal deal : restaurant.getDeals()) {
+                LocalTime start = deal.getOpen() != null ? deal.getOpen() : deal.getStart();
+                LocalTime end = deal.getClose() != null ? deal.getClose() : deal.getEnd();
+                // Deals without time info don't take part in the peak computation
+                if (start == null || end == null) {
+                    continue;
+                }
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    ends = Arrays.copyOf(ends, size * 2);
+                }
+                starts[size] = MinuteOfDay.of(start);
+                ends[size] = MinuteOfDay.of(end);
+                size++;
+            }
+        }
+
+        public PeakWindow build() {
+            return build(Sharding.SEQUENTIAL);
+        }
+
+        public PeakWindow build(Sharding sharding) {
+            return compute(starts, ends, size, sharding);
+        }
+    }
+}
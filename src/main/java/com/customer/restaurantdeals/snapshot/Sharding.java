@@ -0,0 +1,91 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * How a pass over a range of rows is split for parallel evaluation.
+ * <p>
+ * Passes over at least {@code threshold} rows are cut into up to {@code shards} contiguous ranges
+ * evaluated on the common ForkJoin pool (the calling thread takes part); smaller passes run on the
+ * calling thread only. Shard results are returned in shard order, so merging them in that order
+ * gives exactly the output of a sequential pass.
+ */
+public final class Sharding {
+
+    public static final Sharding SEQUENTIAL = new Sharding(Integer.MAX_VALUE, 1);
+
+    private final int threshold;
+    private final int shards;
+
+    public Sharding(int threshold, int shards) {
+        this.threshold = Math.max(1, threshold);
+        this.shards = Math.max(1, shards);
+    }
+
+    /**
+     * Number of shards a pass over {@code rows} rows is split into.
+     */
+    public int shardCount(int rows) {
+        return rows < threshold ? 1 : Math.min(shards, rows);
+    }
+
+    public boolean isParallel(int rows) {
+        return shardCount(rows) > 1;
+    }
+
+    /**
+     * Applies {@code task} to the shards of {@code [0, size)} and returns the results in shard
+     * order.
+     */
+    public <R> List<R> map(int size, ShardTask<R> task) {
+        return map(size, size, task);
+    }
+
+    /**
+     * Same as {@link #map(int, ShardTask)} for a range whose elements stand for {@code rows} rows
+     * in total (e.g. restaurants, each with its deals), which decides the number of shards.
+     */
+    public <R> List<R> map(int size, int rows, ShardTask<R> task) {
+        int count = Math.min(shardCount(rows), Math.max(1, size));
+        if (count == 1) {
+            return Collections.singletonList(task.run(0, 0, size));
+        }
+        return IntStream.range(0, count)
+                .parallel()
+                .mapToObj(shard -> task.run(shard, bound(size, count, shard), bound(size, count, shard + 1)))
+                .toList();
+    }
+
+    /**
+     * Concatenation of {@code parts} in list order.
+     */
+    public static <T> List<T> flatten(List<List<T>> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        int total = 0;
+        for (List<T> part : parts) {
+            total += part.size();
+        }
+        List<T> result = new ArrayList<>(total);
+        parts.forEach(result::addAll);
+        return result;
+    }
+
+    private static int bound(int size, int count, int shard) {
+        return (int) ((long) size * shard / count);
+    }
+
+    @FunctionalInterface
+    public interface ShardTask<R> {
+        /**
+         * @param shard index of the shard, from 0
+         * @param from  first element of the shard
+         * @param to    end of the shard, exclusive
+         */
+        R run(int shard, int from, int to);
+    }
+}
@@ -0,0 +1,371 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file form of a {@link FeedSnapshot}, so a restarted instance can serve the last good feed
+ * before upstream answers.
+ * <p>
+ * A 24-byte header (magic, format version, body length, CRC32C of the body) is followed by the
+ * body: snapshot version and fetch time, each source's name, state and origin, the peak window,
+ * then the {@link DealStore} columns, followed for a merged snapshot by each source's own store.
+ * Numbers are big-endian and fixed-width, arrays are length-prefixed and strings are
+ * length-prefixed UTF-8 (length -1 for {@code null}), so the file is read straight out of a
+ * memory mapping with bulk copies into the store's arrays. The time index is rebuilt on load.
+ * <p>
+ * The sources' stores are kept as delivered rather than derived from the merged one, which drops
+ * a source's duplicates of an earlier source's restaurants and deals: a part restored with its
+ * validators must hold everything that source sent, as a 304 keeps it and it is merged again on
+ * its own once the earlier source fails.
+ * <p>
+ * Files are written next to their destination and moved into place atomically, so a reader never
+ * sees a partial file; a file with another format version or a checksum mismatch is rejected.
+ */
+public final class SnapshotFile {
+
+    static final int MAGIC = 0x52444653; // "RDFS"
+    static final int FORMAT_VERSION = 4;
+    static final int HEADER_SIZE = 24;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long NEVER_FETCHED = Long.MIN_VALUE;
+
+    private SnapshotFile() {}
+
+    /**
+     * Writes {@code snapshot} to {@code file}, replacing it atomically.
+     *
+     * @return number of bytes written
+     */
+    public static long write(FeedSnapshot snapshot, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            long length;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                Output out = new Output(channel, HEADER_SIZE);
+                writeBody(snapshot, out);
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(FORMAT_VERSION)
+                        .putLong(out.length)
+                        .putLong(out.crc.getValue())
+                        .flip();
+                channel.write(header, 0);
+                channel.force(true);
+                length = HEADER_SIZE + out.length;
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return length;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the snapshot in {@code file}, rebuilding its time index with {@code sharding}.
+     *
+     * @throws IOException when the file cannot be read, is not a snapshot file of this format
+     *                     version or fails its checksum
+     */
+    public static FeedSnapshot read(Path file, Sharding sharding) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int formatVersion = mapped.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + formatVersion + ": " + file);
+            }
+            long length = mapped.getLong();
+            long checksum = mapped.getLong();
+            if (length != size - HEADER_SIZE) {
+                throw new IOException("Truncated snapshot file: " + file);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException("Snapshot file checksum mismatch: " + file);
+            }
+            return readBody(new Input(mapped), sharding);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException ex) {
+            throw new IOException("Corrupt snapshot file: " + file, ex);
+        }
+    }
+
+    private static void writeBody(FeedSnapshot snapshot, Output out) throws IOException {
+        out.putLong(snapshot.getVersion());
+        out.putLong(snapshot.getFetchedAt().toEpochMilli());
+        out.putInt(snapshot.getSources().size());
+        for (FeedSource source : snapshot.getSources()) {
+            out.putString(source.getName());
+            out.putLong(source.getFetchedAt() == null ? NEVER_FETCHED : source.getFetchedAt().toEpochMilli());
+            out.putInt(source.isStale() ? 1 : 0);
+            FeedOrigin origin = source.getOrigin();
+            out.putString(origin.getETag());
+            out.putString(origin.getLastModified());
+            out.putString(origin.getContentHash());
+            out.putLong(origin.getContentLength());
+            out.putLong(origin.getLoadTime().toNanos());
+        }
+
+        PeakWindow peakWindow = snapshot.getPeakWindow();
+        out.putInt(peakWindow == null ? 0 : 1);
+        out.putInt(peakWindow == null ? 0 : peakWindow.getStartMinute());
+        out.putInt(peakWindow == null ? 0 : peakWindow.getEndMinute());
+        out.putInt(peakWindow == null ? 0 : peakWindow.getActiveDeals());
+
+        snapshot.getDealStore().write(out);
+        if (snapshot.getSources().size() > 1) {
+            for (FeedSource source : snapshot.getSources()) {
+                source.getDealStore().write(out);
+            }
+        }
+    }
+
+    private static FeedSnapshot readBody(Input in, Sharding sharding) {
+        long version = in.getLong();
+        Instant fetchedAt = Instant.ofEpochMilli(in.getLong());
+        int sourceCount = in.getInt();
+        if (sourceCount < 1 || sourceCount > DealStore.MAX_SOURCES) {
+            throw new IllegalArgumentException("Invalid source count " + sourceCount);
+        }
+        String[] names = new String[sourceCount];
+        Instant[] sourceFetchedAt = new Instant[sourceCount];
+        boolean[] stale = new boolean[sourceCount];
+        FeedOrigin[] origins = new FeedOrigin[sourceCount];
+        for (int i = 0; i < sourceCount; i++) {
+            names[i] = in.getString();
+            long millis = in.getLong();
+            sourceFetchedAt[i] = millis == NEVER_FETCHED ? null : Instant.ofEpochMilli(millis);
+            stale[i] = in.getInt() == 1;
+            origins[i] = new FeedOrigin(in.getString(), in.getString(), in.getString(), in.getLong(),
+                    Duration.ofNanos(in.getLong()));
+        }
+
+        boolean hasPeakWindow = in.getInt() == 1;
+        PeakWindow peakWindow = new PeakWindow(in.getInt(), in.getInt(), in.getInt());
+
+        DealStore store = DealStore.read(in);
+        List<FeedSource> sources = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            sources.add(new FeedSource(names[i], sourceCount == 1 ? store : DealStore.read(in), origins[i],
+                    sourceFetchedAt[i], stale[i]));
+        }
+        return FeedSnapshot.restore(version, fetchedAt, store, hasPeakWindow ? peakWindow : null, sources, sharding);
+    }
+
+    /**
+     * Buffered, checksummed writer of the body.
+     */
+    static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+        private long position;
+        private long length;
+
+        private Output(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putInts(int[] values, int count) throws IOException {
+            putInt(count);
+            int offset = 0;
+            while (offset < count) {
+                ensure(Integer.BYTES);
+                int chunk = Math.min(count - offset, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, chunk);
+                buffer.position(buffer.position() + chunk * Integer.BYTES);
+                offset += chunk;
+            }
+        }
+
+        void putDoubles(double[] values, int count) throws IOException {
+            putInt(count);
+            int offset = 0;
+            while (offset < count) {
+                ensure(Double.BYTES);
+                int chunk = Math.min(count - offset, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().put(values, offset, chunk);
+                buffer.position(buffer.position() + chunk * Double.BYTES);
+                offset += chunk;
+            }
+        }
+
+        void putBytes(byte[] values, int count) throws IOException {
+            putInt(count);
+            int offset = 0;
+            while (offset < count) {
+                ensure(1);
+                int chunk = Math.min(count - offset, buffer.remaining());
+                buffer.put(values, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int chunk = Math.min(bytes.length - offset, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        void putStrings(String[] values, int count) throws IOException {
+            putInt(count);
+            for (int i = 0; i < count; i++) {
+                putString(values[i]);
+            }
+        }
+
+        void putBits(BitSet bits) throws IOException {
+            long[] words = bits.toLongArray();
+            putInt(words.length);
+            for (long word : words) {
+                putLong(word);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            length += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reader of the body out of the mapped file.
+     */
+    static final class Input {
+
+        private final ByteBuffer buffer;
+
+        private Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int getInt() {
+            return buffer.getInt();
+        }
+
+        long getLong() {
+            return buffer.getLong();
+        }
+
+        int[] getInts() {
+            int[] values = new int[count(Integer.BYTES)];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+            return values;
+        }
+
+        double[] getDoubles() {
+            double[] values = new double[count(Double.BYTES)];
+            buffer.asDoubleBuffer().get(values);
+            buffer.position(buffer.position() + values.length * Double.BYTES);
+            return values;
+        }
+
+        byte[] getBytes() {
+            byte[] values = new byte[count(1)];
+            buffer.get(values);
+            return values;
+        }
+
+        String getString() {
+            int length = buffer.getInt();
+            if (length == -1) {
+                return null;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid string length " + length);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String[] getStrings() {
+            String[] values = new String[count(Integer.BYTES)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getString();
+            }
+            return values;
+        }
+
+        BitSet getBits() {
+            long[] words = new long[count(Long.BYTES)];
+            buffer.asLongBuffer().get(words);
+            buffer.position(buffer.position() + words.length * Long.BYTES);
+            return BitSet.valueOf(words);
+        }
+
+        // An element count, checked against the bytes left so a corrupt count fails before allocating
+        private int count(int minElementSize) {
+            int count = buffer.getInt();
+            if (count < 0 || (long) count * minElementSize > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid element count " + count);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns each distinct string an {@code int} code while a snapshot is built, so repeated values
+ * (suburbs, discounts, chain names) are stored once and columns can hold plain codes.
+ */
+final class StringDictionary {
+
+    static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int code(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    String[] values() {
+        return values.toArray(new String[0]);
+    }
+}
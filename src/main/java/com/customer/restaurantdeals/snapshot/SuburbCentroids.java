@@ -0,0 +1,76 @@
+package com.customer.restaurantdeals.snapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fallback location of each suburb, its centroid, for restaurants the feed lists without
+ * coordinates. Suburbs are matched by name ignoring case and surrounding blanks, the way the
+ * {@code suburb} filter matches them.
+ * <p>
+ * Read from CSV lines of {@code suburb,latitude,longitude}; blank lines and lines starting with
+ * {@code #} are skipped, and a name may contain commas since the coordinates are taken from the end
+ * of the line.
+ */
+public final class SuburbCentroids {
+
+    public static final SuburbCentroids EMPTY = new SuburbCentroids(Map.of());
+
+    private final Map<String, double[]> centroids;
+
+    private SuburbCentroids(Map<String, double[]> centroids) {
+        this.centroids = centroids;
+    }
+
+    public static SuburbCentroids read(Reader reader) throws IOException {
+        Map<String, double[]> centroids = new HashMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        int number = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            number++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int lonSeparator = trimmed.lastIndexOf(',');
+            int latSeparator = lonSeparator < 0 ? -1 : trimmed.lastIndexOf(',', lonSeparator - 1);
+            String suburb = latSeparator < 0 ? "" : key(trimmed.substring(0, latSeparator));
+            double latitude;
+            double longitude;
+            try {
+                latitude = latSeparator < 0 ? Double.NaN
+                        : Double.parseDouble(trimmed.substring(latSeparator + 1, lonSeparator).strip());
+                longitude = lonSeparator < 0 ? Double.NaN
+                        : Double.parseDouble(trimmed.substring(lonSeparator + 1).strip());
+            } catch (NumberFormatException ex) {
+                latitude = Double.NaN;
+                longitude = Double.NaN;
+            }
+            if (suburb.isEmpty() || !DealStore.isLocation(latitude, longitude)) {
+                throw new IllegalArgumentException("Invalid suburb centroid on line " + number
+                        + ", expected suburb,latitude,longitude: " + trimmed);
+            }
+            centroids.put(suburb, new double[]{latitude, longitude});
+        }
+        return new SuburbCentroids(centroids);
+    }
+
+    public int size() {
+        return centroids.size();
+    }
+
+    /**
+     * {@code {latitude, longitude}} of the suburb, or {@code null} if it is not listed.
+     */
+    public double[] find(String suburb) {
+        return suburb == null ? null : centroids.get(key(suburb));
+    }
+
+    private static String key(String suburb) {
+        return suburb.strip().toLowerCase(Locale.ROOT);
+    }
+}
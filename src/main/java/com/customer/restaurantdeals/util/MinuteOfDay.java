@@ -0,0 +1,130 @@
+package com.customer.restaurantdeals.util;
+
+import java.time.LocalTime;
+
+/**
+ * Helpers for working with times as an {@code int} minute of the day (0..1439).
+ * <p>
+ * Also holds the {@code h:mma} parser and formatter used on the hot path: parsing works directly
+ * on a character range and formatting and {@link LocalTime} conversion are table lookups, so
+ * neither allocates.
+ */
+public final class MinuteOfDay {
+
+    public static final int MINUTES_PER_DAY = 1440;
+    public static final int INVALID = -1;
+
+    private static final LocalTime[] LOCAL_TIMES = new LocalTime[MINUTES_PER_DAY];
+    private static final String[] LOWER_CASE = new String[MINUTES_PER_DAY];
+    private static final String[] UPPER_CASE = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            int hour = minute / 60;
+            int clockHour = hour % 12 == 0 ? 12 : hour % 12;
+            String time = clockHour + ":" + (minute % 60 < 10 ? "0" : "") + minute % 60;
+            LOCAL_TIMES[minute] = LocalTime.of(hour, minute % 60);
+            LOWER_CASE[minute] = time + (hour < 12 ? "am" : "pm");
+            UPPER_CASE[minute] = time + (hour < 12 ? "AM" : "PM");
+        }
+    }
+
+    private MinuteOfDay() {}
+
+    public static int of(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static LocalTime toLocalTime(int minute) {
+        return LOCAL_TIMES[minute];
+    }
+
+    /**
+     * First whole minute that is not before {@code time}; may be {@link #MINUTES_PER_DAY}.
+     */
+    public static int ceil(LocalTime time) {
+        int minute = of(time);
+        return time.getSecond() == 0 && time.getNano() == 0 ? minute : minute + 1;
+    }
+
+    /**
+     * Last whole minute that is not after {@code time}.
+     */
+    public static int floor(LocalTime time) {
+        return of(time);
+    }
+
+    /**
+     * Formats as {@code h:mma} in lower case, e.g. {@code 3:00pm}.
+     */
+    public static String format(int minute) {
+        return LOWER_CASE[minute];
+    }
+
+    /**
+     * Formats as {@code h:mma} in upper case, e.g. {@code 3:00PM}.
+     */
+    public static String formatUpperCase(int minute) {
+        return UPPER_CASE[minute];
+    }
+
+    /**
+     * Parses an {@code h:mma} time (case-insensitive, e.g. {@code 3:00pm} or {@code 11:30AM})
+     * from {@code length} characters starting at {@code offset}.
+     *
+     * @return the minute of the day, or {@link #INVALID}
+     */
+    public static int parse(char[] chars, int offset, int length) {
+        if (length < 6 || length > 7) {
+            return INVALID;
+        }
+        int colon = offset + length - 5;
+        if (chars[colon] != ':') {
+            return INVALID;
+        }
+        int hour = digit(chars[offset]);
+        if (colon - offset == 2) {
+            hour = hour < 0 || digit(chars[offset + 1]) < 0 ? INVALID : hour * 10 + digit(chars[offset + 1]);
+        }
+        return resolve(hour, digit(chars[colon + 1]), digit(chars[colon + 2]), chars[colon + 3], chars[colon + 4]);
+    }
+
+    /**
+     * Same as {@link #parse(char[], int, int)} for a whole {@link CharSequence}.
+     */
+    public static int parse(CharSequence text) {
+        int length = text.length();
+        if (length < 6 || length > 7) {
+            return INVALID;
+        }
+        int colon = length - 5;
+        if (text.charAt(colon) != ':') {
+            return INVALID;
+        }
+        int hour = digit(text.charAt(0));
+        if (colon == 2) {
+            hour = hour < 0 || digit(text.charAt(1)) < 0 ? INVALID : hour * 10 + digit(text.charAt(1));
+        }
+        int tens = digit(text.charAt(colon + 1));
+        int units = digit(text.charAt(colon + 2));
+        return resolve(hour, tens, units, text.charAt(colon + 3), text.charAt(colon + 4));
+    }
+
+    private static int resolve(int clockHour, int minuteTens, int minuteUnits, char meridiem, char m) {
+        if (clockHour < 1 || clockHour > 12 || minuteTens < 0 || minuteTens > 5 || minuteUnits < 0
+                || (m != 'M' && m != 'm')) {
+            return INVALID;
+        }
+        int hour = clockHour % 12;
+        if (meridiem == 'P' || meridiem == 'p') {
+            hour += 12;
+        } else if (meridiem != 'A' && meridiem != 'a') {
+            return INVALID;
+        }
+        return hour * 60 + minuteTens * 10 + minuteUnits;
+    }
+
+    private static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : INVALID;
+    }
+}
@@ -3,6 +3,9 @@ package com.customer.restaurantdeals.util;
 public class RestaurantDealsConstant {
     private RestaurantDealsConstant() {}
 
+    // Largest page a deal query may ask for
+    public static final int MAX_PAGE_LIMIT = 1000;
+
     // Error Messages
     public static final String MSG_INVALID_TIME = "Invalid time format. Expected format: 3:00pm, 6:00pm, etc.";
     public static final String MSG_RESTAURANT_SERVICE_ERROR = "Error from restaurant service. Please try again later.";
@@ -14,6 +17,19 @@ public class RestaurantDealsConstant {
     public static final String MSG_QTY_LEFT = "Quantity left must be non-negative";
     public static final String MSG_BLANK_PEAK_TIME = "peakTimeStart cannot be blank";
     public static final String MSG_BLANK_END_TIME = "peakTimeEnd cannot be blank";
+    public static final String MSG_INVALID_SORT = "Invalid sort. Expected one of: discount, -discount, qtyLeft, -qtyLeft";
+    public static final String MSG_INVALID_LIMIT = "Invalid limit. Expected a value between 1 and " + MAX_PAGE_LIMIT;
+    public static final String MSG_INVALID_CURSOR = "Invalid cursor. Pass the nextCursor of a previous page with the same sort";
+    public static final String MSG_INVALID_BATCH_TIMES = "Batch requests need between 1 and this many times: ";
+    public static final String MSG_BATCH_TOO_LARGE = "Batch result too large, narrow the filters or set a limit. Maximum deals: ";
+    public static final String MSG_INVALID_RESOLUTION = "Invalid resolution. Expected whole minutes between 1m and 24h, e.g. 15m or 1h";
+    public static final String MSG_INVALID_GROUP_BY = "Invalid groupBy. Expected one of: suburb, lightning";
+    public static final String MSG_INVALID_SHAPE = "Invalid shape. Expected one of: flat, grouped";
+    public static final String MSG_INVALID_BODY = "Malformed request body";
+    public static final String MSG_RESOURCE_NOT_FOUND = "Resource not found";
+    public static final String MSG_INVALID_PARAMETER = "Invalid value for parameter ";
+    public static final String MSG_INVALID_LOCATION = "Invalid location. Expected lat between -90 and 90 and lon between -180 and 180";
+    public static final String MSG_INVALID_RADIUS = "Invalid radiusKm. Expected a value above 0 and at most ";
 
     public static final String REGEX_TIME_FORMAT = "^(1[0-2]|[1-9]):[0-5][0-9](am|pm)$";
     public static final String DEALS = "deals";
@@ -21,6 +37,52 @@ public class RestaurantDealsConstant {
     // API URIs
     public static final String RESTAURANTS_DATA_URI = "/misc/challengedata.json";
 
+    // Name of the upstream feed's circuit breaker and bulkhead (resilience4j.*.instances.<name>)
+    public static final String UPSTREAM_RESTAURANT_FEED = "restaurantFeed";
+
+    // Execution mode of the request/response endpoints (restaurantdeals.execution.mode)
+    public static final String EXECUTION_MODE_PROPERTY = "restaurantdeals.execution.mode";
+    public static final String EXECUTION_MODE_REACTIVE = "reactive";
+    public static final String EXECUTION_MODE_BLOCKING = "blocking";
+
     // Date/Time formats
     public static final String TIME_FORMAT = "h:mma";
+
+    // Metrics
+    public static final String METRIC_FEED_CACHE_REQUESTS = "restaurantdeals.feed.cache.requests";
+    public static final String METRIC_FEED_REFRESHES = "restaurantdeals.feed.refreshes";
+    public static final String METRIC_FEED_STALE_SERVED = "restaurantdeals.feed.cache.stale.served";
+    public static final String METRIC_FEED_SNAPSHOT_AGE = "restaurantdeals.feed.snapshot.age";
+    public static final String METRIC_FEED_SNAPSHOT_RESTAURANTS = "restaurantdeals.feed.snapshot.restaurants";
+    public static final String METRIC_FEED_SNAPSHOT_DEALS = "restaurantdeals.feed.snapshot.deals";
+    public static final String METRIC_FEED_BODY_SIZE = "restaurantdeals.feed.body.size";
+    public static final String METRIC_FEED_LOAD = "restaurantdeals.feed.load";
+    public static final String METRIC_FEED_FETCH_LATENCY = "restaurantdeals.feed.fetch.latency";
+    public static final String METRIC_FEED_RETRIES = "restaurantdeals.feed.retries";
+    public static final String METRIC_FEED_HEDGES = "restaurantdeals.feed.hedges";
+    public static final String METRIC_FEED_REVALIDATIONS = "restaurantdeals.feed.revalidations";
+    public static final String METRIC_FEED_BYTES_SAVED = "restaurantdeals.feed.bytes.saved";
+    public static final String METRIC_FEED_LOAD_AVOIDED = "restaurantdeals.feed.load.avoided";
+    public static final String METRIC_FEED_SOURCE_FAILURES = "restaurantdeals.feed.source.failures";
+    public static final String METRIC_FEED_SOURCE_STALE = "restaurantdeals.feed.source.stale";
+    public static final String METRIC_LIVE_EVENTS = "restaurantdeals.live.events";
+    public static final String METRIC_LIVE_SUBSCRIBERS = "restaurantdeals.live.subscribers";
+    public static final String METRIC_LIVE_DROPPED = "restaurantdeals.live.dropped";
+    public static final String METRIC_RESPONSE_CACHE_REQUESTS = "restaurantdeals.response.cache.requests";
+    public static final String METRIC_RESPONSE_CACHE_SIZE = "restaurantdeals.response.cache.size";
+    public static final String METRIC_RESPONSE_SIZE = "restaurantdeals.response.size";
+    public static final String METRIC_RESPONSE_COMPRESSED_SIZE = "restaurantdeals.response.compressed.size";
+    public static final String METRIC_PIPELINE_STAGE = "restaurantdeals.pipeline.stage";
+    public static final String METRIC_SNAPSHOT_FILE_READ = "restaurantdeals.snapshot.file.read";
+    public static final String METRIC_SNAPSHOT_FILE_WRITE = "restaurantdeals.snapshot.file.write";
+    public static final String METRIC_SNAPSHOT_FILE_FAILURES = "restaurantdeals.snapshot.file.failures";
+    public static final String METRIC_STARTUP_FIRST_SNAPSHOT = "restaurantdeals.startup.first.snapshot";
+
+    // Endpoint tag of pipeline metrics
+    public static final String ENDPOINT_DEALS = "deals";
+    public static final String ENDPOINT_DEALS_QUERY = "deals_query";
+    public static final String ENDPOINT_DEALS_STREAM = "deals_stream";
+    public static final String ENDPOINT_DEALS_BATCH = "deals_batch";
+    public static final String ENDPOINT_DEALS_NEARBY = "deals_nearby";
+    public static final String ENDPOINT_TIMELINE = "timeline";
 }
@@ -20,6 +20,19 @@ class CustomLocalTimeDeserializerTest {
         assertEquals(LocalTime.of(15,0), result);
     }
 
+    @Test
+    void deserialize_PaddedLowerCaseString_ReturnsLocalTime() throws Exception {
+        String json = "[\" 11:45am \", \"12:00pm\"]";
+        ObjectMapper mapper = new ObjectMapper();
+        SimpleModule module = new SimpleModule();
+        module.addDeserializer(LocalTime.class, new CustomLocalTimeDeserializer());
+        mapper.registerModule(module);
+
+        LocalTime[] result = mapper.readValue(json, LocalTime[].class);
+        assertEquals(LocalTime.of(11, 45), result[0]);
+        assertEquals(LocalTime.of(12, 0), result[1]);
+    }
+
     @Test
     void deserialize_InvalidTimeString_ThrowsRuntimeException() {
         String json = "\"notATime\"";
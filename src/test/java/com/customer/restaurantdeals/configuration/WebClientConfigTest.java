@@ -0,0 +1,70 @@
+package com.customer.restaurantdeals.configuration;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebClientConfigTest {
+
+    private final WebClientConfig config = new WebClientConfig();
+    private WireMockServer wireMockServer;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(wireMockConfig().dynamicPort());
+        wireMockServer.start();
+        connectionProvider = config.restaurantFeedConnectionProvider("test-feed", 2, 10, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ZERO, false);
+        webClient = config.webClient(connectionProvider, wireMockServer.baseUrl(), Duration.ofSeconds(1),
+                Duration.ofSeconds(2), Duration.ofMillis(200), true, true, DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        wireMockServer.stop();
+    }
+
+    @Test
+    void webClient_RequestsAndInflatesGzip() {
+        wireMockServer.stubFor(get(urlEqualTo("/feed"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"restaurants\":[]}")));
+
+        String body = webClient.get().uri("/feed").retrieve().bodyToMono(String.class).block();
+
+        assertEquals("{\"restaurants\":[]}", body);
+        wireMockServer.verify(getRequestedFor(urlEqualTo("/feed")).withHeader("Accept-Encoding", containing("gzip")));
+    }
+
+    @Test
+    void webClient_SlowUpstream_TimesOut() {
+        wireMockServer.stubFor(get(urlEqualTo("/feed"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(1000).withBody("{}")));
+
+        assertThrows(WebClientRequestException.class,
+                () -> webClient.get().uri("/feed").retrieve().bodyToMono(String.class).block());
+    }
+
+    @Test
+    void protocols_Http2OnlyOfferedOverTls() {
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11},
+                WebClientConfig.protocols("https://eccdn.com.au", true));
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11},
+                WebClientConfig.protocols("http://localhost:9090", true));
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11},
+                WebClientConfig.protocols("https://eccdn.com.au", false));
+    }
+}
@@ -0,0 +1,230 @@
+package com.customer.restaurantdeals.controller;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.customer.restaurantdeals.configuration.BlockingExecutionConfig;
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.BlockingDealsService;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = BlockingRestaurantDealsController.class,
+        properties = "restaurantdeals.execution.mode=blocking")
+@Import({BlockingRestaurantDealsControllerTest.MockConfig.class, BlockingExecutionConfig.class})
+class BlockingRestaurantDealsControllerTest {
+
+    @Autowired
+    private BlockingDealsService blockingDealsService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    static class MockConfig {
+        @Bean
+        public BlockingDealsService blockingDealsService() {
+            return Mockito.mock(BlockingDealsService.class);
+        }
+    }
+
+    @Test
+    void getActiveDeals_RunsOffTheEventLoop() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        RenderedDeals rendered = rendered();
+        when(blockingDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT))
+                .thenAnswer(invocation -> {
+                    thread.set(Thread.currentThread().getName());
+                    return rendered;
+                });
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBody()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1");
+
+        assertFalse(thread.get().startsWith("reactor-"), thread.get());
+        if (Runtime.version().feature() < 21) {
+            // Without virtual threads, the platform-thread pool
+            assertTrue(thread.get().startsWith("blocking-request-"), thread.get());
+        }
+    }
+
+    @Test
+    void getActiveDeals_MatchingETag_ReturnsNotModified() throws Exception {
+        when(blockingDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT))
+                .thenReturn(rendered());
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getActiveDeals_WithFilters_ReturnsPage() throws Exception {
+        when(blockingDealsService.queryRenderedActiveDealsAtTime(eq("5:00pm"),
+                argThat((DealQuery query) -> "Sub".equals(query.getSuburb()) && query.getLimit() == 1),
+                eq(WireFormat.JSON), eq(DealsShape.FLAT)))
+                .thenReturn(rendered(new DealPageResponse(List.of(validDeal()), "next")));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("suburb", "Sub")
+                        .queryParam("limit", "1")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1")
+                .jsonPath("$.nextCursor").isEqualTo("next");
+    }
+
+    @Test
+    void getActiveDeals_AcceptSmile_ReturnsSmilePayload() {
+        MediaType smile = WireFormat.SMILE.getMediaType();
+        byte[] body = {':', ')', '\n', 0x00, (byte) 0xfa, (byte) 0xfb};
+        when(blockingDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.SMILE, DealsShape.FLAT))
+                .thenReturn(new RenderedDeals(body, "\"s1\"", smile));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .accept(smile)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(smile)
+                .expectBody(byte[].class).isEqualTo(body);
+    }
+
+    @Test
+    void getActiveDeals_AcceptBrotli_ServesPrecompressedBody() throws Exception {
+        RenderedDeals plain = rendered();
+        when(blockingDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT))
+                .thenReturn(new RenderedDeals(plain.getBody(), "\"v1\"", MediaType.APPLICATION_JSON,
+                        RestaurantDealsControllerTest.compressor()));
+
+        byte[] body = webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "br")
+                .expectHeader().valueEquals(HttpHeaders.VARY, "Accept, Accept-Encoding")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertArrayEquals(plain.getBody(), Decoder.decompress(body).getDecompressedData());
+    }
+
+    @Test
+    void getActiveDealsBatch_HappyPath() {
+        when(blockingDealsService.getActiveDealsAtTimes(any()))
+                .thenReturn(new DealBatchResponse(Map.of("5:00pm", List.of(validDeal()))));
+
+        webTestClient.post().uri("/api/deals/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("times", List.of("5:00pm")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals['5:00pm'][0].dealObjectId").isEqualTo("d1");
+    }
+
+    @Test
+    void getNearbyDeals_HappyPath() {
+        ActiveDealResponse deal = validDeal();
+        deal.setDistanceKm(0.5);
+        deal.setApproximateLocation(Boolean.TRUE);
+        when(blockingDealsService.queryNearbyDealsAtTime(eq("5:00pm"), eq(-37.8), eq(144.96), eq(1.0), any()))
+                .thenReturn(new DealPageResponse(List.of(deal), null));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/nearby")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("lat", "-37.8")
+                        .queryParam("lon", "144.96")
+                        .queryParam("radiusKm", "1")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals[0].distanceKm").isEqualTo(0.5)
+                .jsonPath("$.deals[0].approximateLocation").isEqualTo(true);
+    }
+
+    @Test
+    void getActiveDeals_Failure_InvalidFormat() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "13:00pm").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.timeOfDay").exists();
+    }
+
+    @Test
+    void getPeakTimeWindow_HappyPath() {
+        when(blockingDealsService.findPeakDealTimeWindow()).thenReturn(new PeakTimeResponse("5:00PM", "7:00PM"));
+
+        webTestClient.get().uri("/api/deals/peak-time")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.peakTimeStart").isEqualTo("5:00PM");
+    }
+
+    @Test
+    void getPeakTimeWindow_Empty() {
+        when(blockingDealsService.findPeakDealTimeWindow()).thenReturn(null);
+
+        webTestClient.get().uri("/api/deals/peak-time")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    private RenderedDeals rendered() throws Exception {
+        return rendered(Map.of("deals", List.of(validDeal())));
+    }
+
+    private RenderedDeals rendered(Object payload) throws Exception {
+        return new RenderedDeals(new ObjectMapper().writeValueAsBytes(payload), "\"v1\"");
+    }
+
+    private ActiveDealResponse validDeal() {
+        ActiveDealResponse d = new ActiveDealResponse();
+        d.setRestaurantObjectId("r1");
+        d.setRestaurantName("Test");
+        d.setDealObjectId("d1");
+        d.setDiscount("10%");
+        d.setQtyLeft(5);
+        return d;
+    }
+
+}
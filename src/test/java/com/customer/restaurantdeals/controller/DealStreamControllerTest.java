@@ -0,0 +1,126 @@
+package com.customer.restaurantdeals.controller;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealChangeEvent;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.service.DealChangeFeed;
+import com.customer.restaurantdeals.service.RestaurantDealsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(DealStreamController.class)
+@Import(DealStreamControllerTest.MockConfig.class)
+class DealStreamControllerTest {
+
+    @Autowired
+    private RestaurantDealsService restaurantDealsService;
+
+    @Autowired
+    private DealChangeFeed dealChangeFeed;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    static class MockConfig {
+        @Bean
+        public RestaurantDealsService restaurantDealsService() {
+            return Mockito.mock(RestaurantDealsService.class);
+        }
+
+        @Bean
+        public DealChangeFeed dealChangeFeed() {
+            return Mockito.mock(DealChangeFeed.class);
+        }
+    }
+
+    @Test
+    void streamActiveDeals_Ndjson() {
+        when(restaurantDealsService.streamActiveDealsAtTime(eq("6:00pm"), any(DealQuery.class)))
+                .thenReturn(Flux.just(validDeal(), validDeal()));
+
+        String body = webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "6:00pm").build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertEquals(2, body.strip().split("\n").length);
+    }
+
+    @Test
+    void streamActiveDeals_ServerSentEvents() {
+        when(restaurantDealsService.streamActiveDealsAtTime(eq("6:00pm"), argThat(query -> "r1".equals(query.getRestaurantId()))))
+                .thenReturn(Flux.just(validDeal()));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "6:00pm")
+                        .queryParam("restaurantId", "r1").build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ActiveDealResponse.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(deal -> "d1".equals(deal.getDealObjectId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getLiveDealChanges_NamedEvents() {
+        when(dealChangeFeed.subscribe(any())).thenReturn(Flux.just(
+                new DealChangeEvent(DealChangeEvent.Type.ACTIVATED, validDeal(), null),
+                new DealChangeEvent(DealChangeEvent.Type.QTY_CHANGED, validDeal(), 6)));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/live").queryParam("lightning", "true").build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<DealChangeEvent>>() { })
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNextMatches(event -> "ACTIVATED".equals(event.event())
+                        && "d1".equals(event.data().getDeal().getDealObjectId()))
+                .expectNextMatches(event -> "QTY_CHANGED".equals(event.event())
+                        && event.data().getPreviousQtyLeft() == 6)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamActiveDeals_Failure_InvalidFormat() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "25:00pm").build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private ActiveDealResponse validDeal() {
+        ActiveDealResponse d = new ActiveDealResponse();
+        d.setRestaurantObjectId("r1");
+        d.setRestaurantName("Test");
+        d.setDealObjectId("d1");
+        d.setDiscount("10%");
+        d.setQtyLeft(5);
+        return d;
+    }
+
+}
@@ -1,19 +1,47 @@
 package com.customer.restaurantdeals.controller;
 
 import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.GroupedDealsResponse;
 import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.RestaurantDealsResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.DealsPipelineMetrics;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.customer.restaurantdeals.service.PayloadCompressor;
 import com.customer.restaurantdeals.service.RestaurantDealsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Mono;
+import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_INVALID_BODY;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_INVALID_PARAMETER;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_INVALID_SHAPE;
 import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_TIME_REQUIRED;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(RestaurantDealsController.class)
@@ -34,16 +62,261 @@ class RestaurantDealsControllerTest {
     }
 
     @Test
-    void getActiveDeals_HappyPath() {
-        List<ActiveDealResponse> deals = List.of(validDeal());
-        when(restaurantDealsService.getActiveDealsAtTime("5:00pm")).thenReturn(Mono.just(deals));
+    void getActiveDeals_HappyPath() throws Exception {
+        when(restaurantDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT)).thenReturn(Mono.just(rendered()));
 
         webTestClient.get()
                 .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, "Accept, Accept-Encoding")
                 .expectBody()
-                .jsonPath("$.deals").isArray();
+                .jsonPath("$.deals").isArray()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1");
+    }
+
+    @Test
+    void getActiveDeals_MatchingETag_ReturnsNotModified() throws Exception {
+        when(restaurantDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT)).thenReturn(Mono.just(rendered()));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v0\", \"v1\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getActiveDeals_WithFilters_ReturnsPage() throws Exception {
+        when(restaurantDealsService.queryRenderedActiveDealsAtTime(eq("5:00pm"), any(DealQuery.class),
+                eq(WireFormat.JSON), eq(DealsShape.FLAT)))
+                .thenReturn(Mono.just(rendered(new DealPageResponse(List.of(validDeal()), "next"))));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("suburb", "Sub")
+                        .queryParam("dineIn", "true")
+                        .queryParam("minDiscount", "10")
+                        .queryParam("sort", "-discount")
+                        .queryParam("limit", "1")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1")
+                .jsonPath("$.nextCursor").isEqualTo("next");
+
+        verify(restaurantDealsService).queryRenderedActiveDealsAtTime(eq("5:00pm"), argThat(query ->
+                "Sub".equals(query.getSuburb()) && Boolean.TRUE.equals(query.getDineIn())
+                        && query.getMinDiscount() == 10 && "-discount".equals(query.getSort())
+                        && query.getLimit() == 1 && query.getLightning() == null), eq(WireFormat.JSON), eq(DealsShape.FLAT));
+    }
+
+    @Test
+    void getActiveDeals_AcceptCbor_ReturnsCborPayload() {
+        byte[] body = {(byte) 0xa1, 0x65, 'd', 'e', 'a', 'l', 's', (byte) 0x80};
+        when(restaurantDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.CBOR, DealsShape.GROUPED))
+                .thenReturn(Mono.just(new RenderedDeals(body, "\"c1\"", MediaType.APPLICATION_CBOR)));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").queryParam("shape", "grouped").build())
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectHeader().valueEquals(HttpHeaders.VARY, "Accept, Accept-Encoding")
+                .expectBody(byte[].class).isEqualTo(body);
+    }
+
+    @Test
+    void getActiveDeals_AcceptGzip_ServesPrecompressedBody() throws Exception {
+        RenderedDeals plain = rendered();
+        RenderedDeals rendered = new RenderedDeals(plain.getBody(), "\"v1\"", MediaType.APPLICATION_JSON, compressor());
+        when(restaurantDealsService.getRenderedActiveDealsAtTime("5:00pm", WireFormat.JSON, DealsShape.FLAT))
+                .thenReturn(Mono.just(rendered));
+
+        byte[] body = webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br;q=0.5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1-gzip\"")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertArrayEquals(plain.getBody(), new GZIPInputStream(new ByteArrayInputStream(body)).readAllBytes());
+        assertSame(rendered.getEncodedBody(ContentCoding.GZIP), rendered.getEncodedBody(ContentCoding.GZIP));
+    }
+
+    @Test
+    void getActiveDeals_FilteredPage_LeavesCompressionToServer() throws Exception {
+        when(restaurantDealsService.queryRenderedActiveDealsAtTime(eq("5:00pm"), any(DealQuery.class),
+                eq(WireFormat.JSON), eq(DealsShape.FLAT)))
+                .thenReturn(Mono.just(rendered(new DealPageResponse(List.of(validDeal()), null))));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").queryParam("limit", "1").build())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBody()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1");
+    }
+
+    @Test
+    void getActiveDeals_UnsupportedAccept_NotAcceptable() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").build())
+                .header(HttpHeaders.ACCEPT, "text/csv")
+                .exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    @Test
+    void getActiveDeals_GroupedWithFilters_ReturnsGroupedPage() throws Exception {
+        RestaurantDealsResponse restaurant = new RestaurantDealsResponse();
+        restaurant.setRestaurantObjectId("r1");
+        restaurant.setDeals(List.of());
+        when(restaurantDealsService.queryRenderedActiveDealsAtTime(eq("5:00pm"), any(DealQuery.class),
+                eq(WireFormat.JSON), eq(DealsShape.GROUPED)))
+                .thenReturn(Mono.just(rendered(new GroupedDealsResponse(List.of(restaurant), null))));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("suburb", "Sub")
+                        .queryParam("shape", "grouped")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.restaurants[0].restaurantObjectId").isEqualTo("r1")
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void getActiveDeals_Failure_InvalidShape() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals").queryParam("timeOfDay", "5:00pm").queryParam("shape", "nested").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo(MSG_INVALID_SHAPE);
+    }
+
+    @Test
+    void getActiveDealsBatch_HappyPath() {
+        when(restaurantDealsService.getActiveDealsAtTimes(argThat(request -> request != null
+                && List.of("9:00am", "5:00pm").equals(request.getTimes()) && Boolean.TRUE.equals(request.getLightning()))))
+                .thenReturn(Mono.just(new DealBatchResponse(Map.of("5:00pm", List.of(validDeal())))));
+
+        webTestClient.post().uri("/api/deals/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("times", List.of("9:00am", "5:00pm"), "lightning", true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals['5:00pm'][0].dealObjectId").isEqualTo("d1");
+    }
+
+    @Test
+    void getNearbyDeals_HappyPath() {
+        ActiveDealResponse deal = validDeal();
+        deal.setDistanceKm(1.25);
+        when(restaurantDealsService.queryNearbyDealsAtTime(eq("5:00pm"), eq(-37.8), eq(144.96), eq(2.0),
+                argThat((DealQuery query) -> Boolean.TRUE.equals(query.getDineIn()) && query.getLimit() == 10)))
+                .thenReturn(Mono.just(new DealPageResponse(List.of(deal), null)));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/nearby")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("lat", "-37.8")
+                        .queryParam("lon", "144.96")
+                        .queryParam("radiusKm", "2")
+                        .queryParam("dineIn", "true")
+                        .queryParam("limit", "10")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals[0].dealObjectId").isEqualTo("d1")
+                .jsonPath("$.deals[0].distanceKm").isEqualTo(1.25)
+                .jsonPath("$.deals[0].approximateLocation").doesNotExist()
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void getNearbyDeals_Failure_MalformedLocation() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/nearby")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("lat", "north")
+                        .queryParam("lon", "144.96")
+                        .queryParam("radiusKm", "2")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.lat").isEqualTo(MSG_INVALID_PARAMETER + "lat");
+    }
+
+    @Test
+    void getTimeline_DefaultResolution() {
+        when(restaurantDealsService.getTimeline("15m", "lightning")).thenReturn(Mono.just(new TimelineResponse("15m",
+                "lightning", List.of(new TimelineResponse.Series("true",
+                        List.of(new TimelineResponse.Point("12:00AM", 0, 0), new TimelineResponse.Point("12:15AM", 3, 2)))))));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/timeline").queryParam("groupBy", "lightning").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.resolution").isEqualTo("15m")
+                .jsonPath("$.series[0].group").isEqualTo("true")
+                .jsonPath("$.series[0].points[1].deals").isEqualTo(3)
+                .jsonPath("$.series[0].points[1].restaurants").isEqualTo(2);
+    }
+
+    @Test
+    void getActiveDeals_Failure_MalformedFilter() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("limit", "ten")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getActiveDeals_Failure_MalformedBoolean() {
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals")
+                        .queryParam("timeOfDay", "5:00pm")
+                        .queryParam("dineIn", "maybe")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.dineIn").isEqualTo(MSG_INVALID_PARAMETER + "dineIn");
+    }
+
+    @Test
+    void getActiveDealsBatch_Failure_MalformedBody() {
+        webTestClient.post().uri("/api/deals/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"times\": [")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo(MSG_INVALID_BODY);
     }
 
     @Test
@@ -96,6 +369,20 @@ class RestaurantDealsControllerTest {
                 .expectStatus().isNoContent();
     }
 
+    private RenderedDeals rendered() throws Exception {
+        return rendered(Map.of("deals", List.of(validDeal())));
+    }
+
+    static PayloadCompressor compressor() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new PayloadCompressor(new DealsPipelineMetrics(meterRegistry, 1.0), meterRegistry,
+                true, DataSize.ofBytes(0), 6, 5);
+    }
+
+    private RenderedDeals rendered(Object payload) throws Exception {
+        return new RenderedDeals(new ObjectMapper().writeValueAsBytes(payload), "\"v1\"");
+    }
+
     private ActiveDealResponse validDeal() {
         ActiveDealResponse d = new ActiveDealResponse();
         d.setRestaurantObjectId("r1");
@@ -6,14 +6,24 @@ import jakarta.validation.Path;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MethodNotAllowedException;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebInputException;
-import org.springframework.web.servlet.NoHandlerFoundException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
 
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -51,6 +61,48 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsEntry("error", "Invalid format");
     }
 
+    @Test
+    void handleInvalidDealQuery() {
+        // Arrange
+        InvalidDealQueryException ex = new InvalidDealQueryException("Invalid sort");
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleInvalidDealQuery(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("error", "Invalid sort");
+    }
+
+    @Test
+    void handleMissingParam_TypeMismatch() throws NoSuchMethodException {
+        // Arrange
+        MethodParameter parameter = parameter("dineIn");
+        ServerWebInputException ex = new ServerWebInputException("Type mismatch.", parameter,
+                new TypeMismatchException("maybe", Boolean.class));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleMissingParam(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("dineIn", "Invalid value for parameter dineIn");
+    }
+
+    @Test
+    void handleMissingParam_UnreadableBody() throws NoSuchMethodException {
+        // Arrange
+        ServerWebInputException ex = new ServerWebInputException("Failed to read HTTP message", parameter("body"),
+                new DecodingException("bad json"));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleMissingParam(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).containsEntry("error", "Malformed request body");
+    }
+
     @Test
     void handleRestaurantServiceUnavailable() {
         // Arrange
@@ -78,18 +130,60 @@ class GlobalExceptionHandlerTest {
     }
 
     @Test
-    void handleNotFound() {
+    void handleResponseStatus_NotFound() {
         // Arrange
-        NoHandlerFoundException ex = new NoHandlerFoundException("GET", "/unknown", new HttpHeaders());
+        ResponseStatusException ex = new ResponseStatusException(HttpStatus.NOT_FOUND);
 
         // Act
-        ResponseEntity<Map<String, String>> response = handler.handleNotFound(ex);
+        ResponseEntity<Map<String, String>> response = handler.handleResponseStatus(ex);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
         assertThat(response.getBody()).containsEntry("error", "Resource not found");
     }
 
+    @Test
+    void handleResponseStatus_MethodNotAllowed() {
+        // Arrange
+        ResponseStatusException ex = new ResponseStatusException(HttpStatus.METHOD_NOT_ALLOWED, "Request method 'PUT' is not supported.");
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleResponseStatus(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        assertThat(response.getBody()).containsEntry("error", "Request method 'PUT' is not supported.");
+    }
+
+    @Test
+    void handleResponseStatus_MethodNotAllowed_KeepsAllowHeader() {
+        // Arrange
+        MethodNotAllowedException ex = new MethodNotAllowedException(HttpMethod.PUT,
+                Set.of(HttpMethod.GET, HttpMethod.POST));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleResponseStatus(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.METHOD_NOT_ALLOWED);
+        assertThat(response.getHeaders().getAllow()).containsExactlyInAnyOrder(HttpMethod.GET, HttpMethod.POST);
+        assertThat(response.getBody()).containsKey("error");
+    }
+
+    @Test
+    void handleResponseStatus_UnsupportedMediaType_KeepsAcceptHeader() {
+        // Arrange
+        UnsupportedMediaTypeStatusException ex = new UnsupportedMediaTypeStatusException(MediaType.TEXT_PLAIN,
+                List.of(MediaType.APPLICATION_JSON));
+
+        // Act
+        ResponseEntity<Map<String, String>> response = handler.handleResponseStatus(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        assertThat(response.getHeaders().getAccept()).containsExactly(MediaType.APPLICATION_JSON);
+    }
+
     @Test
     void handleValidationErrors() {
         // Arrange
@@ -138,4 +232,22 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody()).containsEntry("error", "Some other error");
     }
+
+    private static MethodParameter parameter(String name) throws NoSuchMethodException {
+        Method method = name.equals("body")
+                ? Endpoints.class.getDeclaredMethod("post", String.class)
+                : Endpoints.class.getDeclaredMethod("get", Boolean.class);
+        MethodParameter parameter = new MethodParameter(method, 0);
+        parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+        return parameter;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Endpoints {
+        void get(@RequestParam Boolean dineIn) {
+        }
+
+        void post(@RequestBody String body) {
+        }
+    }
 }
@@ -1,24 +1,56 @@
 package com.customer.restaurantdeals.integration;
 
+import com.aayushatharva.brotli4j.decoder.Decoder;
 import com.customer.restaurantdeals.RestaurantDealsApplication;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.RestaurantFeedCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.netty.http.client.HttpClient;
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_INVALID_RADIUS;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.UPSTREAM_RESTAURANT_FEED;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(
         classes = RestaurantDealsApplication.class,
         webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+@AutoConfigureObservability
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class RestaurantDealsIntegrationTest {
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RestaurantFeedCache feedCache;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
     private WireMockServer wireMockServer;
 
     @BeforeAll
@@ -37,6 +69,8 @@ class RestaurantDealsIntegrationTest {
     @BeforeEach
     void resetWireMock() {
         wireMockServer.resetAll();
+        feedCache.invalidate();
+        circuitBreakerRegistry.circuitBreaker(UPSTREAM_RESTAURANT_FEED).reset();
     }
 
     @Test
@@ -57,6 +91,197 @@ class RestaurantDealsIntegrationTest {
                 .jsonPath("$.deals").isArray();
     }
 
+    @Test
+    void getActiveDeals_ShouldNegotiateBinaryFormats() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+        ObjectMapper json = new ObjectMapper();
+
+        byte[] flat = webTestClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        byte[] cbor = webTestClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        byte[] smilePage = webTestClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm&limit=1&shape=grouped")
+                .accept(WireFormat.SMILE.getMediaType())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(WireFormat.SMILE.getMediaType())
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertEquals(json.readTree(flat), WireFormat.CBOR.mapperFrom(json).readTree(cbor));
+        JsonNode page = WireFormat.SMILE.mapperFrom(json).readTree(smilePage);
+        assertEquals(json.readTree(flat).at("/deals/0/dealObjectId"), page.at("/restaurants/0/deals/0/dealObjectId"));
+        assertTrue(page.has("nextCursor"));
+    }
+
+    @Test
+    void getActiveDeals_ShouldServeCompressedBodies() throws Exception {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+        ObjectMapper json = new ObjectMapper();
+        // The default test client inflates responses and drops Content-Encoding, this one doesn't
+        WebTestClient rawClient = WebTestClient
+                .bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+                .baseUrl("http://localhost:" + port)
+                .build();
+
+        byte[] plain = rawClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        byte[] gzip = rawClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        byte[] br = rawClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0.8, br")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "br")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        // Not cached, so compressed by the server on the fly
+        byte[] page = rawClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm&limit=1")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        assertArrayEquals(plain, new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes());
+        assertArrayEquals(plain, Decoder.decompress(br).getDecompressedData());
+        assertEquals(json.readTree(plain).at("/deals/0"),
+                json.readTree(new GZIPInputStream(new ByteArrayInputStream(page))).at("/deals/0"));
+    }
+
+    @Test
+    void streamActiveDeals_ShouldWriteOneDealPerLine() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+
+        String body = webTestClient.get()
+                .uri("/api/deals?timeOfDay=12:00pm")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        String[] lines = body.strip().split("\n");
+        assertEquals(2, lines.length);
+        for (String line : lines) {
+            assertTrue(line.startsWith("{\"restaurantObjectId\""));
+        }
+    }
+
+    @Test
+    void getActiveDealsBatch_ShouldReturnDealsPerTime() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+
+        webTestClient.post()
+                .uri("/api/deals/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"times\": [\"12:00pm\", \"3:00am\"]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals['12:00pm'].length()").isEqualTo(2)
+                .jsonPath("$.deals['3:00am'].length()").isEqualTo(0);
+
+        webTestClient.post()
+                .uri("/api/deals/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"times\": ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNearbyDeals_ShouldLocateRestaurantsBySuburbCentroid() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/nearby")
+                        .queryParam("timeOfDay", "12:00pm")
+                        .queryParam("lat", "-37.82")
+                        .queryParam("lon", "144.9631")
+                        .queryParam("radiusKm", "1")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deals.length()").isEqualTo(2)
+                .jsonPath("$.deals[0].distanceKm").isEqualTo(0.712)
+                .jsonPath("$.deals[0].approximateLocation").isEqualTo(true);
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/deals/nearby")
+                        .queryParam("timeOfDay", "12:00pm")
+                        .queryParam("lat", "-37.82")
+                        .queryParam("lon", "144.9631")
+                        .queryParam("radiusKm", "500")
+                        .build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo(MSG_INVALID_RADIUS + "50");
+    }
+
+    @Test
+    void getActiveDeals_ShouldReturnNotModifiedForMatchingETag() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+
+        String eTag = webTestClient.get()
+                .uri("/api/deals?timeOfDay=10:00am")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/api/deals?timeOfDay=10:00am")
+                .header("If-None-Match", eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
     @Test
     void getActiveDeals_ShouldReturnBadRequestForInvalidTime() {
         webTestClient.get()
@@ -78,8 +303,115 @@ class RestaurantDealsIntegrationTest {
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody()
-                .jsonPath("$.peakTimeStart").exists()
-                .jsonPath("$.peakTimeEnd").exists();
+                .jsonPath("$.peakTimeStart").isEqualTo("11:00AM")
+                .jsonPath("$.peakTimeEnd").isEqualTo("2:00PM")
+                .jsonPath("$.activeDeals").isEqualTo(2);
+    }
+
+    @Test
+    void getActiveDeals_ShouldRetryTransientUpstreamFault() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .inScenario("flaky").whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER))
+                .willSetStateTo("recovered"));
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .inScenario("flaky").whenScenarioStateIs("recovered")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+
+        webTestClient.get()
+                .uri("/api/deals?timeOfDay=5:00pm")
+                .exchange()
+                .expectStatus().isOk();
+
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo("/misc/challengedata.json")));
+    }
+
+    @Test
+    void getActiveDeals_ShouldFailFastOnceCircuitIsOpen() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse().withStatus(503)));
+
+        // Each request makes three attempts; the fourth failure opens the circuit
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get()
+                    .uri("/api/deals?timeOfDay=5:00pm")
+                    .exchange()
+                    .expectStatus().isEqualTo(503);
+        }
+        int upstreamCalls = wireMockServer.getAllServeEvents().size();
+
+        webTestClient.get()
+                .uri("/api/deals?timeOfDay=5:00pm")
+                .exchange()
+                .expectStatus().isEqualTo(503);
+
+        assertEquals(upstreamCalls, wireMockServer.getAllServeEvents().size());
+        webTestClient.get()
+                .uri("/actuator/circuitbreakers")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.circuitBreakers.restaurantFeed.state").isEqualTo("OPEN");
+    }
+
+    @Test
+    void prometheus_ShouldExposePipelineStageHistograms() {
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+        webTestClient.get()
+                .uri("/api/deals?timeOfDay=5:00pm")
+                .exchange()
+                .expectStatus().isOk();
+
+        String scrape = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(scrape.contains("restaurantdeals_pipeline_stage_seconds_bucket{"));
+        assertTrue(scrape.contains("endpoint=\"deals\",stage=\"lookup\""));
+        assertTrue(scrape.contains("restaurantdeals_feed_body_size_bytes_count"));
+        assertTrue(scrape.contains("restaurantdeals_feed_snapshot_deals"));
+    }
+
+    @Test
+    void readiness_ShouldWaitForFeedSnapshot() {
+        webTestClient.get()
+                .uri("/actuator/health/readiness")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.components.feedSnapshot.status").isEqualTo("OUT_OF_SERVICE");
+
+        wireMockServer.stubFor(get(urlEqualTo("/misc/challengedata.json"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBodyFile("sample-restaurant-response.json")));
+        webTestClient.get()
+                .uri("/api/deals?timeOfDay=5:00pm")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/actuator/health/readiness")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.components.feedSnapshot.details.source").isEqualTo("upstream");
+        webTestClient.get()
+                .uri("/actuator/health/liveness")
+                .exchange()
+                .expectStatus().isOk();
     }
 
     @Test
@@ -87,6 +419,8 @@ class RestaurantDealsIntegrationTest {
         webTestClient.get()
                 .uri("/api/unknown")
                 .exchange()
-                .expectStatus().isNotFound();
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Resource not found");
     }
 }
@@ -1,11 +1,16 @@
 package com.customer.restaurantdeals.mapper;
 
 import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealResponse;
+import com.customer.restaurantdeals.dto.RestaurantDealsResponse;
 import com.customer.restaurantdeals.model.Deal;
 import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealStore;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ActiveDealResponseMapperTest {
@@ -44,6 +49,82 @@ class ActiveDealResponseMapperTest {
         assertEquals(5, response.getQtyLeft());
     }
 
+    @Test
+    void toResponse_FromDealStore_MatchesObjectMapping() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId("r1");
+        restaurant.setRestaurantName("KFC");
+        restaurant.setRestaurantAddress1("address");
+        restaurant.setRestaurantSuburb("suburb");
+        restaurant.setRestaurantOpen(LocalTime.of(9, 0));
+
+        Deal deal = new Deal();
+        deal.setDealObjectId("d1");
+        deal.setDiscount("10%");
+        deal.setLightning(true);
+        deal.setQtyLeft(5);
+        restaurant.setDeals(List.of(deal));
+
+        ActiveDealResponse response = mapper.toResponse(DealStore.of(List.of(restaurant)), 0);
+
+        assertEquals(mapper.toResponse(restaurant, deal), response);
+        assertNull(response.getRestaurantClose());
+    }
+
+    @Test
+    void toRestaurantResponse_NestsDealsUnderRestaurant() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId("r1");
+        restaurant.setRestaurantName("KFC");
+        restaurant.setRestaurantOpen(LocalTime.of(9, 0));
+        restaurant.setRestaurantClose(LocalTime.of(18, 0));
+        List<Deal> deals = new ArrayList<>();
+        for (String id : List.of("d1", "d2", "d3")) {
+            Deal deal = new Deal();
+            deal.setDealObjectId(id);
+            deal.setDiscount("10%");
+            deal.setDineIn(true);
+            deal.setQtyLeft(2);
+            deals.add(deal);
+        }
+        restaurant.setDeals(deals);
+        DealStore store = DealStore.of(List.of(restaurant));
+
+        RestaurantDealsResponse response = mapper.toRestaurantResponse(store, new int[]{0, 2}, 0, 2);
+
+        assertEquals("r1", response.getRestaurantObjectId());
+        assertEquals("KFC", response.getRestaurantName());
+        assertEquals("9:00am", response.getRestaurantOpen());
+        assertEquals("6:00pm", response.getRestaurantClose());
+        assertEquals(List.of("d1", "d3"), response.getDeals().stream().map(DealResponse::getDealObjectId).toList());
+        ActiveDealResponse flat = mapper.toResponse(store, 2);
+        DealResponse nested = response.getDeals().get(1);
+        assertEquals(flat.getDiscount(), nested.getDiscount());
+        assertEquals(flat.isDineIn(), nested.isDineIn());
+        assertEquals(flat.isLightning(), nested.isLightning());
+        assertEquals(flat.getQtyLeft(), nested.getQtyLeft());
+    }
+
+    @Test
+    void toResponse_StaleRow_Flagged() {
+        Restaurant east = new Restaurant();
+        east.setRestaurantObjectId("r1");
+        Deal fresh = new Deal();
+        fresh.setDealObjectId("d1");
+        east.setDeals(List.of(fresh));
+        Restaurant west = new Restaurant();
+        west.setRestaurantObjectId("r2");
+        Deal stale = new Deal();
+        stale.setDealObjectId("d2");
+        west.setDeals(List.of(stale));
+        DealStore store = DealStore.merge(List.of(DealStore.of(List.of(east)), DealStore.of(List.of(west))),
+                new boolean[]{false, true});
+
+        assertNull(mapper.toResponse(store, 0).getStale());
+        assertEquals(Boolean.TRUE, mapper.toResponse(store, 1).getStale());
+        assertEquals(Boolean.TRUE, mapper.toRestaurantResponse(store, new int[]{1}, 0, 1).getDeals().get(0).getStale());
+    }
+
     @Test
     void mapLocalTimeToString_Null_ReturnsNull() {
         assertNull(mapper.mapLocalTimeToString(null));
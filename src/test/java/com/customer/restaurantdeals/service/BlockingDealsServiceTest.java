@@ -0,0 +1,94 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.exception.InvalidTimeFormatException;
+import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlockingDealsServiceTest {
+
+    private static final String FEED = """
+            {"restaurants":[{"objectId":"r1","suburb":"CBD","open":"10:00am","close":"4:00pm",
+              "deals":[{"objectId":"d1","open":"10:00am","close":"3:00pm","qtyLeft":5},
+                       {"objectId":"d2","lightning":"true","qtyLeft":2}]}]}""";
+
+    private HttpStatus upstreamStatus;
+    private BlockingDealsService service;
+
+    @BeforeEach
+    void setUp() {
+        upstreamStatus = HttpStatus.OK;
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(upstreamStatus)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(upstreamStatus.is2xxSuccessful() ? FEED : "")
+                        .build()))
+                .build();
+
+        ActiveDealResponseMapper mapper = mock(ActiveDealResponseMapper.class);
+        when(mapper.toResponse(any(DealStore.class), anyInt())).thenAnswer(invocation -> {
+            ActiveDealResponse response = new ActiveDealResponse();
+            response.setDealObjectId(invocation.<DealStore>getArgument(0).dealId(invocation.getArgument(1)));
+            return response;
+        });
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        RestaurantFeedCache feedCache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(objectMapper),
+                new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry(),
+                        0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO),
+                new SimpleMeterRegistry(),
+                Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(10));
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(new SimpleMeterRegistry(), 1.0);
+        DealsResponseCache responseCache = new DealsResponseCache(objectMapper, new SimpleMeterRegistry(), metrics);
+        service = new BlockingDealsService(new RestaurantDealsService(feedCache, responseCache, mapper, metrics,
+                4, 6, 50, Sharding.SEQUENTIAL, SuburbCentroids.EMPTY), feedCache);
+    }
+
+    @Test
+    void getActiveDealsAtTime_MatchesReactiveLookup() {
+        List<ActiveDealResponse> deals = service.getActiveDealsAtTime("11:00am");
+
+        assertEquals(List.of("d1", "d2"), deals.stream().map(ActiveDealResponse::getDealObjectId).toList());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_AppliesFilters() {
+        DealQuery query = new DealQuery();
+        query.setLightning(true);
+
+        assertEquals("d2", service.queryActiveDealsAtTime("3:30pm", query).getDeals().get(0).getDealObjectId());
+    }
+
+    @Test
+    void getActiveDealsAtTime_InvalidTime_Throws() {
+        assertThrows(InvalidTimeFormatException.class, () -> service.getActiveDealsAtTime("25:00pm"));
+    }
+
+    @Test
+    void getActiveDealsAtTime_UpstreamDown_Throws() {
+        upstreamStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        assertThrows(RestaurantServiceUnavailableException.class, () -> service.getActiveDealsAtTime("11:00am"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.DealChangeEvent;
+import com.customer.restaurantdeals.dto.DealChangeEvent.Type;
+import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import reactor.core.publisher.Mono;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.METRIC_LIVE_EVENTS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DealChangeFeedTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ActiveDealResponseMapper mapper = spy(Mappers.getMapper(ActiveDealResponseMapper.class));
+    private final RestaurantFeedCache feedCache = mock(RestaurantFeedCache.class);
+    private Instant now = MIDNIGHT;
+    private DealChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        changeFeed = new DealChangeFeed(feedCache, mapper, meterRegistry, 16, clock);
+    }
+
+    @Test
+    void advance_MinuteTransitions_PublishActivatedAndExpired() {
+        FeedSnapshot snapshot = snapshot(1, restaurant("r1", "CBD", deal("d1", 5, false, 10, 11)));
+        List<DealChangeEvent> events = subscribe(snapshot, 9, 59);
+
+        at(10, 0);
+        changeFeed.advance(snapshot);
+        at(10, 30);
+        changeFeed.advance(snapshot);
+        at(11, 1);
+        changeFeed.advance(snapshot);
+
+        assertEquals(List.of(Type.ACTIVATED, Type.EXPIRED), events.stream().map(DealChangeEvent::getType).toList());
+        assertEquals("d1", events.get(0).getDeal().getDealObjectId());
+        assertEquals(2.0, meterRegistry.counter(METRIC_LIVE_EVENTS).count());
+    }
+
+    @Test
+    void advance_NewSnapshot_DiffedByDealId() {
+        FeedSnapshot first = snapshot(1,
+                restaurant("r1", "CBD", deal("d1", 5, false, 9, 17), deal("d2", 3, false, 9, 17)));
+        FeedSnapshot second = snapshot(2,
+                restaurant("r0", "CBD", deal("d9", 1, false, 9, 17)),
+                restaurant("r1", "CBD", deal("d1", 4, false, 9, 17)));
+        List<DealChangeEvent> events = subscribe(first, 12, 0);
+
+        changeFeed.advance(second);
+        // An older snapshot arriving late is ignored
+        changeFeed.advance(first);
+
+        assertEquals(3, events.size());
+        assertEquals(Type.ACTIVATED, events.get(0).getType());
+        assertEquals("d9", events.get(0).getDeal().getDealObjectId());
+        assertEquals(Type.QTY_CHANGED, events.get(1).getType());
+        assertEquals(4, events.get(1).getDeal().getQtyLeft());
+        assertEquals(5, events.get(1).getPreviousQtyLeft());
+        assertEquals(Type.EXPIRED, events.get(2).getType());
+        assertEquals("d2", events.get(2).getDeal().getDealObjectId());
+    }
+
+    @Test
+    void subscribe_Filter_AppliedPerSubscriber_ComputedOnce() {
+        FeedSnapshot snapshot = snapshot(1,
+                restaurant("r1", "CBD", deal("d1", 5, true, 10, 11)),
+                restaurant("r2", "Richmond", deal("d2", 5, false, 10, 11)));
+        List<DealChangeEvent> all = subscribe(snapshot, 9, 0);
+        List<DealChangeEvent> lightning = new CopyOnWriteArrayList<>();
+        List<DealChangeEvent> richmond = new CopyOnWriteArrayList<>();
+        changeFeed.subscribe(DealChangeFeed.filter(null, null, true)).subscribe(lightning::add);
+        changeFeed.subscribe(DealChangeFeed.filter("richmond", null, null)).subscribe(richmond::add);
+        clearInvocations(mapper);
+
+        at(10, 0);
+        changeFeed.advance(snapshot);
+
+        assertEquals(2, all.size());
+        assertEquals(List.of("d1"), lightning.stream().map(e -> e.getDeal().getDealObjectId()).toList());
+        assertEquals(List.of("d2"), richmond.stream().map(e -> e.getDeal().getDealObjectId()).toList());
+        verify(mapper, times(2)).toResponse(any(DealStore.class), anyInt());
+    }
+
+    @Test
+    void subscribe_FirstSubscriber_EstablishesBaselineWithoutEvents() {
+        FeedSnapshot snapshot = snapshot(1, restaurant("r1", "CBD", deal("d1", 5, false, 10, 11)));
+        at(10, 15);
+        when(feedCache.getSnapshot()).thenReturn(Mono.just(snapshot));
+        List<DealChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        changeFeed.subscribe(deal -> true).subscribe(events::add);
+        at(11, 1);
+        changeFeed.advance(snapshot);
+
+        assertEquals(List.of(Type.EXPIRED), events.stream().map(DealChangeEvent::getType).toList());
+    }
+
+    private List<DealChangeEvent> subscribe(FeedSnapshot baseline, int hour, int minute) {
+        at(hour, minute);
+        changeFeed.advance(baseline);
+        List<DealChangeEvent> events = new CopyOnWriteArrayList<>();
+        changeFeed.subscribe(deal -> true).subscribe(events::add);
+        return events;
+    }
+
+    private void at(int hour, int minute) {
+        now = MIDNIGHT.plusSeconds(hour * 3600L + minute * 60L);
+    }
+
+    private static FeedSnapshot snapshot(long version, Restaurant... restaurants) {
+        return new FeedSnapshot(version, MIDNIGHT, List.of(restaurants));
+    }
+
+    private static Restaurant restaurant(String id, String suburb, Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantSuburb(suburb);
+        restaurant.setRestaurantOpen(LocalTime.of(8, 0));
+        restaurant.setRestaurantClose(LocalTime.of(22, 0));
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static Deal deal(String id, int qtyLeft, boolean lightning, int openHour, int closeHour) {
+        Deal deal = new Deal();
+        deal.setDealObjectId(id);
+        deal.setQtyLeft(qtyLeft);
+        deal.setLightning(lightning);
+        deal.setOpen(LocalTime.of(openHour, 0));
+        deal.setClose(LocalTime.of(closeHour, 0));
+        return deal;
+    }
+}
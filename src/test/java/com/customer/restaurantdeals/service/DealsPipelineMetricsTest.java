@@ -0,0 +1,45 @@
+package com.customer.restaurantdeals.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.METRIC_PIPELINE_STAGE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealsPipelineMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void record_TimesStagePerEndpoint() {
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(meterRegistry, 1.0);
+
+        assertEquals("done", metrics.record(DealsPipelineMetrics.STAGE_LOOKUP, "deals", () -> "done"));
+        metrics.record(DealsPipelineMetrics.STAGE_LOOKUP, "deals", () -> 1);
+        metrics.record(DealsPipelineMetrics.STAGE_MAPPING, "deals", () -> 1);
+
+        assertEquals(2, meterRegistry.get(METRIC_PIPELINE_STAGE)
+                .tags("stage", "lookup", "endpoint", "deals").timer().count());
+        assertEquals(1, meterRegistry.get(METRIC_PIPELINE_STAGE)
+                .tags("stage", "mapping", "endpoint", "deals").timer().count());
+    }
+
+    @Test
+    void record_SampleRateZero_RunsWorkWithoutTiming() {
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(meterRegistry, 0.0);
+
+        assertEquals("done", metrics.record(DealsPipelineMetrics.STAGE_LOOKUP, "deals", () -> "done"));
+
+        assertNull(meterRegistry.find(METRIC_PIPELINE_STAGE).timer());
+    }
+
+    @Test
+    void record_WorkFails_StillTimed() {
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(meterRegistry, 1.0);
+
+        assertThrows(IllegalStateException.class, () -> metrics.record(DealsPipelineMetrics.STAGE_MAPPING, "deals",
+                () -> { throw new IllegalStateException(); }));
+
+        assertEquals(1, meterRegistry.get(METRIC_PIPELINE_STAGE).timer().count());
+    }
+}
@@ -0,0 +1,136 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import com.customer.restaurantdeals.dto.DealsShape;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.service.DealsResponseCache.RenderedDeals;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealsResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DealsResponseCache cache = new DealsResponseCache(new ObjectMapper(), meterRegistry,
+            new DealsPipelineMetrics(meterRegistry, 1.0));
+
+    @Test
+    void get_SameSnapshotAndMinute_RendersOnce() {
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.now(), List.of());
+        AtomicInteger renders = new AtomicInteger();
+
+        RenderedDeals first = cache.get(snapshot, 600, () -> { renders.incrementAndGet(); return List.of(deal("d1")); });
+        RenderedDeals second = cache.get(snapshot, 600, () -> { renders.incrementAndGet(); return List.of(deal("d1")); });
+
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertTrue(new String(first.getBody(), StandardCharsets.UTF_8).startsWith("{\"deals\":[{"));
+    }
+
+    @Test
+    void get_NewSnapshot_RendersAgain() {
+        RenderedDeals first = cache.get(new FeedSnapshot(1, Instant.now(), List.of()), 600, () -> List.of(deal("d1")));
+        RenderedDeals second = cache.get(new FeedSnapshot(2, Instant.now(), List.of()), 600, () -> List.of(deal("d2")));
+
+        assertNotSame(first, second);
+        assertNotEquals(first.getETag(), second.getETag());
+    }
+
+    @Test
+    void get_IdenticalContent_SameETag() {
+        RenderedDeals first = cache.get(new FeedSnapshot(1, Instant.now(), List.of()), 600, () -> List.of(deal("d1")));
+        RenderedDeals second = cache.get(new FeedSnapshot(2, Instant.now(), List.of()), 600, () -> List.of(deal("d1")));
+
+        assertEquals(first.getETag(), second.getETag());
+    }
+
+    @Test
+    void get_Miss_RecordsSerializationAndEntries() {
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.now(), List.of());
+        cache.get(snapshot, 600, () -> List.of(deal("d1")));
+        cache.get(snapshot, 600, () -> List.of(deal("d1")));
+        cache.get(snapshot, 601, () -> List.of());
+
+        assertEquals(2.0, meterRegistry.get(METRIC_RESPONSE_CACHE_SIZE).gauge().value());
+        assertEquals(2, meterRegistry.get(METRIC_PIPELINE_STAGE).tag("stage", "serialization").timer().count());
+        assertEquals(2, meterRegistry.get(METRIC_RESPONSE_SIZE).summary().count());
+
+        cache.get(new FeedSnapshot(2, Instant.now(), List.of()), 600, () -> List.of());
+        assertEquals(1.0, meterRegistry.get(METRIC_RESPONSE_CACHE_SIZE).gauge().value());
+    }
+
+    @Test
+    void get_FormatsAndShapes_CachedSeparately() throws Exception {
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.now(), List.of());
+        Map<String, List<ActiveDealResponse>> payload = Map.of(DEALS, List.of(deal("d1")));
+
+        RenderedDeals json = cache.get(snapshot, 600, () -> List.of(deal("d1")));
+        RenderedDeals cbor = cache.get(snapshot, 600, WireFormat.CBOR, DealsShape.FLAT, () -> payload);
+        RenderedDeals smile = cache.get(snapshot, 600, WireFormat.SMILE, DealsShape.FLAT, () -> payload);
+        RenderedDeals grouped = cache.get(snapshot, 600, WireFormat.JSON, DealsShape.GROUPED, () -> Map.of());
+
+        assertSame(cbor, cache.get(snapshot, 600, WireFormat.CBOR, DealsShape.FLAT, () -> fail("cached")));
+        assertEquals(MediaType.APPLICATION_JSON, json.getContentType());
+        assertEquals(MediaType.APPLICATION_CBOR, cbor.getContentType());
+        assertEquals(WireFormat.SMILE.getMediaType(), smile.getContentType());
+        assertEquals("{}", new String(grouped.getBody(), StandardCharsets.UTF_8));
+        assertNotEquals(json.getETag(), cbor.getETag());
+        assertEquals(new ObjectMapper().readTree(json.getBody()),
+                WireFormat.CBOR.mapperFrom(new ObjectMapper()).readTree(cbor.getBody()));
+        assertEquals(new ObjectMapper().readTree(json.getBody()),
+                WireFormat.SMILE.mapperFrom(new ObjectMapper()).readTree(smile.getBody()));
+        assertEquals(4.0, meterRegistry.get(METRIC_RESPONSE_CACHE_SIZE).gauge().value());
+        assertEquals(1, meterRegistry.get(METRIC_RESPONSE_SIZE).tag("format", "cbor").summary().count());
+    }
+
+    @Test
+    void get_WithCompressor_CompressesCachedPayloadOnce() throws Exception {
+        PayloadCompressor compressor = new PayloadCompressor(new DealsPipelineMetrics(meterRegistry, 1.0),
+                meterRegistry, true, DataSize.ofBytes(0), 6, 5);
+        DealsResponseCache compressing = new DealsResponseCache(new ObjectMapper(), meterRegistry,
+                new DealsPipelineMetrics(meterRegistry, 1.0), compressor);
+        FeedSnapshot snapshot = new FeedSnapshot(1, Instant.now(), List.of());
+
+        RenderedDeals rendered = compressing.get(snapshot, 600, () -> List.of(deal("d1")));
+        byte[] gzip = rendered.getEncodedBody(ContentCoding.GZIP);
+
+        assertTrue(rendered.isEncodable(ContentCoding.GZIP));
+        assertSame(gzip, compressing.get(snapshot, 600, () -> fail("cached")).getEncodedBody(ContentCoding.GZIP));
+        assertArrayEquals(rendered.getBody(), new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes());
+        assertEquals(1, meterRegistry.get(METRIC_PIPELINE_STAGE).tag("stage", "compression").timer().count());
+        assertFalse(compressing.render(WireFormat.JSON, Map.of()).isEncodable(ContentCoding.GZIP));
+        assertFalse(cache.get(snapshot, 600, () -> List.of()).isEncodable(ContentCoding.GZIP));
+    }
+
+    @Test
+    void matches_IfNoneMatchVariants() {
+        RenderedDeals rendered = new RenderedDeals(new byte[0], "\"abc\"");
+
+        assertTrue(rendered.matches("\"abc\""));
+        assertTrue(rendered.matches("\"x\", W/\"abc\""));
+        assertTrue(rendered.matches("*"));
+        assertTrue(rendered.matches("\"abc-gzip\""));
+        assertFalse(rendered.matches("\"x\""));
+        assertFalse(rendered.matches(null));
+    }
+
+    private ActiveDealResponse deal(String id) {
+        ActiveDealResponse deal = new ActiveDealResponse();
+        deal.setDealObjectId(id);
+        return deal;
+    }
+}
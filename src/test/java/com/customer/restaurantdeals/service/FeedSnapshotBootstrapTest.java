@@ -0,0 +1,158 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SnapshotFile;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedSnapshotBootstrapTest {
+
+    private static final String FEED = """
+            {"restaurants":[{"objectId":"r1","open":"8:00am","close":"8:00pm","deals":[]}]}""";
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private Supplier<Mono<ClientResponse>> upstream;
+    private SimpleMeterRegistry meterRegistry;
+    private RestaurantFeedCache cache;
+    private Path file;
+    private FeedSnapshotBootstrap bootstrap;
+
+    @BeforeEach
+    void setUp() {
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    return upstream.get();
+                })
+                .build();
+        meterRegistry = new SimpleMeterRegistry();
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        cache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build()),
+                resilience, meterRegistry, Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(5),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        file = directory.resolve("snapshot").resolve("feed.bin");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bootstrap != null) {
+            bootstrap.stop();
+        }
+    }
+
+    @Test
+    void start_RestoresSavedSnapshotWhileUpstreamIsDown() throws IOException {
+        Files.createDirectories(file.getParent());
+        SnapshotFile.write(new FeedSnapshot(5, NOW.minus(Duration.ofHours(3)), List.of()), file);
+
+        start(true);
+
+        FeedSnapshot served = cache.getSnapshot().block();
+        assertEquals(5, served.getVersion());
+        assertTrue(cache.isRestored());
+        assertTrue(upstreamCalls.get() > 0);
+        assertEquals(1, meterRegistry.timer(METRIC_SNAPSHOT_FILE_READ).count());
+        assertNotNull(meterRegistry.find(METRIC_STARTUP_FIRST_SNAPSHOT).tag("source", "disk").timeGauge());
+    }
+
+    @Test
+    void start_NoFile_WarmsUpFromUpstreamAndSavesIt() throws IOException {
+        upstream = () -> Mono.just(ok(FEED));
+
+        start(true);
+
+        assertEquals(1, cache.peek().getVersion());
+        assertFalse(cache.isRestored());
+        assertNotNull(meterRegistry.find(METRIC_STARTUP_FIRST_SNAPSHOT).tag("source", "upstream").timeGauge());
+        FeedSnapshot saved = awaitSavedSnapshot();
+        assertEquals(1, saved.getVersion());
+        assertEquals("r1", saved.getDealStore().restaurantId(0));
+    }
+
+    @Test
+    void start_SnapshotPastMaxAge_Ignored() throws IOException {
+        Files.createDirectories(file.getParent());
+        SnapshotFile.write(new FeedSnapshot(5, NOW.minus(Duration.ofDays(2)), List.of()), file);
+
+        start(false);
+
+        assertNull(cache.peek());
+    }
+
+    @Test
+    void start_UnreadableFile_IgnoredAndCounted() throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "not a snapshot");
+
+        start(false);
+
+        assertNull(cache.peek());
+        assertEquals(1.0, meterRegistry.counter(METRIC_SNAPSHOT_FILE_FAILURES, "operation", "read").count());
+    }
+
+    @Test
+    void start_NoFileConfigured_OnlyWarmsUp() {
+        upstream = () -> Mono.just(ok(FEED));
+        bootstrap = new FeedSnapshotBootstrap(cache, Sharding.SEQUENTIAL, meterRegistry, null, Duration.ofHours(24),
+                true, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        bootstrap.start();
+
+        assertNotNull(cache.peek());
+        assertFalse(Files.exists(file));
+    }
+
+    private void start(boolean warmUp) {
+        bootstrap = new FeedSnapshotBootstrap(cache, Sharding.SEQUENTIAL, meterRegistry, file, Duration.ofHours(24),
+                warmUp, Clock.fixed(NOW, ZoneOffset.UTC));
+        bootstrap.start();
+    }
+
+    // Snapshots are saved off the calling thread
+    private FeedSnapshot awaitSavedSnapshot() throws IOException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        return SnapshotFile.read(file, Sharding.SEQUENTIAL);
+    }
+
+    private static ClientResponse ok(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
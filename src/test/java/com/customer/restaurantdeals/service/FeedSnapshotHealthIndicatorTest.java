@@ -0,0 +1,67 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedOrigin;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.FeedSource;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeedSnapshotHealthIndicatorTest {
+
+    private final RestaurantFeedCache feedCache = mock(RestaurantFeedCache.class);
+    private final FeedSnapshotHealthIndicator indicator = new FeedSnapshotHealthIndicator(feedCache);
+
+    @Test
+    void health_NoSnapshot_OutOfService() {
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    }
+
+    @Test
+    void health_RestoredSnapshot_Up() {
+        when(feedCache.peek()).thenReturn(new FeedSnapshot(3, Instant.parse("2025-01-01T10:00:00Z"), List.of()));
+        when(feedCache.hasUsableSnapshot()).thenReturn(true);
+        when(feedCache.isRestored()).thenReturn(true);
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(3L, health.getDetails().get("version"));
+        assertEquals("disk", health.getDetails().get("source"));
+    }
+
+    @Test
+    void health_PartlyStaleSnapshot_ListsUpstreams() {
+        Instant fetchedAt = Instant.parse("2025-01-01T10:00:00Z");
+        when(feedCache.peek()).thenReturn(FeedSnapshot.of(4, fetchedAt, List.of(
+                new FeedSource("east", DealStore.of(List.of()), FeedOrigin.UNKNOWN, fetchedAt, false),
+                FeedSource.empty("west")), Sharding.SEQUENTIAL));
+        when(feedCache.hasUsableSnapshot()).thenReturn(true);
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        Map<?, ?> upstreams = (Map<?, ?>) health.getDetails().get("upstreams");
+        assertEquals(List.of("east", "west"), List.copyOf(upstreams.keySet()));
+        assertEquals(false, ((Map<?, ?>) upstreams.get("east")).get("stale"));
+        assertEquals("2025-01-01T10:00:00Z", ((Map<?, ?>) upstreams.get("east")).get("fetchedAt"));
+        assertEquals(true, ((Map<?, ?>) upstreams.get("west")).get("stale"));
+    }
+
+    @Test
+    void health_SnapshotTooOld_OutOfService() {
+        when(feedCache.peek()).thenReturn(new FeedSnapshot(3, Instant.parse("2025-01-01T10:00:00Z"), List.of()));
+        when(feedCache.hasUsableSnapshot()).thenReturn(false);
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    }
+}
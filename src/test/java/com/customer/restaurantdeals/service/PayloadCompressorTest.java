@@ -0,0 +1,67 @@
+package com.customer.restaurantdeals.service;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.customer.restaurantdeals.dto.ContentCoding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.METRIC_RESPONSE_COMPRESSED_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCompressorTest {
+
+    private static final byte[] BODY = "{\"deals\":[{\"dealObjectId\":\"d1\"},{\"dealObjectId\":\"d2\"}]}"
+            .repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void compress_RoundTripsAndRecordsSize() throws Exception {
+        PayloadCompressor compressor = compressor(true, 1024);
+
+        byte[] gzip = compressor.compress(ContentCoding.GZIP, BODY);
+        byte[] br = compressor.compress(ContentCoding.BR, BODY);
+
+        assertArrayEquals(BODY, new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes());
+        assertArrayEquals(BODY, Decoder.decompress(br).getDecompressedData());
+        assertTrue(gzip.length < BODY.length / 10);
+        assertEquals(br.length, meterRegistry.get(METRIC_RESPONSE_COMPRESSED_SIZE).tag("encoding", "br")
+                .summary().totalAmount());
+    }
+
+    @Test
+    void supports_ThresholdAndSwitch() {
+        assertTrue(compressor(true, 1024).supports(ContentCoding.GZIP, 1024));
+        assertFalse(compressor(true, 1024).supports(ContentCoding.GZIP, 1023));
+        assertFalse(compressor(false, 0).supports(ContentCoding.BR, BODY.length));
+    }
+
+    @Test
+    void negotiate_QualitiesAndAvailability() {
+        PayloadCompressor compressor = compressor(true, 0);
+
+        assertEquals(ContentCoding.BR, ContentCoding.negotiate("gzip, deflate, br", coding -> true));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, br;q=0.5", coding -> true));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("br, gzip", coding -> coding == ContentCoding.GZIP));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("*, br;q=0", coding -> true));
+        assertNull(ContentCoding.negotiate("gzip;q=0.5, identity", coding -> true));
+        assertNull(ContentCoding.negotiate("deflate", coding -> true));
+        assertNull(ContentCoding.negotiate(null, coding -> true));
+        assertNull(ContentCoding.negotiate("gzip", coding -> compressor.supports(coding, -1)));
+    }
+
+    @Test
+    void constructor_InvalidLevel_Fails() {
+        assertThrows(IllegalArgumentException.class, () -> new PayloadCompressor(
+                new DealsPipelineMetrics(meterRegistry, 1.0), meterRegistry, true, DataSize.ofKilobytes(2), 10, 5));
+    }
+
+    private PayloadCompressor compressor(boolean enabled, long minSize) {
+        return new PayloadCompressor(new DealsPipelineMetrics(meterRegistry, 1.0), meterRegistry,
+                enabled, DataSize.ofBytes(minSize), 6, 5);
+    }
+}
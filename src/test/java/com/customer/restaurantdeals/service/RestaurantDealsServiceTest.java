@@ -1,52 +1,117 @@
 package com.customer.restaurantdeals.service;
 
 import com.customer.restaurantdeals.dto.ActiveDealResponse;
+import com.customer.restaurantdeals.dto.DealBatchRequest;
+import com.customer.restaurantdeals.dto.DealBatchResponse;
+import com.customer.restaurantdeals.dto.DealPageResponse;
+import com.customer.restaurantdeals.dto.DealQuery;
+import com.customer.restaurantdeals.dto.DealsShape;
 import com.customer.restaurantdeals.dto.PeakTimeResponse;
+import com.customer.restaurantdeals.dto.TimelineResponse;
+import com.customer.restaurantdeals.dto.WireFormat;
+import com.customer.restaurantdeals.exception.InvalidDealQueryException;
 import com.customer.restaurantdeals.exception.InvalidTimeFormatException;
 import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
 import com.customer.restaurantdeals.mapper.ActiveDealResponseMapper;
-import com.customer.restaurantdeals.model.Deal;
-import com.customer.restaurantdeals.model.Restaurant;
-import com.customer.restaurantdeals.model.RestaurantResponse;
+import com.customer.restaurantdeals.snapshot.DealSelector;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import com.customer.restaurantdeals.snapshot.SuburbCentroids;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.web.reactive.function.client.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
-import java.time.LocalTime;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.MSG_BATCH_TOO_LARGE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class RestaurantDealsServiceTest {
 
-    private WebClient webClient;
+    private static final String FEED = """
+            {"restaurants":[{"objectId":"r1","open":"10:00am","close":"4:00pm",
+              "deals":[{"objectId":"d1","open":"10:00am","close":"3:00pm","qtyLeft":5}]}]}""";
+
+    private static final String QUERY_FEED = """
+            {"restaurants":[
+              {"objectId":"r1","suburb":"CBD","open":"9:00am","close":"11:00pm","deals":[
+                {"objectId":"d1","discount":"10","dineIn":"true","lightning":"false","qtyLeft":5},
+                {"objectId":"d2","discount":"30","dineIn":"false","lightning":"true","qtyLeft":1},
+                {"objectId":"d3","discount":"20","dineIn":"true","lightning":"false","qtyLeft":9}]},
+              {"objectId":"r2","suburb":"Richmond","open":"9:00am","close":"11:00pm","deals":[
+                {"objectId":"d4","discount":"50","dineIn":"true","lightning":"false","qtyLeft":3},
+                {"objectId":"d5","discount":"Free drink","dineIn":"false","lightning":"false","qtyLeft":0}]}]}""";
+
+    private static final String NEARBY_FEED = """
+            {"restaurants":[
+              {"objectId":"r1","suburb":"CBD","lat":-37.80,"lng":144.96,"open":"9:00am","close":"11:00pm","deals":[
+                {"objectId":"d1","discount":"10","dineIn":"true","qtyLeft":5},
+                {"objectId":"d2","discount":"30","dineIn":"false","qtyLeft":1}]},
+              {"objectId":"r2","suburb":"Richmond","open":"9:00am","close":"11:00pm","deals":[
+                {"objectId":"d3","discount":"20","dineIn":"true","qtyLeft":9}]},
+              {"objectId":"r3","suburb":"Fitzroy","open":"9:00am","close":"11:00pm","deals":[
+                {"objectId":"d4","discount":"50","dineIn":"true","qtyLeft":3}]},
+              {"objectId":"r4","suburb":"Geelong","latitude":-38.15,"longitude":144.36,"open":"9:00am",
+               "close":"11:00pm","deals":[{"objectId":"d5","discount":"15","dineIn":"true","qtyLeft":2}]}]}""";
+
     private ActiveDealResponseMapper mapper;
     private RestaurantDealsService service;
-    private WebClient.RequestHeadersUriSpec uriSpec;
-    private WebClient.RequestHeadersSpec headersSpec;
-    private WebClient.ResponseSpec responseSpec;
+    private RestaurantDealsService shardedService;
+    private RestaurantDealsService centroidService;
+    private HttpStatus upstreamStatus;
+    private String feed;
 
     @BeforeEach
     void setUp() {
-        webClient = mock(WebClient.class);
-        uriSpec = mock(WebClient.RequestHeadersUriSpec.class);
-        headersSpec = mock(WebClient.RequestHeadersSpec.class);
-        responseSpec = mock(WebClient.ResponseSpec.class);
-
-        when(webClient.get()).thenReturn(uriSpec);
-        when(uriSpec.uri(anyString())).thenReturn(headersSpec);
-        when(headersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.onStatus(any(), any())).thenReturn(responseSpec);
-
-        when(responseSpec.bodyToMono(eq(RestaurantResponse.class)))
-                .thenReturn(Mono.just(mockRestaurantResponse()));
+        upstreamStatus = HttpStatus.OK;
+        feed = FEED;
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(upstreamStatus)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(upstreamStatus.is2xxSuccessful() ? feed : "")
+                        .build()))
+                .build();
 
         mapper = mock(ActiveDealResponseMapper.class);
-        when(mapper.toResponse(any(Restaurant.class), any(Deal.class)))
-                .thenReturn(new ActiveDealResponse());
+        when(mapper.toResponse(any(DealStore.class), anyInt())).thenAnswer(invocation -> {
+            ActiveDealResponse response = new ActiveDealResponse();
+            response.setDealObjectId(invocation.<DealStore>getArgument(0).dealId(invocation.getArgument(1)));
+            return response;
+        });
 
-        service = new RestaurantDealsService(webClient, mapper);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        RestaurantFeedCache feedCache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(objectMapper),
+                new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults(), new SimpleMeterRegistry(),
+                        0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO),
+                new SimpleMeterRegistry(),
+                Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(10));
+        DealsPipelineMetrics metrics = new DealsPipelineMetrics(new SimpleMeterRegistry(), 1.0);
+        DealsResponseCache responseCache = new DealsResponseCache(objectMapper, new SimpleMeterRegistry(), metrics);
+        service = new RestaurantDealsService(feedCache, responseCache, mapper, metrics, 4, 6, 50,
+                Sharding.SEQUENTIAL, SuburbCentroids.EMPTY);
+        shardedService = new RestaurantDealsService(feedCache, responseCache, mapper, metrics, 4, 6, 50,
+                new Sharding(1, 3), SuburbCentroids.EMPTY);
+        try {
+            centroidService = new RestaurantDealsService(feedCache, responseCache, mapper, metrics, 4, 6, 50,
+                    Sharding.SEQUENTIAL, SuburbCentroids.read(new StringReader("Richmond,-37.8183,144.9982")));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     @Test
@@ -57,6 +122,17 @@ class RestaurantDealsServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getRenderedActiveDealsAtTime_SameMinute_RenderedOnce() {
+        DealsResponseCache.RenderedDeals first = service.getRenderedActiveDealsAtTime("10:00am", WireFormat.JSON,
+                DealsShape.FLAT).block();
+        DealsResponseCache.RenderedDeals second = service.getRenderedActiveDealsAtTime("10:00AM", WireFormat.JSON,
+                DealsShape.FLAT).block();
+
+        assertSame(first, second);
+        verify(mapper, times(1)).toResponse(any(DealStore.class), anyInt());
+    }
+
     @Test
     void getActiveDealsAtTime_InvalidTime_ThrowsException() {
         assertThrows(InvalidTimeFormatException.class, () ->
@@ -66,8 +142,7 @@ class RestaurantDealsServiceTest {
 
     @Test
     void getActiveDealsAtTime_ServiceUnavailable_ThrowsException() {
-        when(responseSpec.bodyToMono(eq(RestaurantResponse.class)))
-                .thenReturn(Mono.error(WebClientResponseException.create(500, "Internal Server Error", null, null, null)));
+        upstreamStatus = HttpStatus.INTERNAL_SERVER_ERROR;
 
         assertThrows(RestaurantServiceUnavailableException.class, () ->
                 service.getActiveDealsAtTime("10:00am").block()
@@ -87,8 +162,7 @@ class RestaurantDealsServiceTest {
 
     @Test
     void findPeakDealTimeWindow_ServiceUnavailable_ThrowsException() {
-        when(responseSpec.bodyToMono(eq(RestaurantResponse.class)))
-                .thenReturn(Mono.error(WebClientResponseException.create(500, "Internal Server Error", null, null, null)));
+        upstreamStatus = HttpStatus.INTERNAL_SERVER_ERROR;
 
         assertThrows(RestaurantServiceUnavailableException.class, () ->
                 service.findPeakDealTimeWindow().block()
@@ -96,49 +170,287 @@ class RestaurantDealsServiceTest {
     }
 
     @Test
-    void computePeakWindow_NoOverlap_ReturnsNull() throws Exception {
-        var method = RestaurantDealsService.class.getDeclaredMethod("computePeakWindow", List.class);
-        method.setAccessible(true);
+    void findPeakDealTimeWindow_ReportsWindowAndCount() {
+        PeakTimeResponse peak = service.findPeakDealTimeWindow().block();
+
+        assertEquals("10:00AM", peak.getPeakTimeStart());
+        assertEquals("3:00PM", peak.getPeakTimeEnd());
+        assertEquals(1, peak.getActiveDeals());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_Filters_AppliedBeforeMapping() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setSuburb("cbd");
+        query.setDineIn(true);
+
+        DealPageResponse page = service.queryActiveDealsAtTime("12:00pm", query).block();
+
+        assertEquals(List.of("d1", "d3"), dealIds(page));
+        assertNull(page.getNextCursor());
+        verify(mapper, times(2)).toResponse(any(DealStore.class), anyInt());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_MinimumsAndRestaurant() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setMinDiscount(20);
+        query.setMinQtyLeft(2);
+        assertEquals(List.of("d3", "d4"), dealIds(service.queryActiveDealsAtTime("12:00pm", query).block()));
+
+        DealQuery byRestaurant = new DealQuery();
+        byRestaurant.setRestaurantId("r2");
+        assertEquals(List.of("d4", "d5"), dealIds(service.queryActiveDealsAtTime("12:00pm", byRestaurant).block()));
+        assertTrue(dealIds(service.queryActiveDealsAtTime("8:00am", byRestaurant).block()).isEmpty());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_SortedPages_FollowCursor() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setSort("-discount");
+        query.setLimit(2);
+
+        DealPageResponse first = service.queryActiveDealsAtTime("12:00pm", query).block();
+        assertEquals(List.of("d4", "d2"), dealIds(first));
+        assertNotNull(first.getNextCursor());
+
+        query.setCursor(first.getNextCursor());
+        DealPageResponse second = service.queryActiveDealsAtTime("12:00pm", query).block();
+        assertEquals(List.of("d3", "d1"), dealIds(second));
+
+        query.setCursor(second.getNextCursor());
+        DealPageResponse last = service.queryActiveDealsAtTime("12:00pm", query).block();
+        assertEquals(List.of("d5"), dealIds(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void getRenderedActiveDealsAtTime_Grouped_ListsEachRestaurantOnce() throws Exception {
+        feed = QUERY_FEED;
+        when(mapper.toRestaurantResponse(any(DealStore.class), any(int[].class), anyInt(), anyInt()))
+                .thenCallRealMethod();
+
+        DealsResponseCache.RenderedDeals rendered = shardedService.getRenderedActiveDealsAtTime("12:00pm",
+                WireFormat.CBOR, DealsShape.GROUPED).block();
+
+        JsonNode restaurants = WireFormat.CBOR.mapperFrom(new ObjectMapper()).readTree(rendered.getBody())
+                .get("restaurants");
+        assertEquals(MediaType.APPLICATION_CBOR, rendered.getContentType());
+        assertEquals(2, restaurants.size());
+        assertEquals("r1", restaurants.get(0).get("restaurantObjectId").asText());
+        assertEquals(List.of("d1", "d2", "d3"), restaurants.get(0).get("deals").findValuesAsText("dealObjectId"));
+        assertEquals(List.of("d4", "d5"), restaurants.get(1).get("deals").findValuesAsText("dealObjectId"));
+        assertEquals(9, restaurants.get(0).get("deals").get(2).get("qtyLeft").asInt());
+    }
+
+    @Test
+    void queryRenderedActiveDealsAtTime_GroupedSortedPage_KeepsDealOrder() throws Exception {
+        feed = QUERY_FEED;
+        when(mapper.toRestaurantResponse(any(DealStore.class), any(int[].class), anyInt(), anyInt()))
+                .thenCallRealMethod();
+        DealQuery query = new DealQuery();
+        query.setDineIn(true);
+        query.setSort("-discount");
+        query.setLimit(2);
+
+        DealsResponseCache.RenderedDeals rendered = service.queryRenderedActiveDealsAtTime("12:00pm", query,
+                WireFormat.JSON, DealsShape.GROUPED).block();
+
+        JsonNode page = new ObjectMapper().readTree(rendered.getBody());
+        assertEquals(List.of("r2", "r1"), page.get("restaurants").findValuesAsText("restaurantObjectId"));
+        assertEquals("d4", page.at("/restaurants/0/deals/0/dealObjectId").asText());
+        assertEquals("d3", page.at("/restaurants/1/deals/0/dealObjectId").asText());
+        assertTrue(page.has("nextCursor"));
+    }
+
+    @Test
+    void shardedEvaluation_MatchesSequential() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setSort("qtyLeft");
+        DealBatchRequest batch = new DealBatchRequest();
+        batch.setTimes(List.of("8:00am", "12:00pm", "10:00pm"));
+        batch.setLimit(2);
+
+        assertEquals(service.getActiveDealsAtTime("12:00pm").block(),
+                shardedService.getActiveDealsAtTime("12:00pm").block());
+        assertEquals(dealIds(service.queryActiveDealsAtTime("12:00pm", query).block()),
+                dealIds(shardedService.queryActiveDealsAtTime("12:00pm", query).block()));
+        assertEquals(service.getActiveDealsAtTimes(batch).block().getDeals(),
+                shardedService.getActiveDealsAtTimes(batch).block().getDeals());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_FeedOrderPages_FollowCursor() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setLimit(3);
+
+        DealPageResponse first = service.queryActiveDealsAtTime("12:00pm", query).block();
+        assertEquals(List.of("d1", "d2", "d3"), dealIds(first));
+
+        query.setCursor(first.getNextCursor());
+        DealPageResponse second = service.queryActiveDealsAtTime("12:00pm", query).block();
+        assertEquals(List.of("d4", "d5"), dealIds(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void queryActiveDealsAtTime_InvalidQuery_ThrowsException() {
+        DealQuery badSort = new DealQuery();
+        badSort.setSort("name");
+        assertThrows(InvalidDealQueryException.class, () -> service.queryActiveDealsAtTime("12:00pm", badSort));
+
+        DealQuery badLimit = new DealQuery();
+        badLimit.setLimit(0);
+        assertThrows(InvalidDealQueryException.class, () -> service.queryActiveDealsAtTime("12:00pm", badLimit));
+
+        DealQuery badCursor = new DealQuery();
+        badCursor.setCursor("not-a-cursor");
+        assertThrows(InvalidDealQueryException.class, () -> service.queryActiveDealsAtTime("12:00pm", badCursor));
+    }
+
+    @Test
+    void queryNearbyDealsAtTime_NearestFirstWithDistance() {
+        feed = NEARBY_FEED;
+        DealQuery query = new DealQuery();
 
-        Deal d1 = new Deal();
-        d1.setOpen(LocalTime.of(10, 0));
-        d1.setClose(LocalTime.of(12, 0));
-        Deal d2 = new Deal();
-        d2.setOpen(LocalTime.of(13, 0));
-        d2.setClose(LocalTime.of(15, 0));
+        DealPageResponse page = centroidService.queryNearbyDealsAtTime("12:00pm", -37.81, 144.96, 5, query).block();
 
-        Object res = method.invoke(service, List.of(d1, d2));
-        assertNull(res);
+        // d3 is placed at Richmond's centroid, r3 has no location, r4 is 80 km away
+        assertEquals(List.of("d1", "d2", "d3"), page.getDeals().stream().map(ActiveDealResponse::getDealObjectId).toList());
+        assertEquals(1.112, page.getDeals().get(0).getDistanceKm());
+        assertNull(page.getDeals().get(0).getApproximateLocation());
+        assertEquals(3.48, page.getDeals().get(2).getDistanceKm(), 0.001);
+        assertEquals(Boolean.TRUE, page.getDeals().get(2).getApproximateLocation());
+        assertNull(page.getNextCursor());
+
+        query.setDineIn(true);
+        query.setLimit(1);
+        assertEquals(List.of("d1"), centroidService.queryNearbyDealsAtTime("12:00pm", -37.81, 144.96, 5, query)
+                .block().getDeals().stream().map(ActiveDealResponse::getDealObjectId).toList());
+        assertEquals(List.of("d5"), centroidService.queryNearbyDealsAtTime("12:00pm", -38.15, 144.36, 1,
+                new DealQuery()).block().getDeals().stream().map(ActiveDealResponse::getDealObjectId).toList());
+        assertTrue(centroidService.queryNearbyDealsAtTime("8:00am", -37.81, 144.96, 5, new DealQuery())
+                .block().getDeals().isEmpty());
+        // Without centroids only restaurants with coordinates of their own are found
+        assertEquals(List.of("d1", "d2"), service.queryNearbyDealsAtTime("12:00pm", -37.81, 144.96, 5, new DealQuery())
+                .block().getDeals().stream().map(ActiveDealResponse::getDealObjectId).toList());
     }
 
     @Test
-    void isOpenAt_VariousCases() throws Exception {
-        var method = RestaurantDealsService.class.getDeclaredMethod("isOpenAt", LocalTime.class, LocalTime.class, LocalTime.class);
-        method.setAccessible(true);
+    void queryNearbyDealsAtTime_InvalidQuery_ThrowsException() {
+        DealQuery query = new DealQuery();
+        assertThrows(InvalidDealQueryException.class, () -> service.queryNearbyDealsAtTime("12:00pm", -91, 144.96, 5, query));
+        assertThrows(InvalidDealQueryException.class, () -> service.queryNearbyDealsAtTime("12:00pm", -37.8, 180.5, 5, query));
+        assertThrows(InvalidDealQueryException.class, () -> service.queryNearbyDealsAtTime("12:00pm", Double.NaN, 144.96, 5, query));
+        assertThrows(InvalidDealQueryException.class, () -> service.queryNearbyDealsAtTime("12:00pm", -37.8, 144.96, 0, query));
+        InvalidDealQueryException tooFar = assertThrows(InvalidDealQueryException.class,
+                () -> service.queryNearbyDealsAtTime("12:00pm", -37.8, 144.96, 50.5, query));
+        assertTrue(tooFar.getMessage().endsWith(" 50"), tooFar.getMessage());
+        assertThrows(InvalidTimeFormatException.class, () -> service.queryNearbyDealsAtTime("noon", -37.8, 144.96, 5, query));
+
+        query.setLimit(0);
+        assertThrows(InvalidDealQueryException.class, () -> service.queryNearbyDealsAtTime("12:00pm", -37.8, 144.96, 5, query));
+    }
 
-        LocalTime time = LocalTime.of(12, 0);
+    @Test
+    void queryActiveDealsAtTime_CursorOfOtherSort_Rejected() {
+        DealQuery query = new DealQuery();
+        query.setSort("qtyLeft");
+        query.setCursor(RestaurantDealsService.encodeCursor(DealSelector.Order.DISCOUNT_DESC, 42));
 
-        // null open/close
-        assertFalse((Boolean) method.invoke(service, time, null, null));
-        // open before, close after
-        assertTrue((Boolean) method.invoke(service, time, LocalTime.of(10,0), LocalTime.of(14,0)));
-        // open after
-        assertFalse((Boolean) method.invoke(service, time, LocalTime.of(13,0), LocalTime.of(14,0)));
-        // close before
-        assertFalse((Boolean) method.invoke(service, time, LocalTime.of(9,0), LocalTime.of(11,0)));
+        assertThrows(InvalidDealQueryException.class, () -> service.queryActiveDealsAtTime("12:00pm", query));
     }
 
-    private RestaurantResponse mockRestaurantResponse() {
-        Restaurant restaurant = new Restaurant();
-        restaurant.setRestaurantOpen(LocalTime.of(10, 0));
-        restaurant.setRestaurantClose(LocalTime.of(16, 0));
-        Deal deal = new Deal();
-        deal.setOpen(LocalTime.of(10, 0));
-        deal.setClose(LocalTime.of(15, 0));
-        restaurant.setDeals(List.of(deal));
+    @Test
+    void streamActiveDealsAtTime_MapsOnDemand() {
+        feed = QUERY_FEED;
+        DealQuery query = new DealQuery();
+        query.setDineIn(true);
+
+        StepVerifier.create(service.streamActiveDealsAtTime("12:00pm", query), 1)
+                .expectNextMatches(deal -> "d1".equals(deal.getDealObjectId()))
+                .then(() -> verify(mapper, times(1)).toResponse(any(DealStore.class), anyInt()))
+                .thenRequest(10)
+                .expectNextMatches(deal -> "d3".equals(deal.getDealObjectId()))
+                .expectNextMatches(deal -> "d4".equals(deal.getDealObjectId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void getActiveDealsAtTimes_OnePassPerBatch_MappedOncePerDeal() {
+        feed = QUERY_FEED;
+        DealBatchRequest request = new DealBatchRequest();
+        request.setTimes(List.of("1:00pm", "8:00am", "12:00pm"));
+        request.setDineIn(true);
+
+        DealBatchResponse response = service.getActiveDealsAtTimes(request).block();
+
+        assertEquals(List.of("1:00pm", "8:00am", "12:00pm"), List.copyOf(response.getDeals().keySet()));
+        assertTrue(response.getDeals().get("8:00am").isEmpty());
+        assertEquals(List.of("d1", "d3", "d4"), response.getDeals().get("12:00pm").stream()
+                .map(ActiveDealResponse::getDealObjectId).toList());
+        assertEquals(List.of("d1", "d3", "d4"), response.getDeals().get("1:00pm").stream()
+                .map(ActiveDealResponse::getDealObjectId).toList());
+        verify(mapper, times(3)).toResponse(any(DealStore.class), anyInt());
+    }
+
+    @Test
+    void getActiveDealsAtTimes_Limits() {
+        feed = QUERY_FEED;
+        DealBatchRequest request = new DealBatchRequest();
+        request.setTimes(List.of("12:00pm", "1:00pm"));
+        InvalidDealQueryException tooLarge = assertThrows(InvalidDealQueryException.class,
+                () -> service.getActiveDealsAtTimes(request).block());
+        assertEquals(MSG_BATCH_TOO_LARGE + 6, tooLarge.getMessage());
+        verify(mapper, never()).toResponse(any(DealStore.class), anyInt());
+
+        request.setLimit(2);
+        DealBatchResponse limited = service.getActiveDealsAtTimes(request).block();
+        assertEquals(List.of("d1", "d2"), limited.getDeals().get("1:00pm").stream()
+                .map(ActiveDealResponse::getDealObjectId).toList());
+
+        request.setTimes(List.of("1:00pm", "2:00pm", "3:00pm", "4:00pm", "5:00pm"));
+        assertThrows(InvalidDealQueryException.class, () -> service.getActiveDealsAtTimes(request));
+        request.setTimes(List.of());
+        assertThrows(InvalidDealQueryException.class, () -> service.getActiveDealsAtTimes(request));
+        request.setTimes(List.of("1:00pm", "25:00pm"));
+        assertThrows(InvalidTimeFormatException.class, () -> service.getActiveDealsAtTimes(request));
+    }
+
+    @Test
+    void getTimeline_BucketsPerMinuteCounts() {
+        feed = QUERY_FEED;
+
+        TimelineResponse hourly = service.getTimeline("1h", null).block();
+        assertEquals(1, hourly.getSeries().size());
+        List<TimelineResponse.Point> points = hourly.getSeries().get(0).getPoints();
+        assertEquals(24, points.size());
+        assertEquals("9:00AM", points.get(9).getTime());
+        assertEquals(5, points.get(9).getDeals());
+        assertEquals(2, points.get(9).getRestaurants());
+        assertEquals(0, points.get(8).getDeals());
+
+        TimelineResponse bySuburb = service.getTimeline("90m", "suburb").block();
+        assertEquals(16, bySuburb.getSeries().get(0).getPoints().size());
+        assertEquals(List.of("CBD", "Richmond"), bySuburb.getSeries().stream()
+                .map(TimelineResponse.Series::getGroup).toList());
+        assertEquals(3, bySuburb.getSeries().get(0).getPoints().get(8).getDeals());
+    }
+
+    @Test
+    void getTimeline_InvalidParameters_ThrowsException() {
+        assertThrows(InvalidDealQueryException.class, () -> service.getTimeline("30s", null));
+        assertThrows(InvalidDealQueryException.class, () -> service.getTimeline("2d", null));
+        assertThrows(InvalidDealQueryException.class, () -> service.getTimeline("soon", null));
+        assertThrows(InvalidDealQueryException.class, () -> service.getTimeline("15m", "restaurant"));
+    }
 
-        RestaurantResponse resp = new RestaurantResponse();
-        resp.setRestaurants(List.of(restaurant));
-        return resp;
+    private static List<String> dealIds(DealPageResponse page) {
+        return page.getDeals().stream().map(ActiveDealResponse::getDealObjectId).toList();
     }
-}
\ No newline at end of file
+}
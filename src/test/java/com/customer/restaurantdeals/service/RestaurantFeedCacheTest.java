@@ -0,0 +1,445 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.configuration.FeedSourceProperties;
+import com.customer.restaurantdeals.exception.RestaurantServiceUnavailableException;
+import com.customer.restaurantdeals.snapshot.DealStore;
+import com.customer.restaurantdeals.snapshot.FeedSnapshot;
+import com.customer.restaurantdeals.snapshot.FeedSource;
+import com.customer.restaurantdeals.snapshot.Sharding;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RestaurantFeedCacheTest {
+
+    private static final String FEED = """
+            {"restaurants":[{"objectId":"r1","open":"8:00am","close":"8:00pm","deals":[]}]}""";
+    private static final String EAST_FEED = """
+            {"restaurants":[{"objectId":"r1","suburb":"Richmond","deals":[{"objectId":"d1"}]}]}""";
+    private static final String WEST_FEED = """
+            {"restaurants":[{"objectId":"r1","suburb":"Elsewhere","deals":[{"objectId":"d1"},{"objectId":"d2"}]},
+            {"objectId":"r2","deals":[{"objectId":"d3"}]}]}""";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private ClientRequest lastRequest;
+    private Supplier<Mono<ClientResponse>> upstream;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private RestaurantFeedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        upstream = () -> Mono.just(ok(FEED));
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    upstreamCalls.incrementAndGet();
+                    lastRequest = request;
+                    return upstream.get();
+                })
+                .build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        cache = new RestaurantFeedCache(webClient, new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build()),
+                resilience, meterRegistry, Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void getSnapshot_FreshSnapshot_ServedFromMemory() {
+        FeedSnapshot first = cache.getSnapshot().block();
+        clock.advance(Duration.ofSeconds(30));
+        FeedSnapshot second = cache.getSnapshot().block();
+
+        assertSame(first, second);
+        assertEquals("r1", first.getDealStore().restaurantId(0));
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_CACHE_REQUESTS, "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_CACHE_REQUESTS, "result", "miss").count());
+    }
+
+    @Test
+    void getSnapshot_ConcurrentMisses_CoalescedIntoSingleFetch() {
+        Sinks.One<ClientResponse> response = Sinks.one();
+        upstream = response::asMono;
+
+        var firstResult = cache.getSnapshot().toFuture();
+        var secondResult = cache.getSnapshot().toFuture();
+
+        response.tryEmitValue(ok(FEED));
+
+        assertSame(firstResult.join(), secondResult.join());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REFRESHES, "outcome", "coalesced").count());
+    }
+
+    @Test
+    void getSnapshot_WithinRefreshAheadWindow_RefreshesInBackground() {
+        FeedSnapshot first = cache.getSnapshot().block();
+        clock.advance(Duration.ofSeconds(55));
+
+        FeedSnapshot served = cache.getSnapshot().block();
+        FeedSnapshot refreshed = cache.getSnapshot().block();
+
+        assertSame(first, served);
+        assertNotSame(first, refreshed);
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void getSnapshot_ExpiredAndRefreshFails_ServesStale() {
+        FeedSnapshot first = cache.getSnapshot().block();
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        clock.advance(Duration.ofSeconds(90));
+
+        assertSame(first, cache.getSnapshot().block());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_STALE_SERVED).count());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REFRESHES, "outcome", "failure").count());
+    }
+
+    @Test
+    void getSnapshot_TooStaleAndRefreshFails_ThrowsException() {
+        cache.getSnapshot().block();
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        clock.advance(Duration.ofMinutes(10));
+
+        assertThrows(RestaurantServiceUnavailableException.class, () -> cache.getSnapshot().block());
+    }
+
+    @Test
+    void getSnapshot_MalformedBody_ThrowsException() {
+        upstream = () -> Mono.just(ok("{\"restaurants\":[{\"objectId\":"));
+
+        assertThrows(RestaurantServiceUnavailableException.class, () -> cache.getSnapshot().block());
+    }
+
+    @Test
+    void invalidate_ForcesUpstreamFetch() {
+        cache.getSnapshot().block();
+        cache.invalidate();
+        cache.getSnapshot().block();
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void getSnapshot_ExpiredAndNotModified_ReusesSnapshot() {
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .header(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jan 2025 09:00:00 GMT")
+                .body(FEED)
+                .build());
+        FeedSnapshot first = cache.getSnapshot().block();
+        assertNull(lastRequest.headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot revalidated = cache.getSnapshot().block();
+
+        assertEquals("\"v1\"", lastRequest.headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("Wed, 01 Jan 2025 09:00:00 GMT", lastRequest.headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertEquals(first.getVersion(), revalidated.getVersion());
+        assertSame(first.getDealIndex(), revalidated.getDealIndex());
+        assertEquals(Duration.ZERO, revalidated.age(clock.instant()));
+        assertEquals("\"v1\"", revalidated.getOrigin().getETag());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REVALIDATIONS, "result", "not_modified").count());
+        assertEquals(FEED.length(), meterRegistry.counter(METRIC_FEED_BYTES_SAVED).count());
+        assertEquals(1, meterRegistry.timer(METRIC_FEED_LOAD_AVOIDED).count());
+    }
+
+    @Test
+    void getSnapshot_SameContent_KeepsSnapshotVersion() {
+        FeedSnapshot first = cache.getSnapshot().block();
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot second = cache.getSnapshot().block();
+
+        assertNull(lastRequest.headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(first.getVersion(), second.getVersion());
+        assertSame(first.getDealIndex(), second.getDealIndex());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REVALIDATIONS, "result", "content_unchanged").count());
+    }
+
+    @Test
+    void getSnapshot_ChangedContent_BuildsNewVersion() {
+        FeedSnapshot first = cache.getSnapshot().block();
+        upstream = () -> Mono.just(ok(FEED.replace("r1", "r2")));
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot second = cache.getSnapshot().block();
+
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals("r2", second.getDealStore().restaurantId(0));
+        assertNotEquals(first.getOrigin().getContentHash(), second.getOrigin().getContentHash());
+    }
+
+    @Test
+    void updates_EmitOnlyNewVersions() {
+        List<Long> versions = new CopyOnWriteArrayList<>();
+        cache.updates().subscribe(snapshot -> versions.add(snapshot.getVersion()));
+
+        FeedSnapshot first = cache.getSnapshot().block();
+        clock.advance(Duration.ofSeconds(90));
+        cache.getSnapshot().block();
+        upstream = () -> Mono.just(ok(FEED.replace("r1", "r2")));
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot changed = cache.getSnapshot().block();
+
+        assertEquals(List.of(first.getVersion(), changed.getVersion()), versions);
+    }
+
+    @Test
+    void restore_ServedWithoutUpstreamWhileRevalidating() {
+        FeedSnapshot restored = new FeedSnapshot(7, clock.instant().minus(Duration.ofHours(2)), List.of());
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+        assertTrue(cache.restore(restored, Duration.ofHours(24)));
+        assertSame(restored, cache.getSnapshot().block());
+        assertTrue(cache.isRestored());
+        assertTrue(cache.hasUsableSnapshot());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_CACHE_REQUESTS, "result", "restored").count());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REFRESHES, "outcome", "failure").count());
+
+        upstream = () -> Mono.just(ok(FEED));
+        assertSame(restored, cache.getSnapshot().block());
+        FeedSnapshot refreshed = cache.getSnapshot().block();
+
+        assertEquals(8, refreshed.getVersion());
+        assertFalse(cache.isRestored());
+    }
+
+    @Test
+    void restore_PastMaxAge_NotServed() {
+        cache.restore(new FeedSnapshot(7, clock.instant(), List.of()), Duration.ofHours(1));
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+        clock.advance(Duration.ofHours(2));
+
+        assertFalse(cache.hasUsableSnapshot());
+        assertThrows(RestaurantServiceUnavailableException.class, () -> cache.getSnapshot().block());
+    }
+
+    @Test
+    void restore_SnapshotInPlace_Ignored() {
+        FeedSnapshot fetched = cache.getSnapshot().block();
+
+        assertFalse(cache.restore(new FeedSnapshot(7, clock.instant(), List.of()), Duration.ofHours(24)));
+        assertSame(fetched, cache.peek());
+        assertFalse(cache.isRestored());
+    }
+
+    @Test
+    void getSnapshot_UnsolicitedNotModified_ThrowsException() {
+        upstream = () -> Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        assertThrows(RestaurantServiceUnavailableException.class, () -> cache.getSnapshot().block());
+    }
+
+    @Test
+    void getSnapshot_BlockingClient_LoadsAndRevalidates() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+        MockRestServiceServer server = MockRestServiceServer.bindTo(builder).build();
+        server.expect(requestTo("http://upstream" + RESTAURANTS_DATA_URI))
+                .andRespond(withSuccess(FEED, MediaType.APPLICATION_JSON).header(HttpHeaders.ETAG, "\"v1\""));
+        server.expect(requestTo("http://upstream" + RESTAURANTS_DATA_URI))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        RestaurantFeedCache blocking = blockingCache(builder.build());
+
+        FeedSnapshot first = blocking.getSnapshot().block();
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot revalidated = blocking.getSnapshot().block();
+
+        assertEquals("r1", first.getDealStore().restaurantId(0));
+        assertEquals(first.getVersion(), revalidated.getVersion());
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_REVALIDATIONS, "result", "not_modified").count());
+        server.verify();
+    }
+
+    @Test
+    void getSnapshot_BlockingClientServerError_ThrowsException() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("http://upstream");
+        MockRestServiceServer.bindTo(builder).build()
+                .expect(requestTo("http://upstream" + RESTAURANTS_DATA_URI))
+                .andRespond(withServerError());
+        RestaurantFeedCache blocking = blockingCache(builder.build());
+
+        assertThrows(RestaurantServiceUnavailableException.class, () -> blocking.getSnapshot().block());
+    }
+
+    @Test
+    void getSnapshot_SeveralSources_MergedWithoutDuplicates() {
+        RestaurantFeedCache federated = federatedCache(path -> Mono.just(ok(path.equals("/east.json")
+                ? EAST_FEED
+                : WEST_FEED)), null);
+
+        FeedSnapshot snapshot = federated.getSnapshot().block();
+
+        DealStore store = snapshot.getDealStore();
+        assertEquals(2, store.restaurantCount());
+        assertEquals(3, store.size());
+        assertEquals("Richmond", store.restaurantSuburb(0));
+        assertEquals(List.of("d1", "d2", "d3"), List.of(store.dealId(0), store.dealId(1), store.dealId(2)));
+        assertFalse(snapshot.isPartial());
+        assertEquals(List.of("east", "west"), snapshot.getSources().stream().map(FeedSource::getName).toList());
+    }
+
+    @Test
+    void getSnapshot_SourceFails_ServesItsLastDataAsStale() {
+        AtomicInteger westStatus = new AtomicInteger(200);
+        RestaurantFeedCache federated = federatedCache(path -> Mono.just(path.equals("/east.json")
+                ? ok(EAST_FEED)
+                : westStatus.get() == 200 ? ok(WEST_FEED) : ClientResponse.create(HttpStatus.BAD_GATEWAY).build()),
+                null);
+        FeedSnapshot first = federated.getSnapshot().block();
+        westStatus.set(502);
+        clock.advance(Duration.ofSeconds(90));
+
+        FeedSnapshot partial = federated.getSnapshot().block();
+
+        assertNotEquals(first.getVersion(), partial.getVersion());
+        assertTrue(partial.isPartial());
+        assertFalse(partial.getSources().get(0).isStale());
+        assertTrue(partial.getSources().get(1).isStale());
+        assertEquals(first.getFetchedAt(), partial.getSources().get(1).getFetchedAt());
+        assertEquals(3, partial.getDealStore().size());
+        assertFalse(partial.getDealStore().stale(0));
+        assertTrue(partial.getDealStore().stale(1));
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_SOURCE_FAILURES, "source", "west").count());
+        assertEquals(1.0, meterRegistry.get(METRIC_FEED_SOURCE_STALE).tag("source", "west").gauge().value());
+
+        westStatus.set(200);
+        clock.advance(Duration.ofSeconds(90));
+        FeedSnapshot recovered = federated.getSnapshot().block();
+
+        assertFalse(recovered.isPartial());
+        assertFalse(recovered.getDealStore().stale(1));
+    }
+
+    @Test
+    void getSnapshot_SourceSlowerThanItsTimeout_ServedWithoutIt() {
+        RestaurantFeedCache federated = federatedCache(path -> path.equals("/east.json")
+                ? Mono.just(ok(EAST_FEED))
+                : Mono.never(), Duration.ofMillis(100));
+
+        FeedSnapshot snapshot = federated.getSnapshot().block(Duration.ofSeconds(5));
+
+        assertEquals(1, snapshot.getDealStore().restaurantCount());
+        assertTrue(snapshot.isPartial());
+        assertNull(snapshot.getSources().get(1).getFetchedAt());
+    }
+
+    @Test
+    void getSnapshot_AllSourcesFail_ServesStaleSnapshot() {
+        AtomicInteger status = new AtomicInteger(200);
+        RestaurantFeedCache federated = federatedCache(path -> Mono.just(status.get() == 200
+                ? ok(path.equals("/east.json") ? EAST_FEED : WEST_FEED)
+                : ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()), null);
+        FeedSnapshot first = federated.getSnapshot().block();
+        status.set(503);
+        clock.advance(Duration.ofSeconds(90));
+
+        assertSame(first, federated.getSnapshot().block());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_STALE_SERVED).count());
+    }
+
+    @Test
+    void sources_InvalidConfiguration_Rejected() {
+        assertEquals(List.of(FeedSource.DEFAULT_NAME),
+                RestaurantFeedCache.sources(List.of()).stream().map(FeedSourceProperties.Source::getName).toList());
+        assertThrows(IllegalArgumentException.class, () -> RestaurantFeedCache.sources(List.of(
+                new FeedSourceProperties.Source("east", "/east.json", null),
+                new FeedSourceProperties.Source("east", "/west.json", null))));
+        assertThrows(IllegalArgumentException.class, () -> RestaurantFeedCache.sources(List.of(
+                new FeedSourceProperties.Source("east", " ", null))));
+        assertThrows(IllegalArgumentException.class, () -> RestaurantFeedCache.sources(List.of(
+                new FeedSourceProperties.Source("east", "/east.json", Duration.ZERO))));
+    }
+
+    private RestaurantFeedCache federatedCache(Function<String, Mono<ClientResponse>> upstreams, Duration timeout) {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://upstream")
+                .exchangeFunction(request -> upstreams.apply(request.url().getPath()))
+                .build();
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        return new RestaurantFeedCache(webClient, null, new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build()),
+                resilience, meterRegistry, Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(5), clock,
+                Sharding.SEQUENTIAL, List.of(
+                        new FeedSourceProperties.Source("east", "/east.json", timeout),
+                        new FeedSourceProperties.Source("west", "http://west-upstream/west.json", timeout)));
+    }
+
+    private RestaurantFeedCache blockingCache(RestClient restClient) {
+        UpstreamResilience resilience = new UpstreamResilience(CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0, false, 0.95, Duration.ZERO);
+        return new RestaurantFeedCache(null, restClient, new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build()),
+                resilience, meterRegistry, Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMinutes(5), clock,
+                Sharding.SEQUENTIAL);
+    }
+
+    private static ClientResponse ok(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
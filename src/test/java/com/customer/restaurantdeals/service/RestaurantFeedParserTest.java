@@ -0,0 +1,108 @@
+package com.customer.restaurantdeals.service;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantFeedParserTest {
+
+    private static final String FEED = """
+            {
+              "meta": {"restaurants": "not this one"},
+              "restaurants": [
+                {"objectId": "r1", "name": "Overlap Café", "open": "8:00AM", "close": "8:00PM",
+                 "deals": [{"objectId": "d1", "discount": "10", "open": "9:00AM", "close": "2:00PM", "qtyLeft": 5}]},
+                {"objectId": "r2", "name": "Second", "unknownField": [1, {"a": 2}], "deals": []}
+              ],
+              "trailer": [[], {}]
+            }""";
+
+    private final RestaurantFeedParser parser = new RestaurantFeedParser(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void parse_ChunkedBody_EmitsEveryRestaurant() {
+        List<Restaurant> restaurants = parser.parse(chunks(FEED, 7)).collectList().block();
+
+        assertEquals(2, restaurants.size());
+        Restaurant first = restaurants.get(0);
+        assertEquals("r1", first.getRestaurantObjectId());
+        assertEquals("Overlap Café", first.getRestaurantName());
+        assertEquals(LocalTime.of(8, 0), first.getRestaurantOpen());
+        assertEquals("d1", first.getDeals().get(0).getDealObjectId());
+        assertEquals(LocalTime.of(14, 0), first.getDeals().get(0).getClose());
+        assertEquals("r2", restaurants.get(1).getRestaurantObjectId());
+    }
+
+    @Test
+    void parse_EmitsRestaurantBeforeBodyCompletes() {
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        List<Restaurant> received = new ArrayList<>();
+        parser.parse(body.asFlux()).subscribe(received::add);
+
+        int secondRestaurant = FEED.indexOf("{\"objectId\": \"r2\"");
+        body.tryEmitNext(buffer(FEED.substring(0, secondRestaurant)));
+
+        assertEquals(1, received.size());
+        assertEquals("r1", received.get(0).getRestaurantObjectId());
+    }
+
+    @Test
+    void parse_NullRestaurants_EmitsNothing() {
+        StepVerifier.create(parser.parse(chunks("{\"restaurants\": null}", 4)))
+                .verifyComplete();
+    }
+
+    @Test
+    void parse_TruncatedBody_Fails() {
+        StepVerifier.create(parser.parse(chunks(FEED.substring(0, FEED.indexOf("\"trailer\"")), 16)))
+                .expectNextCount(2)
+                .verifyError(DecodingException.class);
+    }
+
+    @Test
+    void parse_InputStream_EmitsEveryRestaurant() throws Exception {
+        List<Restaurant> restaurants = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(FEED.getBytes(StandardCharsets.UTF_8)), restaurants::add);
+
+        assertEquals(2, restaurants.size());
+        assertEquals("Overlap Café", restaurants.get(0).getRestaurantName());
+        assertEquals("d1", restaurants.get(0).getDeals().get(0).getDealObjectId());
+        assertEquals("r2", restaurants.get(1).getRestaurantObjectId());
+    }
+
+    @Test
+    void parse_TruncatedInputStream_Fails() {
+        byte[] truncated = FEED.substring(0, FEED.indexOf("\"trailer\"")).getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(DecodingException.class,
+                () -> parser.parse(new ByteArrayInputStream(truncated), restaurant -> { }));
+    }
+
+    private static Flux<DataBuffer> chunks(String json, int size) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += size) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + size))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static DataBuffer buffer(String json) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,143 @@
+package com.customer.restaurantdeals.service;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.customer.restaurantdeals.util.RestaurantDealsConstant.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamResilienceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build());
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+
+    @Test
+    void decorate_TransientFailure_Retried() {
+        UpstreamResilience resilience = resilience(2, false);
+
+        Mono<String> fetch = Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(serverError())
+                : Mono.just("feed"));
+
+        assertEquals("feed", resilience.decorate(fetch).block());
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, meterRegistry.counter(METRIC_FEED_RETRIES).count());
+    }
+
+    @Test
+    void decorate_ClientError_NotRetried() {
+        UpstreamResilience resilience = resilience(2, false);
+
+        Mono<String> fetch = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null));
+        });
+
+        StepVerifier.create(resilience.decorate(fetch))
+                .verifyError(WebClientResponseException.NotFound.class);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void decorate_RepeatedFailures_OpenCircuitAndFailFast() {
+        UpstreamResilience resilience = resilience(0, false);
+        Mono<String> fetch = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(serverError());
+        });
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(resilience.decorate(fetch)).verifyError(WebClientResponseException.class);
+        }
+        StepVerifier.create(resilience.decorate(fetch)).verifyError(CallNotPermittedException.class);
+
+        assertEquals(4, attempts.get());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.circuitBreaker(UPSTREAM_RESTAURANT_FEED).getState());
+    }
+
+    @Test
+    void decorate_ConcurrentFetches_RejectedByBulkhead() {
+        UpstreamResilience resilience = resilience(2, false);
+        resilience.decorate(Mono.never()).subscribe();
+
+        StepVerifier.create(resilience.decorate(Mono.just("feed")))
+                .verifyError(BulkheadFullException.class);
+    }
+
+    @Test
+    void decorate_NamedSources_OwnBulkheadAndCircuitBreaker() {
+        UpstreamResilience resilience = resilience(0, false);
+        resilience.decorate(UPSTREAM_RESTAURANT_FEED + "-east", Mono.never()).subscribe();
+
+        StepVerifier.create(resilience.decorate(UPSTREAM_RESTAURANT_FEED + "-west", Mono.just("feed")))
+                .expectNext("feed")
+                .verifyComplete();
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(resilience.decorate(UPSTREAM_RESTAURANT_FEED + "-west", Mono.error(serverError())))
+                    .verifyError(WebClientResponseException.class);
+        }
+        assertEquals(CircuitBreaker.State.OPEN,
+                circuitBreakers.circuitBreaker(UPSTREAM_RESTAURANT_FEED + "-west").getState());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.circuitBreaker(UPSTREAM_RESTAURANT_FEED).getState());
+        assertEquals(1, bulkheads.bulkhead(UPSTREAM_RESTAURANT_FEED + "-west")
+                .getBulkheadConfig().getMaxConcurrentCalls());
+    }
+
+    @Test
+    void decorate_SlowFetch_HedgedAndFasterAttemptWins() {
+        UpstreamResilience resilience = new UpstreamResilience(circuitBreakers,
+                BulkheadRegistry.ofDefaults(), meterRegistry, 0, Duration.ZERO, Duration.ZERO, 0,
+                true, 0.95, Duration.ofMillis(50));
+
+        Mono<String> fetch = Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.just("slow").delayElement(Duration.ofSeconds(10))
+                : Mono.just("hedge"));
+
+        StepVerifier.create(resilience.decorate(fetch))
+                .expectNext("hedge")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.counter(METRIC_FEED_HEDGES).count());
+    }
+
+    @Test
+    void isTransient_ClassifiesFailures() {
+        assertTrue(UpstreamResilience.isTransient(serverError()));
+        assertFalse(UpstreamResilience.isTransient(
+                WebClientResponseException.create(400, "Bad Request", null, null, null)));
+        assertFalse(UpstreamResilience.isTransient(new IllegalStateException("malformed")));
+    }
+
+    private UpstreamResilience resilience(int maxRetries, boolean hedge) {
+        return new UpstreamResilience(circuitBreakers, bulkheads, meterRegistry, maxRetries,
+                Duration.ofMillis(1), Duration.ofMillis(5), 0.5, hedge, 0.95, Duration.ofMillis(50));
+    }
+
+    private static WebClientResponseException serverError() {
+        return WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable",
+                null, null, null);
+    }
+}
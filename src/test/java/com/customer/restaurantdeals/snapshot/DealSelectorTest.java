@@ -0,0 +1,253 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealSelector.Order;
+import com.customer.restaurantdeals.snapshot.DealSelector.Page;
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealSelectorTest {
+
+    private final DealStore store = DealStore.of(List.of(
+            restaurant("r1", "CBD", LocalTime.of(9, 0),
+                    deal("d0", "10", true, 5), deal("d1", "30", false, 1), deal("d2", "20", true, 9)),
+            restaurant("r2", "Richmond", LocalTime.of(12, 0),
+                    deal("d3", "20", true, 3), deal("d4", null, false, 0))));
+    private final int[] all = {0, 1, 2, 3, 4};
+
+    @Test
+    void select_FeedOrder_StopsAtLimit() {
+        int[] scanned = new int[1];
+        Page first = DealSelector.select(store, all, ordinal -> {
+            scanned[0]++;
+            return true;
+        }, Order.FEED, DealSelector.START, 2);
+
+        assertArrayEquals(new int[]{0, 1}, first.getOrdinals());
+        assertTrue(first.hasNext());
+        assertEquals(3, scanned[0]);
+
+        Page second = DealSelector.select(store, all, ordinal -> true, Order.FEED, first.getNext(), 2);
+        assertArrayEquals(new int[]{2, 3}, second.getOrdinals());
+
+        Page last = DealSelector.select(store, all, ordinal -> true, Order.FEED, second.getNext(), 2);
+        assertArrayEquals(new int[]{4}, last.getOrdinals());
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void select_Sorted_TiesBrokenByOrdinal() {
+        Page descending = DealSelector.select(store, all, ordinal -> true, Order.DISCOUNT_DESC,
+                DealSelector.START, 3);
+        assertArrayEquals(new int[]{1, 2, 3}, descending.getOrdinals());
+
+        Page rest = DealSelector.select(store, all, ordinal -> true, Order.DISCOUNT_DESC, descending.getNext(), 3);
+        assertArrayEquals(new int[]{0, 4}, rest.getOrdinals());
+        assertFalse(rest.hasNext());
+
+        Page ascending = DealSelector.select(store, all, ordinal -> true, Order.QTY_LEFT_ASC,
+                DealSelector.START, 10);
+        assertArrayEquals(new int[]{4, 1, 3, 0, 2}, ascending.getOrdinals());
+    }
+
+    @Test
+    void select_WithFilter() {
+        DealFilter filter = new DealFilter(store, "cbd", true, null, 6, 15);
+
+        assertArrayEquals(new int[]{2}, DealSelector.select(store, all, filter, Order.FEED,
+                DealSelector.START, Integer.MAX_VALUE).getOrdinals());
+        assertArrayEquals(new int[]{3}, DealSelector.select(store, all,
+                new DealFilter(store, "Richmond", null, null, null, 0), Order.QTY_LEFT_DESC,
+                DealSelector.START, Integer.MAX_VALUE).getOrdinals());
+    }
+
+    @Test
+    void restaurantDealsActiveAt_UsesRestaurantRange() {
+        assertArrayEquals(new int[]{3, 4}, DealSelector.restaurantDealsActiveAt(store, "r2", 13 * 60));
+        assertArrayEquals(new int[0], DealSelector.restaurantDealsActiveAt(store, "r2", 10 * 60));
+        assertArrayEquals(new int[0], DealSelector.restaurantDealsActiveAt(store, "r9", 13 * 60));
+    }
+
+    @Test
+    void activeAtEach_SweepsStoreOnce() {
+        int[] tested = new int[1];
+        int[][] active = DealSelector.activeAtEach(store, null, new int[]{8 * 60, 10 * 60, 13 * 60, 23 * 60},
+                ordinal -> {
+                    tested[0]++;
+                    return ordinal != 1;
+                }, Integer.MAX_VALUE);
+
+        assertArrayEquals(new int[0], active[0]);
+        assertArrayEquals(new int[]{0, 2}, active[1]);
+        assertArrayEquals(new int[]{0, 2, 3, 4}, active[2]);
+        assertArrayEquals(new int[0], active[3]);
+        assertEquals(5, tested[0]);
+    }
+
+    @Test
+    void activeAtEach_RestaurantAndLimit() {
+        int[][] active = DealSelector.activeAtEach(store, "r2", new int[]{10 * 60, 13 * 60}, ordinal -> true, 1);
+
+        assertArrayEquals(new int[0], active[0]);
+        assertArrayEquals(new int[]{3}, active[1]);
+    }
+
+    @Test
+    void activeAtEach_Sharded_MatchesSequentialSweep() {
+        int[] minutes = {8 * 60, 10 * 60, 13 * 60, 23 * 60};
+        Sharding sharding = new Sharding(1, 3);
+
+        for (int limit : new int[]{1, 2, 3, Integer.MAX_VALUE}) {
+            int[][] sequential = DealSelector.activeAtEach(store, null, minutes, ordinal -> ordinal != 1, limit);
+            int[][] sharded = DealSelector.activeAtEach(store, null, minutes, ordinal -> ordinal != 1, limit, sharding);
+            for (int q = 0; q < minutes.length; q++) {
+                assertArrayEquals(sequential[q], sharded[q], "limit " + limit + ", minute " + minutes[q]);
+            }
+        }
+    }
+
+    @Test
+    void activeAtEach_TooManyDeals_StopsSweep() {
+        int[] minutes = {10 * 60, 13 * 60};
+        int[] tested = new int[1];
+        assertThrows(DealSelector.TooManyDealsException.class, () -> DealSelector.activeAtEach(store, null, minutes,
+                ordinal -> {
+                    tested[0]++;
+                    return true;
+                }, Integer.MAX_VALUE, 3, Sharding.SEQUENTIAL));
+        // The second deal takes the count over, the rest of the store is never read
+        assertEquals(2, tested[0]);
+
+        for (Sharding sharding : new Sharding[]{Sharding.SEQUENTIAL, new Sharding(1, 3)}) {
+            assertEquals(5, DealSelector.activeAtEach(store, null, minutes, ordinal -> true, Integer.MAX_VALUE, 8,
+                    sharding)[1].length);
+            assertThrows(DealSelector.TooManyDealsException.class, () -> DealSelector.activeAtEach(store, null,
+                    minutes, ordinal -> true, Integer.MAX_VALUE, 7, sharding));
+            // Deals past the per-minute limit are not counted
+            int[][] limited = DealSelector.activeAtEach(store, null, minutes, ordinal -> true, 2, 4, sharding);
+            assertArrayEquals(new int[]{0, 1}, limited[0]);
+            assertArrayEquals(new int[]{0, 1}, limited[1]);
+        }
+    }
+
+    @Test
+    void select_ShardedSort_MatchesSequentialPages() {
+        Sharding sharding = new Sharding(1, 4);
+        for (Order order : Order.values()) {
+            long after = DealSelector.START;
+            do {
+                Page sequential = DealSelector.select(store, all, ordinal -> ordinal != 2, order, after, 2);
+                Page sharded = DealSelector.select(store, all, ordinal -> ordinal != 2, order, after, 2, sharding);
+                assertArrayEquals(sequential.getOrdinals(), sharded.getOrdinals(), order.name());
+                assertEquals(sequential.getNext(), sharded.getNext());
+                after = sequential.getNext();
+            } while (after != DealSelector.START);
+        }
+    }
+
+    @Test
+    void nearby_NearestFirstThenFeedOrder() {
+        // r1 about 1.1 km north of the point, r2 about 0.55 km south, r3 about 5.5 km east
+        DealStore located = DealStore.of(List.of(
+                located(restaurant("r1", "CBD", LocalTime.of(9, 0),
+                        deal("d0", "10", true, 5), deal("d1", "30", false, 1)), -37.80, 144.96),
+                located(restaurant("r2", "Richmond", LocalTime.of(9, 0),
+                        deal("d2", "20", true, 3), deal("d3", "20", true, 0)), -37.815, 144.96),
+                located(restaurant("r3", "Richmond", LocalTime.of(9, 0),
+                        deal("d4", "20", true, 3)), -37.81, 145.0225),
+                restaurant("r4", "CBD", LocalTime.of(9, 0), deal("d5", "50", true, 3))));
+        DealTimeIndex timeIndex = DealTimeIndex.build(located);
+        GeoIndex geoIndex = GeoIndex.build(located, SuburbCentroids.EMPTY);
+
+        DealSelector.Nearby nearby = DealSelector.nearby(located, timeIndex, geoIndex, 12 * 60, -37.81, 144.96, 2,
+                ordinal -> true, Integer.MAX_VALUE);
+
+        assertArrayEquals(new int[]{2, 3, 0, 1}, nearby.getOrdinals());
+        assertEquals(0.556, nearby.getDistancesKm()[0], 0.001);
+        assertEquals(nearby.getDistancesKm()[0], nearby.getDistancesKm()[1]);
+        assertEquals(1.112, nearby.getDistancesKm()[2], 0.001);
+        assertArrayEquals(new int[]{2, 0}, DealSelector.nearby(located, timeIndex, geoIndex, 12 * 60, -37.81, 144.96,
+                2, new DealFilter(located, null, true, null, 1, null), 2).getOrdinals());
+        assertEquals(0, DealSelector.nearby(located, timeIndex, geoIndex, 8 * 60, -37.81, 144.96, 2,
+                ordinal -> true, Integer.MAX_VALUE).getOrdinals().length);
+        assertArrayEquals(new int[]{2, 3, 0, 1, 4}, DealSelector.nearby(located, timeIndex, geoIndex, 12 * 60,
+                -37.81, 144.96, 6, ordinal -> true, Integer.MAX_VALUE).getOrdinals());
+    }
+
+    @Test
+    void nearby_LocationAndTimeIndexAgreeWithFullScan() {
+        SplittableRandom random = new SplittableRandom(3);
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 2000; r++) {
+            Deal[] deals = new Deal[random.nextInt(4)];
+            for (int d = 0; d < deals.length; d++) {
+                deals[d] = deal("d" + r + "-" + d, String.valueOf(5 * random.nextInt(10)), random.nextBoolean(),
+                        random.nextInt(10));
+            }
+            Restaurant restaurant = restaurant("r" + r, "CBD", LocalTime.of(6 + random.nextInt(12), 0), deals);
+            feed.add(random.nextInt(10) == 0 ? restaurant
+                    : located(restaurant, -38 + random.nextDouble() * 0.5, 144.7 + random.nextDouble() * 0.6));
+        }
+        DealStore large = DealStore.of(feed);
+        DealTimeIndex timeIndex = DealTimeIndex.build(large);
+        GeoIndex geoIndex = GeoIndex.build(large, SuburbCentroids.EMPTY);
+        DealFilter filter = new DealFilter(large, null, true, null, 2, null);
+
+        for (double radiusKm : new double[]{0.5, 3, 10, 50}) {
+            for (int minute : new int[]{7 * 60, 13 * 60, 21 * 60}) {
+                List<Integer> expected = new ArrayList<>();
+                for (int ordinal = 0; ordinal < large.size(); ordinal++) {
+                    int restaurant = large.restaurantOf(ordinal);
+                    if (geoIndex.distanceKm(restaurant, -37.8, 145.0) <= radiusKm && large.activeFrom(ordinal) <= minute
+                            && minute <= large.activeTo(ordinal) && filter.test(ordinal)) {
+                        expected.add(ordinal);
+                    }
+                }
+                expected.sort(Comparator.comparingDouble((Integer ordinal) ->
+                        geoIndex.distanceKm(large.restaurantOf(ordinal), -37.8, 145.0)).thenComparing(ordinal -> ordinal));
+                int[] ordinals = expected.stream().mapToInt(Integer::intValue).toArray();
+
+                String query = radiusKm + " km at minute " + minute;
+                assertArrayEquals(ordinals, DealSelector.nearbyByLocation(large, geoIndex, minute, -37.8, 145.0,
+                        radiusKm, filter, Integer.MAX_VALUE).getOrdinals(), query);
+                assertArrayEquals(ordinals, DealSelector.nearbyByTime(large, timeIndex, geoIndex, minute, -37.8, 145.0,
+                        radiusKm, filter, Integer.MAX_VALUE).getOrdinals(), query);
+                assertArrayEquals(Arrays.copyOf(ordinals, Math.min(5, ordinals.length)), DealSelector.nearby(large,
+                        timeIndex, geoIndex, minute, -37.8, 145.0, radiusKm, filter, 5).getOrdinals(), query);
+            }
+        }
+    }
+
+    private static Restaurant located(Restaurant restaurant, double latitude, double longitude) {
+        restaurant.setLatitude(latitude);
+        restaurant.setLongitude(longitude);
+        return restaurant;
+    }
+
+    private static Restaurant restaurant(String id, String suburb, LocalTime open, Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantSuburb(suburb);
+        restaurant.setRestaurantOpen(open);
+        restaurant.setRestaurantClose(LocalTime.of(22, 0));
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static Deal deal(String id, String discount, boolean dineIn, int qtyLeft) {
+        Deal deal = new Deal();
+        deal.setDealObjectId(id);
+        deal.setDiscount(discount);
+        deal.setDineIn(dineIn);
+        deal.setQtyLeft(qtyLeft);
+        return deal;
+    }
+}
@@ -0,0 +1,205 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.util.MinuteOfDay;
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealStoreTest {
+
+    @Test
+    void of_StoresRestaurantAndDealColumns() {
+        Restaurant first = restaurant("r1", "Richmond", LocalTime.of(8, 0), LocalTime.of(20, 30),
+                deal("d1", "10", true, false, 5, LocalTime.of(9, 0), LocalTime.of(14, 0)),
+                deal("d2", "20", false, true, 0, null, null));
+        Restaurant second = restaurant("r2", "Richmond", null, null,
+                deal("d3", "10", true, true, 7, null, null));
+
+        DealStore store = DealStore.of(List.of(first, second));
+
+        assertEquals(2, store.restaurantCount());
+        assertEquals(3, store.size());
+
+        assertEquals(0, store.restaurantOf(1));
+        assertEquals("r1", store.restaurantId(0));
+        assertEquals("Name r1", store.restaurantName(0));
+        assertEquals("Richmond", store.restaurantSuburb(1));
+        assertEquals(8 * 60, store.restaurantOpen(0));
+        assertEquals(20 * 60 + 30, store.restaurantClose(0));
+        assertEquals(MinuteOfDay.INVALID, store.restaurantOpen(1));
+
+        assertEquals("d1", store.dealId(0));
+        assertEquals("20", store.discount(1));
+        assertTrue(store.dineIn(0));
+        assertFalse(store.dineIn(1));
+        assertTrue(store.lightning(1));
+        assertEquals(7, store.qtyLeft(2));
+    }
+
+    @Test
+    void of_ActiveIntervalIsRestaurantAndDealHoursIntersection() {
+        Restaurant restaurant = restaurant("r1", null, LocalTime.of(8, 0), LocalTime.of(20, 0),
+                deal("d1", null, false, false, 0, LocalTime.of(7, 0), LocalTime.of(14, 0)),
+                deal("d2", null, false, false, 0, null, null));
+        Restaurant closed = restaurant("r2", null, null, null,
+                deal("d3", null, false, false, 0, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+
+        DealStore store = DealStore.of(List.of(restaurant, closed));
+
+        assertEquals(8 * 60, store.activeFrom(0));
+        assertEquals(14 * 60, store.activeTo(0));
+        assertEquals(20 * 60, store.activeTo(1));
+        assertEquals(DealStore.NEVER, store.activeFrom(2));
+    }
+
+    @Test
+    void of_NullsPreserved() {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setDeals(List.of(new Deal()));
+        Restaurant noDeals = new Restaurant();
+
+        DealStore store = DealStore.of(List.of(restaurant, noDeals));
+
+        assertEquals(2, store.restaurantCount());
+        assertEquals(1, store.size());
+        assertNull(store.restaurantName(0));
+        assertNull(store.restaurantSuburb(0));
+        assertNull(store.dealId(0));
+        assertNull(store.discount(0));
+    }
+
+    @Test
+    void of_QueryColumns() {
+        Restaurant first = restaurant("r1", "Richmond", null, null,
+                deal("d1", "15% off Lunch", false, false, 0, null, null),
+                deal("d2", "Free drink", false, false, 0, null, null));
+        Restaurant second = restaurant("r2", "CBD", null, null);
+        Restaurant third = restaurant("r3", "richmond", null, null,
+                deal("d3", "2 for 1", false, false, 0, null, null));
+
+        DealStore store = DealStore.of(List.of(first, second, third));
+
+        assertEquals(15, store.discountValue(0));
+        assertEquals(-1, store.discountValue(1));
+        assertEquals(2, store.discountValue(2));
+        assertEquals(0, store.firstPair(0));
+        assertEquals(2, store.firstPair(1));
+        assertEquals(2, store.firstPair(2));
+        assertEquals(3, store.firstPair(3));
+
+        boolean[] richmond = store.suburbCodes("RICHMOND");
+        assertTrue(richmond[store.restaurantSuburbCode(0)]);
+        assertFalse(richmond[store.restaurantSuburbCode(1)]);
+        assertTrue(richmond[store.restaurantSuburbCode(2)]);
+    }
+
+    @Test
+    void builder_GrowsPastInitialCapacity() {
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 100; r++) {
+            feed.add(restaurant("r" + r, null, LocalTime.of(9, 0), LocalTime.of(17, 0),
+                    deal("d" + r + "a", null, r % 2 == 0, false, r, null, null),
+                    deal("d" + r + "b", null, false, false, r, null, null)));
+        }
+
+        DealStore store = DealStore.of(feed);
+
+        assertEquals(200, store.size());
+        assertEquals("r99", store.restaurantId(99));
+        assertEquals("d99b", store.dealId(199));
+        assertEquals(99, store.restaurantOf(199));
+        assertTrue(store.dineIn(196));
+        assertFalse(store.dineIn(198));
+    }
+
+    @Test
+    void of_CoordinatesKeptOnlyWhenTheyLocateAPoint() {
+        Restaurant located = restaurant("r1", "Richmond", null, null);
+        located.setLatitude(-37.8183);
+        located.setLongitude(144.9982);
+        Restaurant placeholder = restaurant("r2", "Richmond", null, null);
+        placeholder.setLatitude(0.0);
+        placeholder.setLongitude(0.0);
+        Restaurant outOfRange = restaurant("r3", "Richmond", null, null);
+        outOfRange.setLatitude(144.9982);
+        outOfRange.setLongitude(-37.8183);
+        Restaurant halfLocated = restaurant("r4", "Richmond", null, null);
+        halfLocated.setLatitude(-37.8183);
+
+        DealStore store = DealStore.of(List.of(located, placeholder, outOfRange, halfLocated,
+                restaurant("r5", "Richmond", null, null)));
+
+        assertEquals(-37.8183, store.latitude(0));
+        assertEquals(144.9982, store.longitude(0));
+        for (int r = 1; r < store.restaurantCount(); r++) {
+            assertTrue(Double.isNaN(store.latitude(r)), "restaurant " + r);
+            assertTrue(Double.isNaN(store.longitude(r)), "restaurant " + r);
+        }
+    }
+
+    @Test
+    void merge_DuplicatesKeptOnceFirstSourceWins() {
+        DealStore east = DealStore.of(List.of(
+                restaurant("r1", "Richmond", LocalTime.of(8, 0), LocalTime.of(20, 0),
+                        deal("d1", "10% off", true, false, 5, null, null)),
+                restaurant("r2", "Carlton", null, null,
+                        deal("d2", "20% off", false, true, 1, null, null))));
+        DealStore west = DealStore.of(List.of(
+                restaurant("r3", "Footscray", null, null,
+                        deal("d3", "30% off", false, false, 2, null, null)),
+                restaurant("r1", "Elsewhere", null, null,
+                        deal("d1", "stale copy", false, false, 0, null, null),
+                        deal("d4", "40% off", true, true, 3, LocalTime.of(9, 0), LocalTime.of(10, 0)))));
+
+        DealStore merged = DealStore.merge(List.of(east, west), new boolean[]{false, true});
+
+        assertEquals(3, merged.restaurantCount());
+        assertEquals(4, merged.size());
+        assertEquals("r1", merged.restaurantId(0));
+        assertEquals("Richmond", merged.restaurantSuburb(0));
+        assertEquals(0, merged.restaurantSource(0));
+        // r1 keeps its deal from east and gains the one only west lists
+        assertEquals(0, merged.firstPair(0));
+        assertEquals(2, merged.firstPair(1));
+        assertEquals("d1", merged.dealId(0));
+        assertEquals("10% off", merged.discount(0));
+        assertFalse(merged.stale(0));
+        assertEquals("d4", merged.dealId(1));
+        assertEquals(1, merged.source(1));
+        assertTrue(merged.stale(1));
+        assertEquals(9 * 60, merged.dealStart(1));
+        assertEquals("r3", merged.restaurantId(2));
+        assertEquals(1, merged.restaurantSource(2));
+        assertEquals("d3", merged.dealId(3));
+        assertEquals(2, merged.restaurantOf(3));
+    }
+
+    private static Restaurant restaurant(String id, String suburb, LocalTime open, LocalTime close, Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantName("Name " + id);
+        restaurant.setRestaurantSuburb(suburb);
+        restaurant.setRestaurantOpen(open);
+        restaurant.setRestaurantClose(close);
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static Deal deal(String id, String discount, boolean dineIn, boolean lightning, int qtyLeft,
+                             LocalTime open, LocalTime close) {
+        Deal deal = new Deal();
+        deal.setDealObjectId(id);
+        deal.setDiscount(discount);
+        deal.setDineIn(dineIn);
+        deal.setLightning(lightning);
+        deal.setQtyLeft(qtyLeft);
+        deal.setOpen(open);
+        deal.setClose(close);
+        return deal;
+    }
+}
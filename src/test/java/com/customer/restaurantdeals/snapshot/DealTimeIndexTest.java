@@ -0,0 +1,152 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealTimeIndexTest {
+
+    @Test
+    void activeAt_RestaurantHours_VariousCases() {
+        Restaurant noHours = restaurant(null, null, deal(null, null));
+        Restaurant openAround = restaurant(LocalTime.of(10, 0), LocalTime.of(14, 0), deal(null, null));
+        openAround.setRestaurantObjectId("open-around");
+        Restaurant opensLater = restaurant(LocalTime.of(13, 0), LocalTime.of(14, 0), deal(null, null));
+        Restaurant closedBefore = restaurant(LocalTime.of(9, 0), LocalTime.of(11, 0), deal(null, null));
+
+        DealStore store = DealStore.of(List.of(noHours, openAround, opensLater, closedBefore));
+        DealTimeIndex index = DealTimeIndex.build(store);
+
+        int[] active = index.activeAt(12 * 60);
+        assertEquals(1, active.length);
+        assertEquals("open-around", store.restaurantId(store.restaurantOf(active[0])));
+    }
+
+    @Test
+    void activeAt_BoundariesAreInclusive() {
+        Restaurant restaurant = restaurant(LocalTime.of(8, 0), LocalTime.of(20, 0),
+                deal(LocalTime.of(9, 0), LocalTime.of(14, 0)));
+        DealTimeIndex index = DealTimeIndex.build(DealStore.of(List.of(restaurant)));
+
+        assertEquals(0, index.activeAt(8 * 60 + 59).length);
+        assertEquals(1, index.activeAt(9 * 60).length);
+        assertEquals(1, index.activeAt(14 * 60).length);
+        assertEquals(0, index.activeAt(14 * 60 + 1).length);
+    }
+
+    @Test
+    void activeAt_DealFallsBackToStartAndEnd() {
+        Deal deal = new Deal();
+        deal.setStart(LocalTime.of(15, 0));
+        deal.setEnd(LocalTime.of(16, 0));
+        DealTimeIndex index = DealTimeIndex.build(DealStore.of(List.of(
+                restaurant(LocalTime.of(8, 0), LocalTime.of(20, 0), deal))));
+
+        assertEquals(0, index.activeAt(14 * 60).length);
+        assertEquals(1, index.activeAt(15 * 60 + 30).length);
+    }
+
+    @Test
+    void activeAt_MatchesLinearScanForEveryMinute() {
+        Random random = new Random(42);
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 200; r++) {
+            List<Deal> deals = new ArrayList<>();
+            for (int d = 0; d < random.nextInt(6); d++) {
+                deals.add(random.nextInt(5) == 0 ? deal(null, null) : deal(randomTime(random), randomTime(random)));
+            }
+            feed.add(restaurant(randomTime(random), randomTime(random), deals.toArray(new Deal[0])));
+        }
+
+        DealStore store = DealStore.of(feed);
+        DealTimeIndex index = DealTimeIndex.build(store);
+
+        for (int minute = 0; minute < 1440; minute++) {
+            List<String> expected = linearScan(feed, LocalTime.of(minute / 60, minute % 60));
+            int[] active = index.activeAt(minute);
+            List<String> actual = new ArrayList<>();
+            for (int ordinal : active) {
+                actual.add(store.dealId(ordinal));
+            }
+            assertEquals(expected, actual, "minute " + minute);
+            assertEquals(active.length, index.countAt(minute), "minute " + minute);
+            List<Integer> visited = new ArrayList<>();
+            index.forEachActiveAt(minute, visited::add);
+            assertEquals(Arrays.stream(active).boxed().toList(), visited.stream().sorted().toList(), "minute " + minute);
+        }
+    }
+
+    @Test
+    void build_Sharded_MatchesSequentialBuild() {
+        Random random = new Random(11);
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 300; r++) {
+            List<Deal> deals = new ArrayList<>();
+            for (int d = 0; d < random.nextInt(6); d++) {
+                deals.add(deal(randomTime(random), randomTime(random)));
+            }
+            feed.add(restaurant(randomTime(random), randomTime(random), deals.toArray(new Deal[0])));
+        }
+
+        DealStore store = DealStore.of(feed);
+        DealTimeIndex sequential = DealTimeIndex.build(store);
+        DealTimeIndex sharded = DealTimeIndex.build(store, new Sharding(1, 7));
+
+        for (int minute = 0; minute < 1440; minute++) {
+            assertArrayEquals(sequential.activeAt(minute), sharded.activeAt(minute), "minute " + minute);
+        }
+    }
+
+    // Reference implementation: the restaurant-by-restaurant scan the index replaces
+    private static List<String> linearScan(List<Restaurant> feed, LocalTime queryTime) {
+        List<String> result = new ArrayList<>();
+        for (Restaurant r : feed) {
+            if (!isOpenAt(queryTime, r.getRestaurantOpen(), r.getRestaurantClose())) {
+                continue;
+            }
+            for (Deal deal : r.getDeals()) {
+                LocalTime open = deal.getOpen() != null ? deal.getOpen() : deal.getStart();
+                LocalTime close = deal.getClose() != null ? deal.getClose() : deal.getEnd();
+                if (open == null || close == null || isOpenAt(queryTime, open, close)) {
+                    result.add(deal.getDealObjectId());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isOpenAt(LocalTime queryTime, LocalTime open, LocalTime close) {
+        if (open == null || close == null)
+            return false;
+        return !queryTime.isBefore(open) && !queryTime.isAfter(close);
+    }
+
+    private static LocalTime randomTime(Random random) {
+        return LocalTime.of(random.nextInt(24), random.nextInt(60));
+    }
+
+    private static Restaurant restaurant(LocalTime open, LocalTime close, Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantOpen(open);
+        restaurant.setRestaurantClose(close);
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static int dealIds;
+
+    private static Deal deal(LocalTime open, LocalTime close) {
+        Deal deal = new Deal();
+        deal.setDealObjectId("d" + dealIds++);
+        deal.setOpen(open);
+        deal.setClose(close);
+        return deal;
+    }
+}
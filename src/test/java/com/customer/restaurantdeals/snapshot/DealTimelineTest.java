@@ -0,0 +1,96 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import com.customer.restaurantdeals.snapshot.DealTimeline.Grouping;
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static com.customer.restaurantdeals.util.MinuteOfDay.MINUTES_PER_DAY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealTimelineTest {
+
+    @Test
+    void build_CountsMatchTimeIndexAtEveryMinute() {
+        Random random = new Random(7);
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 50; r++) {
+            Deal[] deals = new Deal[random.nextInt(4)];
+            for (int d = 0; d < deals.length; d++) {
+                int open = random.nextInt(MINUTES_PER_DAY);
+                int close = random.nextInt(MINUTES_PER_DAY);
+                deals[d] = deal("d" + r + "-" + d, random.nextBoolean(), time(open), time(close));
+            }
+            feed.add(restaurant("r" + r, "s" + random.nextInt(3), LocalTime.of(6, 0), LocalTime.of(23, 0), deals));
+        }
+        DealStore store = DealStore.of(feed);
+        DealTimeIndex index = DealTimeIndex.build(store);
+
+        DealTimeline timeline = DealTimeline.build(store, Grouping.NONE);
+
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            int[] active = index.activeAt(minute);
+            Set<Integer> restaurants = new HashSet<>();
+            for (int ordinal : active) {
+                restaurants.add(store.restaurantOf(ordinal));
+            }
+            assertEquals(active.length, timeline.deals(0, minute), "deals at minute " + minute);
+            assertEquals(restaurants.size(), timeline.restaurants(0, minute), "restaurants at minute " + minute);
+        }
+    }
+
+    @Test
+    void build_GroupedBySuburbAndLightning() {
+        DealStore store = DealStore.of(List.of(
+                restaurant("r1", "CBD", LocalTime.of(9, 0), LocalTime.of(17, 0),
+                        deal("d1", true, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                        deal("d2", false, LocalTime.of(11, 0), LocalTime.of(14, 0))),
+                restaurant("r2", "Richmond", LocalTime.of(9, 0), LocalTime.of(17, 0),
+                        deal("d3", true, LocalTime.of(10, 0), LocalTime.of(10, 30)))));
+
+        DealTimeline bySuburb = DealTimeline.build(store, Grouping.SUBURB);
+        assertEquals(List.of("CBD", "Richmond"), bySuburb.getGroups());
+        assertEquals(2, bySuburb.deals(0, 11 * 60 + 30));
+        assertEquals(1, bySuburb.restaurants(0, 11 * 60 + 30));
+        assertEquals(1, bySuburb.restaurants(0, 13 * 60));
+        assertEquals(0, bySuburb.restaurants(0, 14 * 60 + 1));
+        assertEquals(1, bySuburb.deals(1, 10 * 60 + 15));
+        assertEquals(0, bySuburb.deals(1, 11 * 60));
+
+        DealTimeline byLightning = DealTimeline.build(store, Grouping.LIGHTNING);
+        assertEquals(List.of("false", "true"), byLightning.getGroups());
+        assertEquals(2, byLightning.deals(1, 10 * 60 + 15));
+        assertEquals(2, byLightning.restaurants(1, 10 * 60 + 15));
+        assertEquals(0, byLightning.deals(0, 10 * 60 + 15));
+        assertEquals(1, byLightning.deals(0, 13 * 60));
+    }
+
+    private static LocalTime time(int minute) {
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    private static Restaurant restaurant(String id, String suburb, LocalTime open, LocalTime close, Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantSuburb(suburb);
+        restaurant.setRestaurantOpen(open);
+        restaurant.setRestaurantClose(close);
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static Deal deal(String id, boolean lightning, LocalTime open, LocalTime close) {
+        Deal deal = new Deal();
+        deal.setDealObjectId(id);
+        deal.setLightning(lightning);
+        deal.setOpen(open);
+        deal.setClose(close);
+        return deal;
+    }
+}
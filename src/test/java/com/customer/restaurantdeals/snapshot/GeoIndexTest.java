@@ -0,0 +1,98 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoIndexTest {
+
+    @Test
+    void distanceKm_GreatCircle() {
+        // Melbourne to Sydney GPO
+        assertEquals(713.4, GeoIndex.distanceKm(-37.8136, 144.9631, -33.8688, 151.2093), 0.5);
+        assertEquals(0, GeoIndex.distanceKm(-37.8136, 144.9631, -37.8136, 144.9631));
+        // Across the 180th meridian
+        assertEquals(GeoIndex.distanceKm(0, 179.9, 0, 180.1), GeoIndex.distanceKm(0, 179.9, 0, -179.9), 1e-9);
+    }
+
+    @Test
+    void build_LocatesByFeedCoordinatesElseSuburbCentroid() throws IOException {
+        DealStore store = DealStore.of(List.of(
+                restaurant("r1", "Richmond", -37.82, 145.0),
+                restaurant("r2", "Carlton", null, null),
+                restaurant("r3", "Nowhere", null, null),
+                restaurant("r4", null, null, null)));
+        SuburbCentroids centroids = SuburbCentroids.read(new StringReader("""
+                Richmond,-37.8183,144.9982
+                carlton,-37.8001,144.9671
+                """));
+
+        GeoIndex index = GeoIndex.build(store, centroids);
+
+        assertEquals(2, index.locatedCount());
+        assertEquals(-37.82, index.latitude(0));
+        assertFalse(index.isApproximate(0));
+        assertEquals(-37.8001, index.latitude(1));
+        assertEquals(144.9671, index.longitude(1));
+        assertTrue(index.isApproximate(1));
+        assertTrue(Double.isNaN(index.distanceKm(2, -37.8, 145.0)));
+        assertFalse(index.isApproximate(2));
+
+        List<Integer> candidates = new ArrayList<>();
+        index.forEachCandidate(-37.81, 144.98, 5, candidates::add);
+        assertEquals(List.of(0, 1), candidates.stream().sorted().toList());
+        assertEquals(0, GeoIndex.build(store, SuburbCentroids.EMPTY).candidateCount(-37.8001, 144.9671, 0.1));
+    }
+
+    @Test
+    void forEachCandidate_CoversEveryRestaurantWithinRadius() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < 3000; r++) {
+            feed.add(restaurant("r" + r, null, -38.2 + random.nextDouble() * 0.8, 144.5 + random.nextDouble() * 1.0));
+        }
+        // Near the 180th meridian and near a pole
+        for (int r = 0; r < 300; r++) {
+            double longitude = 179 + random.nextDouble() * 2;
+            feed.add(restaurant("m" + r, null, -1 + random.nextDouble() * 2, longitude > 180 ? longitude - 360 : longitude));
+            feed.add(restaurant("p" + r, null, 89.5 + random.nextDouble() * 0.5, -180 + random.nextDouble() * 360));
+        }
+        DealStore store = DealStore.of(feed);
+        GeoIndex index = GeoIndex.build(store, SuburbCentroids.EMPTY);
+
+        double[][] queries = {{-37.81, 144.96, 1.5}, {-37.7, 144.8, 3}, {-37.9, 145.1, 15}, {-38.5, 144.5, 40},
+                {0.2, 179.95, 30}, {-0.5, -179.98, 60}, {89.9, 10, 25}, {89.99, -170, 10}};
+        for (double[] query : queries) {
+            TreeSet<Integer> candidates = new TreeSet<>();
+            index.forEachCandidate(query[0], query[1], query[2], candidates::add);
+            assertEquals(candidates.size(), index.candidateCount(query[0], query[1], query[2]));
+            int within = 0;
+            for (int r = 0; r < store.restaurantCount(); r++) {
+                if (index.distanceKm(r, query[0], query[1]) <= query[2]) {
+                    within++;
+                    assertTrue(candidates.contains(r), "restaurant " + r + " for query " + List.of(query[0], query[1]));
+                }
+            }
+            assertTrue(within > 0, "query " + List.of(query[0], query[1]));
+            // Only the cells around the circle are visited
+            assertTrue(candidates.size() < store.restaurantCount() / 2, "query " + List.of(query[0], query[1]));
+        }
+    }
+
+    private static Restaurant restaurant(String id, String suburb, Double latitude, Double longitude) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantSuburb(suburb);
+        restaurant.setLatitude(latitude);
+        restaurant.setLongitude(longitude);
+        return restaurant;
+    }
+}
@@ -0,0 +1,131 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakWindowTest {
+
+    @Test
+    void of_OverlappingDeals_ReturnsIntersection() {
+        PeakWindow window = PeakWindow.of(List.of(restaurant(
+                deal(LocalTime.of(9, 0), LocalTime.of(14, 0)),
+                deal(LocalTime.of(11, 0), LocalTime.of(15, 0)))));
+
+        assertEquals(11 * 60, window.getStartMinute());
+        assertEquals(14 * 60, window.getEndMinute());
+        assertEquals(2, window.getActiveDeals());
+    }
+
+    @Test
+    void of_NoOverlap_ReturnsEarliestSingleDealWindow() {
+        PeakWindow window = PeakWindow.of(List.of(restaurant(
+                deal(LocalTime.of(10, 0), LocalTime.of(12, 0)),
+                deal(LocalTime.of(13, 0), LocalTime.of(15, 0)))));
+
+        assertEquals(10 * 60, window.getStartMinute());
+        assertEquals(12 * 60, window.getEndMinute());
+        assertEquals(1, window.getActiveDeals());
+    }
+
+    @Test
+    void of_MaximumOverlapWinsOverFullIntersection() {
+        // The three evening deals overlap, the morning deal does not overlap any of them
+        PeakWindow window = PeakWindow.of(List.of(
+                restaurant(deal(LocalTime.of(8, 0), LocalTime.of(9, 0))),
+                restaurant(deal(LocalTime.of(17, 0), LocalTime.of(20, 0)),
+                        deal(LocalTime.of(18, 0), LocalTime.of(21, 0))),
+                restaurant(deal(LocalTime.of(18, 30), LocalTime.of(19, 30)))));
+
+        assertEquals(18 * 60 + 30, window.getStartMinute());
+        assertEquals(19 * 60 + 30, window.getEndMinute());
+        assertEquals(3, window.getActiveDeals());
+    }
+
+    @Test
+    void of_OvernightDeal_CountsOnBothSidesOfMidnight() {
+        PeakWindow window = PeakWindow.of(List.of(restaurant(
+                deal(LocalTime.of(22, 0), LocalTime.of(2, 0)),
+                deal(LocalTime.of(1, 0), LocalTime.of(3, 0)))));
+
+        assertEquals(60, window.getStartMinute());
+        assertEquals(120, window.getEndMinute());
+        assertEquals(2, window.getActiveDeals());
+    }
+
+    @Test
+    void of_DealsWithoutTimes_ReturnsNull() {
+        assertNull(PeakWindow.of(List.of(restaurant(deal(null, null)))));
+        assertNull(PeakWindow.of(List.of()));
+    }
+
+    @Test
+    void compute_MatchesPerMinuteCount() {
+        Random random = new Random(7);
+        int n = 500;
+        int[] starts = new int[n];
+        int[] ends = new int[n];
+        int[] perMinute = new int[1440];
+        for (int i = 0; i < n; i++) {
+            starts[i] = random.nextInt(1440);
+            ends[i] = Math.min(1439, starts[i] + random.nextInt(240));
+            for (int m = starts[i]; m <= ends[i]; m++) {
+                perMinute[m]++;
+            }
+        }
+
+        PeakWindow window = PeakWindow.compute(starts, ends, n);
+        PeakWindow sharded = PeakWindow.compute(starts, ends, n, new Sharding(1, 4));
+
+        int max = 0;
+        int first = -1;
+        for (int m = 0; m < 1440; m++) {
+            if (perMinute[m] > max) {
+                max = perMinute[m];
+                first = m;
+            }
+        }
+        int last = first;
+        while (last + 1 < 1440 && perMinute[last + 1] == max) {
+            last++;
+        }
+        assertEquals(max, window.getActiveDeals());
+        assertEquals(first, window.getStartMinute());
+        assertEquals(last, window.getEndMinute());
+        assertEquals(window.getStartMinute(), sharded.getStartMinute());
+        assertEquals(window.getEndMinute(), sharded.getEndMinute());
+        assertEquals(window.getActiveDeals(), sharded.getActiveDeals());
+    }
+
+    @Test
+    void of_Store_SameWindowAsRestaurants() {
+        List<Restaurant> restaurants = List.of(
+                restaurant(deal(LocalTime.of(9, 0), LocalTime.of(14, 0)), deal(null, null)),
+                restaurant(deal(LocalTime.of(22, 0), LocalTime.of(2, 0)), deal(LocalTime.of(11, 0), LocalTime.of(23, 0))));
+
+        PeakWindow expected = PeakWindow.of(restaurants);
+        PeakWindow window = PeakWindow.of(DealStore.of(restaurants), Sharding.SEQUENTIAL);
+
+        assertEquals(expected.getStartMinute(), window.getStartMinute());
+        assertEquals(expected.getEndMinute(), window.getEndMinute());
+        assertEquals(expected.getActiveDeals(), window.getActiveDeals());
+    }
+
+    private static Restaurant restaurant(Deal... deals) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setDeals(List.of(deals));
+        return restaurant;
+    }
+
+    private static Deal deal(LocalTime open, LocalTime close) {
+        Deal deal = new Deal();
+        deal.setOpen(open);
+        deal.setClose(close);
+        return deal;
+    }
+}
@@ -0,0 +1,49 @@
+package com.customer.restaurantdeals.snapshot;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingTest {
+
+    @Test
+    void shardCount_BelowThreshold_Sequential() {
+        Sharding sharding = new Sharding(1000, 4);
+
+        assertEquals(1, sharding.shardCount(999));
+        assertFalse(sharding.isParallel(999));
+        assertEquals(4, sharding.shardCount(1000));
+        assertEquals(2, new Sharding(1, 4).shardCount(2));
+        assertFalse(Sharding.SEQUENTIAL.isParallel(Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    void map_ContiguousShardsInOrder() {
+        List<int[]> ranges = new Sharding(1, 4).map(10, (shard, from, to) -> new int[]{shard, from, to});
+
+        assertEquals(4, ranges.size());
+        int expectedFrom = 0;
+        for (int shard = 0; shard < ranges.size(); shard++) {
+            assertEquals(shard, ranges.get(shard)[0]);
+            assertEquals(expectedFrom, ranges.get(shard)[1]);
+            expectedFrom = ranges.get(shard)[2];
+        }
+        assertEquals(10, expectedFrom);
+    }
+
+    @Test
+    void map_RowsDecideShardCount() {
+        Sharding sharding = new Sharding(100, 8);
+
+        assertEquals(1, sharding.map(50, 99, (shard, from, to) -> shard).size());
+        assertEquals(8, sharding.map(50, 100, (shard, from, to) -> shard).size());
+        assertEquals(3, sharding.map(3, 100, (shard, from, to) -> shard).size());
+        assertEquals(List.of(0), sharding.map(0, 1000, (shard, from, to) -> to - from));
+    }
+
+    @Test
+    void flatten_KeepsShardOrder() {
+        assertEquals(List.of("a", "b", "c"), Sharding.flatten(List.of(List.of("a"), List.of("b", "c"))));
+    }
+}
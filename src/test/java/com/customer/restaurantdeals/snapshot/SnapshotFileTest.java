@@ -0,0 +1,273 @@
+package com.customer.restaurantdeals.snapshot;
+
+import com.customer.restaurantdeals.model.Deal;
+import com.customer.restaurantdeals.model.Restaurant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    private static final Instant FETCHED_AT = Instant.parse("2025-01-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_ThenRead_RestoresSnapshot() throws IOException {
+        FeedSnapshot snapshot = new FeedSnapshot.Builder().addAll(feed(50)).build(7, FETCHED_AT,
+                new FeedOrigin("\"v7\"", "Wed, 01 Jan 2025 09:00:00 GMT", "abc123", 4096, Duration.ofMillis(250)));
+        Path file = directory.resolve("feed.bin");
+
+        long bytes = SnapshotFile.write(snapshot, file);
+        FeedSnapshot restored = SnapshotFile.read(file, Sharding.SEQUENTIAL);
+
+        assertEquals(Files.size(file), bytes);
+        assertEquals(7, restored.getVersion());
+        assertEquals(FETCHED_AT, restored.getFetchedAt());
+        assertEquals("\"v7\"", restored.getOrigin().getETag());
+        assertEquals("Wed, 01 Jan 2025 09:00:00 GMT", restored.getOrigin().getLastModified());
+        assertEquals("abc123", restored.getOrigin().getContentHash());
+        assertEquals(4096, restored.getOrigin().getContentLength());
+        assertEquals(Duration.ofMillis(250), restored.getOrigin().getLoadTime());
+        assertEquals(snapshot.getPeakWindow().getStartMinute(), restored.getPeakWindow().getStartMinute());
+        assertEquals(snapshot.getPeakWindow().getEndMinute(), restored.getPeakWindow().getEndMinute());
+        assertEquals(snapshot.getPeakWindow().getActiveDeals(), restored.getPeakWindow().getActiveDeals());
+        assertSameStore(snapshot.getDealStore(), restored.getDealStore());
+        for (int minute = 0; minute < 24 * 60; minute += 17) {
+            assertArrayEquals(snapshot.getDealIndex().activeAt(minute), restored.getDealIndex().activeAt(minute));
+        }
+    }
+
+    @Test
+    void write_ThenRead_KeepsNullsAndMissingPeakWindow() throws IOException {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setDeals(List.of(new Deal()));
+        FeedSnapshot snapshot = new FeedSnapshot(1, FETCHED_AT, List.of(restaurant, new Restaurant()));
+        Path file = directory.resolve("feed.bin");
+
+        SnapshotFile.write(snapshot, file);
+        FeedSnapshot restored = SnapshotFile.read(file, Sharding.SEQUENTIAL);
+
+        assertNull(restored.getPeakWindow());
+        assertNull(restored.getOrigin().getETag());
+        assertNull(restored.getDealStore().restaurantName(0));
+        assertNull(restored.getDealStore().dealId(0));
+        assertSameStore(snapshot.getDealStore(), restored.getDealStore());
+    }
+
+    @Test
+    void write_ThenRead_KeepsSourcesOfMergedSnapshot() throws IOException {
+        FeedOrigin origin = new FeedOrigin("\"e1\"", null, "east", 100, Duration.ofMillis(5));
+        DealStore eastStore = DealStore.of(feed(20));
+        DealStore westStore = DealStore.of(feed(30));
+        FeedSnapshot snapshot = FeedSnapshot.of(4, FETCHED_AT, List.of(
+                new FeedSource("east", eastStore, origin, FETCHED_AT, false),
+                new FeedSource("west", westStore, FeedOrigin.UNKNOWN, FETCHED_AT.minusSeconds(60), true),
+                FeedSource.empty("north")), Sharding.SEQUENTIAL);
+        Path file = directory.resolve("feed.bin");
+
+        SnapshotFile.write(snapshot, file);
+        FeedSnapshot restored = SnapshotFile.read(file, Sharding.SEQUENTIAL);
+
+        assertSameStore(snapshot.getDealStore(), restored.getDealStore());
+        assertEquals(3, restored.getSources().size());
+        FeedSource east = restored.getSources().get(0);
+        FeedSource west = restored.getSources().get(1);
+        FeedSource north = restored.getSources().get(2);
+        assertEquals("east", east.getName());
+        assertEquals("\"e1\"", east.getOrigin().getETag());
+        assertFalse(east.isStale());
+        assertEquals(FETCHED_AT.minusSeconds(60), west.getFetchedAt());
+        assertTrue(west.isStale());
+        assertTrue(restored.isPartial());
+        assertNull(north.getFetchedAt());
+        assertSameStore(eastStore, east.getDealStore());
+        assertSameStore(westStore, west.getDealStore());
+        assertEquals(0, north.getDealStore().restaurantCount());
+        for (int i = 0; i < restored.getDealStore().size(); i++) {
+            assertEquals(snapshot.getDealStore().source(i), restored.getDealStore().source(i));
+            assertEquals(snapshot.getDealStore().stale(i), restored.getDealStore().stale(i));
+        }
+    }
+
+    @Test
+    void write_ThenRead_KeepsRowsSharedWithEarlierSource() throws IOException {
+        DealStore eastStore = DealStore.of(List.of(restaurant("r1", "East Diner", "d1", "e2")));
+        DealStore westStore = DealStore.of(List.of(restaurant("r1", "West Diner", "d1", "w2"),
+                restaurant("r2", "West Cafe", "w3")));
+        FeedOrigin westOrigin = new FeedOrigin("\"w1\"", null, "west", 200, Duration.ofMillis(5));
+        FeedSnapshot snapshot = FeedSnapshot.of(2, FETCHED_AT, List.of(
+                new FeedSource("east", eastStore, FeedOrigin.UNKNOWN, FETCHED_AT, false),
+                new FeedSource("west", westStore, westOrigin, FETCHED_AT, false)), Sharding.SEQUENTIAL);
+        Path file = directory.resolve("feed.bin");
+
+        SnapshotFile.write(snapshot, file);
+        FeedSnapshot restored = SnapshotFile.read(file, Sharding.SEQUENTIAL);
+
+        assertSameStore(snapshot.getDealStore(), restored.getDealStore());
+        assertEquals("East Diner", restored.getDealStore().restaurantName(0));
+        // A 304 for west keeps this part, so it must hold r1 and d1 as west sent them
+        DealStore west = restored.getSources().get(1).getDealStore();
+        assertSameStore(westStore, west);
+        assertEquals("West Diner", west.restaurantName(0));
+        assertEquals("d1", west.dealId(0));
+        assertEquals("\"w1\"", restored.getSources().get(1).getOrigin().getETag());
+        assertEquals("west", restored.getSources().get(1).getOrigin().getContentHash());
+        assertSameStore(eastStore, restored.getSources().get(0).getDealStore());
+    }
+
+    @Test
+    void write_LargerThanBuffer_RoundTrips() throws IOException {
+        FeedSnapshot snapshot = new FeedSnapshot(3, FETCHED_AT, feed(60_000));
+        Path file = directory.resolve("feed.bin");
+
+        SnapshotFile.write(snapshot, file);
+        FeedSnapshot restored = SnapshotFile.read(file, new Sharding(1000, 4));
+
+        assertTrue(Files.size(file) > 1 << 20);
+        assertSameStore(snapshot.getDealStore(), restored.getDealStore());
+        assertArrayEquals(snapshot.getDealIndex().activeAt(12 * 60), restored.getDealIndex().activeAt(12 * 60));
+    }
+
+    @Test
+    void write_ReplacesExistingFile() throws IOException {
+        Path file = directory.resolve("feed.bin");
+        SnapshotFile.write(new FeedSnapshot(1, FETCHED_AT, feed(5)), file);
+
+        SnapshotFile.write(new FeedSnapshot(2, FETCHED_AT, feed(3)), file);
+
+        assertEquals(2, SnapshotFile.read(file, Sharding.SEQUENTIAL).getVersion());
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void read_CorruptBody_Rejected() throws IOException {
+        Path file = directory.resolve("feed.bin");
+        SnapshotFile.write(new FeedSnapshot(1, FETCHED_AT, feed(5)), file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        IOException ex = assertThrows(IOException.class, () -> SnapshotFile.read(file, Sharding.SEQUENTIAL));
+        assertTrue(ex.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void read_OtherFormatVersion_Rejected() throws IOException {
+        Path file = directory.resolve("feed.bin");
+        SnapshotFile.write(new FeedSnapshot(1, FETCHED_AT, feed(5)), file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, SnapshotFile.FORMAT_VERSION + 1);
+        Files.write(file, bytes);
+
+        IOException ex = assertThrows(IOException.class, () -> SnapshotFile.read(file, Sharding.SEQUENTIAL));
+        assertTrue(ex.getMessage().contains("format version"));
+    }
+
+    @Test
+    void read_TruncatedOrForeignFile_Rejected() throws IOException {
+        Path file = directory.resolve("feed.bin");
+        SnapshotFile.write(new FeedSnapshot(1, FETCHED_AT, feed(5)), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(file, Sharding.SEQUENTIAL));
+
+        Files.writeString(file, "{\"restaurants\":[]}");
+        assertThrows(IOException.class, () -> SnapshotFile.read(file, Sharding.SEQUENTIAL));
+    }
+
+    private static void assertSameStore(DealStore expected, DealStore actual) {
+        assertEquals(expected.restaurantCount(), actual.restaurantCount());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.suburbCount(), actual.suburbCount());
+        for (int r = 0; r < expected.restaurantCount(); r++) {
+            assertEquals(expected.restaurantId(r), actual.restaurantId(r));
+            assertEquals(expected.restaurantName(r), actual.restaurantName(r));
+            assertEquals(expected.restaurantAddress1(r), actual.restaurantAddress1(r));
+            assertEquals(expected.restaurantSuburb(r), actual.restaurantSuburb(r));
+            assertEquals(expected.restaurantSuburbCode(r), actual.restaurantSuburbCode(r));
+            assertEquals(expected.restaurantOpen(r), actual.restaurantOpen(r));
+            assertEquals(expected.restaurantClose(r), actual.restaurantClose(r));
+            assertEquals(expected.latitude(r), actual.latitude(r));
+            assertEquals(expected.longitude(r), actual.longitude(r));
+            assertEquals(expected.firstPair(r + 1), actual.firstPair(r + 1));
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.restaurantOf(i), actual.restaurantOf(i));
+            assertEquals(expected.dealId(i), actual.dealId(i));
+            assertEquals(expected.discount(i), actual.discount(i));
+            assertEquals(expected.discountValue(i), actual.discountValue(i));
+            assertEquals(expected.dineIn(i), actual.dineIn(i));
+            assertEquals(expected.lightning(i), actual.lightning(i));
+            assertEquals(expected.qtyLeft(i), actual.qtyLeft(i));
+            assertEquals(expected.activeFrom(i), actual.activeFrom(i));
+            assertEquals(expected.activeTo(i), actual.activeTo(i));
+        }
+    }
+
+    private static Restaurant restaurant(String id, String name, String... dealIds) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setRestaurantObjectId(id);
+        restaurant.setRestaurantName(name);
+        restaurant.setRestaurantSuburb("Richmond");
+        restaurant.setRestaurantOpen(LocalTime.of(9, 0));
+        restaurant.setRestaurantClose(LocalTime.of(21, 0));
+        List<Deal> deals = new ArrayList<>();
+        for (String dealId : dealIds) {
+            Deal deal = new Deal();
+            deal.setDealObjectId(dealId);
+            deal.setDiscount("20% off");
+            deal.setQtyLeft(3);
+            deals.add(deal);
+        }
+        restaurant.setDeals(deals);
+        return restaurant;
+    }
+
+    private static List<Restaurant> feed(int restaurants) {
+        List<Restaurant> feed = new ArrayList<>();
+        for (int r = 0; r < restaurants; r++) {
+            Restaurant restaurant = new Restaurant();
+            restaurant.setRestaurantObjectId("r" + r);
+            restaurant.setRestaurantName("Name " + r % 7);
+            restaurant.setRestaurantAddress1(r + " High St");
+            restaurant.setRestaurantSuburb(r % 3 == 0 ? "Richmond" : "Carlton ü");
+            restaurant.setRestaurantOpen(LocalTime.of(6 + r % 5, 0));
+            restaurant.setRestaurantClose(LocalTime.of(18 + r % 5, 30));
+            if (r % 2 == 0) {
+                restaurant.setLatitude(-37.8 - r * 0.001);
+                restaurant.setLongitude(144.9 + r * 0.001);
+            }
+            List<Deal> deals = new ArrayList<>();
+            for (int d = 0; d < r % 4; d++) {
+                Deal deal = new Deal();
+                deal.setDealObjectId("d" + r + "-" + d);
+                deal.setDiscount((10 * (d + 1)) + "% off");
+                deal.setDineIn(d % 2 == 0);
+                deal.setLightning(r % 5 == 0);
+                deal.setQtyLeft(r % 11);
+                deal.setOpen(d == 1 ? LocalTime.of(11, 0) : null);
+                deal.setClose(d == 1 ? LocalTime.of(15, 0) : null);
+                deals.add(deal);
+            }
+            restaurant.setDeals(deals);
+            feed.add(restaurant);
+        }
+        return feed;
+    }
+}
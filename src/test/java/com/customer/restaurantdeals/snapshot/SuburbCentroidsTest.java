@@ -0,0 +1,39 @@
+package com.customer.restaurantdeals.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuburbCentroidsTest {
+
+    @Test
+    void read_SkipsCommentsAndMatchesIgnoringCase() throws IOException {
+        SuburbCentroids centroids = SuburbCentroids.read(new StringReader("""
+                # suburb,latitude,longitude
+                Richmond,-37.8183,144.9982
+
+                 Carlton , -37.8001 , 144.9671
+                St Kilda, VIC,-37.8676,144.9809
+                """));
+
+        assertEquals(3, centroids.size());
+        assertArrayEquals(new double[]{-37.8183, 144.9982}, centroids.find("RICHMOND"));
+        assertArrayEquals(new double[]{-37.8001, 144.9671}, centroids.find("carlton "));
+        assertArrayEquals(new double[]{-37.8676, 144.9809}, centroids.find("st kilda, vic"));
+        assertNull(centroids.find("Fitzroy"));
+        assertNull(centroids.find(null));
+    }
+
+    @Test
+    void read_InvalidLine_Rejected() {
+        for (String line : new String[]{"Richmond", "Richmond,-37.8", "Richmond,north,144.9", ",-37.8,144.9",
+                "Richmond,-97.8,144.9", "Richmond,0,0"}) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> SuburbCentroids.read(new StringReader("Carlton,-37.8,144.96\n" + line)), line);
+            assertTrue(ex.getMessage().contains("line 2"), ex.getMessage());
+        }
+    }
+}
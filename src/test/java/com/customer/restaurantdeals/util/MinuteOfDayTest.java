@@ -0,0 +1,48 @@
+package com.customer.restaurantdeals.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinuteOfDayTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("h:mma", Locale.ENGLISH);
+
+    @Test
+    void formatAndParse_MatchDateTimeFormatterForEveryMinute() {
+        for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute++) {
+            LocalTime time = LocalTime.of(minute / 60, minute % 60);
+            String expected = time.format(FORMATTER);
+
+            assertEquals(expected, MinuteOfDay.formatUpperCase(minute));
+            assertEquals(expected.toLowerCase(), MinuteOfDay.format(minute));
+            assertEquals(minute, MinuteOfDay.parse(expected));
+            assertEquals(minute, MinuteOfDay.parse(expected.toLowerCase()));
+            assertEquals(time, MinuteOfDay.toLocalTime(minute));
+        }
+    }
+
+    @Test
+    void parse_CharRange() {
+        char[] chars = "xx 12:05am yy".toCharArray();
+        assertEquals(5, MinuteOfDay.parse(chars, 3, 7));
+    }
+
+    @Test
+    void parse_InvalidInputs() {
+        for (String invalid : new String[]{"", "notATime", "13:00pm", "0:30am", "3:60pm", "3:0pm",
+                "3:00xm", "3:00pn", "03:00", "3.00pm", " 3:00pm", "123:00pm"}) {
+            assertEquals(MinuteOfDay.INVALID, MinuteOfDay.parse(invalid), invalid);
+        }
+    }
+
+    @Test
+    void ceilAndFloor_WithSeconds() {
+        assertEquals(61, MinuteOfDay.ceil(LocalTime.of(1, 0, 30)));
+        assertEquals(60, MinuteOfDay.floor(LocalTime.of(1, 0, 30)));
+        assertEquals(60, MinuteOfDay.ceil(LocalTime.of(1, 0)));
+    }
+}